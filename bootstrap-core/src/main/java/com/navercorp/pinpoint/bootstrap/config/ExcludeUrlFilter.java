@@ -16,64 +16,28 @@
 
 package com.navercorp.pinpoint.bootstrap.config;
 
-import com.navercorp.pinpoint.bootstrap.util.AntPathMatcher;
-import com.navercorp.pinpoint.bootstrap.util.PathMatcher;
-import com.navercorp.pinpoint.bootstrap.util.EqualsPathMatcher;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import com.navercorp.pinpoint.bootstrap.util.CompiledPathMatcher;
 
 /**
  * @author emeroad
  */
 public class ExcludeUrlFilter implements Filter<String> {
 
-    private final List<PathMatcher> excludeMatcherList;
+    // every pattern is compiled into a single matcher, so a request is not matched pattern by pattern
+    private final CompiledPathMatcher excludeMatcher;
 
     public ExcludeUrlFilter(String excludeFormat) {
         this(excludeFormat, ",");
     }
 
     public ExcludeUrlFilter(String excludeFormat, String separator) {
-        if (isEmpty(excludeFormat)) {
-            this.excludeMatcherList = Collections.emptyList();
-            return;
-        }
-        final String[] split = excludeFormat.split(separator);
-        final List<PathMatcher> buildList = new ArrayList<PathMatcher>();
-        for (String path : split) {
-            if (isEmpty(path)) {
-                continue;
-            }
-            path = path.trim();
-            if (path.isEmpty()) {
-                continue;
-            }
-            final PathMatcher pathMatcher = createPathMatcher(path);
-            buildList.add(pathMatcher);
-        }
-
-        this.excludeMatcherList = buildList;
-    }
-
-    protected PathMatcher createPathMatcher(String pattern) {
-        if (AntPathMatcher.isAntStylePattern(pattern)) {
-            return new AntPathMatcher(pattern);
-        }
-        return new EqualsPathMatcher(pattern);
-    }
-
-    private boolean isEmpty(String string) {
-        return string == null || string.isEmpty();
+        this.excludeMatcher = CompiledPathMatcher.compile(excludeFormat, separator);
     }
 
     @Override
     public boolean filter(String requestURI) {
-        for (PathMatcher excludePathMatcher : this.excludeMatcherList) {
-            if (excludePathMatcher.isMatched(requestURI)) {
-                return FILTERED;
-            }
+        if (excludeMatcher.isMatched(requestURI)) {
+            return FILTERED;
         }
         return false;
     }
@@ -81,7 +45,7 @@ public class ExcludeUrlFilter implements Filter<String> {
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("ExcludeUrlFilter{");
-        sb.append("excludeMatcherList=").append(excludeMatcherList);
+        sb.append("excludeMatcher=").append(excludeMatcher);
         sb.append('}');
         return sb.toString();
     }
@@ -36,6 +36,7 @@ import com.navercorp.pinpoint.common.util.PropertyUtils;
 public class ProfilerConfig {
     private static final Logger logger = Logger.getLogger(ProfilerConfig.class.getName());
     private static final String DEFAULT_IP = "127.0.0.1";
+    private static final String DEFAULT_SENDER_SPILL_DIRECTORY = System.getProperty("java.io.tmpdir") + "/pinpoint-spill";
 
     private final Properties properties;
     private final PropertyPlaceholderHelper propertyPlaceholderHelper = new PropertyPlaceholderHelper("${", "}");
@@ -91,6 +92,8 @@ public class ProfilerConfig {
     private String collectorTcpServerIp = DEFAULT_IP;
     private int collectorTcpServerPort = 9994;
 
+    private boolean collectorBalanceEnable = false;
+
     private int spanDataSenderWriteQueueSize = 1024 * 5;
     private int spanDataSenderSocketSendBufferSize = 1024 * 64 * 16;
     private int spanDataSenderSocketTimeout = 1000 * 3;
@@ -102,6 +105,15 @@ public class ProfilerConfig {
     private int statDataSenderChunkSize = 1024 * 16;
     
     private boolean tcpDataSenderCommandAcceptEnable = false;
+    private boolean tcpDataSenderChannelPoolEnable = false;
+    private int tcpDataSenderWriteBufferLowWaterMark = 1024 * 32;
+    private int tcpDataSenderWriteBufferHighWaterMark = 1024 * 64;
+
+    private boolean senderSpillEnable = false;
+    private String senderSpillDirectory = DEFAULT_SENDER_SPILL_DIRECTORY;
+    private int senderSpillSegmentSize = 1024 * 1024 * 4;
+    private long senderSpillMaxSize = 1024 * 1024 * 64;
+    private int senderSpillReplayRate = 200;
 
     private boolean traceAgentActiveThread = true;
 
@@ -171,6 +183,9 @@ public class ProfilerConfig {
     private boolean logbackLoggingTransactionInfo;
     
     private boolean propagateInterceptorException = false;
+    private boolean interceptorStaticHolderDispatch = false;
+
+    private boolean compactTraceHeader = false;
 
     public ProfilerConfig() {
         this.properties = new Properties();
@@ -208,6 +223,10 @@ public class ProfilerConfig {
         return collectorTcpServerPort;
     }
 
+    public boolean isCollectorBalanceEnable() {
+        return collectorBalanceEnable;
+    }
+
     public int getStatDataSenderWriteQueueSize() {
         return statDataSenderWriteQueueSize;
     }
@@ -232,6 +251,38 @@ public class ProfilerConfig {
         return tcpDataSenderCommandAcceptEnable;
     }
 
+    public boolean isTcpDataSenderChannelPoolEnable() {
+        return tcpDataSenderChannelPoolEnable;
+    }
+
+    public int getTcpDataSenderWriteBufferLowWaterMark() {
+        return tcpDataSenderWriteBufferLowWaterMark;
+    }
+
+    public int getTcpDataSenderWriteBufferHighWaterMark() {
+        return tcpDataSenderWriteBufferHighWaterMark;
+    }
+
+    public boolean isSenderSpillEnable() {
+        return senderSpillEnable;
+    }
+
+    public String getSenderSpillDirectory() {
+        return senderSpillDirectory;
+    }
+
+    public int getSenderSpillSegmentSize() {
+        return senderSpillSegmentSize;
+    }
+
+    public long getSenderSpillMaxSize() {
+        return senderSpillMaxSize;
+    }
+
+    public int getSenderSpillReplayRate() {
+        return senderSpillReplayRate;
+    }
+
     public boolean isTraceAgentActiveThread() {
         return traceAgentActiveThread;
     }
@@ -429,6 +480,14 @@ public class ProfilerConfig {
         return propagateInterceptorException;
     }
 
+    public boolean isInterceptorStaticHolderDispatch() {
+        return interceptorStaticHolderDispatch;
+    }
+
+    public boolean isCompactTraceHeader() {
+        return compactTraceHeader;
+    }
+
     // for test
     void readPropertyValues() {
         // TODO : use Properties' default value instead of using a temp variable.
@@ -446,6 +505,8 @@ public class ProfilerConfig {
         this.collectorTcpServerIp = readString("profiler.collector.tcp.ip", DEFAULT_IP, placeHolderResolver);
         this.collectorTcpServerPort = readInt("profiler.collector.tcp.port", 9994);
 
+        this.collectorBalanceEnable = readBoolean("profiler.collector.balance.enable", false);
+
         this.spanDataSenderWriteQueueSize = readInt("profiler.spandatasender.write.queue.size", 1024 * 5);
         this.spanDataSenderSocketSendBufferSize = readInt("profiler.spandatasender.socket.sendbuffersize", 1024 * 64 * 16);
         this.spanDataSenderSocketTimeout = readInt("profiler.spandatasender.socket.timeout", 1000 * 3);
@@ -457,6 +518,15 @@ public class ProfilerConfig {
         this.statDataSenderChunkSize = readInt("profiler.statdatasender.chunk.size", 1024 * 16);
 
         this.tcpDataSenderCommandAcceptEnable = readBoolean("profiler.tcpdatasender.command.accept.enable", false);
+        this.tcpDataSenderChannelPoolEnable = readBoolean("profiler.tcpdatasender.channel.pool.enable", false);
+        this.tcpDataSenderWriteBufferLowWaterMark = readInt("profiler.tcpdatasender.writebuffer.lowwatermark", 1024 * 32);
+        this.tcpDataSenderWriteBufferHighWaterMark = readInt("profiler.tcpdatasender.writebuffer.highwatermark", 1024 * 64);
+
+        this.senderSpillEnable = readBoolean("profiler.sender.spill.enable", false);
+        this.senderSpillDirectory = readString("profiler.sender.spill.dir", DEFAULT_SENDER_SPILL_DIRECTORY, placeHolderResolver);
+        this.senderSpillSegmentSize = readInt("profiler.sender.spill.segment.size", 1024 * 1024 * 4);
+        this.senderSpillMaxSize = readLong("profiler.sender.spill.max.size", 1024 * 1024 * 64);
+        this.senderSpillReplayRate = readInt("profiler.sender.spill.replay.rate", 200);
 
         this.traceAgentActiveThread = readBoolean("profiler.pinpoint.activethread", true);
 
@@ -556,6 +626,8 @@ public class ProfilerConfig {
         }
         
         this.propagateInterceptorException = readBoolean("profiler.interceptor.exception.propagate", false);
+        this.interceptorStaticHolderDispatch = readBoolean("profiler.interceptor.dispatch.static.holder", false);
+        this.compactTraceHeader = readBoolean("profiler.tracecontext.header.compact", false);
 
         logger.info("configuration loaded successfully.");
     }
@@ -652,6 +724,8 @@ public class ProfilerConfig {
         builder.append(collectorTcpServerIp);
         builder.append(", collectorTcpServerPort=");
         builder.append(collectorTcpServerPort);
+        builder.append(", collectorBalanceEnable=");
+        builder.append(collectorBalanceEnable);
         builder.append(", spanDataSenderWriteQueueSize=");
         builder.append(spanDataSenderWriteQueueSize);
         builder.append(", spanDataSenderSocketSendBufferSize=");
@@ -670,6 +744,22 @@ public class ProfilerConfig {
         builder.append(statDataSenderChunkSize);
         builder.append(", tcpDataSenderCommandAcceptEnable=");
         builder.append(tcpDataSenderCommandAcceptEnable);
+        builder.append(", tcpDataSenderChannelPoolEnable=");
+        builder.append(tcpDataSenderChannelPoolEnable);
+        builder.append(", tcpDataSenderWriteBufferLowWaterMark=");
+        builder.append(tcpDataSenderWriteBufferLowWaterMark);
+        builder.append(", tcpDataSenderWriteBufferHighWaterMark=");
+        builder.append(tcpDataSenderWriteBufferHighWaterMark);
+        builder.append(", senderSpillEnable=");
+        builder.append(senderSpillEnable);
+        builder.append(", senderSpillDirectory=");
+        builder.append(senderSpillDirectory);
+        builder.append(", senderSpillSegmentSize=");
+        builder.append(senderSpillSegmentSize);
+        builder.append(", senderSpillMaxSize=");
+        builder.append(senderSpillMaxSize);
+        builder.append(", senderSpillReplayRate=");
+        builder.append(senderSpillReplayRate);
         builder.append(", traceAgentActiveThread=");
         builder.append(traceAgentActiveThread);
         builder.append(", callStackMaxDepth=");
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.context;
+
+import com.navercorp.pinpoint.common.util.BytesUtils;
+
+/**
+ * Trace context of a remote call packed into the single {@link Header#HTTP_TRACE_CONTEXT} header.
+ *
+ * The value is base64url without padding, of a version byte followed by :
+ * agentId, agentStartTime, transactionSequence, parentSpanId, spanId, flags, parentApplicationType, parentApplicationName, host.
+ * Numbers are varints (zigzag for the signed ones), span ids are fixed 8 bytes as they are random.
+ * Strings are UTF-8 prefixed with their length + 1, 0 being null.
+ *
+ * The parser decodes the characters of the header straight into bytes and creates no string but the fields themselves.
+ * A malformed value is not an error : {@link #parse(String)} returns null and the legacy headers are read instead.
+ */
+public final class CompactTraceHeader {
+
+    public static final byte VERSION = 1;
+
+    static final int MAX_VALUE_LENGTH = 1024;
+
+    private static final char[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] BASE64_URL_INDEX = createIndex();
+
+    private final String agentId;
+    private final long agentStartTime;
+    private final long transactionSequence;
+    private final long parentSpanId;
+    private final long spanId;
+    private final short flags;
+    private final short parentApplicationType;
+    private final String parentApplicationName;
+    private final String host;
+
+    private CompactTraceHeader(String agentId, long agentStartTime, long transactionSequence, long parentSpanId, long spanId, short flags,
+                               short parentApplicationType, String parentApplicationName, String host) {
+        this.agentId = agentId;
+        this.agentStartTime = agentStartTime;
+        this.transactionSequence = transactionSequence;
+        this.parentSpanId = parentSpanId;
+        this.spanId = spanId;
+        this.flags = flags;
+        this.parentApplicationType = parentApplicationType;
+        this.parentApplicationName = parentApplicationName;
+        this.host = host;
+    }
+
+    private static byte[] createIndex() {
+        final byte[] index = new byte[128];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = -1;
+        }
+        for (int i = 0; i < BASE64_URL.length; i++) {
+            index[BASE64_URL[i]] = (byte) i;
+        }
+        return index;
+    }
+
+    /**
+     * @param traceId trace id of the remote call, i.e. the next trace id of the caller
+     * @param host may be null
+     */
+    public static String encode(TraceId traceId, String parentApplicationName, short parentApplicationType, String host) {
+        if (traceId == null) {
+            throw new NullPointerException("traceId must not be null");
+        }
+        final byte[] agentIdBytes = BytesUtils.toBytes(traceId.getAgentId());
+        final byte[] parentApplicationNameBytes = BytesUtils.toBytes(parentApplicationName);
+        final byte[] hostBytes = BytesUtils.toBytes(host);
+
+        final byte[] buffer = new byte[1 + (BytesUtils.VLONG_MAX_SIZE * 2) + (BytesUtils.LONG_BYTE_LENGTH * 2) + (BytesUtils.VINT_MAX_SIZE * 5)
+                + length(agentIdBytes) + length(parentApplicationNameBytes) + length(hostBytes)];
+        int offset = 0;
+        buffer[offset++] = VERSION;
+        offset = writeString(agentIdBytes, buffer, offset);
+        offset = BytesUtils.writeVar64(traceId.getAgentStartTime(), buffer, offset);
+        offset = BytesUtils.writeVar64(traceId.getTransactionSequence(), buffer, offset);
+        offset = BytesUtils.writeLong(traceId.getParentSpanId(), buffer, offset);
+        offset = BytesUtils.writeLong(traceId.getSpanId(), buffer, offset);
+        offset = BytesUtils.writeSVar32(traceId.getFlags(), buffer, offset);
+        offset = BytesUtils.writeSVar32(parentApplicationType, buffer, offset);
+        offset = writeString(parentApplicationNameBytes, buffer, offset);
+        offset = writeString(hostBytes, buffer, offset);
+        return toBase64Url(buffer, offset);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static int writeString(byte[] bytes, byte[] buffer, int offset) {
+        if (bytes == null) {
+            return BytesUtils.writeVar32(0, buffer, offset);
+        }
+        offset = BytesUtils.writeVar32(bytes.length + 1, buffer, offset);
+        return BytesUtils.writeBytes(buffer, offset, bytes);
+    }
+
+    private static String toBase64Url(byte[] bytes, int length) {
+        final char[] chars = new char[(length * 4 + 2) / 3];
+        int charIndex = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            final int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | (bytes[i + 2] & 0xff);
+            chars[charIndex++] = BASE64_URL[bits >>> 18];
+            chars[charIndex++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            chars[charIndex++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            chars[charIndex++] = BASE64_URL[bits & 0x3f];
+        }
+        final int remaining = length - i;
+        if (remaining == 1) {
+            final int bits = (bytes[i] & 0xff) << 16;
+            chars[charIndex++] = BASE64_URL[bits >>> 18];
+            chars[charIndex++] = BASE64_URL[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            final int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8;
+            chars[charIndex++] = BASE64_URL[bits >>> 18];
+            chars[charIndex++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            chars[charIndex++] = BASE64_URL[(bits >>> 6) & 0x3f];
+        }
+        return new String(chars, 0, charIndex);
+    }
+
+    /**
+     * @return null if the value is null, of an unknown version or malformed
+     */
+    public static CompactTraceHeader parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        final byte[] bytes = fromBase64Url(value);
+        if (bytes == null || bytes.length == 0 || bytes[0] != VERSION) {
+            return null;
+        }
+        final Reader reader = new Reader(bytes, 1);
+        final String agentId = reader.readString();
+        final long agentStartTime = reader.readVar64();
+        final long transactionSequence = reader.readVar64();
+        final long parentSpanId = reader.readLong();
+        final long spanId = reader.readLong();
+        final int flags = BytesUtils.zigzagToInt((int) reader.readVar64());
+        final int parentApplicationType = BytesUtils.zigzagToInt((int) reader.readVar64());
+        final String parentApplicationName = reader.readString();
+        final String host = reader.readString();
+        if (reader.isMalformed() || agentId == null) {
+            return null;
+        }
+        return new CompactTraceHeader(agentId, agentStartTime, transactionSequence, parentSpanId, spanId, (short) flags,
+                (short) parentApplicationType, parentApplicationName, host);
+    }
+
+    private static byte[] fromBase64Url(String value) {
+        final int length = value.length();
+        if (length > MAX_VALUE_LENGTH || length % 4 == 1) {
+            return null;
+        }
+        final byte[] bytes = new byte[length * 3 / 4];
+        int byteIndex = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final int sextet = c < BASE64_URL_INDEX.length ? BASE64_URL_INDEX[c] : -1;
+            if (sextet < 0) {
+                return null;
+            }
+            bits = (bits << 6) | sextet;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                bytes[byteIndex++] = (byte) (bits >>> bitCount);
+            }
+        }
+        return bytes;
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public long getAgentStartTime() {
+        return agentStartTime;
+    }
+
+    public long getTransactionSequence() {
+        return transactionSequence;
+    }
+
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    public short getFlags() {
+        return flags;
+    }
+
+    public short getParentApplicationType() {
+        return parentApplicationType;
+    }
+
+    /**
+     * @return null if the caller did not send it
+     */
+    public String getParentApplicationName() {
+        return parentApplicationName;
+    }
+
+    /**
+     * @return null if the caller did not send it
+     */
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTraceHeader{" +
+                "agentId='" + agentId + '\'' +
+                ", agentStartTime=" + agentStartTime +
+                ", transactionSequence=" + transactionSequence +
+                ", parentSpanId=" + parentSpanId +
+                ", spanId=" + spanId +
+                ", flags=" + flags +
+                ", parentApplicationType=" + parentApplicationType +
+                ", parentApplicationName='" + parentApplicationName + '\'' +
+                ", host='" + host + '\'' +
+                '}';
+    }
+
+    /**
+     * Reads past the end set the malformed flag instead of throwing, the caller checks it once at the end.
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private int offset;
+        private boolean malformed;
+
+        private Reader(byte[] bytes, int offset) {
+            this.bytes = bytes;
+            this.offset = offset;
+        }
+
+        private long readVar64() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (offset >= bytes.length) {
+                    malformed = true;
+                    return 0;
+                }
+                final byte b = bytes[offset++];
+                result |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            malformed = true;
+            return 0;
+        }
+
+        private long readLong() {
+            if (offset + BytesUtils.LONG_BYTE_LENGTH > bytes.length) {
+                malformed = true;
+                return 0;
+            }
+            final long value = BytesUtils.bytesToLong(bytes, offset);
+            offset += BytesUtils.LONG_BYTE_LENGTH;
+            return value;
+        }
+
+        private String readString() {
+            final long lengthPlusOne = readVar64();
+            if (malformed || lengthPlusOne == 0) {
+                return null;
+            }
+            final long length = lengthPlusOne - 1;
+            if (length < 0 || length > bytes.length - offset) {
+                malformed = true;
+                return null;
+            }
+            final String value = BytesUtils.toString(bytes, offset, (int) length);
+            offset += (int) length;
+            return value;
+        }
+
+        private boolean isMalformed() {
+            return malformed;
+        }
+    }
+}
@@ -68,6 +68,8 @@ public interface TraceContext {
 
     TraceId createTraceId(String transactionId, long parentSpanID, long spanID, short flags);
 
+    TraceId createTraceId(String agentId, long agentStartTime, long transactionSequence, long parentSpanID, long spanID, short flags);
+
     Trace disableSampling();
 
     ProfilerConfig getProfilerConfig();
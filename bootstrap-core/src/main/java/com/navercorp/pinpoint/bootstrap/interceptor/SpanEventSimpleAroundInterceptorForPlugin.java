@@ -20,6 +20,7 @@ import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
 import com.navercorp.pinpoint.bootstrap.context.Trace;
 import com.navercorp.pinpoint.bootstrap.context.TraceContext;
+import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetArity;
 import com.navercorp.pinpoint.bootstrap.logging.PLogger;
 import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 
@@ -27,16 +28,45 @@ import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
  * @author emeroad
  * @author jaehong.kim
  */
-public abstract class SpanEventSimpleAroundInterceptorForPlugin implements SimpleAroundInterceptor {
+@TargetArity
+public abstract class SpanEventSimpleAroundInterceptorForPlugin implements SimpleAroundInterceptor, AroundInterceptor1, AroundInterceptor2, AroundInterceptor3, AroundInterceptor4, AroundInterceptor5 {
     protected final PLogger logger = PLoggerFactory.getLogger(getClass());
     protected final boolean isDebug = logger.isDebugEnabled();
 
     protected final MethodDescriptor methodDescriptor;
     protected final TraceContext traceContext;
 
+    // arguments are only read by a trace, unless the subclass overrides the methods which receive them without a trace
+    private final boolean lazyArguments;
+
     protected SpanEventSimpleAroundInterceptorForPlugin(TraceContext traceContext, MethodDescriptor descriptor) {
         this.traceContext = traceContext;
         this.methodDescriptor = descriptor;
+        this.lazyArguments = !isOverridden("before", Object.class, Object[].class)
+                && !isOverridden("after", Object.class, Object[].class, Object.class, Throwable.class)
+                && !isOverridden("prepareBeforeTrace", Object.class, Object[].class)
+                && !isOverridden("prepareAfterTrace", Object.class, Object[].class, Object.class, Throwable.class);
+    }
+
+    private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+        for (Class<?> clazz = getClass(); clazz != SpanEventSimpleAroundInterceptorForPlugin.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not declared by this class
+            } catch (SecurityException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean readArguments() {
+        if (!lazyArguments || isDebug) {
+            return true;
+        }
+        return traceContext.currentTraceObject() != null;
     }
 
     @Override
@@ -105,6 +135,76 @@ public abstract class SpanEventSimpleAroundInterceptorForPlugin implements Simpl
 
     protected abstract void doInAfterTrace(final SpanEventRecorder recorder, final Object target, final Object[] args, final Object result, Throwable throwable);
 
+    @Override
+    public void before(Object target, Object arg0) {
+        if (readArguments()) {
+            before(target, new Object[] {arg0});
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0) {
+        if (readArguments()) {
+            after(target, new Object[] {arg0}, result, throwable);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1) {
+        if (readArguments()) {
+            before(target, new Object[] {arg0, arg1});
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1) {
+        if (readArguments()) {
+            after(target, new Object[] {arg0, arg1}, result, throwable);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1, Object arg2) {
+        if (readArguments()) {
+            before(target, new Object[] {arg0, arg1, arg2});
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1, Object arg2) {
+        if (readArguments()) {
+            after(target, new Object[] {arg0, arg1, arg2}, result, throwable);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1, Object arg2, Object arg3) {
+        if (readArguments()) {
+            before(target, new Object[] {arg0, arg1, arg2, arg3});
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1, Object arg2, Object arg3) {
+        if (readArguments()) {
+            after(target, new Object[] {arg0, arg1, arg2, arg3}, result, throwable);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (readArguments()) {
+            before(target, new Object[] {arg0, arg1, arg2, arg3, arg4});
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (readArguments()) {
+            after(target, new Object[] {arg0, arg1, arg2, arg3, arg4}, result, throwable);
+        }
+    }
+
     protected MethodDescriptor getMethodDescriptor() {
         return methodDescriptor;
     }
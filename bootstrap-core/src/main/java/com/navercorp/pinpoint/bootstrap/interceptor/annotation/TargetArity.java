@@ -0,0 +1,46 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.interceptor.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor1;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor5;
+import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
+
+/**
+ * Hints that the annotated {@link SimpleAroundInterceptor} also accepts the arguments of its target methods one by one,
+ * through {@link AroundInterceptor1} ... {@link AroundInterceptor5}.
+ * 
+ * The instrumented methods then call the arity specialized methods, and no argument array is created on each call.
+ * The interceptor creates it only when it reads the arguments.
+ * Target methods without parameters, with more than {@link #value()} parameters or whose arity is not implemented
+ * by the interceptor are still called with an argument array.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface TargetArity {
+    /**
+     * Maximum number of parameters passed one by one. At most 5.
+     */
+    int value() default 5;
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.interceptor.group;
+
+import com.navercorp.pinpoint.bootstrap.interceptor.AfterInterceptor1;
+import com.navercorp.pinpoint.bootstrap.interceptor.AfterInterceptor2;
+import com.navercorp.pinpoint.bootstrap.interceptor.AfterInterceptor3;
+import com.navercorp.pinpoint.bootstrap.interceptor.AfterInterceptor4;
+import com.navercorp.pinpoint.bootstrap.interceptor.AfterInterceptor5;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor1;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor2;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor3;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor4;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor5;
+import com.navercorp.pinpoint.bootstrap.interceptor.BeforeInterceptor1;
+import com.navercorp.pinpoint.bootstrap.interceptor.BeforeInterceptor2;
+import com.navercorp.pinpoint.bootstrap.interceptor.BeforeInterceptor3;
+import com.navercorp.pinpoint.bootstrap.interceptor.BeforeInterceptor4;
+import com.navercorp.pinpoint.bootstrap.interceptor.BeforeInterceptor5;
+import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
+import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetArity;
+import com.navercorp.pinpoint.bootstrap.logging.PLogger;
+import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
+
+/**
+ * {@link GroupedSimpleAroundInterceptor} of a {@link TargetArity} interceptor, which keeps the arity specialized calls.
+ * An arity which the delegate does not accept is passed as an argument array.
+ */
+@TargetArity
+public class GroupedArityAroundInterceptor implements SimpleAroundInterceptor, AroundInterceptor1, AroundInterceptor2, AroundInterceptor3, AroundInterceptor4, AroundInterceptor5 {
+    private final PLogger logger = PLoggerFactory.getLogger(getClass());
+    private final boolean debugEnabled = logger.isDebugEnabled();
+
+    private final SimpleAroundInterceptor delegate;
+    private final int maxArity;
+    private final InterceptorGroup group;
+    private final ExecutionPolicy policy;
+
+    public GroupedArityAroundInterceptor(SimpleAroundInterceptor delegate, InterceptorGroup group, ExecutionPolicy policy) {
+        this.delegate = delegate;
+        final TargetArity targetArity = delegate.getClass().getAnnotation(TargetArity.class);
+        this.maxArity = targetArity == null ? 0 : targetArity.value();
+        this.group = group;
+        this.policy = policy;
+    }
+
+    private boolean tryBefore() {
+        final InterceptorGroupInvocation transaction = group.getCurrentInvocation();
+        
+        if (transaction.tryEnter(policy)) {
+            return true;
+        }
+        if (debugEnabled) {
+            logger.debug("tryBefore() returns false: interceptorGroupTransaction: {}, executionPoint: {}. Skip interceptor {}", new Object[] {transaction, policy, delegate.getClass()} );
+        }
+        return false;
+    }
+
+    private InterceptorGroupInvocation tryAfter() {
+        final InterceptorGroupInvocation transaction = group.getCurrentInvocation();
+        
+        if (transaction.canLeave(policy)) {
+            return transaction;
+        }
+        if (debugEnabled) {
+            logger.debug("tryAfter() returns false: interceptorGroupTransaction: {}, executionPoint: {}. Skip interceptor {}", new Object[] {transaction, policy, delegate.getClass()} );
+        }
+        return null;
+    }
+
+    @Override
+    public void before(Object target, Object[] args) {
+        if (tryBefore()) {
+            delegate.before(target, args);
+        }
+    }
+
+    @Override
+    public void after(Object target, Object[] args, Object result, Throwable throwable) {
+        final InterceptorGroupInvocation transaction = tryAfter();
+        if (transaction != null) {
+            delegate.after(target, args, result, throwable);
+            transaction.leave(policy);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0) {
+        if (tryBefore()) {
+            if (maxArity >= 1 && delegate instanceof BeforeInterceptor1) {
+                ((BeforeInterceptor1) delegate).before(target, arg0);
+            } else {
+                delegate.before(target, new Object[] {arg0});
+            }
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0) {
+        final InterceptorGroupInvocation transaction = tryAfter();
+        if (transaction != null) {
+            if (maxArity >= 1 && delegate instanceof AfterInterceptor1) {
+                ((AfterInterceptor1) delegate).after(target, result, throwable, arg0);
+            } else {
+                delegate.after(target, new Object[] {arg0}, result, throwable);
+            }
+            transaction.leave(policy);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1) {
+        if (tryBefore()) {
+            if (maxArity >= 2 && delegate instanceof BeforeInterceptor2) {
+                ((BeforeInterceptor2) delegate).before(target, arg0, arg1);
+            } else {
+                delegate.before(target, new Object[] {arg0, arg1});
+            }
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1) {
+        final InterceptorGroupInvocation transaction = tryAfter();
+        if (transaction != null) {
+            if (maxArity >= 2 && delegate instanceof AfterInterceptor2) {
+                ((AfterInterceptor2) delegate).after(target, result, throwable, arg0, arg1);
+            } else {
+                delegate.after(target, new Object[] {arg0, arg1}, result, throwable);
+            }
+            transaction.leave(policy);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1, Object arg2) {
+        if (tryBefore()) {
+            if (maxArity >= 3 && delegate instanceof BeforeInterceptor3) {
+                ((BeforeInterceptor3) delegate).before(target, arg0, arg1, arg2);
+            } else {
+                delegate.before(target, new Object[] {arg0, arg1, arg2});
+            }
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1, Object arg2) {
+        final InterceptorGroupInvocation transaction = tryAfter();
+        if (transaction != null) {
+            if (maxArity >= 3 && delegate instanceof AfterInterceptor3) {
+                ((AfterInterceptor3) delegate).after(target, result, throwable, arg0, arg1, arg2);
+            } else {
+                delegate.after(target, new Object[] {arg0, arg1, arg2}, result, throwable);
+            }
+            transaction.leave(policy);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1, Object arg2, Object arg3) {
+        if (tryBefore()) {
+            if (maxArity >= 4 && delegate instanceof BeforeInterceptor4) {
+                ((BeforeInterceptor4) delegate).before(target, arg0, arg1, arg2, arg3);
+            } else {
+                delegate.before(target, new Object[] {arg0, arg1, arg2, arg3});
+            }
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1, Object arg2, Object arg3) {
+        final InterceptorGroupInvocation transaction = tryAfter();
+        if (transaction != null) {
+            if (maxArity >= 4 && delegate instanceof AfterInterceptor4) {
+                ((AfterInterceptor4) delegate).after(target, result, throwable, arg0, arg1, arg2, arg3);
+            } else {
+                delegate.after(target, new Object[] {arg0, arg1, arg2, arg3}, result, throwable);
+            }
+            transaction.leave(policy);
+        }
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        if (tryBefore()) {
+            if (maxArity >= 5 && delegate instanceof BeforeInterceptor5) {
+                ((BeforeInterceptor5) delegate).before(target, arg0, arg1, arg2, arg3, arg4);
+            } else {
+                delegate.before(target, new Object[] {arg0, arg1, arg2, arg3, arg4});
+            }
+        }
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        final InterceptorGroupInvocation transaction = tryAfter();
+        if (transaction != null) {
+            if (maxArity >= 5 && delegate instanceof AfterInterceptor5) {
+                ((AfterInterceptor5) delegate).after(target, result, throwable, arg0, arg1, arg2, arg3, arg4);
+            } else {
+                delegate.after(target, new Object[] {arg0, arg1, arg2, arg3, arg4}, result, throwable);
+            }
+            transaction.leave(policy);
+        }
+    }
+}
@@ -14,13 +14,13 @@
  */
 package com.navercorp.pinpoint.bootstrap.plugin.jdbc;
 
-import java.util.Map;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueRecorder;
 
 /**
  * @author Jongho Moon
  *
  */
 public interface BindValueAccessor {
-    public void _$PINPOINT$_setBindValue(Map<Integer, String> map);
-    public Map<Integer, String> _$PINPOINT$_getBindValue();
+    public void _$PINPOINT$_setBindValue(BindValueRecorder bindValue);
+    public BindValueRecorder _$PINPOINT$_getBindValue();
 }
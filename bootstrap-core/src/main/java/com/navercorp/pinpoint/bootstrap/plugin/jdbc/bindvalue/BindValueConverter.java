@@ -107,4 +107,11 @@ public class BindValueConverter {
         return converter.convert0(methodName, args);
     }
 
+    /**
+     * @return null if the method does not bind a value
+     */
+    public static Converter getConverter(String methodName) {
+        return converter.convertermap.get(methodName);
+    }
+
 }
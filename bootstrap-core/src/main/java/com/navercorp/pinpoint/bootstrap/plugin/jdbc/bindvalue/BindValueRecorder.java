@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue;
+
+import java.util.Arrays;
+
+import com.navercorp.pinpoint.bootstrap.util.StringUtils;
+
+/**
+ * Bind values of a PreparedStatement, kept as they are set and converted to a string only when the statement is executed.
+ *
+ * Values are stored in slots addressed by the parameterIndex. Numbers and booleans are unboxed into a long slot,
+ * so that no boxed value or string is kept per bind. Other values are kept with the arguments of the set method
+ * and converted by the {@link Converter} of the method.
+ * The slots are reused by {@link #clear()} for the next execution of the statement.
+ *
+ * Not thread safe, as the PreparedStatement itself.
+ */
+public class BindValueRecorder {
+
+    private static final int DEFAULT_CAPACITY = 8;
+    // do not keep the slots of a huge statement alive for the statement's lifetime
+    private static final int MAX_RETAINED_CAPACITY = 256;
+
+    private static final byte EMPTY = 0;
+    private static final byte ARGS = 1;
+    private static final byte LONG = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte FLOAT = 4;
+    private static final byte DOUBLE = 5;
+
+    private byte[] kinds;
+    private long[] primitives;
+    private Converter[] converters;
+    private Object[][] args;
+
+    // highest parameterIndex recorded
+    private int size;
+
+    public BindValueRecorder() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        this.kinds = new byte[capacity];
+        this.primitives = new long[capacity];
+        this.converters = new Converter[capacity];
+        this.args = new Object[capacity][];
+    }
+
+    /**
+     * @param parameterIndex the first parameter is 1, as in PreparedStatement
+     * @param methodName set method of PreparedStatement
+     * @param args arguments of the set method. args[1] is the value
+     */
+    public void record(int parameterIndex, String methodName, Object[] args) {
+        if (parameterIndex < 1) {
+            // invalid index. PreparedStatement first parameterIndex is 1
+            return;
+        }
+        final Converter converter = BindValueConverter.getConverter(methodName);
+        if (converter == null) {
+            return;
+        }
+        final int slot = parameterIndex - 1;
+        ensureCapacity(parameterIndex);
+        if (parameterIndex > size) {
+            size = parameterIndex;
+        }
+
+        if (converter instanceof SimpleTypeConverter && args != null && args.length == 2) {
+            final Object value = args[1];
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                setPrimitive(slot, LONG, ((Number) value).longValue());
+                return;
+            }
+            if (value instanceof Boolean) {
+                setPrimitive(slot, BOOLEAN, (Boolean) value ? 1 : 0);
+                return;
+            }
+            if (value instanceof Double) {
+                setPrimitive(slot, DOUBLE, Double.doubleToRawLongBits((Double) value));
+                return;
+            }
+            if (value instanceof Float) {
+                setPrimitive(slot, FLOAT, Float.floatToRawIntBits((Float) value));
+                return;
+            }
+        }
+        this.kinds[slot] = ARGS;
+        this.converters[slot] = converter;
+        this.args[slot] = args;
+    }
+
+    private void setPrimitive(int slot, byte kind, long value) {
+        this.kinds[slot] = kind;
+        this.primitives[slot] = value;
+        this.converters[slot] = null;
+        this.args[slot] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= kinds.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, kinds.length * 2);
+        this.kinds = Arrays.copyOf(kinds, newCapacity);
+        this.primitives = Arrays.copyOf(primitives, newCapacity);
+        this.converters = Arrays.copyOf(converters, newCapacity);
+        this.args = Arrays.copyOf(args, newCapacity);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Converts the recorded values, same as {@link BindValueUtils#bindValueToString(String[], int)}.
+     * Values after the limit are not converted.
+     */
+    public String toBindValueString(int limit) {
+        if (size == 0) {
+            return "";
+        }
+        final StringBuilder sb = new StringBuilder(32);
+        final int end = size - 1;
+        for (int i = 0; i < size; i++) {
+            if (sb.length() >= limit) {
+                sb.append("...(");
+                sb.append(size);
+                sb.append(')');
+                break;
+            }
+            StringUtils.appendDrop(sb, convert(i), limit);
+            if (i < end) {
+                sb.append(", ");
+            }
+        }
+        return sb.toString();
+    }
+
+    private String convert(int slot) {
+        switch (kinds[slot]) {
+            case ARGS:
+                return converters[slot].convert(args[slot]);
+            case LONG:
+                return Long.toString(primitives[slot]);
+            case BOOLEAN:
+                return primitives[slot] != 0 ? "true" : "false";
+            case DOUBLE:
+                return Double.toString(Double.longBitsToDouble(primitives[slot]));
+            case FLOAT:
+                return Float.toString(Float.intBitsToFloat((int) primitives[slot]));
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Empties the slots so that the recorder can be reused by the next execution.
+     */
+    public void clear() {
+        if (kinds.length > MAX_RETAINED_CAPACITY) {
+            allocate(DEFAULT_CAPACITY);
+        } else {
+            Arrays.fill(kinds, 0, size, EMPTY);
+            // release the references to the bound objects
+            Arrays.fill(converters, 0, size, null);
+            Arrays.fill(args, 0, size, null);
+        }
+        this.size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BindValueRecorder{" + toBindValueString(Integer.MAX_VALUE) + '}';
+    }
+}
@@ -16,8 +16,6 @@
 
 package com.navercorp.pinpoint.bootstrap.plugin.jdbc.interceptor;
 
-import java.util.Map;
-
 import com.navercorp.pinpoint.bootstrap.context.Trace;
 import com.navercorp.pinpoint.bootstrap.context.TraceContext;
 import com.navercorp.pinpoint.bootstrap.interceptor.StaticAroundInterceptor;
@@ -25,7 +23,7 @@ import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetFilter;
 import com.navercorp.pinpoint.bootstrap.logging.PLogger;
 import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor;
-import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueConverter;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueRecorder;
 import com.navercorp.pinpoint.bootstrap.util.NumberUtils;
 
 /**
@@ -58,11 +56,15 @@ public class PreparedStatementBindVariableInterceptor implements StaticAroundInt
         if (trace == null) {
             return;
         }
-        Map<Integer, String> bindList = null;
+        // bind values are only recorded by sampled traces
+        if (!trace.canSampled()) {
+            return;
+        }
+        BindValueRecorder bindValue = null;
         if (target instanceof BindValueAccessor) {
-            bindList = ((BindValueAccessor)target)._$PINPOINT$_getBindValue();
+            bindValue = ((BindValueAccessor)target)._$PINPOINT$_getBindValue();
         }
-        if (bindList == null) {
+        if (bindValue == null) {
             if (logger.isWarnEnabled()) {
                 logger.warn("bindValue is null");
             }
@@ -73,8 +75,8 @@ public class PreparedStatementBindVariableInterceptor implements StaticAroundInt
             // something is wrong
             return;
         }
-        String value = BindValueConverter.convert(methodName, args);
-        bindList.put(index, value);
+        // converted to a string when the statement is executed
+        bindValue.record(index, methodName, args);
 
     }
 }
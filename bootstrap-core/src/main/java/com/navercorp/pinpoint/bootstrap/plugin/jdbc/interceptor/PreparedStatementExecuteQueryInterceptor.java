@@ -16,9 +16,6 @@
 
 package com.navercorp.pinpoint.bootstrap.plugin.jdbc.interceptor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.navercorp.pinpoint.bootstrap.context.DatabaseInfo;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.ParsingResult;
@@ -34,7 +31,7 @@ import com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.DatabaseInfoAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.ParsingResultAccessor;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.UnKnownDatabaseInfo;
-import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueUtils;
+import com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueRecorder;
 
 /**
  * @author emeroad
@@ -93,11 +90,11 @@ public class PreparedStatementExecuteQueryInterceptor implements SimpleAroundInt
             if (target instanceof ParsingResultAccessor) {
                 parsingResult = ((ParsingResultAccessor)target)._$PINPOINT$_getParsingResult();
             }
-            Map<Integer, String> bindValue = null;
+            BindValueRecorder bindValue = null;
             if (target instanceof BindValueAccessor) {
                 bindValue = ((BindValueAccessor)target)._$PINPOINT$_getBindValue();
             }
-            if (bindValue != null) {
+            if (bindValue != null && trace.canSampled()) {
                 String bindString = toBindVariable(bindValue);
                 recorder.recordSqlParsingResult(parsingResult, bindString);
             } else {
@@ -123,12 +120,19 @@ public class PreparedStatementExecuteQueryInterceptor implements SimpleAroundInt
 
     private void clean(Object target) {
         if (target instanceof BindValueAccessor) {
-            ((BindValueAccessor)target)._$PINPOINT$_setBindValue(new HashMap<Integer, String>());
+            final BindValueAccessor bindValueAccessor = (BindValueAccessor) target;
+            final BindValueRecorder bindValue = bindValueAccessor._$PINPOINT$_getBindValue();
+            if (bindValue != null) {
+                // reuse the slots for the next execution
+                bindValue.clear();
+            } else {
+                bindValueAccessor._$PINPOINT$_setBindValue(new BindValueRecorder());
+            }
         }
     }
 
-    private String toBindVariable(Map<Integer, String> bindValue) {
-        return BindValueUtils.bindValueToString(bindValue, maxSqlBindValueLength);
+    private String toBindVariable(BindValueRecorder bindValue) {
+        return bindValue.toBindValueString(maxSqlBindValueLength);
     }
 
     @Override
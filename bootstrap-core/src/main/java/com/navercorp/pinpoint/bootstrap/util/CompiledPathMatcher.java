@@ -0,0 +1,431 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches a path against many patterns at once.
+ *
+ * Patterns without a wildcard are looked up in a hash map with the path as it is, like {@link EqualsPathMatcher}.
+ * The others are compiled into a trie of path segments, matched like {@link AntPathMatcher} :
+ * <ul>
+ * <li>a literal segment is found in a hash table of the node, hashing the characters of the path in place</li>
+ * <li>a segment with '*', '?' or a uri template variable such as '{id}' is matched as a glob within the segment</li>
+ * <li>'**' matches zero or more segments</li>
+ * </ul>
+ * The path is never split nor copied, so a match allocates nothing.
+ * Without '**' every segment of the path is read once per candidate node. '**' backtracks over the remaining segments only.
+ *
+ * When several patterns match, the most specific one is returned by {@link #getMatchedPattern(String)} :
+ * an equal pattern, then at each segment a literal before a glob before '**', then the glob added first.
+ * It can be used to reduce paths to a bounded set of url templates such as "/users/{id}".
+ */
+public class CompiledPathMatcher implements PathMatcher {
+
+    private static final char SEPARATOR = '/';
+    private static final String DOUBLE_STAR = "**";
+
+    private final Map<String, String> equalsPatternMap = new HashMap<String, String>();
+    private final Node absoluteRoot = new Node();
+    private final Node relativeRoot = new Node();
+    private final int patternCount;
+
+    public CompiledPathMatcher(List<String> patternList) {
+        if (patternList == null) {
+            throw new NullPointerException("patternList must not be null");
+        }
+        for (String pattern : patternList) {
+            if (pattern == null) {
+                throw new NullPointerException("pattern must not be null");
+            }
+            if (isGlobPattern(pattern)) {
+                addPattern(pattern);
+            } else if (!equalsPatternMap.containsKey(pattern)) {
+                equalsPatternMap.put(pattern, pattern);
+            }
+        }
+        this.patternCount = patternList.size();
+    }
+
+    /**
+     * @param format patterns joined by the separator. blank patterns are skipped
+     */
+    public static CompiledPathMatcher compile(String format, String separator) {
+        if (separator == null) {
+            throw new NullPointerException("separator must not be null");
+        }
+        final List<String> patternList = new ArrayList<String>();
+        if (format != null) {
+            for (String pattern : format.split(separator)) {
+                pattern = pattern.trim();
+                if (!pattern.isEmpty()) {
+                    patternList.add(pattern);
+                }
+            }
+        }
+        return new CompiledPathMatcher(patternList);
+    }
+
+    private static boolean isGlobPattern(String pattern) {
+        return AntPathMatcher.isAntStylePattern(pattern) || (pattern.indexOf('{') != -1 && pattern.indexOf('}') != -1);
+    }
+
+    private void addPattern(String pattern) {
+        Node node = pattern.startsWith("/") ? absoluteRoot : relativeRoot;
+        boolean doubleStar = false;
+        int offset = 0;
+        while (true) {
+            final int start = nextSegmentStart(pattern, offset);
+            if (start == -1) {
+                break;
+            }
+            final int end = segmentEnd(pattern, start);
+            offset = end;
+            final String segment = pattern.substring(start, trimEnd(pattern, start, end));
+            if (DOUBLE_STAR.equals(segment)) {
+                doubleStar = true;
+                // "**/**" is the same as "**"
+                if (!node.isDoubleStarNode) {
+                    node = node.getOrCreateDoubleStarChild();
+                }
+            } else if (isGlobPattern(segment)) {
+                node = node.getOrCreateGlobChild(segment);
+            } else {
+                node = node.getOrCreateLiteralChild(segment);
+            }
+        }
+        // as AntPathMatcher, the trailing separator of the path counts only if the pattern has no "**"
+        if (doubleStar) {
+            node.setPattern(pattern, false);
+            node.setPattern(pattern, true);
+        } else {
+            node.setPattern(pattern, pattern.endsWith("/"));
+        }
+    }
+
+    @Override
+    public boolean isMatched(String path) {
+        return getMatchedPattern(path) != null;
+    }
+
+    /**
+     * @return the most specific pattern matching the path, null if none.
+     */
+    public String getMatchedPattern(String path) {
+        if (path == null) {
+            return null;
+        }
+        final String equalsPattern = equalsPatternMap.get(path);
+        if (equalsPattern != null) {
+            return equalsPattern;
+        }
+        final boolean absolute = path.length() > 0 && path.charAt(0) == SEPARATOR;
+        final Node root = absolute ? absoluteRoot : relativeRoot;
+        if (root.isEmpty()) {
+            return null;
+        }
+        final boolean trailingSeparator = path.length() > 0 && path.charAt(path.length() - 1) == SEPARATOR;
+        return match(root, path, 0, trailingSeparator);
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    private static String match(Node node, String path, int offset, boolean trailingSeparator) {
+        final int start = nextSegmentStart(path, offset);
+        if (start == -1) {
+            return matchEnd(node, trailingSeparator);
+        }
+        final int end = segmentEnd(path, start);
+        final int trimmedEnd = trimEnd(path, start, end);
+
+        final Node literalChild = node.getLiteralChild(path, start, trimmedEnd);
+        if (literalChild != null) {
+            final String pattern = match(literalChild, path, end, trailingSeparator);
+            if (pattern != null) {
+                return pattern;
+            }
+        }
+        for (int i = 0; i < node.globSize; i++) {
+            if (matchGlob(node.globSegments[i], path, start, trimmedEnd)) {
+                final String pattern = match(node.globChildren[i], path, end, trailingSeparator);
+                if (pattern != null) {
+                    return pattern;
+                }
+            }
+        }
+        if (node.isDoubleStarNode) {
+            // "**" takes this segment as well
+            final String pattern = match(node, path, end, trailingSeparator);
+            if (pattern != null) {
+                return pattern;
+            }
+        }
+        if (node.doubleStarChild != null) {
+            // "**" takes no segment
+            return match(node.doubleStarChild, path, start, trailingSeparator);
+        }
+        return null;
+    }
+
+    private static String matchEnd(Node node, boolean trailingSeparator) {
+        final String pattern = trailingSeparator ? node.slashPattern : node.noSlashPattern;
+        if (pattern != null) {
+            return pattern;
+        }
+        if (trailingSeparator) {
+            // as AntPathMatcher, "/path/*" matches "/path/"
+            for (int i = 0; i < node.globSize; i++) {
+                final Node globChild = node.globChildren[i];
+                if ("*".equals(globChild.globSegment) && globChild.getAnyPattern() != null) {
+                    return globChild.getAnyPattern();
+                }
+            }
+        }
+        if (node.doubleStarChild != null) {
+            return matchEnd(node.doubleStarChild, trailingSeparator);
+        }
+        return null;
+    }
+
+    /**
+     * '*' and uri template variables match any characters, '?' matches a character.
+     */
+    static boolean matchGlob(char[] glob, String path, int start, int end) {
+        int globIndex = 0;
+        int pathIndex = start;
+        int starIndex = -1;
+        int starPathIndex = -1;
+        while (pathIndex < end) {
+            if (globIndex < glob.length && (glob[globIndex] == '?' || glob[globIndex] == path.charAt(pathIndex))) {
+                globIndex++;
+                pathIndex++;
+            } else if (globIndex < glob.length && glob[globIndex] == '*') {
+                starIndex = globIndex++;
+                starPathIndex = pathIndex;
+            } else if (starIndex != -1) {
+                globIndex = starIndex + 1;
+                pathIndex = ++starPathIndex;
+            } else {
+                return false;
+            }
+        }
+        while (globIndex < glob.length && glob[globIndex] == '*') {
+            globIndex++;
+        }
+        return globIndex == glob.length;
+    }
+
+    /**
+     * turns uri template variables into '*'
+     */
+    static char[] compileGlob(String segment) {
+        final StringBuilder glob = new StringBuilder(segment.length());
+        int variableDepth = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            final char c = segment.charAt(i);
+            if (c == '{') {
+                if (variableDepth++ == 0) {
+                    glob.append('*');
+                }
+            } else if (c == '}' && variableDepth > 0) {
+                variableDepth--;
+            } else if (variableDepth == 0) {
+                glob.append(c);
+            }
+        }
+        return glob.toString().toCharArray();
+    }
+
+    /**
+     * As AntPathMatcher, empty segments are ignored and segments are trimmed.
+     * @return -1 if no segment is left
+     */
+    private static int nextSegmentStart(String path, int offset) {
+        final int length = path.length();
+        for (int i = offset; i < length; i++) {
+            final char c = path.charAt(i);
+            if (c != SEPARATOR && !Character.isWhitespace(c)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        final int end = path.indexOf(SEPARATOR, start);
+        return end == -1 ? path.length() : end;
+    }
+
+    private static int trimEnd(String path, int start, int end) {
+        while (end > start && Character.isWhitespace(path.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int hash(String path, int start, int end) {
+        // same as String.hashCode()
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledPathMatcher{" +
+                "patternCount=" + patternCount +
+                '}';
+    }
+
+    private static final class Node {
+
+        private static final int INITIAL_LITERAL_CAPACITY = 4;
+
+        // open addressing table of literal segments
+        private String[] literalSegments;
+        private Node[] literalChildren;
+        private int literalSize;
+
+        private String globSegment;
+        private char[][] globSegments;
+        private Node[] globChildren;
+        private int globSize;
+
+        private boolean isDoubleStarNode;
+        private Node doubleStarChild;
+
+        private String noSlashPattern;
+        private String slashPattern;
+
+        private boolean isEmpty() {
+            return literalSize == 0 && globSize == 0 && doubleStarChild == null && noSlashPattern == null && slashPattern == null;
+        }
+
+        private void setPattern(String pattern, boolean slash) {
+            // the first pattern wins
+            if (slash) {
+                if (slashPattern == null) {
+                    slashPattern = pattern;
+                }
+            } else {
+                if (noSlashPattern == null) {
+                    noSlashPattern = pattern;
+                }
+            }
+        }
+
+        private String getAnyPattern() {
+            return noSlashPattern != null ? noSlashPattern : slashPattern;
+        }
+
+        private Node getLiteralChild(String path, int start, int end) {
+            if (literalSize == 0) {
+                return null;
+            }
+            final int length = end - start;
+            final int mask = literalSegments.length - 1;
+            int bucket = hash(path, start, end) & mask;
+            while (true) {
+                final String segment = literalSegments[bucket];
+                if (segment == null) {
+                    return null;
+                }
+                if (segment.length() == length && path.regionMatches(start, segment, 0, length)) {
+                    return literalChildren[bucket];
+                }
+                bucket = (bucket + 1) & mask;
+            }
+        }
+
+        private Node getOrCreateLiteralChild(String segment) {
+            final Node child = getLiteralChild(segment, 0, segment.length());
+            if (child != null) {
+                return child;
+            }
+            if (literalSegments == null) {
+                literalSegments = new String[INITIAL_LITERAL_CAPACITY];
+                literalChildren = new Node[INITIAL_LITERAL_CAPACITY];
+            } else if ((literalSize + 1) * 2 > literalSegments.length) {
+                rehash(literalSegments.length * 2);
+            }
+            final Node newChild = new Node();
+            putLiteral(segment, newChild);
+            literalSize++;
+            return newChild;
+        }
+
+        private void putLiteral(String segment, Node child) {
+            final int mask = literalSegments.length - 1;
+            int bucket = segment.hashCode() & mask;
+            while (literalSegments[bucket] != null) {
+                bucket = (bucket + 1) & mask;
+            }
+            literalSegments[bucket] = segment;
+            literalChildren[bucket] = child;
+        }
+
+        private void rehash(int capacity) {
+            final String[] oldSegments = literalSegments;
+            final Node[] oldChildren = literalChildren;
+            literalSegments = new String[capacity];
+            literalChildren = new Node[capacity];
+            for (int i = 0; i < oldSegments.length; i++) {
+                if (oldSegments[i] != null) {
+                    putLiteral(oldSegments[i], oldChildren[i]);
+                }
+            }
+        }
+
+        private Node getOrCreateGlobChild(String segment) {
+            for (int i = 0; i < globSize; i++) {
+                if (globChildren[i].globSegment.equals(segment)) {
+                    return globChildren[i];
+                }
+            }
+            if (globSegments == null) {
+                globSegments = new char[2][];
+                globChildren = new Node[2];
+            } else if (globSize == globSegments.length) {
+                globSegments = Arrays.copyOf(globSegments, globSize * 2);
+                globChildren = Arrays.copyOf(globChildren, globSize * 2);
+            }
+            final Node newChild = new Node();
+            newChild.globSegment = segment;
+            globSegments[globSize] = compileGlob(segment);
+            globChildren[globSize] = newChild;
+            globSize++;
+            return newChild;
+        }
+
+        private Node getOrCreateDoubleStarChild() {
+            if (doubleStarChild == null) {
+                doubleStarChild = new Node();
+                doubleStarChild.isDoubleStarNode = true;
+            }
+            return doubleStarChild;
+        }
+    }
+}
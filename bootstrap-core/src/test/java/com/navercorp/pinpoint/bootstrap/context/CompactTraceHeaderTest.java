@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.context;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactTraceHeaderTest {
+
+    @Test
+    public void encodeAndParse() {
+        TraceId traceId = new TestTraceId("agent-한글", 1439358398000L, 12345L, -1L, Long.MIN_VALUE + 7, (short) 1);
+        String value = CompactTraceHeader.encode(traceId, "applicationName", (short) 1010, "localhost:8080");
+
+        CompactTraceHeader header = CompactTraceHeader.parse(value);
+        Assert.assertNotNull(header);
+        Assert.assertEquals("agent-한글", header.getAgentId());
+        Assert.assertEquals(1439358398000L, header.getAgentStartTime());
+        Assert.assertEquals(12345L, header.getTransactionSequence());
+        Assert.assertEquals(-1L, header.getParentSpanId());
+        Assert.assertEquals(Long.MIN_VALUE + 7, header.getSpanId());
+        Assert.assertEquals(1, header.getFlags());
+        Assert.assertEquals(1010, header.getParentApplicationType());
+        Assert.assertEquals("applicationName", header.getParentApplicationName());
+        Assert.assertEquals("localhost:8080", header.getHost());
+    }
+
+    @Test
+    public void nullHost() {
+        TraceId traceId = new TestTraceId("agent", 1L, 0L, 2L, 3L, (short) -1);
+        CompactTraceHeader header = CompactTraceHeader.parse(CompactTraceHeader.encode(traceId, "", (short) 0, null));
+
+        Assert.assertNotNull(header);
+        Assert.assertEquals(-1, header.getFlags());
+        Assert.assertEquals("", header.getParentApplicationName());
+        Assert.assertNull(header.getHost());
+    }
+
+    @Test
+    public void urlSafe() {
+        TraceId traceId = new TestTraceId("agent", Long.MAX_VALUE, Long.MAX_VALUE, -2L, -3L, (short) 0);
+        String value = CompactTraceHeader.encode(traceId, "app", (short) 1000, "host");
+
+        Assert.assertTrue(value, value.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void malformed() {
+        TraceId traceId = new TestTraceId("agent", 1L, 2L, 3L, 4L, (short) 0);
+        String value = CompactTraceHeader.encode(traceId, "app", (short) 1000, "host");
+
+        Assert.assertNull(CompactTraceHeader.parse(null));
+        Assert.assertNull(CompactTraceHeader.parse(""));
+        Assert.assertNull(CompactTraceHeader.parse(value.substring(0, value.length() - 6)));
+        Assert.assertNull(CompactTraceHeader.parse(value + "="));
+        Assert.assertNull(CompactTraceHeader.parse("agentId^1439358398000^12345"));
+        // unknown version
+        Assert.assertNull(CompactTraceHeader.parse("Ag" + value.substring(2)));
+    }
+
+    private static class TestTraceId implements TraceId {
+        private final String agentId;
+        private final long agentStartTime;
+        private final long transactionSequence;
+        private final long parentSpanId;
+        private final long spanId;
+        private final short flags;
+
+        private TestTraceId(String agentId, long agentStartTime, long transactionSequence, long parentSpanId, long spanId, short flags) {
+            this.agentId = agentId;
+            this.agentStartTime = agentStartTime;
+            this.transactionSequence = transactionSequence;
+            this.parentSpanId = parentSpanId;
+            this.spanId = spanId;
+            this.flags = flags;
+        }
+
+        @Override
+        public TraceId getNextTraceId() {
+            return null;
+        }
+
+        @Override
+        public long getSpanId() {
+            return spanId;
+        }
+
+        @Override
+        public String getTransactionId() {
+            return null;
+        }
+
+        @Override
+        public String getAgentId() {
+            return agentId;
+        }
+
+        @Override
+        public long getAgentStartTime() {
+            return agentStartTime;
+        }
+
+        @Override
+        public long getTransactionSequence() {
+            return transactionSequence;
+        }
+
+        @Override
+        public long getParentSpanId() {
+            return parentSpanId;
+        }
+
+        @Override
+        public short getFlags() {
+            return flags;
+        }
+
+        @Override
+        public boolean isRoot() {
+            return false;
+        }
+    }
+}
@@ -120,6 +120,11 @@ public class MockTraceContext implements TraceContext {
         return null;
     }
 
+    @Override
+    public TraceId createTraceId(String agentId, long agentStartTime, long transactionSequence, long parentSpanID, long spanID, short flags) {
+        return null;
+    }
+
     @Override
     public Trace disableSampling() {
         return null;
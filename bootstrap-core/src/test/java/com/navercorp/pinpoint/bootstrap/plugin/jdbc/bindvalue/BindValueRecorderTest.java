@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BindValueRecorderTest {
+
+    @Test
+    public void primitive() {
+        BindValueRecorder recorder = new BindValueRecorder();
+        recorder.record(1, "setInt", new Object[]{1, 10});
+        recorder.record(2, "setBoolean", new Object[]{2, Boolean.TRUE});
+        recorder.record(3, "setDouble", new Object[]{3, 1.5d});
+        recorder.record(4, "setFloat", new Object[]{4, 2.5f});
+        recorder.record(6, "setBigDecimal", new Object[]{6, new BigDecimal("3.14")});
+        recorder.record(7, "setNull", new Object[]{7, 0});
+
+        Assert.assertEquals("10, true, 1.5, 2.5, , 3.14, null", recorder.toBindValueString(1024));
+    }
+
+    @Test
+    public void sameAsConverter() {
+        Object[] args = new Object[]{1, new byte[]{1, 2}};
+        BindValueRecorder recorder = new BindValueRecorder();
+        recorder.record(1, "setBytes", args);
+
+        Assert.assertEquals(BindValueConverter.convert("setBytes", args), recorder.toBindValueString(1024));
+    }
+
+    @Test
+    public void limit() {
+        BindValueRecorder recorder = new BindValueRecorder();
+        recorder.record(1, "setString", new Object[]{1, "abc"});
+        recorder.record(2, "setString", new Object[]{2, "def"});
+
+        Assert.assertEquals("ab...(3), ...(2)", recorder.toBindValueString(2));
+    }
+
+    @Test
+    public void clear() {
+        BindValueRecorder recorder = new BindValueRecorder();
+        for (int i = 1; i <= 300; i++) {
+            recorder.record(i, "setLong", new Object[]{i, (long) i});
+        }
+        recorder.clear();
+        Assert.assertTrue(recorder.isEmpty());
+        Assert.assertEquals("", recorder.toBindValueString(1024));
+
+        recorder.record(2, "setString", new Object[]{2, "a"});
+        Assert.assertEquals(", a", recorder.toBindValueString(1024));
+    }
+
+    @Test
+    public void invalid() {
+        BindValueRecorder recorder = new BindValueRecorder();
+        recorder.record(0, "setInt", new Object[]{0, 1});
+        recorder.record(1, "setXxx", new Object[]{1, 1});
+
+        Assert.assertTrue(recorder.isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.bootstrap.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledPathMatcherTest {
+
+    private static final String[] PATTERNS = {
+            "/test/?bc", "/monitor/l7check.*", "/*/l7check.*", "/static/**", "/static/**/*.png", "/**/health",
+            "/a/*", "/a/*/", "/a/**/b/**/c", "/users/{id}", "/users/{id}/orders/{orderId}.json", "**/*.css", "*.jsp", "/"
+    };
+
+    private static final String[] PATHS = {
+            "/test/abc", "/test/axx", "/test/abc/", "/monitor/l7check.jsp", "/monitor/l7check", "/x/l7check.html", "/x/y/l7check.html",
+            "/static", "/static/", "/static/a/b.js", "/static/a/b.png", "/static/b.png", "/health", "/a/b/health", "/a/health/x",
+            "/a", "/a/", "/a/b", "/a/b/", "/a/b/c", "/a/x/b/y/c", "/a/b/c/", "/a/b/b/c/c", "/users/1", "/users/", "/users/1/orders/2.json",
+            "/users/1/orders/2.xml", "a/b.css", "b.css", "/b.css", "index.jsp", "/index.jsp", "/", "", "//a//b", "/a /b"
+    };
+
+    @Test
+    public void sameAsAntPathMatcher() {
+        for (String pattern : PATTERNS) {
+            final AntPathMatcher antPathMatcher = new AntPathMatcher(pattern);
+            final CompiledPathMatcher compiledPathMatcher = new CompiledPathMatcher(Collections.singletonList(pattern));
+            for (String path : PATHS) {
+                Assert.assertEquals("pattern:" + pattern + " path:" + path, antPathMatcher.isMatched(path), compiledPathMatcher.isMatched(path));
+            }
+        }
+    }
+
+    @Test
+    public void anyPatternMatched() {
+        final CompiledPathMatcher compiledPathMatcher = new CompiledPathMatcher(Arrays.asList(PATTERNS));
+        for (String path : PATHS) {
+            boolean expected = false;
+            for (String pattern : PATTERNS) {
+                expected |= new AntPathMatcher(pattern).isMatched(path);
+            }
+            Assert.assertEquals("path:" + path, expected, compiledPathMatcher.isMatched(path));
+        }
+    }
+
+    @Test
+    public void equalsPattern() {
+        final CompiledPathMatcher matcher = CompiledPathMatcher.compile("/monitor/l7check.html, test/l4check.html", ",");
+
+        Assert.assertTrue(matcher.isMatched("/monitor/l7check.html"));
+        Assert.assertTrue(matcher.isMatched("test/l4check.html"));
+        Assert.assertFalse(matcher.isMatched("/monitor//l7check.html"));
+        Assert.assertFalse(matcher.isMatched(null));
+        Assert.assertEquals(2, matcher.getPatternCount());
+    }
+
+    @Test
+    public void mostSpecificPattern() {
+        final CompiledPathMatcher matcher = new CompiledPathMatcher(Arrays.asList("/**", "/users/*/orders", "/users/{id}", "/users/me", "/users/{id}/orders"));
+
+        Assert.assertEquals("/users/me", matcher.getMatchedPattern("/users/me"));
+        Assert.assertEquals("/users/{id}", matcher.getMatchedPattern("/users/1234"));
+        Assert.assertEquals("/users/*/orders", matcher.getMatchedPattern("/users/1234/orders"));
+        Assert.assertEquals("/**", matcher.getMatchedPattern("/products/1"));
+    }
+
+    @Test
+    public void matchGlob() {
+        Assert.assertTrue(match("*", ""));
+        Assert.assertTrue(match("a*b*c", "axxbyyc"));
+        Assert.assertTrue(match("a?c", "abc"));
+        Assert.assertTrue(match("*.{ext}", "index.html"));
+        Assert.assertFalse(match("a*b", "axxc"));
+        Assert.assertFalse(match("a?c", "ac"));
+    }
+
+    private boolean match(String segment, String path) {
+        return CompiledPathMatcher.matchGlob(CompiledPathMatcher.compileGlob(segment), path, 0, path.length());
+    }
+}
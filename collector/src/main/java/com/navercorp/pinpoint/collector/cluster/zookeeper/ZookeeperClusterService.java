@@ -51,6 +51,7 @@ public class ZookeeperClusterService extends AbstractClusterService {
     private static final String PINPOINT_CLUSTER_PATH = "/pinpoint-cluster";
     private static final String PINPOINT_WEB_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/web";
     private static final String PINPOINT_PROFILER_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/profiler";
+    private static final String PINPOINT_COLLECTOR_ADDRESS_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/collector-address";
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -70,6 +71,9 @@ public class ZookeeperClusterService extends AbstractClusterService {
     // ProfilerClusterManager detects/manages profiler -> collector connections, and saves their information in Zookeeper.
     private ZookeeperProfilerClusterManager profilerClusterManager;
 
+    // CollectorClusterManager publishes the udp address of this collector, and pushes the collector membership to agents.
+    private ZookeeperCollectorClusterManager collectorClusterManager;
+
     public ZookeeperClusterService(CollectorConfiguration config, ClusterPointRouter clusterPointRouter) {
         super(config, clusterPointRouter);
         this.serviceState = new WorkerStateContext();
@@ -92,12 +96,17 @@ public class ZookeeperClusterService extends AbstractClusterService {
                     ClusterManagerWatcher watcher = new ClusterManagerWatcher();
                     this.client = new ZookeeperClient(config.getClusterAddress(), config.getClusterSessionTimeout(), watcher);
 
-                    this.profilerClusterManager = new ZookeeperProfilerClusterManager(client, serverIdentifier, clusterPointRouter.getTargetClusterPointRepository());
+                    this.profilerClusterManager = new ZookeeperProfilerClusterManager(client, serverIdentifier, clusterPointRouter.getTargetClusterPointRepository(), config.getClusterMembershipBucketCount());
                     this.profilerClusterManager.start();
 
                     this.webClusterManager = new ZookeeperWebClusterManager(client, PINPOINT_WEB_CLUSTER_PATH, serverIdentifier, webCluster);
                     this.webClusterManager.start();
 
+                    if (config.isClusterCollectorBalanceEnable()) {
+                        this.collectorClusterManager = new ZookeeperCollectorClusterManager(client, PINPOINT_COLLECTOR_ADDRESS_CLUSTER_PATH, getCollectorAddress(), profilerClusterManager);
+                        this.collectorClusterManager.start();
+                    }
+
                     this.serviceState.changeStateStarted();
                     logger.info("{} initialization completed.", this.getClass().getSimpleName());
 
@@ -149,6 +158,10 @@ public class ZookeeperClusterService extends AbstractClusterService {
             webClusterManager.stop();
         }
 
+        if (this.collectorClusterManager != null) {
+            collectorClusterManager.stop();
+        }
+
         if (client != null) {
             client.close();
         }
@@ -161,6 +174,10 @@ public class ZookeeperClusterService extends AbstractClusterService {
         logger.info("{} destroying completed.", this.getClass().getSimpleName());
     }
 
+    private String getCollectorAddress() {
+        return config.getClusterCollectorAdvertiseIp() + ":" + config.getUdpSpanListenPort() + ":" + config.getUdpStatListenPort();
+    }
+
     @Override
     public boolean isEnable() {
         return config.isClusterEnable();
@@ -178,6 +195,13 @@ public class ZookeeperClusterService extends AbstractClusterService {
         return webClusterManager;
     }
 
+    /**
+     * @return null if collector balancing is disabled.
+     */
+    public ZookeeperCollectorClusterManager getCollectorClusterManager() {
+        return collectorClusterManager;
+    }
+
     class ClusterManagerWatcher implements ZookeeperEventWatcher {
 
         private final AtomicBoolean connected = new AtomicBoolean(false);
@@ -216,11 +240,16 @@ public class ZookeeperClusterService extends AbstractClusterService {
                     }
 
                     webClusterManager.handleAndRegisterWatcher(PINPOINT_WEB_CLUSTER_PATH);
+                    if (collectorClusterManager != null) {
+                        collectorClusterManager.handleAndRegisterWatcher(PINPOINT_COLLECTOR_ADDRESS_CLUSTER_PATH);
+                    }
                 } else if (eventType == EventType.NodeChildrenChanged) {
                     String path = event.getPath();
 
                     if (PINPOINT_WEB_CLUSTER_PATH.equals(path)) {
                         webClusterManager.handleAndRegisterWatcher(path);
+                    } else if (PINPOINT_COLLECTOR_ADDRESS_CLUSTER_PATH.equals(path) && collectorClusterManager != null) {
+                        collectorClusterManager.handleAndRegisterWatcher(path);
                     } else {
                         logger.warn("Unknown Path ChildrenChanged {}.", path);
                     }
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.zookeeper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.collector.cluster.WorkerState;
+import com.navercorp.pinpoint.collector.cluster.WorkerStateContext;
+import com.navercorp.pinpoint.collector.cluster.zookeeper.exception.ConnectionException;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.rpc.common.SocketStateCode;
+import com.navercorp.pinpoint.rpc.control.ProtocolException;
+import com.navercorp.pinpoint.rpc.server.PinpointServer;
+import com.navercorp.pinpoint.rpc.server.handler.ChannelStateChangeEventHandler;
+import com.navercorp.pinpoint.rpc.util.ControlMessageEncodingUtils;
+
+/**
+ * Publishes this collector in Zookeeper and pushes the collector membership to the connected agents.
+ *
+ * Every collector registers an ephemeral node named after the address agents should send udp data to (ip:spanPort:statPort).
+ * Whenever the membership changes, the full list is sent to every agent connected in duplex mode.
+ * Agents consistently hash their application name onto the list, so only the applications owned by a joining or leaving collector move.
+ */
+public class ZookeeperCollectorClusterManager implements ChannelStateChangeEventHandler, Runnable {
+
+    // You must modify com.navercorp.pinpoint.profiler.cluster.CollectorClusterMessage when you modify this key.
+    public static final String COLLECTOR_LIST = "collectorList";
+
+    private static final int DEFAULT_RETRY_INTERVAL = 60000;
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final GetAndRegisterTask getAndRegisterTask = new GetAndRegisterTask();
+    private final StopTask stopTask = new StopTask();
+
+    private final ZookeeperClient client;
+    private final String zNodePath;
+    private final String collectorAddress;
+    private final ZookeeperProfilerClusterManager profilerClusterManager;
+
+    private final AtomicBoolean retryMode = new AtomicBoolean(false);
+
+    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<Task>(1);
+
+    private final WorkerStateContext workerState;
+    private final Thread workerThread;
+
+    private volatile List<String> collectorList = Collections.emptyList();
+
+    public ZookeeperCollectorClusterManager(ZookeeperClient client, String zookeeperClusterPath, String collectorAddress, ZookeeperProfilerClusterManager profilerClusterManager) {
+        if (client == null) {
+            throw new NullPointerException("client must not be null");
+        }
+        if (zookeeperClusterPath == null) {
+            throw new NullPointerException("zookeeperClusterPath must not be null");
+        }
+        if (collectorAddress == null) {
+            throw new NullPointerException("collectorAddress must not be null");
+        }
+        if (profilerClusterManager == null) {
+            throw new NullPointerException("profilerClusterManager must not be null");
+        }
+        this.client = client;
+        this.zNodePath = zookeeperClusterPath;
+        this.collectorAddress = collectorAddress;
+        this.profilerClusterManager = profilerClusterManager;
+
+        this.workerState = new WorkerStateContext();
+
+        final ThreadFactory threadFactory = new PinpointThreadFactory(this.getClass().getSimpleName(), true);
+        this.workerThread = threadFactory.newThread(this);
+    }
+
+    public void start() {
+        switch (this.workerState.getCurrentState()) {
+            case NEW:
+                if (this.workerState.changeStateInitializing()) {
+                    logger.info("{} initialization started.", this.getClass().getSimpleName());
+                    this.workerThread.start();
+
+                    workerState.changeStateStarted();
+                    logger.info("{} initialization completed.", this.getClass().getSimpleName());
+                    break;
+                }
+            case INITIALIZING:
+                logger.info("{} already initializing.", this.getClass().getSimpleName());
+                break;
+            case STARTED:
+                logger.info("{} already started.", this.getClass().getSimpleName());
+                break;
+            case DESTROYING:
+                throw new IllegalStateException("Already destroying.");
+            case STOPPED:
+                throw new IllegalStateException("Already stopped.");
+            case ILLEGAL_STATE:
+                throw new IllegalStateException("Invalid State.");
+        }
+    }
+
+    public void stop() {
+        if (!(this.workerState.changeStateDestroying())) {
+            WorkerState state = this.workerState.getCurrentState();
+
+            logger.info("{} already {}.", this.getClass().getSimpleName(), state.toString());
+            return;
+        }
+
+        logger.info("{} destroying started.", this.getClass().getSimpleName());
+
+        final boolean stopOffer = queue.offer(stopTask);
+        if (!stopOffer) {
+            logger.warn("Insert stopTask failed.");
+        }
+
+        while (this.workerThread.isAlive()) {
+            this.workerThread.interrupt();
+            try {
+                this.workerThread.join(100L);
+            } catch (InterruptedException ignore) {
+                // retry
+            }
+        }
+
+        this.workerState.changeStateStopped();
+        logger.info("{} destroying completed.", this.getClass().getSimpleName());
+    }
+
+    public void handleAndRegisterWatcher(String path) {
+        if (workerState.isStarted()) {
+            if (zNodePath.equals(path)) {
+                final boolean offerSuccess = queue.offer(getAndRegisterTask);
+                if (!offerSuccess) {
+                    logger.info("Message Queue is Full.");
+                }
+            } else {
+                logger.info("Invalid Path {}.", path);
+            }
+        } else {
+            WorkerState state = this.workerState.getCurrentState();
+            logger.info("{} invalid state {}.", this.getClass().getSimpleName(), state.toString());
+        }
+    }
+
+    @Override
+    public void eventPerformed(PinpointServer pinpointServer, SocketStateCode stateCode) {
+        if (!workerState.isStarted()) {
+            return;
+        }
+        if (SocketStateCode.RUN_DUPLEX == stateCode) {
+            final List<String> currentCollectorList = this.collectorList;
+            if (!currentCollectorList.isEmpty()) {
+                send(pinpointServer, encode(currentCollectorList));
+            }
+        }
+    }
+
+    @Override
+    public void exceptionCaught(PinpointServer pinpointServer, SocketStateCode stateCode, Throwable e) {
+        logger.warn("ZookeeperCollectorClusterManager exceptionCaught() (pinpointServer:{}, PinpointServerStateCode:{}). Error: {}.", pinpointServer, stateCode, e.getMessage(), e);
+    }
+
+    public List<String> getCollectorList() {
+        return collectorList;
+    }
+
+    @Override
+    public void run() {
+        while (workerState.isStarted()) {
+            Task task = null;
+
+            try {
+                task = queue.poll(DEFAULT_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                logger.debug(e.getMessage(), e);
+            }
+
+            if (!workerState.isStarted()) {
+                break;
+            }
+
+            if (task == null) {
+                if (retryMode.get()) {
+                    boolean success = getAndRegisterTask.handleAndRegisterWatcher0();
+                    if (success) {
+                        retryMode.compareAndSet(true, false);
+                    }
+                }
+            } else if (task instanceof GetAndRegisterTask) {
+                boolean success = ((GetAndRegisterTask) task).handleAndRegisterWatcher0();
+                if (!success) {
+                    retryMode.compareAndSet(false, true);
+                }
+            } else if (task instanceof StopTask) {
+                break;
+            }
+        }
+
+        logger.info("{} stopped", this.getClass().getSimpleName());
+    }
+
+    private void collectorListChanged(List<String> newCollectorList) {
+        logger.info("Collector cluster changed. {} -> {}", this.collectorList, newCollectorList);
+        this.collectorList = newCollectorList;
+
+        final byte[] payload = encode(newCollectorList);
+        if (payload == null) {
+            return;
+        }
+        for (PinpointServer pinpointServer : profilerClusterManager.getRegisteredPinpointServerList()) {
+            send(pinpointServer, payload);
+        }
+    }
+
+    private byte[] encode(List<String> collectorList) {
+        final Map<String, Object> message = new HashMap<String, Object>();
+        message.put(COLLECTOR_LIST, collectorList);
+        try {
+            return ControlMessageEncodingUtils.encode(message);
+        } catch (ProtocolException e) {
+            logger.warn("collectorList encode fail. Caused:{}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void send(PinpointServer pinpointServer, byte[] payload) {
+        if (payload == null) {
+            return;
+        }
+        try {
+            pinpointServer.send(payload);
+        } catch (Exception e) {
+            logger.info("collectorList send fail. pinpointServer:{}, Caused:{}", pinpointServer, e.getMessage());
+        }
+    }
+
+    interface Task {
+
+    }
+
+    class GetAndRegisterTask implements Task {
+
+        private boolean handleAndRegisterWatcher0() {
+            try {
+                final String collectorNodePath = zNodePath + PATH_SEPARATOR + collectorAddress;
+                if (!client.exists(collectorNodePath)) {
+                    client.createPath(collectorNodePath);
+                    client.createNode(collectorNodePath, new byte[0]);
+                }
+
+                final List<String> childNodeList = new ArrayList<String>(client.getChildrenNode(zNodePath, true));
+                Collections.sort(childNodeList);
+
+                if (!childNodeList.equals(collectorList)) {
+                    collectorListChanged(Collections.unmodifiableList(childNodeList));
+                }
+                return true;
+            } catch (Exception e) {
+                // retried by the worker, until the collector list is read
+                if (e instanceof ConnectionException) {
+                    logger.info("collector list read fail. zookeeper not connected. Caused:{}", e.getMessage());
+                } else {
+                    logger.warn("collector list read fail. Caused:{}", e.getMessage(), e);
+                }
+            }
+            return false;
+        }
+    }
+
+    static class StopTask implements Task {
+
+    }
+
+}
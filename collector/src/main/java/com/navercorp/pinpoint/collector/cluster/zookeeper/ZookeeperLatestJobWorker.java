@@ -19,9 +19,12 @@ package com.navercorp.pinpoint.collector.cluster.zookeeper;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -39,6 +42,8 @@ import com.navercorp.pinpoint.collector.cluster.zookeeper.job.DeleteJob;
 import com.navercorp.pinpoint.collector.cluster.zookeeper.job.Job;
 import com.navercorp.pinpoint.collector.cluster.zookeeper.job.UpdateJob;
 import com.navercorp.pinpoint.collector.receiver.tcp.AgentHandshakePropertyType;
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec;
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec.Member;
 import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.rpc.common.SocketStateCode;
 import com.navercorp.pinpoint.rpc.server.PinpointServer;
@@ -55,6 +60,7 @@ public class ZookeeperLatestJobWorker implements Runnable {
 
     private static final String PINPOINT_CLUSTER_PATH = "/pinpoint-cluster";
     private static final String PINPOINT_COLLECTOR_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/collector";
+    private static final String PINPOINT_MEMBERSHIP_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/membership";
 
     private static final String PATH_SEPARATOR = "/";
     private static final String PROFILER_SEPARATOR = "\r\n";
@@ -77,13 +83,34 @@ public class ZookeeperLatestJobWorker implements Runnable {
 
     private final BlockingQueue<Job> leakJobQueue = new LinkedBlockingQueue<Job>();
 
+    // agents hashed into buckets, each published as its own ephemeral node. empty when the single collector node is used.
+    // updated by the worker thread only; the changed buckets are written once per loop so that a burst of connects costs one write per bucket.
+    private final List<Set<Member>> membershipBuckets;
+    private final String[] membershipBucketPaths;
+    private final BitSet dirtyMembershipBuckets;
+
     public ZookeeperLatestJobWorker(ZookeeperClient zookeeperClient, String serverIdentifier) {
+        this(zookeeperClient, serverIdentifier, 0);
+    }
+
+    public ZookeeperLatestJobWorker(ZookeeperClient zookeeperClient, String serverIdentifier, int membershipBucketCount) {
+        if (membershipBucketCount < 0) {
+            throw new IllegalArgumentException("negative membershipBucketCount:" + membershipBucketCount);
+        }
         this.zookeeperClient = zookeeperClient;
 
         this.workerState = new WorkerStateContext();
 
         this.collectorUniqPath = bindingPathAndZnode(PINPOINT_COLLECTOR_CLUSTER_PATH, serverIdentifier);
 
+        this.membershipBuckets = new ArrayList<Set<Member>>(membershipBucketCount);
+        this.membershipBucketPaths = new String[membershipBucketCount];
+        for (int i = 0; i < membershipBucketCount; i++) {
+            this.membershipBuckets.add(Collections.newSetFromMap(new ConcurrentHashMap<Member, Boolean>()));
+            this.membershipBucketPaths[i] = bindingPathAndZnode(PINPOINT_MEMBERSHIP_CLUSTER_PATH, AgentMembershipCodec.bucketName(serverIdentifier, i));
+        }
+        this.dirtyMembershipBuckets = new BitSet(membershipBucketCount);
+
         final ThreadFactory threadFactory = new PinpointThreadFactory(this.getClass().getSimpleName(), true);
         this.workerThread = threadFactory.newThread(this);
     }
@@ -194,6 +221,8 @@ public class ZookeeperLatestJobWorker implements Runnable {
                 }
 
             }
+
+            flushMembershipBuckets();
         }
 
         logger.info("{} stopped", this.getClass().getSimpleName());
@@ -208,6 +237,10 @@ public class ZookeeperLatestJobWorker implements Runnable {
             return false;
         }
 
+        if (isMembershipBucketEnabled()) {
+            return addMember(pinpointServer);
+        }
+
         try {
             String addContents = createProfilerContents(pinpointServer);
 
@@ -236,6 +269,12 @@ public class ZookeeperLatestJobWorker implements Runnable {
     public boolean handleDelete(Job job) {
         PinpointServer pinpointServer = job.getPinpointServer();
 
+        if (isMembershipBucketEnabled()) {
+            removeMember(pinpointServer);
+            pinpointServerRepository.remove(pinpointServer);
+            return true;
+        }
+
         try {
             if (zookeeperClient.exists(collectorUniqPath)) {
                 byte[] contents = zookeeperClient.getData(collectorUniqPath);
@@ -267,6 +306,69 @@ public class ZookeeperLatestJobWorker implements Runnable {
         return null;
     }
 
+    public boolean isMembershipBucketEnabled() {
+        return membershipBucketPaths.length > 0;
+    }
+
+    public List<Member> getMembers() {
+        List<Member> members = new ArrayList<Member>();
+        for (Set<Member> bucket : membershipBuckets) {
+            members.addAll(bucket);
+        }
+        return members;
+    }
+
+    private boolean addMember(PinpointServer pinpointServer) {
+        Member member = createMember(pinpointServer);
+        if (member == null) {
+            return false;
+        }
+
+        int bucket = getBucket(member);
+        membershipBuckets.get(bucket).add(member);
+        // written even when already listed, so that the bucket node is recreated after the session expired
+        dirtyMembershipBuckets.set(bucket);
+        return true;
+    }
+
+    private void removeMember(PinpointServer pinpointServer) {
+        Member member = createMember(pinpointServer);
+        if (member == null) {
+            return;
+        }
+
+        int bucket = getBucket(member);
+        if (membershipBuckets.get(bucket).remove(member)) {
+            dirtyMembershipBuckets.set(bucket);
+        }
+    }
+
+    private int getBucket(Member member) {
+        return (member.hashCode() & Integer.MAX_VALUE) % membershipBucketPaths.length;
+    }
+
+    private void flushMembershipBuckets() {
+        for (int bucket = dirtyMembershipBuckets.nextSetBit(0); bucket >= 0; bucket = dirtyMembershipBuckets.nextSetBit(bucket + 1)) {
+            dirtyMembershipBuckets.clear(bucket);
+
+            String bucketPath = membershipBucketPaths[bucket];
+            try {
+                byte[] contents = AgentMembershipCodec.encode(membershipBuckets.get(bucket));
+                if (zookeeperClient.exists(bucketPath)) {
+                    zookeeperClient.setData(bucketPath, contents);
+                } else {
+                    zookeeperClient.createPath(bucketPath);
+                    zookeeperClient.createNode(bucketPath, contents);
+                }
+            } catch (Exception e) {
+                logger.warn(e.getMessage(), e);
+                if (e instanceof TimeoutException) {
+                    dirtyMembershipBuckets.set(bucket);
+                }
+            }
+        }
+    }
+
     public List<PinpointServer> getRegisteredPinpointServerList() {
         return new ArrayList<PinpointServer>(pinpointServerRepository);
     }
@@ -384,6 +486,20 @@ public class ZookeeperLatestJobWorker implements Runnable {
         return true;
     }
 
+    private Member createMember(PinpointServer pinpointServer) {
+        Map<Object, Object> agentProperties = pinpointServer.getChannelProperties();
+        final String applicationName = MapUtils.getString(agentProperties, AgentHandshakePropertyType.APPLICATION_NAME.getName());
+        final String agentId = MapUtils.getString(agentProperties, AgentHandshakePropertyType.AGENT_ID.getName());
+        final Long startTimeStamp = MapUtils.getLong(agentProperties, AgentHandshakePropertyType.START_TIMESTAMP.getName());
+
+        if (StringUtils.isBlank(applicationName) || StringUtils.isBlank(agentId) || startTimeStamp == null || startTimeStamp <= 0) {
+            logger.warn("ApplicationName({}) and AgentId({}) and startTimeStamp({}) may not be null.", applicationName, agentId);
+            return null;
+        }
+
+        return new Member(applicationName, agentId, startTimeStamp);
+    }
+
     private String createProfilerContents(PinpointServer pinpointServer) {
         StringBuilder profilerContents = new StringBuilder();
 
@@ -33,6 +33,7 @@ import com.navercorp.pinpoint.collector.cluster.WorkerStateContext;
 import com.navercorp.pinpoint.collector.cluster.zookeeper.job.DeleteJob;
 import com.navercorp.pinpoint.collector.cluster.zookeeper.job.UpdateJob;
 import com.navercorp.pinpoint.collector.receiver.tcp.AgentHandshakePropertyType;
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec.Member;
 import com.navercorp.pinpoint.rpc.common.SocketStateCode;
 import com.navercorp.pinpoint.rpc.server.PinpointServer;
 import com.navercorp.pinpoint.rpc.server.handler.ChannelStateChangeEventHandler;
@@ -58,10 +59,14 @@ public class ZookeeperProfilerClusterManager implements ChannelStateChangeEventH
     // keep it simple - register on RUN, remove on FINISHED, skip otherwise
     // should only be instantiated when cluster is enabled.
     public ZookeeperProfilerClusterManager(ZookeeperClient client, String serverIdentifier, ClusterPointRepository profileCluster) {
+        this(client, serverIdentifier, profileCluster, 0);
+    }
+
+    public ZookeeperProfilerClusterManager(ZookeeperClient client, String serverIdentifier, ClusterPointRepository profileCluster, int membershipBucketCount) {
         this.workerState = new WorkerStateContext();
         this.profileCluster = profileCluster;
 
-        this.worker = new ZookeeperLatestJobWorker(client, serverIdentifier);
+        this.worker = new ZookeeperLatestJobWorker(client, serverIdentifier, membershipBucketCount);
     }
 
     public void start() {
@@ -148,6 +153,14 @@ public class ZookeeperProfilerClusterManager implements ChannelStateChangeEventH
     }
     
     public List<String> getClusterData() {
+        if (worker.isMembershipBucketEnabled()) {
+            List<String> result = new ArrayList<String>();
+            for (Member member : worker.getMembers()) {
+                result.add(member.toString());
+            }
+            return result;
+        }
+
         byte[] contents = worker.getClusterData();
         if (contents == null) {
             return Collections.emptyList();
@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.collector.config;
 
+import com.navercorp.pinpoint.common.util.NetUtils;
 import com.navercorp.pinpoint.common.util.PropertyUtils;
 import com.navercorp.pinpoint.common.util.SimpleProperty;
 import com.navercorp.pinpoint.common.util.SystemProperty;
@@ -66,6 +67,7 @@ public class CollectorConfiguration implements InitializingBean {
     private int udpStatWorkerThread;
     private int udpStatWorkerQueueSize;
     private int udpStatSocketReceiveBufferSize;
+    private String udpStatWorkerLanes;
 
     private String udpSpanListenIp = DEFAULT_LISTEN_IP;
     private int udpSpanListenPort;
@@ -73,6 +75,7 @@ public class CollectorConfiguration implements InitializingBean {
     private int udpSpanWorkerThread;
     private int udpSpanWorkerQueueSize;
     private int udpSpanSocketReceiveBufferSize;
+    private String udpSpanWorkerLanes;
     
     private int agentEventWorkerThreadSize;
     private int agentEventWorkerQueueSize;
@@ -83,6 +86,23 @@ public class CollectorConfiguration implements InitializingBean {
     private String clusterAddress;
     private int clusterSessionTimeout;
 
+    private boolean clusterCollectorBalanceEnable;
+    private String clusterCollectorAdvertiseIp;
+
+    private int clusterMembershipBucketCount;
+
+    private boolean traceSummaryEnable;
+    private List<String> traceSummaryUrlAnnotationKeyList = Collections.emptyList();
+
+    private boolean traceIndexBucketEnable;
+
+    private boolean agentStatBufferEnable;
+    private int agentStatBufferThreadSize;
+    private int agentStatBufferQueueSize;
+    private int agentStatBufferBatchSize;
+    private long agentStatBufferMaxDelay;
+    private boolean agentStatBufferDropWhenFull;
+
     public String getTcpListenIp() {
         return tcpListenIp;
     }
@@ -154,6 +174,14 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpStatSocketReceiveBufferSize = udpStatSocketReceiveBufferSize;
     }
 
+    public String getUdpStatWorkerLanes() {
+        return udpStatWorkerLanes;
+    }
+
+    public void setUdpStatWorkerLanes(String udpStatWorkerLanes) {
+        this.udpStatWorkerLanes = udpStatWorkerLanes;
+    }
+
     public String getUdpSpanListenIp() {
         return udpSpanListenIp;
     }
@@ -186,6 +214,14 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpSpanWorkerQueueSize = udpSpanWorkerQueueSize;
     }
 
+    public String getUdpSpanWorkerLanes() {
+        return udpSpanWorkerLanes;
+    }
+
+    public void setUdpSpanWorkerLanes(String udpSpanWorkerLanes) {
+        this.udpSpanWorkerLanes = udpSpanWorkerLanes;
+    }
+
     public int getUdpSpanSocketReceiveBufferSize() {
         return udpSpanSocketReceiveBufferSize;
     }
@@ -242,6 +278,102 @@ public class CollectorConfiguration implements InitializingBean {
         this.clusterSessionTimeout = clusterSessionTimeout;
     }
 
+    public boolean isClusterCollectorBalanceEnable() {
+        return clusterCollectorBalanceEnable;
+    }
+
+    public void setClusterCollectorBalanceEnable(boolean clusterCollectorBalanceEnable) {
+        this.clusterCollectorBalanceEnable = clusterCollectorBalanceEnable;
+    }
+
+    public String getClusterCollectorAdvertiseIp() {
+        return clusterCollectorAdvertiseIp;
+    }
+
+    public void setClusterCollectorAdvertiseIp(String clusterCollectorAdvertiseIp) {
+        this.clusterCollectorAdvertiseIp = clusterCollectorAdvertiseIp;
+    }
+
+    public int getClusterMembershipBucketCount() {
+        return clusterMembershipBucketCount;
+    }
+
+    public void setClusterMembershipBucketCount(int clusterMembershipBucketCount) {
+        this.clusterMembershipBucketCount = clusterMembershipBucketCount;
+    }
+
+    public boolean isTraceSummaryEnable() {
+        return traceSummaryEnable;
+    }
+
+    public void setTraceSummaryEnable(boolean traceSummaryEnable) {
+        this.traceSummaryEnable = traceSummaryEnable;
+    }
+
+    public List<String> getTraceSummaryUrlAnnotationKeyList() {
+        return traceSummaryUrlAnnotationKeyList;
+    }
+
+    public void setTraceSummaryUrlAnnotationKeyList(List<String> traceSummaryUrlAnnotationKeyList) {
+        this.traceSummaryUrlAnnotationKeyList = traceSummaryUrlAnnotationKeyList;
+    }
+
+    public boolean isTraceIndexBucketEnable() {
+        return traceIndexBucketEnable;
+    }
+
+    public void setTraceIndexBucketEnable(boolean traceIndexBucketEnable) {
+        this.traceIndexBucketEnable = traceIndexBucketEnable;
+    }
+
+    public boolean isAgentStatBufferEnable() {
+        return agentStatBufferEnable;
+    }
+
+    public void setAgentStatBufferEnable(boolean agentStatBufferEnable) {
+        this.agentStatBufferEnable = agentStatBufferEnable;
+    }
+
+    public int getAgentStatBufferThreadSize() {
+        return agentStatBufferThreadSize;
+    }
+
+    public void setAgentStatBufferThreadSize(int agentStatBufferThreadSize) {
+        this.agentStatBufferThreadSize = agentStatBufferThreadSize;
+    }
+
+    public int getAgentStatBufferQueueSize() {
+        return agentStatBufferQueueSize;
+    }
+
+    public void setAgentStatBufferQueueSize(int agentStatBufferQueueSize) {
+        this.agentStatBufferQueueSize = agentStatBufferQueueSize;
+    }
+
+    public int getAgentStatBufferBatchSize() {
+        return agentStatBufferBatchSize;
+    }
+
+    public void setAgentStatBufferBatchSize(int agentStatBufferBatchSize) {
+        this.agentStatBufferBatchSize = agentStatBufferBatchSize;
+    }
+
+    public long getAgentStatBufferMaxDelay() {
+        return agentStatBufferMaxDelay;
+    }
+
+    public void setAgentStatBufferMaxDelay(long agentStatBufferMaxDelay) {
+        this.agentStatBufferMaxDelay = agentStatBufferMaxDelay;
+    }
+
+    public boolean isAgentStatBufferDropWhenFull() {
+        return agentStatBufferDropWhenFull;
+    }
+
+    public void setAgentStatBufferDropWhenFull(boolean agentStatBufferDropWhenFull) {
+        this.agentStatBufferDropWhenFull = agentStatBufferDropWhenFull;
+    }
+
     public void readConfigFile() {
 
         // may be useful for some kind of standalone like testcase. It should be modified to read a classpath for testcase.
@@ -282,6 +414,7 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpStatWorkerThread = readInt(properties, "collector.udpStatWorkerThread", 128);
         this.udpStatWorkerQueueSize = readInt(properties, "collector.udpStatWorkerQueueSize", 1024);
         this.udpStatSocketReceiveBufferSize = readInt(properties, "collector.udpStatSocketReceiveBufferSize", 1024 * 4096);
+        this.udpStatWorkerLanes = readString(properties, "collector.udpStatWorkerLanes", "");
 
         this.udpSpanListenIp = readString(properties, "collector.udpSpanListenIp", DEFAULT_LISTEN_IP);
         this.udpSpanListenPort = readInt(properties, "collector.udpSpanListenPort", udpSpanListenPort);
@@ -289,6 +422,7 @@ public class CollectorConfiguration implements InitializingBean {
         this.udpSpanWorkerThread = readInt(properties, "collector.udpSpanWorkerThread", 256);
         this.udpSpanWorkerQueueSize = readInt(properties, "collector.udpSpanWorkerQueueSize", 1024 * 5);
         this.udpSpanSocketReceiveBufferSize = readInt(properties, "collector.udpSpanSocketReceiveBufferSize", 1024 * 4096);
+        this.udpSpanWorkerLanes = readString(properties, "collector.udpSpanWorkerLanes", "");
         
         this.agentEventWorkerThreadSize = readInt(properties, "collector.agentEventWorker.threadSize", 32);
         this.agentEventWorkerQueueSize = readInt(properties, "collector.agentEventWorker.queueSize", 1024 * 5);
@@ -303,6 +437,26 @@ public class CollectorConfiguration implements InitializingBean {
         this.clusterEnable = readBoolean(properties, "cluster.enable");
         this.clusterAddress = readString(properties, "cluster.zookeeper.address", "");
         this.clusterSessionTimeout = readInt(properties, "cluster.zookeeper.sessiontimeout", -1);
+
+        this.clusterCollectorBalanceEnable = readBoolean(properties, "cluster.collector.balance.enable");
+        this.clusterCollectorAdvertiseIp = readString(properties, "cluster.collector.advertise.ip", NetUtils.getLocalV4Ip());
+        this.clusterMembershipBucketCount = readInt(properties, "cluster.membership.bucket.count", 0);
+
+        this.traceSummaryEnable = readBoolean(properties, "collector.traceSummary.enable");
+        String[] traceSummaryUrlAnnotationKeys = StringUtils.split(readString(properties, "collector.traceSummary.urlAnnotationKeys", null), ",");
+        if (traceSummaryUrlAnnotationKeys == null) {
+            this.traceSummaryUrlAnnotationKeyList = Collections.emptyList();
+        } else {
+            this.traceSummaryUrlAnnotationKeyList = Arrays.asList(StringUtils.stripAll(traceSummaryUrlAnnotationKeys));
+        }
+        this.traceIndexBucketEnable = readBoolean(properties, "collector.traceIndexBucket.enable");
+
+        this.agentStatBufferEnable = readBoolean(properties, "collector.agentStatBuffer.enable");
+        this.agentStatBufferThreadSize = readInt(properties, "collector.agentStatBuffer.threadSize", 2);
+        this.agentStatBufferQueueSize = readInt(properties, "collector.agentStatBuffer.queueSize", 1024 * 20);
+        this.agentStatBufferBatchSize = readInt(properties, "collector.agentStatBuffer.batchSize", 500);
+        this.agentStatBufferMaxDelay = readInt(properties, "collector.agentStatBuffer.maxDelay", 1000);
+        this.agentStatBufferDropWhenFull = readBoolean(properties, "collector.agentStatBuffer.dropWhenFull");
     }
 
     private String readString(Properties properties, String propertyName, String defaultValue) {
@@ -347,17 +501,31 @@ public class CollectorConfiguration implements InitializingBean {
         sb.append(", udpStatWorkerThread=").append(udpStatWorkerThread);
         sb.append(", udpStatWorkerQueueSize=").append(udpStatWorkerQueueSize);
         sb.append(", udpStatSocketReceiveBufferSize=").append(udpStatSocketReceiveBufferSize);
+        sb.append(", udpStatWorkerLanes='").append(udpStatWorkerLanes).append('\'');
         sb.append(", udpSpanListenIp='").append(udpSpanListenIp).append('\'');
         sb.append(", udpSpanListenPort=").append(udpSpanListenPort);
         sb.append(", udpSpanWorkerThread=").append(udpSpanWorkerThread);
         sb.append(", udpSpanWorkerQueueSize=").append(udpSpanWorkerQueueSize);
         sb.append(", udpSpanSocketReceiveBufferSize=").append(udpSpanSocketReceiveBufferSize);
+        sb.append(", udpSpanWorkerLanes='").append(udpSpanWorkerLanes).append('\'');
         sb.append(", agentEventWorkerThreadSize=").append(agentEventWorkerThreadSize);
         sb.append(", agentEventWorkerQueueSize=").append(agentEventWorkerQueueSize);
         sb.append(", l4IpList=").append(l4IpList);
         sb.append(", clusterEnable=").append(clusterEnable);
         sb.append(", clusterAddress=").append(clusterAddress);
         sb.append(", clusterSessionTimeout=").append(clusterSessionTimeout);
+        sb.append(", clusterCollectorBalanceEnable=").append(clusterCollectorBalanceEnable);
+        sb.append(", clusterCollectorAdvertiseIp=").append(clusterCollectorAdvertiseIp);
+        sb.append(", clusterMembershipBucketCount=").append(clusterMembershipBucketCount);
+        sb.append(", traceSummaryEnable=").append(traceSummaryEnable);
+        sb.append(", traceSummaryUrlAnnotationKeyList=").append(traceSummaryUrlAnnotationKeyList);
+        sb.append(", traceIndexBucketEnable=").append(traceIndexBucketEnable);
+        sb.append(", agentStatBufferEnable=").append(agentStatBufferEnable);
+        sb.append(", agentStatBufferThreadSize=").append(agentStatBufferThreadSize);
+        sb.append(", agentStatBufferQueueSize=").append(agentStatBufferQueueSize);
+        sb.append(", agentStatBufferBatchSize=").append(agentStatBufferBatchSize);
+        sb.append(", agentStatBufferMaxDelay=").append(agentStatBufferMaxDelay);
+        sb.append(", agentStatBufferDropWhenFull=").append(agentStatBufferDropWhenFull);
         
         sb.append('}');
         return sb.toString();
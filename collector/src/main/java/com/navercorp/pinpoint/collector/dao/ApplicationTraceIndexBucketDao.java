@@ -0,0 +1,25 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao;
+
+/**
+ * Counts the ApplicationTraceIndex rows of each application per time slot,
+ * so that web can plan a scatter scan without scanning the whole range.
+ */
+public interface ApplicationTraceIndexBucketDao extends CachedStatisticsDao {
+    void received(String applicationName);
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+
+/**
+ * Queues the puts of a table and writes them from dedicated threads as batches of up to batchSize puts.
+ * A batch is written once it is full or its first put waited maxDelayMillis, so that the puts of many agents share one rpc.
+ *
+ * When the queue is full, the caller waits for the flush threads, or the put is dropped if dropWhenFull is set,
+ * which bounds the memory and the delay of the receivers while hbase is slow.
+ */
+public class BufferedPutWriter implements MetricSet {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final HbaseOperations2 hbaseTemplate;
+    private final String tableName;
+
+    private final BlockingQueue<Put> queue;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final boolean dropWhenFull;
+
+    private final Thread[] flushThreads;
+    private volatile boolean running;
+
+    private final Timer flushTimer = new Timer();
+    private final Counter writtenCounter = new Counter();
+    private final Counter failedCounter = new Counter();
+    private final Counter droppedCounter = new Counter();
+
+    public BufferedPutWriter(HbaseOperations2 hbaseTemplate, String tableName, int threadSize, int queueSize, int batchSize, long maxDelayMillis, boolean dropWhenFull) {
+        if (hbaseTemplate == null) {
+            throw new NullPointerException("hbaseTemplate must not be null");
+        }
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        if (threadSize <= 0) {
+            throw new IllegalArgumentException("threadSize must be positive. threadSize:" + threadSize);
+        }
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize must be positive. queueSize:" + queueSize);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive. batchSize:" + batchSize);
+        }
+        if (maxDelayMillis <= 0) {
+            throw new IllegalArgumentException("maxDelayMillis must be positive. maxDelayMillis:" + maxDelayMillis);
+        }
+        this.hbaseTemplate = hbaseTemplate;
+        this.tableName = tableName;
+        this.queue = new LinkedBlockingQueue<Put>(queueSize);
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.dropWhenFull = dropWhenFull;
+
+        final ThreadFactory threadFactory = PinpointThreadFactory.createThreadFactory(this.getClass().getSimpleName() + "-" + tableName, true);
+        this.flushThreads = new Thread[threadSize];
+        for (int i = 0; i < threadSize; i++) {
+            this.flushThreads[i] = threadFactory.newThread(new FlushWorker());
+        }
+    }
+
+    public void start() {
+        this.running = true;
+        for (Thread flushThread : flushThreads) {
+            flushThread.start();
+        }
+        logger.info("{} started. table:{} threadSize:{} batchSize:{} maxDelayMillis:{} dropWhenFull:{}", this.getClass().getSimpleName(), tableName, flushThreads.length, batchSize, maxDelayMillis, dropWhenFull);
+    }
+
+    /**
+     * waits for the flush threads to finish their batch, then writes the remaining puts from the calling thread.
+     */
+    public void stop() {
+        this.running = false;
+        for (Thread flushThread : flushThreads) {
+            try {
+                flushThread.join(maxDelayMillis + 3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        final List<Put> batch = new ArrayList<Put>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+        logger.info("{} stopped. table:{}", this.getClass().getSimpleName(), tableName);
+    }
+
+    /**
+     * @return false if the put was dropped
+     */
+    public boolean write(Put put) {
+        if (put == null) {
+            throw new NullPointerException("put must not be null");
+        }
+        if (dropWhenFull) {
+            if (queue.offer(put)) {
+                return true;
+            }
+            droppedCounter.inc();
+            return false;
+        }
+
+        try {
+            queue.put(put);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedCounter.inc();
+            return false;
+        }
+    }
+
+    private void flush(List<Put> batch) {
+        // the client may remove the written puts from the list
+        final int size = batch.size();
+        final Timer.Context context = flushTimer.time();
+        try {
+            hbaseTemplate.put(tableName, batch);
+            writtenCounter.inc(size);
+        } catch (Exception e) {
+            failedCounter.inc(size);
+            logger.warn("{} put failed. table:{} size:{} Caused:{}", this.getClass().getSimpleName(), tableName, size, e.getMessage(), e);
+        } finally {
+            context.stop();
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return writtenCounter.getCount();
+    }
+
+    public long getFailedCount() {
+        return failedCounter.getCount();
+    }
+
+    public long getDroppedCount() {
+        return droppedCounter.getCount();
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> metrics = new HashMap<String, Metric>();
+        metrics.put("queue", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return getQueueSize();
+            }
+        });
+        metrics.put("flush", flushTimer);
+        metrics.put("written", writtenCounter);
+        metrics.put("failed", failedCounter);
+        metrics.put("dropped", droppedCounter);
+        return metrics;
+    }
+
+    private class FlushWorker implements Runnable {
+
+        private final List<Put> batch = new ArrayList<Put>(batchSize);
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    final Put first = queue.poll(maxDelayMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    fillBatch(System.currentTimeMillis() + maxDelayMillis);
+
+                    flush(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void fillBatch(long deadline) throws InterruptedException {
+            while (batch.size() < batchSize) {
+                if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                    continue;
+                }
+                final long waitMillis = deadline - System.currentTimeMillis();
+                if (waitMillis <= 0 || !running) {
+                    return;
+                }
+                final Put next = queue.poll(waitMillis, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+            }
+        }
+    }
+}
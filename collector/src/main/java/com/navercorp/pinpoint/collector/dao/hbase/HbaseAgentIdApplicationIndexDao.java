@@ -25,11 +25,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.hadoop.hbase.RowMapper;
 
+import com.codahale.metrics.MetricRegistry;
 import com.navercorp.pinpoint.collector.dao.AgentIdApplicationIndexDao;
+import com.navercorp.pinpoint.collector.util.AtomicLongUpdateMap;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
 /**
  * find applicationname by agentId
  * 
@@ -47,6 +52,19 @@ public class HbaseAgentIdApplicationIndexDao implements AgentIdApplicationIndexD
     @Qualifier("applicationNameMapper")
     private RowMapper<String> applicationNameMapper;
 
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    // the index only changes when an agent id moves to another application. write it once per ttl.
+    private final AtomicLongUpdateMap<CacheKey> updater = new AtomicLongUpdateMap<CacheKey>(AtomicLongUpdateMap.DEFAULT_MAX_SIZE, TimeUnit.MINUTES.toMillis(5));
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(HbaseAgentIdApplicationIndexDao.class, "updater"), updater);
+        }
+    }
+
     @Override
     public void insert(String agentId, String applicationName) {
         if (agentId == null) {
@@ -55,6 +73,10 @@ public class HbaseAgentIdApplicationIndexDao implements AgentIdApplicationIndexD
         if (applicationName == null) {
             throw new NullPointerException("applicationName must not be null");
         }
+        final CacheKey cacheKey = new CacheKey(agentId, applicationName);
+        if (!updater.update(cacheKey)) {
+            return;
+        }
 
         byte[] agentIdByte = Bytes.toBytes(agentId);
         byte[] appNameByte = Bytes.toBytes(applicationName);
@@ -62,7 +84,13 @@ public class HbaseAgentIdApplicationIndexDao implements AgentIdApplicationIndexD
         Put put = new Put(agentIdByte);
         put.addColumn(AGENTID_APPLICATION_INDEX_CF_APPLICATION, appNameByte, appNameByte);
 
-        hbaseTemplate.put(AGENTID_APPLICATION_INDEX, put);
+        try {
+            hbaseTemplate.put(AGENTID_APPLICATION_INDEX, put);
+        } catch (RuntimeException ex) {
+            // not written. let the next agent info try again
+            updater.invalidate(cacheKey);
+            throw ex;
+        }
     }
 
     @Override
@@ -76,4 +104,32 @@ public class HbaseAgentIdApplicationIndexDao implements AgentIdApplicationIndexD
 
         return hbaseTemplate.get(AGENTID_APPLICATION_INDEX, get, applicationNameMapper);
     }
+
+    private static final class CacheKey {
+        private final String agentId;
+        private final String applicationName;
+
+        private CacheKey(String agentId, String applicationName) {
+            this.agentId = agentId;
+            this.applicationName = applicationName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CacheKey cacheKey = (CacheKey) o;
+
+            if (!agentId.equals(cacheKey.agentId)) return false;
+            return applicationName.equals(cacheKey.applicationName);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId.hashCode();
+            result = 31 * result + applicationName.hashCode();
+            return result;
+        }
+    }
 }
@@ -18,11 +18,22 @@ package com.navercorp.pinpoint.collector.dao.hbase;
 
 import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
 import com.navercorp.pinpoint.collector.dao.AgentStatDao;
 import com.navercorp.pinpoint.collector.mapper.thrift.ThriftBoMapper;
 import com.navercorp.pinpoint.common.bo.AgentStatCpuLoadBo;
@@ -43,6 +54,12 @@ import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 @Repository
 public class HbaseAgentStatDao implements AgentStatDao {
 
+    private static final String PUT_WRITER_METRIC_NAME = MetricRegistry.name(HbaseAgentStatDao.class, "putWriter");
+
+    private static final long DROP_LOG_INTERVAL_MILLIS = 10000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
     @Autowired
     private HbaseOperations2 hbaseTemplate;
 
@@ -58,6 +75,47 @@ public class HbaseAgentStatDao implements AgentStatDao {
     @Qualifier("agentStatRowKeyDistributor")
     private AbstractRowKeyDistributor rowKeyDistributor;
 
+    @Autowired
+    private CollectorConfiguration configuration;
+
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    // null when the puts are written one by one
+    private BufferedPutWriter putWriter;
+
+    private final AtomicLong lastDropLogTime = new AtomicLong();
+
+    @PostConstruct
+    public void initialize() {
+        if (!configuration.isAgentStatBufferEnable()) {
+            return;
+        }
+        this.putWriter = new BufferedPutWriter(hbaseTemplate, AGENT_STAT, configuration.getAgentStatBufferThreadSize(), configuration.getAgentStatBufferQueueSize(),
+                configuration.getAgentStatBufferBatchSize(), configuration.getAgentStatBufferMaxDelay(), configuration.isAgentStatBufferDropWhenFull());
+        this.putWriter.start();
+        if (metricRegistry != null) {
+            metricRegistry.register(PUT_WRITER_METRIC_NAME, putWriter);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (putWriter == null) {
+            return;
+        }
+        putWriter.stop();
+        if (metricRegistry != null) {
+            // a MetricSet is registered as one metric per entry, named with the given prefix
+            metricRegistry.removeMatching(new MetricFilter() {
+                @Override
+                public boolean matches(String name, Metric metric) {
+                    return name.startsWith(PUT_WRITER_METRIC_NAME + ".");
+                }
+            });
+        }
+    }
+
     public void insert(final TAgentStat agentStat) {
         if (agentStat == null) {
             throw new NullPointerException("agentStat must not be null");
@@ -73,7 +131,27 @@ public class HbaseAgentStatDao implements AgentStatDao {
         final AgentStatCpuLoadBo agentStatCpuLoadBo = this.agentStatCpuLoadBoMapper.map(agentStat);
         put.addColumn(AGENT_STAT_CF_STATISTICS, AGENT_STAT_CF_STATISTICS_CPU_LOAD, timestamp, agentStatCpuLoadBo.writeValue());
 
-        hbaseTemplate.put(AGENT_STAT, put);
+        if (putWriter != null) {
+            if (!putWriter.write(put)) {
+                logDropped(agentStat);
+            }
+        } else {
+            hbaseTemplate.put(AGENT_STAT, put);
+        }
+    }
+
+    /**
+     * the drops are counted by the writer, so only one warning per interval is logged.
+     */
+    private void logDropped(TAgentStat agentStat) {
+        final long now = System.currentTimeMillis();
+        final long last = lastDropLogTime.get();
+        if (now - last < DROP_LOG_INTERVAL_MILLIS) {
+            return;
+        }
+        if (lastDropLogTime.compareAndSet(last, now)) {
+            logger.warn("agent stat dropped. queue is full. agentId:{} totalDropped:{}", agentStat.getAgentId(), putWriter.getDroppedCount());
+        }
     }
 
     /**
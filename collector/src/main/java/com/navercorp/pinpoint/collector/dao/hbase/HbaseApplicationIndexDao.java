@@ -18,7 +18,9 @@ package com.navercorp.pinpoint.collector.dao.hbase;
 
 import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
 
+import com.codahale.metrics.MetricRegistry;
 import com.navercorp.pinpoint.collector.dao.ApplicationIndexDao;
+import com.navercorp.pinpoint.collector.util.AtomicLongUpdateMap;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
 
@@ -29,6 +31,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
 /**
  * application names list.
  *
@@ -43,11 +48,29 @@ public class HbaseApplicationIndexDao implements ApplicationIndexDao {
     @Autowired
     private HbaseOperations2 hbaseTemplate;
 
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    // agent info is sent on every (re)connect. write the index once per ttl.
+    private final AtomicLongUpdateMap<CacheKey> updater = new AtomicLongUpdateMap<CacheKey>(AtomicLongUpdateMap.DEFAULT_MAX_SIZE, TimeUnit.MINUTES.toMillis(5));
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(HbaseApplicationIndexDao.class, "updater"), updater);
+        }
+    }
+
     @Override
     public void insert(final TAgentInfo agentInfo) {
         if (agentInfo == null) {
             throw new NullPointerException("agentInfo must not be null");
         }
+        final CacheKey cacheKey = new CacheKey(agentInfo.getApplicationName(), agentInfo.getAgentId(), agentInfo.getServiceType());
+        if (!updater.update(cacheKey)) {
+            logger.debug("Skip insert agentInfo. {}", agentInfo);
+            return;
+        }
 
         Put put = new Put(Bytes.toBytes(agentInfo.getApplicationName()));
         byte[] qualifier = Bytes.toBytes(agentInfo.getAgentId());
@@ -55,8 +78,52 @@ public class HbaseApplicationIndexDao implements ApplicationIndexDao {
         
         put.addColumn(APPLICATION_INDEX_CF_AGENTS, qualifier, value);
         
-        hbaseTemplate.put(APPLICATION_INDEX, put);
+        try {
+            hbaseTemplate.put(APPLICATION_INDEX, put);
+        } catch (RuntimeException ex) {
+            // not written. let the next agent info try again
+            updater.invalidate(cacheKey);
+            throw ex;
+        }
 
         logger.debug("Insert agentInfo. {}", agentInfo);
     }
+
+    private static final class CacheKey {
+        private final String applicationName;
+        private final String agentId;
+        private final short serviceType;
+
+        private CacheKey(String applicationName, String agentId, short serviceType) {
+            if (applicationName == null) {
+                throw new NullPointerException("applicationName must not be null");
+            }
+            if (agentId == null) {
+                throw new NullPointerException("agentId must not be null");
+            }
+            this.applicationName = applicationName;
+            this.agentId = agentId;
+            this.serviceType = serviceType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CacheKey cacheKey = (CacheKey) o;
+
+            if (serviceType != cacheKey.serviceType) return false;
+            if (!applicationName.equals(cacheKey.applicationName)) return false;
+            return agentId.equals(cacheKey.agentId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = applicationName.hashCode();
+            result = 31 * result + agentId.hashCode();
+            result = 31 * result + (int) serviceType;
+            return result;
+        }
+    }
 }
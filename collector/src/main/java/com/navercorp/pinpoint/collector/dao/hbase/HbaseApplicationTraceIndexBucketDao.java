@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.client.Increment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexBucketDao;
+import com.navercorp.pinpoint.collector.util.AcceptedTimeService;
+import com.navercorp.pinpoint.collector.util.ConcurrentCounterMap;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.util.SpanUtils;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+
+/**
+ * Row counts of ApplicationTraceIndex per application and time slot.
+ * The row key has the layout of the ApplicationTraceIndex row key, without the hash prefix : application name + reversed slot time.
+ * So the buckets of a range are read newest first with a single small scan.
+ *
+ * Counts are accumulated in memory and flushed as bulk increments, like the server map statistics.
+ */
+@Repository
+public class HbaseApplicationTraceIndexBucketDao implements ApplicationTraceIndexBucketDao {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private HbaseOperations2 hbaseTemplate;
+
+    @Autowired
+    private AcceptedTimeService acceptedTimeService;
+
+    @Autowired
+    private TimeSlot timeSlot;
+
+    private final ConcurrentCounterMap<BucketKey> counter = new ConcurrentCounterMap<BucketKey>();
+
+    @Override
+    public void received(String applicationName) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        final long acceptedTime = acceptedTimeService.getAcceptedTime();
+        final long bucketTime = timeSlot.getTimeSlot(acceptedTime);
+        this.counter.increment(new BucketKey(applicationName, bucketTime), 1L);
+    }
+
+    @Override
+    public void flushAll() {
+        final Map<BucketKey, ConcurrentCounterMap.LongAdder> remove = this.counter.remove();
+        if (remove.isEmpty()) {
+            return;
+        }
+        final List<Increment> incrementList = new ArrayList<Increment>(remove.size());
+        for (Map.Entry<BucketKey, ConcurrentCounterMap.LongAdder> entry : remove.entrySet()) {
+            final BucketKey bucketKey = entry.getKey();
+            final byte[] rowKey = SpanUtils.getApplicationTraceIndexRowKey(bucketKey.applicationName, bucketKey.bucketTime);
+            final Increment increment = new Increment(rowKey);
+            increment.addColumn(APPLICATION_TRACE_INDEX_BUCKET_CF_COUNT, APPLICATION_TRACE_INDEX_BUCKET_CQ_COUNT, entry.getValue().get());
+            incrementList.add(increment);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("flush {} Increment:{}", this.getClass().getSimpleName(), incrementList.size());
+        }
+        hbaseTemplate.increment(APPLICATION_TRACE_INDEX_BUCKET, incrementList);
+    }
+
+    private static final class BucketKey {
+        private final String applicationName;
+        private final long bucketTime;
+
+        private BucketKey(String applicationName, long bucketTime) {
+            this.applicationName = applicationName;
+            this.bucketTime = bucketTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BucketKey that = (BucketKey) o;
+
+            if (bucketTime != that.bucketTime) return false;
+            return applicationName.equals(that.applicationName);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = applicationName.hashCode();
+            result = 31 * result + (int) (bucketTime ^ (bucketTime >>> 32));
+            return result;
+        }
+    }
+}
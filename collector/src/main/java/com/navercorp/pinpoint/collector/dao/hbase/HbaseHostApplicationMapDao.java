@@ -27,12 +27,15 @@ import com.navercorp.pinpoint.common.util.TimeSlot;
 import com.navercorp.pinpoint.common.util.TimeUtils;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+
 /**
  * 
  * @author netspider
@@ -56,9 +59,18 @@ public class HbaseHostApplicationMapDao implements HostApplicationMapDao {
     @Qualifier("acceptApplicationRowKeyDistributor")
     private AbstractRowKeyDistributor rowKeyDistributor;
 
-    // FIXME should modify to save a cachekey at each 30~50 seconds instead of saving at each time
+    @Autowired(required = false)
+    private MetricRegistry metricRegistry;
+
+    // the time slot already limits writes to once per slot. the map only needs to be bounded.
     private final AtomicLongUpdateMap<CacheKey> updater = new AtomicLongUpdateMap<CacheKey>();
 
+    @PostConstruct
+    public void registerMetrics() {
+        if (metricRegistry != null) {
+            metricRegistry.register(MetricRegistry.name(HbaseHostApplicationMapDao.class, "updater"), updater);
+        }
+    }
 
     @Override
     public void insert(String host, String bindApplicationName, short bindServiceType, String parentApplicationName, short parentServiceType) {
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.TraceSummaryDao;
+import com.navercorp.pinpoint.collector.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.bo.AnnotationBo;
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.service.AnnotationKeyRegistryService;
+import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
+import com.navercorp.pinpoint.common.trace.AnnotationKey;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.SpanUtils;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+
+/**
+ * The row key is the same as {@link HbaseTraceDao}. Only span events that are drawn on the server map (isRecordStatistics) are kept.
+ * spanEventCount is the number of all span events of the span or span chunk, so that web can tell a summary missing some of
+ * the span events written to Traces.
+ *
+ * <pre>
+ * span qualifier  : spanId(8)
+ * span value      : version(1) applicationId(prefixed) agentId(prefixed) serviceType(2) parentSpanId(svar) elapsed(var) errCode(svar) rpc(prefixed) spanEventCount(var) events
+ * chunk qualifier : spanId(8) sequence(2) asyncId(4) asyncSequence(2) of the first span event
+ * chunk value     : version(1) spanEventCount(var) events
+ * events          : count(var) { serviceType(2) destinationId(prefixed) endElapsed(var) hasException(1) [exceptionId(svar)] url(prefixed) }
+ * </pre>
+ */
+@Repository
+public class HbaseTraceSummaryDao implements TraceSummaryDao {
+
+    public static final byte VERSION = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private HbaseOperations2 hbaseTemplate;
+
+    @Autowired
+    private AcceptedTimeService acceptedTimeService;
+
+    @Autowired
+    @Qualifier("traceDistributor")
+    private AbstractRowKeyDistributor rowKeyDistributor;
+
+    @Autowired
+    private ServiceTypeRegistryService serviceTypeRegistryService;
+
+    @Autowired
+    private AnnotationKeyRegistryService annotationKeyRegistryService;
+
+    @Autowired
+    private CollectorConfiguration configuration;
+
+    private int[] urlAnnotationKeys = new int[] { AnnotationKey.HTTP_URL.getCode() };
+
+    @PostConstruct
+    public void findUrlAnnotationKeys() {
+        final List<Integer> keyList = new ArrayList<Integer>();
+        keyList.add(AnnotationKey.HTTP_URL.getCode());
+        for (String name : configuration.getTraceSummaryUrlAnnotationKeyList()) {
+            try {
+                keyList.add(annotationKeyRegistryService.findAnnotationKeyByName(name).getCode());
+            } catch (NoSuchElementException e) {
+                logger.warn("url annotation key not found. name:{}", name);
+            }
+        }
+
+        final int[] urlAnnotationKeys = new int[keyList.size()];
+        for (int i = 0; i < urlAnnotationKeys.length; i++) {
+            urlAnnotationKeys[i] = keyList.get(i);
+        }
+        this.urlAnnotationKeys = urlAnnotationKeys;
+    }
+
+    @Override
+    public void insert(TSpan span) {
+        if (span == null) {
+            throw new NullPointerException("span must not be null");
+        }
+        final SpanBo spanBo = new SpanBo(span);
+
+        final Buffer buffer = new AutomaticBuffer(64);
+        buffer.put(VERSION);
+        buffer.putPrefixedString(spanBo.getApplicationId());
+        buffer.putPrefixedString(spanBo.getAgentId());
+        buffer.put(spanBo.getServiceType());
+        buffer.putSVar(spanBo.getParentSpanId());
+        buffer.putVar(spanBo.getElapsed());
+        buffer.putSVar(spanBo.getErrCode());
+        buffer.putPrefixedString(spanBo.getRpc());
+
+        final List<TSpanEvent> spanEventList = span.getSpanEventList();
+        buffer.putVar(spanEventList == null ? 0 : spanEventList.size());
+        writeSpanEvents(buffer, span, null, spanEventList);
+
+        final byte[] rowKey = rowKeyDistributor.getDistributedKey(SpanUtils.getTransactionId(span));
+        final Put put = new Put(rowKey);
+        put.addColumn(TRACE_SUMMARY_CF_SUMMARY, Bytes.toBytes(spanBo.getSpanId()), acceptedTimeService.getAcceptedTime(), buffer.getBuffer());
+        hbaseTemplate.put(TRACE_SUMMARY, put);
+    }
+
+    @Override
+    public void insertSpanChunk(TSpanChunk spanChunk) {
+        if (spanChunk == null) {
+            throw new NullPointerException("spanChunk must not be null");
+        }
+        final List<TSpanEvent> spanEventList = spanChunk.getSpanEventList();
+        if (CollectionUtils.isEmpty(spanEventList)) {
+            return;
+        }
+
+        final Buffer buffer = new AutomaticBuffer(32);
+        buffer.put(VERSION);
+        buffer.putVar(spanEventList.size());
+        writeSpanEvents(buffer, null, spanChunk, spanEventList);
+
+        final SpanEventBo first = new SpanEventBo(spanChunk, spanEventList.get(0));
+        final byte[] qualifier = BytesUtils.add(first.getSpanId(), first.getSequence(), first.getAsyncId(), first.getAsyncSequence());
+
+        final byte[] rowKey = rowKeyDistributor.getDistributedKey(SpanUtils.getTransactionId(spanChunk));
+        final Put put = new Put(rowKey);
+        put.addColumn(TRACE_SUMMARY_CF_SUMMARY, qualifier, acceptedTimeService.getAcceptedTime(), buffer.getBuffer());
+        hbaseTemplate.put(TRACE_SUMMARY, put);
+    }
+
+    private void writeSpanEvents(Buffer buffer, TSpan span, TSpanChunk spanChunk, List<TSpanEvent> spanEventList) {
+        if (CollectionUtils.isEmpty(spanEventList)) {
+            buffer.putVar(0);
+            return;
+        }
+        int count = 0;
+        for (TSpanEvent spanEvent : spanEventList) {
+            if (isSummaryTarget(spanEvent)) {
+                count++;
+            }
+        }
+        buffer.putVar(count);
+        if (count == 0) {
+            return;
+        }
+
+        for (TSpanEvent spanEvent : spanEventList) {
+            if (!isSummaryTarget(spanEvent)) {
+                continue;
+            }
+            final SpanEventBo spanEventBo = (span != null) ? new SpanEventBo(span, spanEvent) : new SpanEventBo(spanChunk, spanEvent);
+            buffer.put(spanEventBo.getServiceType());
+            buffer.putPrefixedString(spanEventBo.getDestinationId());
+            buffer.putVar(spanEventBo.getEndElapsed());
+            buffer.put(spanEventBo.hasException());
+            if (spanEventBo.hasException()) {
+                buffer.putSVar(spanEventBo.getExceptionId());
+            }
+            buffer.putPrefixedString(findUrl(spanEventBo));
+        }
+    }
+
+    private boolean isSummaryTarget(TSpanEvent spanEvent) {
+        final ServiceType serviceType = serviceTypeRegistryService.findServiceType(spanEvent.getServiceType());
+        return serviceType.isRecordStatistics();
+    }
+
+    private String findUrl(SpanEventBo spanEventBo) {
+        final List<AnnotationBo> annotationBoList = spanEventBo.getAnnotationBoList();
+        if (annotationBoList == null) {
+            return null;
+        }
+        for (AnnotationBo annotationBo : annotationBoList) {
+            if (isUrlAnnotationKey(annotationBo.getKey())) {
+                final Object value = annotationBo.getValue();
+                if (value instanceof String) {
+                    return (String) value;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isUrlAnnotationKey(int key) {
+        for (int urlAnnotationKey : urlAnnotationKeys) {
+            if (key == urlAnnotationKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
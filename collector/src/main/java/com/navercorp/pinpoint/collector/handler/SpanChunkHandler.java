@@ -26,6 +26,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.TraceSummaryDao;
 import com.navercorp.pinpoint.collector.dao.TracesDao;
 import com.navercorp.pinpoint.common.util.SpanEventUtils;
 import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
@@ -44,6 +46,12 @@ public class SpanChunkHandler implements SimpleHandler {
     @Autowired
     private TracesDao traceDao;
 
+    @Autowired
+    private TraceSummaryDao traceSummaryDao;
+
+    @Autowired
+    private CollectorConfiguration configuration;
+
     @Autowired
     private StatisticsHandler statisticsHandler;
 
@@ -65,6 +73,9 @@ public class SpanChunkHandler implements SimpleHandler {
             }
 
             traceDao.insertSpanChunk(spanChunk);
+            if (configuration.isTraceSummaryEnable()) {
+                traceSummaryDao.insertSpanChunk(spanChunk);
+            }
 
             final ServiceType applicationServiceType = getApplicationServiceType(spanChunk);
             List<TSpanEvent> spanEventList = spanChunk.getSpanEventList();
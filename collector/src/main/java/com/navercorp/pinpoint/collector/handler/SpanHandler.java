@@ -27,8 +27,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexBucketDao;
 import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.collector.dao.HostApplicationMapDao;
+import com.navercorp.pinpoint.collector.dao.TraceSummaryDao;
 import com.navercorp.pinpoint.collector.dao.TracesDao;
 import com.navercorp.pinpoint.common.util.SpanEventUtils;
 import com.navercorp.pinpoint.thrift.dto.TSpan;
@@ -48,6 +51,15 @@ public class SpanHandler implements SimpleHandler {
     @Autowired
     private TracesDao traceDao;
 
+    @Autowired
+    private TraceSummaryDao traceSummaryDao;
+
+    @Autowired
+    private ApplicationTraceIndexBucketDao applicationTraceIndexBucketDao;
+
+    @Autowired
+    private CollectorConfiguration configuration;
+
     @Autowired
     private ApplicationTraceIndexDao applicationTraceIndexDao;
 
@@ -74,6 +86,12 @@ public class SpanHandler implements SimpleHandler {
 
             traceDao.insert(span);
             applicationTraceIndexDao.insert(span);
+            if (configuration.isTraceSummaryEnable()) {
+                traceSummaryDao.insert(span);
+            }
+            if (configuration.isTraceIndexBucketEnable()) {
+                applicationTraceIndexBucketDao.received(span.getApplicationName());
+            }
 
             // insert statistics info for server map
             insertAcceptorHost(span);
@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.collector.receiver.tcp;
 import java.util.Map;
 
 import com.navercorp.pinpoint.rpc.util.ClassUtils;
+import com.navercorp.pinpoint.rpc.util.MapUtils;
 /**
  * You must modify {@link com.navercorp.pinpoint.profiler.AgentHandshakePropertyType} when you modify this enum type.
  * But There is no compatibility issue if you only add some properties.  
@@ -26,6 +27,8 @@ import com.navercorp.pinpoint.rpc.util.ClassUtils;
 public enum AgentHandshakePropertyType {
 
     SUPPORT_SERVER("supportServer", Boolean.class),
+    // metadata and streaming channels of an agent. only its control channel is the agent session.
+    AUXILIARY_CHANNEL("auxiliaryChannel", Boolean.class),
 
     HOSTNAME("hostName", String.class),
     IP("ip", String.class),
@@ -57,7 +60,7 @@ public enum AgentHandshakePropertyType {
         for (AgentHandshakePropertyType type : AgentHandshakePropertyType.values()) {
             Object value = properties.get(type.getName());
 
-            if (type == SUPPORT_SERVER) {
+            if (type == SUPPORT_SERVER || type == AUXILIARY_CHANNEL) {
                 continue;
             }
 
@@ -73,4 +76,14 @@ public enum AgentHandshakePropertyType {
         return true;
     }
 
+    /**
+     * @return true for the additional channels of an agent, whose pings and state changes are not agent life cycle events.
+     */
+    public static boolean isAuxiliaryChannel(Map<Object, Object> properties) {
+        if (properties == null) {
+            return false;
+        }
+        return MapUtils.getBoolean(properties, AUXILIARY_CHANNEL.getName(), false);
+    }
+
 }
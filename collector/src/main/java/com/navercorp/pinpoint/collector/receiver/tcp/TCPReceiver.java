@@ -124,6 +124,9 @@ public class TCPReceiver {
         this.serverAcceptor = serverAcceptor;
         if (service != null && service.isEnable()) {
             this.serverAcceptor.addStateChangeEventHandler(service.getChannelStateChangeEventHandler());
+            if (service.getCollectorClusterManager() != null) {
+                this.serverAcceptor.addStateChangeEventHandler(service.getCollectorClusterManager());
+            }
         }
     }
     
@@ -218,7 +221,11 @@ public class TCPReceiver {
         }
     }
     
-    private void recordPing(PingPacket pingPacket, PinpointServer pinpointServer) {
+    void recordPing(PingPacket pingPacket, PinpointServer pinpointServer) {
+        if (AgentHandshakePropertyType.isAuxiliaryChannel(pinpointServer.getChannelProperties())) {
+            // the control channel of the agent records its pings
+            return;
+        }
         final int eventCounter = pingPacket.getPingId();
         long pingTimestamp = System.currentTimeMillis();
         try {
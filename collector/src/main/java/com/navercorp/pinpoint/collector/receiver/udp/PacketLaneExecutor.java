@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.navercorp.pinpoint.common.util.ExecutorFactory;
+
+/**
+ * Runs the packets of a receiver on a worker pool per group of header types (lane), so that a flood of one type
+ * does not take the queue of the others.
+ * <p>
+ * Lanes are listed in priority order as {@code name=headerType[+headerType...]:threadSize:queueSize}, separated by commas.
+ * ex) {@code stat=56+55:8:512,other=10+400:2:128}. Header types not listed go to the last lane.
+ * <p>
+ * When the receiver falls behind, low priority lanes are shed first : the lane at index i of n only accepts packets while the
+ * packets queued in all lanes are below (n - i) / n of the total queue size. The first lane is only limited by its own queue.
+ *
+ * @see com.navercorp.pinpoint.thrift.io.DefaultTBaseLocator for header types
+ */
+public class PacketLaneExecutor {
+
+    private static final String LANE_SEPARATOR = ",";
+    private static final String NAME_SEPARATOR = "=";
+    private static final String FIELD_SEPARATOR = ":";
+    private static final String TYPE_SEPARATOR = "+";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Lane[] lanes;
+    private final Map<Short, Lane> laneMap = new HashMap<Short, Lane>();
+    private final int totalThreadSize;
+    private final int totalQueueSize;
+
+    public PacketLaneExecutor(String receiverName, String laneSpec, MetricRegistry metricRegistry) {
+        if (receiverName == null) {
+            throw new NullPointerException("receiverName must not be null");
+        }
+        if (metricRegistry == null) {
+            throw new NullPointerException("metricRegistry must not be null");
+        }
+        final List<LaneSpec> laneSpecList = parse(laneSpec);
+        if (laneSpecList.isEmpty()) {
+            throw new IllegalArgumentException("no lane. laneSpec:" + laneSpec);
+        }
+
+        int threadSize = 0;
+        int queueSize = 0;
+        for (LaneSpec spec : laneSpecList) {
+            threadSize += spec.threadSize;
+            queueSize += spec.queueSize;
+        }
+        this.totalThreadSize = threadSize;
+        this.totalQueueSize = queueSize;
+
+        final int laneCount = laneSpecList.size();
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            final LaneSpec spec = laneSpecList.get(i);
+            final String laneName = receiverName + "-" + spec.name;
+            final ThreadPoolExecutor executor = ExecutorFactory.newFixedThreadPool(spec.threadSize, spec.queueSize, laneName + "-Worker", true);
+            final int admissionLimit = (int) ((long) totalQueueSize * (laneCount - i) / laneCount);
+            final Lane lane = new Lane(spec.name, executor, admissionLimit, metricRegistry.counter(laneName + "-rejected"), metricRegistry.counter(laneName + "-shed"));
+            this.lanes[i] = lane;
+            for (Short headerType : spec.headerTypes) {
+                if (laneMap.containsKey(headerType)) {
+                    throw new IllegalArgumentException("duplicated headerType:" + headerType + " laneSpec:" + laneSpec);
+                }
+                laneMap.put(headerType, lane);
+            }
+        }
+    }
+
+    /**
+     * @return false if the task was shed or rejected
+     */
+    public boolean execute(short headerType, Runnable task) {
+        final Lane lane = getLane(headerType);
+        if (getBacklog() >= lane.admissionLimit) {
+            lane.shedCounter.inc();
+            return false;
+        }
+        try {
+            lane.executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException ree) {
+            lane.rejectedCounter.inc();
+            return false;
+        }
+    }
+
+    private Lane getLane(short headerType) {
+        final Lane lane = laneMap.get(headerType);
+        if (lane == null) {
+            return lanes[lanes.length - 1];
+        }
+        return lane;
+    }
+
+    private int getBacklog() {
+        int backlog = 0;
+        for (Lane lane : lanes) {
+            backlog += lane.executor.getQueue().size();
+        }
+        return backlog;
+    }
+
+    public int getActiveCount() {
+        int activeCount = 0;
+        for (Lane lane : lanes) {
+            activeCount += lane.executor.getActiveCount();
+        }
+        return activeCount;
+    }
+
+    public int getTotalThreadSize() {
+        return totalThreadSize;
+    }
+
+    public int getTotalQueueSize() {
+        return totalQueueSize;
+    }
+
+    public void shutdown(long timeoutMillis) {
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                logger.info("{} lane shutdown() Interrupted", lane.name, e);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    static List<LaneSpec> parse(String laneSpec) {
+        final List<LaneSpec> result = new ArrayList<LaneSpec>();
+        if (StringUtils.isBlank(laneSpec)) {
+            return result;
+        }
+        for (String lane : StringUtils.split(laneSpec, LANE_SEPARATOR)) {
+            lane = lane.trim();
+            if (lane.isEmpty()) {
+                continue;
+            }
+            final String[] nameAndFields = StringUtils.split(lane, NAME_SEPARATOR);
+            if (nameAndFields.length != 2) {
+                throw new IllegalArgumentException("invalid lane:" + lane);
+            }
+            final String[] fields = StringUtils.split(nameAndFields[1], FIELD_SEPARATOR);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("invalid lane:" + lane);
+            }
+            try {
+                final List<Short> headerTypes = new ArrayList<Short>();
+                for (String headerType : StringUtils.split(fields[0], TYPE_SEPARATOR)) {
+                    headerTypes.add(Short.valueOf(headerType.trim()));
+                }
+                final int threadSize = Integer.parseInt(fields[1].trim());
+                final int queueSize = Integer.parseInt(fields[2].trim());
+                if (threadSize <= 0 || queueSize <= 0) {
+                    throw new IllegalArgumentException("threadSize and queueSize must be positive. lane:" + lane);
+                }
+                result.add(new LaneSpec(nameAndFields[0].trim(), headerTypes, threadSize, queueSize));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid lane:" + lane, e);
+            }
+        }
+        return result;
+    }
+
+    static class LaneSpec {
+        private final String name;
+        private final List<Short> headerTypes;
+        private final int threadSize;
+        private final int queueSize;
+
+        LaneSpec(String name, List<Short> headerTypes, int threadSize, int queueSize) {
+            this.name = name;
+            this.headerTypes = headerTypes;
+            this.threadSize = threadSize;
+            this.queueSize = queueSize;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        List<Short> getHeaderTypes() {
+            return headerTypes;
+        }
+
+        int getThreadSize() {
+            return threadSize;
+        }
+
+        int getQueueSize() {
+            return queueSize;
+        }
+    }
+
+    private static class Lane {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final int admissionLimit;
+        private final Counter rejectedCounter;
+        private final Counter shedCounter;
+
+        private Lane(String name, ThreadPoolExecutor executor, int admissionLimit, Counter rejectedCounter, Counter shedCounter) {
+            this.name = name;
+            this.executor = executor;
+            this.admissionLimit = admissionLimit;
+            this.rejectedCounter = rejectedCounter;
+            this.shedCounter = shedCounter;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import com.navercorp.pinpoint.common.util.ExecutorFactory;
 import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.rpc.util.CpuUtils;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -71,6 +72,10 @@ public class UDPReceiver implements DataReceiver {
     private int workerThreadSize = 128;
     private int workerThreadQueueSize = 1024;
 
+    // runs the packets on a worker pool per header type instead of the worker when set
+    private String workerLanes;
+    private PacketLaneExecutor laneExecutor;
+
     // can't really allocate memory as max udp packet sizes are unknown.
     // not allocating memory in advance as I am unsure of the max udp packet size.
     // packet cache is necessary as the JVM does not last long if they are dynamically created with the maximum size.
@@ -116,9 +121,16 @@ public class UDPReceiver implements DataReceiver {
         Assert.notNull(metricRegistry, "metricRegistry must not be null");
         Assert.notNull(packetHandlerFactory, "packetHandlerFactory must not be null");
 
-        final int packetPoolSize = getPacketPoolSize(workerThreadSize, workerThreadQueueSize);
+        final int packetPoolSize;
+        if (StringUtils.isBlank(workerLanes)) {
+            packetPoolSize = getPacketPoolSize(workerThreadSize, workerThreadQueueSize);
+            this.worker = ExecutorFactory.newFixedThreadPool(workerThreadSize, workerThreadQueueSize, receiverName + "-Worker", true);
+        } else {
+            this.laneExecutor = new PacketLaneExecutor(receiverName, workerLanes, metricRegistry);
+            packetPoolSize = getPacketPoolSize(laneExecutor.getTotalThreadSize(), laneExecutor.getTotalQueueSize());
+            logger.info("{} workerLanes:{}", receiverName, workerLanes);
+        }
         this.datagramPacketPool = new DefaultObjectPool<DatagramPacket>(new DatagramPacketFactory(), packetPoolSize);
-        this.worker = ExecutorFactory.newFixedThreadPool(workerThreadSize, workerThreadQueueSize, receiverName + "-Worker", true);
 
         this.timer = metricRegistry.timer(receiverName + "-timer");
         this.rejectedCounter = metricRegistry.counter(receiverName + "-rejected");
@@ -146,6 +158,10 @@ public class UDPReceiver implements DataReceiver {
                 }
                 return;
             }
+            if (laneExecutor != null) {
+                dispatchToLane(pooledPacket);
+                continue;
+            }
             if (debugEnabled) {
                 logger.debug("pool getActiveCount:{}", worker.getActiveCount());
             }
@@ -161,6 +177,16 @@ public class UDPReceiver implements DataReceiver {
         }
     }
 
+    private void dispatchToLane(PooledObject<DatagramPacket> pooledPacket) {
+        final short headerType = PacketUtils.getHeaderType(pooledPacket.getObject());
+        if (laneExecutor.execute(headerType, wrapDispatchTask(pooledPacket))) {
+            return;
+        }
+        // the packet was shed, the pooled packet can be read into again
+        pooledPacket.returnObject();
+        handleRejectedExecutionException(null);
+    }
+
     private void handleRejectedExecutionException(RejectedExecutionException ree) {
         rejectedCounter.inc();
         final int error = rejectedExecutionCount.incrementAndGet();
@@ -290,7 +316,15 @@ public class UDPReceiver implements DataReceiver {
             socket.close();
         }
         shutdownExecutor(io, "IoExecutor");
-        shutdownExecutor(worker, "WorkerExecutor");
+        if (laneExecutor != null) {
+            laneExecutor.shutdown(1000 * 10);
+        } else {
+            shutdownExecutor(worker, "WorkerExecutor");
+        }
+    }
+
+    public void setWorkerLanes(String workerLanes) {
+        this.workerLanes = workerLanes;
     }
 
     private void shutdownExecutor(ExecutorService executor, String executorName) {
@@ -16,46 +16,266 @@
 
 package com.navercorp.pinpoint.collector.util;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.common.util.SystemClock;
 
 /**
+ * Remembers the latest time written for each key, so that redundant writes can be suppressed.
+ *
+ * The map is bounded : keys are spread over lock striped segments, and each segment evicts its least recently used key when full.
+ * A key also expires after the given ttl, so that a write is repeated at least once per ttl.
+ * An evicted or expired key only costs one redundant write.
+ *
  * @author emeroad
  */
-public class AtomicLongUpdateMap<T> {
-    // FIXME consider to save a mapping information at each 30 ~ 50 seconds not to do at each time.
-    // consider to change to LRU due to OOM risk
+public class AtomicLongUpdateMap<T> implements MetricSet {
+
+    public static final int DEFAULT_MAX_SIZE = 1024 * 64;
+    public static final long NO_EXPIRATION = 0;
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 32;
 
-    private final ConcurrentMap<T, AtomicLong> cache = new ConcurrentHashMap<T, AtomicLong>(1024, 0.75f, 32);
+    private final Segment<T>[] segments;
+    private final int segmentMask;
 
+    private final long ttlMillis;
+    private final Clock clock;
 
+    public AtomicLongUpdateMap() {
+        this(DEFAULT_MAX_SIZE, NO_EXPIRATION);
+    }
+
+    public AtomicLongUpdateMap(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, DEFAULT_CONCURRENCY_LEVEL, SystemClock.INSTANCE);
+    }
+
+    AtomicLongUpdateMap(int maxSize, long ttlMillis, int concurrencyLevel, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("ttlMillis must not be negative");
+        }
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be greater than 0");
+        }
+        if (clock == null) {
+            throw new NullPointerException("clock must not be null");
+        }
+        final int segmentCount = Math.min(ceilingPowerOfTwo(concurrencyLevel), ceilingPowerOfTwo(maxSize));
+        final int segmentCapacity = Math.max(1, maxSize / segmentCount);
+
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment<T>(segmentCapacity);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int result = 1;
+        while (result < value && result < (1 << 30)) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the key is new, expired or the given time is later than the remembered one.
+     */
     public boolean update(final T cacheKey, final long time) {
         if (cacheKey == null) {
             throw new NullPointerException("cacheKey must not be null");
         }
-        final AtomicLong hitSlot = cache.get(cacheKey);
-        if (hitSlot == null ) {
-            final AtomicLong newTime = new AtomicLong(time);
-            final AtomicLong oldTime = cache.putIfAbsent(cacheKey, newTime);
-            if (oldTime == null) {
+        final Segment<T> segment = segmentFor(cacheKey);
+        return segment.update(cacheKey, time, clock.getTime(), ttlMillis);
+    }
 
-                return true;
-            } else {
-                // the cachekey already exists
-                return updateTime(time, oldTime);
+    /**
+     * for keys without a time dimension.
+     * @return true if the key is new or expired. so true is returned at most once per ttl unless the key is evicted.
+     */
+    public boolean update(final T cacheKey) {
+        return update(cacheKey, 0);
+    }
+
+    /**
+     * forgets the key, so that the next update returns true. for a write that failed after its update.
+     */
+    public void invalidate(final T cacheKey) {
+        if (cacheKey == null) {
+            throw new NullPointerException("cacheKey must not be null");
+        }
+        final Segment<T> segment = segmentFor(cacheKey);
+        segment.invalidate(cacheKey);
+    }
+
+    private Segment<T> segmentFor(T cacheKey) {
+        int hash = cacheKey.hashCode();
+        // spread the higher bits. same as ConcurrentHashMap
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return segments[hash & segmentMask];
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<T> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * number of suppressed updates.
+     */
+    public long getHitCount() {
+        long count = 0;
+        for (Segment<T> segment : segments) {
+            count += segment.getHitCount();
+        }
+        return count;
+    }
+
+    /**
+     * number of updates that must be written.
+     */
+    public long getMissCount() {
+        long count = 0;
+        for (Segment<T> segment : segments) {
+            count += segment.getMissCount();
+        }
+        return count;
+    }
+
+    /**
+     * number of keys dropped by the size bound or the ttl.
+     */
+    public long getEvictionCount() {
+        long count = 0;
+        for (Segment<T> segment : segments) {
+            count += segment.getEvictionCount();
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> metrics = new HashMap<String, Metric>();
+        metrics.put("size", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return size();
+            }
+        });
+        metrics.put("hit", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getHitCount();
+            }
+        });
+        metrics.put("miss", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getMissCount();
             }
-        } else {
-            // update if the cachekey already exists
-            return updateTime(time, hitSlot);
+        });
+        metrics.put("eviction", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return getEvictionCount();
+            }
+        });
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private static final class Slot {
+        private long time;
+        private long writeTime;
+
+        private Slot(long time, long writeTime) {
+            this.time = time;
+            this.writeTime = writeTime;
         }
     }
 
-    private boolean updateTime(final long newTime, final AtomicLong oldTime) {
-        final long oldLong = oldTime.get();
-        if (newTime > oldLong) {
-            return oldTime.compareAndSet(oldLong, newTime);
+    private static final class Segment<T> extends LinkedHashMap<T, Slot> {
+
+        private final int capacity;
+
+        // guarded by this
+        private long hitCount;
+        private long missCount;
+        private long evictionCount;
+
+        private Segment(int capacity) {
+            // access order for LRU
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        private synchronized boolean update(T cacheKey, long time, long currentTime, long ttlMillis) {
+            final Slot slot = get(cacheKey);
+            if (slot == null) {
+                put(cacheKey, new Slot(time, currentTime));
+                missCount++;
+                return true;
+            }
+            if (ttlMillis != NO_EXPIRATION && currentTime - slot.writeTime >= ttlMillis) {
+                slot.time = Math.max(slot.time, time);
+                slot.writeTime = currentTime;
+                evictionCount++;
+                missCount++;
+                return true;
+            }
+            if (time > slot.time) {
+                slot.time = time;
+                slot.writeTime = currentTime;
+                missCount++;
+                return true;
+            }
+            hitCount++;
+            return false;
+        }
+
+        private synchronized void invalidate(T cacheKey) {
+            remove(cacheKey);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<T, Slot> eldest) {
+            if (size() > capacity) {
+                evictionCount++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+
+        private synchronized long getHitCount() {
+            return hitCount;
+        }
+
+        private synchronized long getMissCount() {
+            return missCount;
+        }
+
+        private synchronized long getEvictionCount() {
+            return evictionCount;
         }
-        return false;
     }
 }
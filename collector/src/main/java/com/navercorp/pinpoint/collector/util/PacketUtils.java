@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.collector.util;
 
+import com.navercorp.pinpoint.thrift.io.Header;
 import org.apache.hadoop.hbase.util.Bytes;
 
 import java.net.DatagramPacket;
@@ -27,6 +28,22 @@ public final class PacketUtils {
     private PacketUtils() {
     }
 
+    /**
+     * reads the type of the thrift header without deserializing the packet.
+     * @return -1 if the packet does not start with a header
+     */
+    public static short getHeaderType(DatagramPacket datagramPacket) {
+        if (datagramPacket == null || datagramPacket.getLength() < Header.HEADER_SIZE) {
+            return -1;
+        }
+        final byte[] data = datagramPacket.getData();
+        final int offset = datagramPacket.getOffset();
+        if (data[offset] != Header.SIGNATURE) {
+            return -1;
+        }
+        return (short) (((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff));
+    }
+
     public static String dumpDatagramPacket(DatagramPacket datagramPacket) {
         if (datagramPacket == null) {
             return "null";
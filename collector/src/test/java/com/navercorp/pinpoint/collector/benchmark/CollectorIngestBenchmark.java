@@ -0,0 +1,319 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.GenericXmlApplicationContext;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.receiver.tcp.AgentHandshakePropertyType;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.rpc.Future;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import com.navercorp.pinpoint.rpc.client.PinpointSocket;
+import com.navercorp.pinpoint.rpc.client.PinpointSocketFactory;
+import com.navercorp.pinpoint.thrift.dto.TAgentStatBatch;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
+
+/**
+ * Replays an {@link IngestStream} into a collector started in this jvm with {@link InMemoryHbaseOperations2} in place of hbase,
+ * over loopback tcp and udp on the ports of pinpoint-collector.properties, then reports the throughput,
+ * the latency of the handlers, the dropped packets, the allocation of each stage and the writes of each table.
+ * <p>
+ * Run the main class on the test classpath of the collector. Options are system properties :
+ * <pre>
+ * benchmark.agentCount(100) benchmark.spanCount(100000) benchmark.spanEventCount(10) benchmark.spanChunkCount(10000)
+ * benchmark.agentStatBatchCount(10000) : synthetic stream
+ * benchmark.replayFile : replays a recorded stream instead of the synthetic one
+ * benchmark.recordFile : writes the synthetic stream for later replays
+ * benchmark.packetsPerSecond(0) : udp send rate of each channel, 0 for no limit
+ * benchmark.hbaseLatencyMillis(0) : wait of each hbase call
+ * benchmark.drainTimeoutMillis(60000) : max wait for the collector to handle the sent packets
+ * </pre>
+ */
+public class CollectorIngestBenchmark {
+
+    private static final String[] CONFIG_LOCATIONS = { "classpath:applicationContext-collector.xml", "classpath:applicationContext-ingest-benchmark.xml" };
+
+    private static final String LOOPBACK = "127.0.0.1";
+    private static final long IDLE_MILLIS = 3000;
+    private static final long FLUSH_WAIT_MILLIS = 3000;
+    private static final int MAX_TCP_REQUEST_IN_FLIGHT = 256;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final long packetsPerSecond = Long.getLong("benchmark.packetsPerSecond", 0);
+    private final long drainTimeoutMillis = Long.getLong("benchmark.drainTimeoutMillis", 60000);
+
+    public static void main(String[] args) throws Exception {
+        new CollectorIngestBenchmark().run(createStream());
+        // rpc and hbase client threads of the collector may not be daemon
+        System.exit(0);
+    }
+
+    private static IngestStream createStream() throws IOException {
+        final String replayFile = System.getProperty("benchmark.replayFile");
+        if (replayFile != null) {
+            return IngestStream.read(new File(replayFile));
+        }
+        final IngestStream stream = IngestStream.synthetic(Integer.getInteger("benchmark.agentCount", 100), Integer.getInteger("benchmark.spanCount", 100000),
+                Integer.getInteger("benchmark.spanEventCount", 10), Integer.getInteger("benchmark.spanChunkCount", 10000),
+                Integer.getInteger("benchmark.agentStatBatchCount", 10000));
+        final String recordFile = System.getProperty("benchmark.recordFile");
+        if (recordFile != null) {
+            stream.write(new File(recordFile));
+        }
+        return stream;
+    }
+
+    public void run(IngestStream stream) throws Exception {
+        final GenericXmlApplicationContext applicationContext = new GenericXmlApplicationContext(CONFIG_LOCATIONS);
+        try {
+            final CollectorConfiguration configuration = applicationContext.getBean(CollectorConfiguration.class);
+            final MetricRegistry metricRegistry = applicationContext.getBean("metricRegistry", MetricRegistry.class);
+            final InMemoryHbaseOperations2 hbaseTemplate = applicationContext.getBean("hbaseTemplate", InMemoryHbaseOperations2.class);
+
+            sendTcp(stream, configuration.getTcpListenPort());
+
+            final StageAllocation allocationBefore = StageAllocation.snapshot();
+            final long startTime = System.currentTimeMillis();
+
+            final Sender spanSender = new Sender(stream.getChannel(IngestStream.UDP_SPAN), configuration.getUdpSpanListenPort());
+            final Sender statSender = new Sender(stream.getChannel(IngestStream.UDP_STAT), configuration.getUdpStatListenPort());
+            spanSender.start();
+            statSender.start();
+            spanSender.join();
+            statSender.join();
+            final long sendTime = System.currentTimeMillis() - startTime;
+
+            final long sentCount = spanSender.sentCount + statSender.sentCount;
+            final long lastHandledTime = awaitHandled(metricRegistry, sentCount);
+            final long handledCount = getUdpHandledCount(metricRegistry);
+            final long elapsedTime = lastHandledTime - startTime;
+            final StageAllocation allocationAfter = StageAllocation.snapshot();
+
+            // statistics and buffered puts are written by their own flush threads
+            Thread.sleep(FLUSH_WAIT_MILLIS);
+
+            report(metricRegistry, hbaseTemplate, allocationAfter.since(allocationBefore), sentCount, handledCount, sendTime, elapsedTime);
+        } finally {
+            applicationContext.close();
+        }
+    }
+
+    private void sendTcp(IngestStream stream, int port) throws Exception {
+        final List<byte[]> sendList = stream.getChannel(IngestStream.TCP_SEND);
+        final List<byte[]> requestList = stream.getChannel(IngestStream.TCP_REQUEST);
+        if (sendList.isEmpty() && requestList.isEmpty()) {
+            return;
+        }
+
+        final PinpointSocketFactory socketFactory = new PinpointSocketFactory();
+        socketFactory.setProperties(getHandshakeProperties());
+        try {
+            final PinpointSocket socket = socketFactory.connect(LOOPBACK, port);
+            try {
+                for (byte[] message : sendList) {
+                    socket.sendSync(message);
+                }
+                // agents wait for the response of their metadata, so the requests in flight are bounded
+                final List<Future<ResponseMessage>> responseList = new ArrayList<Future<ResponseMessage>>(MAX_TCP_REQUEST_IN_FLIGHT);
+                int failCount = 0;
+                for (byte[] message : requestList) {
+                    responseList.add(socket.request(message));
+                    if (responseList.size() == MAX_TCP_REQUEST_IN_FLIGHT) {
+                        failCount += awaitResponse(responseList);
+                    }
+                }
+                failCount += awaitResponse(responseList);
+                logger.info("tcp sent:{} requested:{} failed:{}", sendList.size(), requestList.size(), failCount);
+            } finally {
+                socket.close();
+            }
+        } finally {
+            socketFactory.release();
+        }
+    }
+
+    /**
+     * @return number of failed requests
+     */
+    private int awaitResponse(List<Future<ResponseMessage>> responseList) {
+        int failCount = 0;
+        for (Future<ResponseMessage> response : responseList) {
+            if (!response.await() || !response.isSuccess()) {
+                failCount++;
+            }
+        }
+        responseList.clear();
+        return failCount;
+    }
+
+    private Map<String, Object> getHandshakeProperties() {
+        final Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put(AgentHandshakePropertyType.SUPPORT_SERVER.getName(), false);
+        properties.put(AgentHandshakePropertyType.HOSTNAME.getName(), "benchmark-host");
+        properties.put(AgentHandshakePropertyType.IP.getName(), LOOPBACK);
+        properties.put(AgentHandshakePropertyType.AGENT_ID.getName(), "benchmark-tcp");
+        properties.put(AgentHandshakePropertyType.APPLICATION_NAME.getName(), "benchmark-app");
+        properties.put(AgentHandshakePropertyType.SERVICE_TYPE.getName(), (int) ServiceType.STAND_ALONE.getCode());
+        properties.put(AgentHandshakePropertyType.PID.getName(), 1);
+        properties.put(AgentHandshakePropertyType.VERSION.getName(), "benchmark");
+        properties.put(AgentHandshakePropertyType.START_TIMESTAMP.getName(), System.currentTimeMillis());
+        return properties;
+    }
+
+    /**
+     * @return time the last packet was seen handled
+     */
+    private long awaitHandled(MetricRegistry metricRegistry, long sentCount) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+        long handledCount = getUdpHandledCount(metricRegistry);
+        long lastProgressTime = System.currentTimeMillis();
+        while (handledCount < sentCount) {
+            final long now = System.currentTimeMillis();
+            if (now >= deadline || now - lastProgressTime >= IDLE_MILLIS) {
+                break;
+            }
+            Thread.sleep(10);
+            final long count = getUdpHandledCount(metricRegistry);
+            if (count != handledCount) {
+                handledCount = count;
+                lastProgressTime = System.currentTimeMillis();
+            }
+        }
+        return lastProgressTime;
+    }
+
+    private long getUdpHandledCount(MetricRegistry metricRegistry) {
+        long count = 0;
+        for (Class<?> type : new Class<?>[] { TSpan.class, TSpanChunk.class, TAgentStatBatch.class }) {
+            count += metricRegistry.timer(MetricRegistry.name(TimingDispatchHandler.METRIC_PREFIX, type.getSimpleName())).getCount();
+        }
+        return count;
+    }
+
+    private void report(MetricRegistry metricRegistry, InMemoryHbaseOperations2 hbaseTemplate, Map<String, Long> allocation, long sentCount, long handledCount, long sendTime, long elapsedTime) {
+        final long spanCount = metricRegistry.timer(MetricRegistry.name(TimingDispatchHandler.METRIC_PREFIX, TSpan.class.getSimpleName())).getCount();
+        final StringBuilder report = new StringBuilder(1024);
+        report.append("\n==== collector ingest benchmark ====\n");
+        report.append(String.format("udp sent:%d in %dms, handled:%d in %dms, dropped:%d%n", sentCount, sendTime, handledCount, elapsedTime, sentCount - handledCount));
+        report.append(String.format("spans/sec:%.1f packets/sec:%.1f hbaseLatencyMillis:%d%n", perSecond(spanCount, elapsedTime), perSecond(handledCount, elapsedTime), hbaseTemplate.getLatencyMillis()));
+
+        report.append("---- handler latency (ms) ----\n");
+        for (Map.Entry<String, Timer> entry : metricRegistry.getTimers().entrySet()) {
+            if (!entry.getKey().startsWith(TimingDispatchHandler.METRIC_PREFIX + ".")) {
+                continue;
+            }
+            final Timer timer = entry.getValue();
+            final Snapshot snapshot = timer.getSnapshot();
+            report.append(String.format("%-36s count:%-8d mean:%.3f p50:%.3f p99:%.3f max:%.3f%n", entry.getKey(), timer.getCount(),
+                    toMillis(snapshot.getMean()), toMillis(snapshot.getMedian()), toMillis(snapshot.get99thPercentile()), toMillis(snapshot.getMax())));
+        }
+
+        report.append("---- dropped by receivers ----\n");
+        for (Map.Entry<String, Counter> entry : metricRegistry.getCounters().entrySet()) {
+            if (entry.getKey().endsWith("-rejected") || entry.getKey().endsWith("-shed") || entry.getKey().endsWith(".dropped")) {
+                report.append(String.format("%-36s %d%n", entry.getKey(), entry.getValue().getCount()));
+            }
+        }
+
+        report.append("---- allocation per stage ----\n");
+        if (!StageAllocation.isSupported()) {
+            report.append("thread allocation is not measured by this jvm\n");
+        }
+        for (Map.Entry<String, Long> entry : allocation.entrySet()) {
+            final double megaBytes = entry.getValue() / (1024.0 * 1024.0);
+            report.append(String.format("%-36s %.1fMB %.1fMB/s%n", entry.getKey(), megaBytes, megaBytes * 1000 / Math.max(elapsedTime, 1)));
+        }
+
+        report.append("---- hbase writes per table ----\n");
+        for (Map.Entry<String, InMemoryHbaseOperations2.TableStat> entry : hbaseTemplate.getTableStats().entrySet()) {
+            report.append(String.format("%-36s %s%n", entry.getKey(), entry.getValue()));
+        }
+        logger.info(report.toString());
+    }
+
+    private static double perSecond(long count, long elapsedMillis) {
+        return count * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private class Sender extends Thread {
+        private final List<byte[]> packetList;
+        private final int port;
+        // read after join()
+        private long sentCount;
+
+        private Sender(List<byte[]> packetList, int port) {
+            super("Benchmark-UDP-Sender-" + port);
+            this.packetList = packetList;
+            this.port = port;
+        }
+
+        @Override
+        public void run() {
+            DatagramSocket socket = null;
+            try {
+                socket = new DatagramSocket();
+                final InetSocketAddress address = new InetSocketAddress(LOOPBACK, port);
+                final long startTime = System.nanoTime();
+                for (byte[] packet : packetList) {
+                    socket.send(new DatagramPacket(packet, packet.length, address));
+                    sentCount++;
+                    if (packetsPerSecond > 0) {
+                        throttle(startTime, sentCount);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("{} send fail. Caused:{}", getName(), e.getMessage(), e);
+            } finally {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+        }
+
+        private void throttle(long startTime, long count) throws InterruptedException {
+            final long expectedNanos = TimeUnit.SECONDS.toNanos(count) / packetsPerSecond;
+            final long aheadNanos = expectedNanos - (System.nanoTime() - startTime);
+            if (aheadNanos > TimeUnit.MILLISECONDS.toNanos(1)) {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.data.hadoop.hbase.HbaseSystemException;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
+import org.springframework.data.hadoop.hbase.RowMapper;
+import org.springframework.data.hadoop.hbase.TableCallback;
+
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.LimitEventHandler;
+import com.navercorp.pinpoint.common.hbase.ValueMapper;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+
+/**
+ * {@link HbaseOperations2} stand-in for benchmarks : writes are counted per table instead of being sent to a region server,
+ * and every call waits latencyMillis to play a remote hbase. Reads see no rows.
+ * Async calls run on the calling thread and return a completed future.
+ */
+public class InMemoryHbaseOperations2 implements HbaseOperations2 {
+
+    private static final Result EMPTY_RESULT = Result.create(Collections.<Cell>emptyList());
+
+    private final long latencyMillis;
+
+    private final ConcurrentMap<String, TableStat> tableStatMap = new ConcurrentHashMap<String, TableStat>();
+    private final ConcurrentMap<String, AtomicLong> columnValueMap = new ConcurrentHashMap<String, AtomicLong>();
+
+    public InMemoryHbaseOperations2() {
+        this(0);
+    }
+
+    public InMemoryHbaseOperations2(long latencyMillis) {
+        if (latencyMillis < 0) {
+            throw new IllegalArgumentException("negative latencyMillis:" + latencyMillis);
+        }
+        this.latencyMillis = latencyMillis;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public TableStat getTableStat(String tableName) {
+        return getTableStat0(tableName);
+    }
+
+    /**
+     * @return TableStat by table name, in name order
+     */
+    public Map<String, TableStat> getTableStats() {
+        return new TreeMap<String, TableStat>(tableStatMap);
+    }
+
+    private TableStat getTableStat0(String tableName) {
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        final TableStat tableStat = tableStatMap.get(tableName);
+        if (tableStat != null) {
+            return tableStat;
+        }
+        final TableStat newTableStat = new TableStat();
+        final TableStat exist = tableStatMap.putIfAbsent(tableName, newTableStat);
+        if (exist != null) {
+            return exist;
+        }
+        return newTableStat;
+    }
+
+    private TableStat call(String tableName) {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HbaseSystemException(new IOException("interrupted. table:" + tableName, e));
+            }
+        }
+        final TableStat tableStat = getTableStat0(tableName);
+        tableStat.callCount.incrementAndGet();
+        return tableStat;
+    }
+
+    private TableStat read(String tableName) {
+        final TableStat tableStat = call(tableName);
+        tableStat.readCount.incrementAndGet();
+        return tableStat;
+    }
+
+    @Override
+    public <T> T execute(String tableName, TableCallback<T> action) {
+        throw new UnsupportedOperationException("no HTableInterface in memory. table:" + tableName);
+    }
+
+    @Override
+    public <T> T find(String tableName, String family, ResultsExtractor<T> action) {
+        return find(tableName, new Scan().addFamily(Bytes.toBytes(family)), action);
+    }
+
+    @Override
+    public <T> T find(String tableName, String family, String qualifier, ResultsExtractor<T> action) {
+        return find(tableName, new Scan().addColumn(Bytes.toBytes(family), Bytes.toBytes(qualifier)), action);
+    }
+
+    @Override
+    public <T> T find(String tableName, Scan scan, ResultsExtractor<T> action) {
+        read(tableName);
+        try {
+            return action.extractData(EmptyResultScanner.INSTANCE);
+        } catch (Exception e) {
+            throw new HbaseSystemException(e);
+        }
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, String family, RowMapper<T> action) {
+        read(tableName);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, String family, String qualifier, RowMapper<T> action) {
+        read(tableName);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, Scan scan, RowMapper<T> action) {
+        read(tableName);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public <T> T get(String tableName, String rowName, RowMapper<T> mapper) {
+        return get(tableName, new Get(Bytes.toBytes(rowName)), mapper);
+    }
+
+    @Override
+    public <T> T get(String tableName, String rowName, String familyName, RowMapper<T> mapper) {
+        return get(tableName, Bytes.toBytes(rowName), Bytes.toBytes(familyName), mapper);
+    }
+
+    @Override
+    public <T> T get(String tableName, String rowName, String familyName, String qualifier, RowMapper<T> mapper) {
+        return get(tableName, Bytes.toBytes(rowName), Bytes.toBytes(familyName), Bytes.toBytes(qualifier), mapper);
+    }
+
+    @Override
+    public <T> T get(String tableName, byte[] rowName, RowMapper<T> mapper) {
+        return get(tableName, new Get(rowName), mapper);
+    }
+
+    @Override
+    public <T> T get(String tableName, byte[] rowName, byte[] familyName, RowMapper<T> mapper) {
+        return get(tableName, new Get(rowName).addFamily(familyName), mapper);
+    }
+
+    @Override
+    public <T> T get(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, RowMapper<T> mapper) {
+        return get(tableName, new Get(rowName).addColumn(familyName, qualifier), mapper);
+    }
+
+    @Override
+    public <T> T get(String tableName, Get get, RowMapper<T> mapper) {
+        read(tableName);
+        return mapRow(mapper, 0);
+    }
+
+    @Override
+    public <T> List<T> get(String tableName, List<Get> getList, RowMapper<T> mapper) {
+        read(tableName);
+        final List<T> result = new ArrayList<T>(getList.size());
+        for (int i = 0; i < getList.size(); i++) {
+            result.add(mapRow(mapper, i));
+        }
+        return result;
+    }
+
+    private <T> T mapRow(RowMapper<T> mapper, int rowNum) {
+        try {
+            return mapper.mapRow(EMPTY_RESULT, rowNum);
+        } catch (Exception e) {
+            throw new HbaseSystemException(e);
+        }
+    }
+
+    @Override
+    public void put(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, byte[] value) {
+        put(tableName, rowName, familyName, qualifier, null, value);
+    }
+
+    @Override
+    public void put(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, Long timestamp, byte[] value) {
+        final Put put = new Put(rowName);
+        if (timestamp == null) {
+            put.addColumn(familyName, qualifier, value);
+        } else {
+            put.addColumn(familyName, qualifier, timestamp, value);
+        }
+        put(tableName, put);
+    }
+
+    @Override
+    public <T> void put(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, T value, ValueMapper<T> mapper) {
+        put(tableName, rowName, familyName, qualifier, null, value, mapper);
+    }
+
+    @Override
+    public <T> void put(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, Long timestamp, T value, ValueMapper<T> mapper) {
+        put(tableName, rowName, familyName, qualifier, timestamp, mapper.mapValue(value));
+    }
+
+    @Override
+    public void put(String tableName, Put put) {
+        call(tableName).addPut(put);
+    }
+
+    @Override
+    public void put(String tableName, List<Put> puts) {
+        final TableStat tableStat = call(tableName);
+        for (Put put : puts) {
+            tableStat.addPut(put);
+        }
+    }
+
+    @Override
+    public void delete(String tableName, Delete delete) {
+        call(tableName).deleteCount.incrementAndGet();
+    }
+
+    @Override
+    public void delete(String tableName, List<Delete> deletes) {
+        call(tableName).deleteCount.addAndGet(deletes.size());
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, List<Scan> scans, ResultsExtractor<T> action) {
+        final List<T> result = new ArrayList<T>(scans.size());
+        for (Scan scan : scans) {
+            result.add(find(tableName, scan, action));
+        }
+        return result;
+    }
+
+    @Override
+    public <T> List<List<T>> find(String tableName, List<Scan> scans, RowMapper<T> action) {
+        final List<List<T>> result = new ArrayList<List<T>>(scans.size());
+        for (Scan scan : scans) {
+            result.add(find(tableName, scan, action));
+        }
+        return result;
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, Scan scan, AbstractRowKeyDistributor rowKeyDistributor, RowMapper<T> action) {
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, Scan scan, AbstractRowKeyDistributor rowKeyDistributor, int limit, RowMapper<T> action) {
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> List<T> find(String tableName, Scan scan, AbstractRowKeyDistributor rowKeyDistributor, int limit, RowMapper<T> action, LimitEventHandler limitEventHandler) {
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> T find(String tableName, Scan scan, AbstractRowKeyDistributor rowKeyDistributor, ResultsExtractor<T> action) {
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public Result increment(String tableName, Increment increment) {
+        call(tableName).addIncrement(increment);
+        return EMPTY_RESULT;
+    }
+
+    @Override
+    public List<Result> increment(String tableName, List<Increment> incrementList) {
+        final TableStat tableStat = call(tableName);
+        final List<Result> result = new ArrayList<Result>(incrementList.size());
+        for (Increment increment : incrementList) {
+            tableStat.addIncrement(increment);
+            result.add(EMPTY_RESULT);
+        }
+        return result;
+    }
+
+    @Override
+    public long incrementColumnValue(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, long amount) {
+        final TableStat tableStat = call(tableName);
+        tableStat.incrementCount.incrementAndGet();
+        tableStat.cellCount.incrementAndGet();
+
+        final String key = tableName + '/' + Bytes.toStringBinary(rowName) + '/' + Bytes.toStringBinary(familyName) + ':' + Bytes.toStringBinary(qualifier);
+        AtomicLong columnValue = columnValueMap.get(key);
+        if (columnValue == null) {
+            final AtomicLong newColumnValue = new AtomicLong();
+            columnValue = columnValueMap.putIfAbsent(key, newColumnValue);
+            if (columnValue == null) {
+                columnValue = newColumnValue;
+            }
+        }
+        return columnValue.addAndGet(amount);
+    }
+
+    @Override
+    public long incrementColumnValue(String tableName, byte[] rowName, byte[] familyName, byte[] qualifier, long amount, boolean writeToWAL) {
+        return incrementColumnValue(tableName, rowName, familyName, qualifier, amount);
+    }
+
+    @Override
+    public <T> Future<T> getAsync(final String tableName, final Get get, final RowMapper<T> mapper) {
+        return complete(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return get(tableName, get, mapper);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> getAsync(final String tableName, final List<Get> getList, final RowMapper<T> mapper) {
+        return complete(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                return get(tableName, getList, mapper);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<T> findAsync(final String tableName, final Scan scan, final ResultsExtractor<T> action) {
+        return complete(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return find(tableName, scan, action);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> findAsync(final String tableName, final Scan scan, final RowMapper<T> action) {
+        return complete(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                return find(tableName, scan, action);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<T> findAsync(final String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action) {
+        return complete(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return find(tableName, scan, rowKeyDistributor, action);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> findAsync(final String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action) {
+        return complete(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+                return find(tableName, scan, rowKeyDistributor, action);
+            }
+        });
+    }
+
+    private <T> Future<T> complete(Callable<T> callable) {
+        final FutureTask<T> future = new FutureTask<T>(callable);
+        future.run();
+        return future;
+    }
+
+    public static class TableStat {
+        private final AtomicLong callCount = new AtomicLong();
+        private final AtomicLong putCount = new AtomicLong();
+        private final AtomicLong incrementCount = new AtomicLong();
+        private final AtomicLong deleteCount = new AtomicLong();
+        private final AtomicLong readCount = new AtomicLong();
+        private final AtomicLong cellCount = new AtomicLong();
+        private final AtomicLong heapSize = new AtomicLong();
+
+        private void addPut(Put put) {
+            putCount.incrementAndGet();
+            cellCount.addAndGet(put.size());
+            heapSize.addAndGet(put.heapSize());
+        }
+
+        private void addIncrement(Increment increment) {
+            incrementCount.incrementAndGet();
+            cellCount.addAndGet(increment.size());
+            heapSize.addAndGet(increment.heapSize());
+        }
+
+        /**
+         * @return number of rpc, a batch counts as one
+         */
+        public long getCallCount() {
+            return callCount.get();
+        }
+
+        public long getPutCount() {
+            return putCount.get();
+        }
+
+        public long getIncrementCount() {
+            return incrementCount.get();
+        }
+
+        public long getDeleteCount() {
+            return deleteCount.get();
+        }
+
+        public long getReadCount() {
+            return readCount.get();
+        }
+
+        public long getCellCount() {
+            return cellCount.get();
+        }
+
+        public long getHeapSize() {
+            return heapSize.get();
+        }
+
+        @Override
+        public String toString() {
+            return "TableStat{" +
+                    "callCount=" + callCount +
+                    ", putCount=" + putCount +
+                    ", incrementCount=" + incrementCount +
+                    ", deleteCount=" + deleteCount +
+                    ", readCount=" + readCount +
+                    ", cellCount=" + cellCount +
+                    ", heapSize=" + heapSize +
+                    '}';
+        }
+    }
+
+    private static class EmptyResultScanner implements ResultScanner {
+        private static final EmptyResultScanner INSTANCE = new EmptyResultScanner();
+
+        @Override
+        public Result next() {
+            return null;
+        }
+
+        @Override
+        public Result[] next(int nbRows) {
+            return new Result[0];
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            return Collections.<Result>emptyList().iterator();
+        }
+    }
+}
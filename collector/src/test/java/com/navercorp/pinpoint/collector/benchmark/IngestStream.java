@@ -0,0 +1,301 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.TransactionIdUtils;
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+import com.navercorp.pinpoint.thrift.dto.TAgentStat;
+import com.navercorp.pinpoint.thrift.dto.TAgentStatBatch;
+import com.navercorp.pinpoint.thrift.dto.TApiMetaData;
+import com.navercorp.pinpoint.thrift.dto.TCpuLoad;
+import com.navercorp.pinpoint.thrift.dto.TJvmGc;
+import com.navercorp.pinpoint.thrift.dto.TJvmGcType;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
+
+/**
+ * Serialized agent messages to replay into a collector, by the channel the agent sends them on.
+ * <p>
+ * A stream is either generated with {@link #synthetic(int, int, int, int, int)} or read from a file written by {@link #write(File)},
+ * which is a sequence of {@code channel(1) length(4) packet(length)} records.
+ */
+public class IngestStream {
+
+    public static final byte UDP_SPAN = 0;
+    public static final byte UDP_STAT = 1;
+    public static final byte TCP_SEND = 2;
+    public static final byte TCP_REQUEST = 3;
+
+    private static final int API_COUNT = 50;
+    private static final int AGENT_STAT_BATCH_SIZE = 6;
+    private static final long AGENT_STAT_INTERVAL = 5000;
+
+    private final List<List<byte[]>> channels = new ArrayList<List<byte[]>>();
+
+    public IngestStream() {
+        for (int i = 0; i <= TCP_REQUEST; i++) {
+            channels.add(new ArrayList<byte[]>());
+        }
+    }
+
+    public void add(byte channel, byte[] packet) {
+        if (packet == null) {
+            throw new NullPointerException("packet must not be null");
+        }
+        getChannel0(channel).add(packet);
+    }
+
+    public List<byte[]> getChannel(byte channel) {
+        return Collections.unmodifiableList(getChannel0(channel));
+    }
+
+    private List<byte[]> getChannel0(byte channel) {
+        if (channel < 0 || channel >= channels.size()) {
+            throw new IllegalArgumentException("unknown channel:" + channel);
+        }
+        return channels.get(channel);
+    }
+
+    public int size() {
+        int size = 0;
+        for (List<byte[]> channel : channels) {
+            size += channel.size();
+        }
+        return size;
+    }
+
+    public void write(File file) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            for (byte channel = 0; channel < channels.size(); channel++) {
+                for (byte[] packet : channels.get(channel)) {
+                    out.writeByte(channel);
+                    out.writeInt(packet.length);
+                    out.write(packet);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    public static IngestStream read(File file) throws IOException {
+        final IngestStream stream = new IngestStream();
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            while (true) {
+                final byte channel;
+                try {
+                    channel = in.readByte();
+                } catch (EOFException end) {
+                    return stream;
+                }
+                final byte[] packet = new byte[in.readInt()];
+                in.readFully(packet);
+                stream.add(channel, packet);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Agents of 10 applications sending their agent info and api metadata over tcp, then spans, span chunks and stats over udp.
+     * The stream is the same for the same arguments.
+     */
+    public static IngestStream synthetic(int agentCount, int spanCount, int spanEventCount, int spanChunkCount, int agentStatBatchCount) {
+        if (agentCount <= 0) {
+            throw new IllegalArgumentException("agentCount must be positive. agentCount:" + agentCount);
+        }
+        final SyntheticAgent[] agents = new SyntheticAgent[agentCount];
+        final long startTimestamp = System.currentTimeMillis() - 3600 * 1000;
+        for (int i = 0; i < agentCount; i++) {
+            agents[i] = new SyntheticAgent("benchmark-app-" + (i % 10), "benchmark-agent-" + i, startTimestamp + i);
+        }
+
+        final HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory(true, HeaderTBaseSerializerFactory.DEFAULT_UDP_STREAM_MAX_SIZE, false).createSerializer();
+        final Random random = new Random(0);
+        final IngestStream stream = new IngestStream();
+        for (SyntheticAgent agent : agents) {
+            stream.add(TCP_SEND, serialize(serializer, agent.newAgentInfo()));
+            for (int apiId = 0; apiId < API_COUNT; apiId++) {
+                stream.add(TCP_REQUEST, serialize(serializer, agent.newApiMetaData(apiId)));
+            }
+        }
+        for (int i = 0; i < spanCount; i++) {
+            stream.add(UDP_SPAN, serialize(serializer, agents[i % agentCount].newSpan(i, spanEventCount, random)));
+        }
+        for (int i = 0; i < spanChunkCount; i++) {
+            stream.add(UDP_SPAN, serialize(serializer, agents[i % agentCount].newSpanChunk(i, spanEventCount, random)));
+        }
+        for (int i = 0; i < agentStatBatchCount; i++) {
+            stream.add(UDP_STAT, serialize(serializer, agents[i % agentCount].newAgentStatBatch(i / agentCount, random)));
+        }
+        return stream;
+    }
+
+    private static byte[] serialize(HeaderTBaseSerializer serializer, TBase<?, ?> tBase) {
+        try {
+            return serializer.serialize(tBase);
+        } catch (TException e) {
+            throw new IllegalStateException("serialize fail. " + tBase, e);
+        }
+    }
+
+    private static class SyntheticAgent {
+        private final String applicationName;
+        private final String agentId;
+        private final long startTimestamp;
+
+        private SyntheticAgent(String applicationName, String agentId, long startTimestamp) {
+            this.applicationName = applicationName;
+            this.agentId = agentId;
+            this.startTimestamp = startTimestamp;
+        }
+
+        private TAgentInfo newAgentInfo() {
+            final TAgentInfo agentInfo = new TAgentInfo();
+            agentInfo.setHostname("benchmark-host");
+            agentInfo.setIp("127.0.0.1");
+            agentInfo.setPorts("8080");
+            agentInfo.setAgentId(agentId);
+            agentInfo.setApplicationName(applicationName);
+            agentInfo.setServiceType(ServiceType.STAND_ALONE.getCode());
+            agentInfo.setPid(1);
+            agentInfo.setAgentVersion("benchmark");
+            agentInfo.setVmVersion(System.getProperty("java.version"));
+            agentInfo.setStartTimestamp(startTimestamp);
+            return agentInfo;
+        }
+
+        private TApiMetaData newApiMetaData(int apiId) {
+            final TApiMetaData apiMetaData = new TApiMetaData();
+            apiMetaData.setAgentId(agentId);
+            apiMetaData.setAgentStartTime(startTimestamp);
+            apiMetaData.setApiId(apiId);
+            apiMetaData.setApiInfo("com.navercorp.pinpoint.benchmark.Service.method" + apiId + "(java.lang.String)");
+            apiMetaData.setLine(apiId);
+            return apiMetaData;
+        }
+
+        private TSpan newSpan(int sequence, int spanEventCount, Random random) {
+            final TSpan span = new TSpan();
+            span.setAgentId(agentId);
+            span.setApplicationName(applicationName);
+            span.setAgentStartTime(startTimestamp);
+            span.setTransactionId(TransactionIdUtils.formatBytes(agentId, startTimestamp, sequence));
+            span.setSpanId(random.nextLong());
+            span.setStartTime(System.currentTimeMillis() - random.nextInt(60000));
+            span.setElapsed(random.nextInt(1000));
+            span.setRpc("/benchmark/" + (sequence % 100));
+            span.setServiceType(ServiceType.STAND_ALONE.getCode());
+            span.setApplicationServiceType(ServiceType.STAND_ALONE.getCode());
+            span.setEndPoint("127.0.0.1:8080");
+            span.setRemoteAddr("127.0.0.1");
+            span.setApiId(sequence % API_COUNT);
+            // 1% of the transactions fail
+            span.setErr(sequence % 100 == 0 ? 1 : 0);
+            span.setSpanEventList(newSpanEventList(spanEventCount, random));
+            return span;
+        }
+
+        private TSpanChunk newSpanChunk(int sequence, int spanEventCount, Random random) {
+            final TSpanChunk spanChunk = new TSpanChunk();
+            spanChunk.setAgentId(agentId);
+            spanChunk.setApplicationName(applicationName);
+            spanChunk.setAgentStartTime(startTimestamp);
+            spanChunk.setServiceType(ServiceType.STAND_ALONE.getCode());
+            spanChunk.setApplicationServiceType(ServiceType.STAND_ALONE.getCode());
+            spanChunk.setTransactionId(TransactionIdUtils.formatBytes(agentId, startTimestamp, sequence));
+            spanChunk.setSpanId(random.nextLong());
+            spanChunk.setEndPoint("127.0.0.1:8080");
+            spanChunk.setSpanEventList(newSpanEventList(spanEventCount, random));
+            return spanChunk;
+        }
+
+        private List<TSpanEvent> newSpanEventList(int spanEventCount, Random random) {
+            final List<TSpanEvent> spanEventList = new ArrayList<TSpanEvent>(spanEventCount);
+            for (int i = 0; i < spanEventCount; i++) {
+                final TSpanEvent spanEvent = new TSpanEvent();
+                spanEvent.setSequence((short) i);
+                spanEvent.setStartElapsed(i);
+                spanEvent.setEndElapsed(random.nextInt(100));
+                spanEvent.setDepth(i + 1);
+                spanEvent.setApiId(i % API_COUNT);
+                if (i == spanEventCount - 1) {
+                    // the last event calls a database so that the callee statistics are written
+                    spanEvent.setServiceType(ServiceType.UNKNOWN_DB_EXECUTE_QUERY.getCode());
+                    spanEvent.setDestinationId("benchmark-db");
+                    spanEvent.setEndPoint("benchmark-db:3306");
+                } else {
+                    spanEvent.setServiceType(ServiceType.INTERNAL_METHOD.getCode());
+                }
+                spanEventList.add(spanEvent);
+            }
+            return spanEventList;
+        }
+
+        private TAgentStatBatch newAgentStatBatch(int sequence, Random random) {
+            final long batchTimestamp = startTimestamp + sequence * AGENT_STAT_BATCH_SIZE * AGENT_STAT_INTERVAL;
+            final List<TAgentStat> agentStats = new ArrayList<TAgentStat>(AGENT_STAT_BATCH_SIZE);
+            for (int i = 0; i < AGENT_STAT_BATCH_SIZE; i++) {
+                final TJvmGc gc = new TJvmGc();
+                gc.setType(TJvmGcType.PARALLEL);
+                gc.setJvmMemoryHeapUsed(random.nextInt(1024) * 1024L * 1024L);
+                gc.setJvmMemoryHeapMax(1024 * 1024L * 1024L);
+                gc.setJvmMemoryNonHeapUsed(random.nextInt(256) * 1024L * 1024L);
+                gc.setJvmMemoryNonHeapMax(256 * 1024L * 1024L);
+                gc.setJvmGcOldCount(sequence);
+                gc.setJvmGcOldTime(sequence * 10L);
+
+                final TCpuLoad cpuLoad = new TCpuLoad();
+                cpuLoad.setJvmCpuLoad(random.nextDouble());
+                cpuLoad.setSystemCpuLoad(random.nextDouble());
+
+                final TAgentStat agentStat = new TAgentStat();
+                agentStat.setAgentId(agentId);
+                agentStat.setStartTimestamp(startTimestamp);
+                agentStat.setTimestamp(batchTimestamp + i * AGENT_STAT_INTERVAL);
+                agentStat.setGc(gc);
+                agentStat.setCpuLoad(cpuLoad);
+                agentStats.add(agentStat);
+            }
+            return new TAgentStatBatch(agentId, startTimestamp, agentStats);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.benchmark;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IngestStreamTest {
+
+    @Test
+    public void synthetic() {
+        IngestStream stream = IngestStream.synthetic(2, 10, 3, 4, 5);
+
+        // spans and span chunks, every packet with its own bytes
+        List<byte[]> spanPackets = stream.getChannel(IngestStream.UDP_SPAN);
+        assertEquals(14, spanPackets.size());
+        assertEquals(14, countDistinct(spanPackets));
+        assertEquals(5, stream.getChannel(IngestStream.UDP_STAT).size());
+        assertEquals(2, stream.getChannel(IngestStream.TCP_SEND).size());
+        assertFalse(stream.getChannel(IngestStream.TCP_REQUEST).isEmpty());
+    }
+
+    @Test
+    public void writeAndRead() throws Exception {
+        IngestStream stream = IngestStream.synthetic(1, 3, 2, 1, 1);
+        File file = File.createTempFile("ingest", ".stream");
+        try {
+            stream.write(file);
+            IngestStream read = IngestStream.read(file);
+
+            assertEquals(stream.size(), read.size());
+            for (byte channel = IngestStream.UDP_SPAN; channel <= IngestStream.TCP_REQUEST; channel++) {
+                List<byte[]> expected = stream.getChannel(channel);
+                List<byte[]> actual = read.getChannel(channel);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(expected.get(i), actual.get(i));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void stageName() {
+        assertEquals("Pinpoint-UDP-Span-Worker", StageAllocation.getStageName("Pinpoint-UDP-Span-Worker(7-3)"));
+        assertEquals("pool-2-thread", StageAllocation.getStageName("pool-2-thread-13"));
+        assertEquals("main", StageAllocation.getStageName("main"));
+    }
+
+    private int countDistinct(List<byte[]> packets) {
+        int distinct = 0;
+        for (int i = 0; i < packets.size(); i++) {
+            boolean duplicated = false;
+            for (int j = 0; j < i; j++) {
+                if (Arrays.equals(packets.get(i), packets.get(j))) {
+                    duplicated = true;
+                    break;
+                }
+            }
+            if (!duplicated) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bytes allocated by the threads of each stage of the collector, where a stage is the thread name without its number.
+ * ex) {@code Pinpoint-UDP-Span-Worker(7-3)} belongs to {@code Pinpoint-UDP-Span-Worker}.
+ * <p>
+ * Allocations of the threads which ended between two snapshots are not counted.
+ */
+public final class StageAllocation {
+
+    private final Map<String, Long> allocatedBytes;
+
+    private StageAllocation(Map<String, Long> allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public static boolean isSupported() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        return ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported();
+    }
+
+    /**
+     * @return empty if the jvm does not measure the allocation of threads
+     */
+    public static StageAllocation snapshot() {
+        final Map<String, Long> allocatedBytes = new HashMap<String, Long>();
+        if (!isSupported()) {
+            return new StageAllocation(allocatedBytes);
+        }
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+            final Thread thread = entry.getKey();
+            final long bytes = threadMXBean.getThreadAllocatedBytes(thread.getId());
+            if (bytes < 0) {
+                continue;
+            }
+            final String stage = getStageName(thread.getName());
+            final Long sum = allocatedBytes.get(stage);
+            allocatedBytes.put(stage, sum == null ? bytes : sum + bytes);
+        }
+        return new StageAllocation(allocatedBytes);
+    }
+
+    static String getStageName(String threadName) {
+        final int index = threadName.indexOf('(');
+        if (index > 0) {
+            return threadName.substring(0, index);
+        }
+        int end = threadName.length();
+        while (end > 0 && Character.isDigit(threadName.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0 && end < threadName.length() && threadName.charAt(end - 1) == '-') {
+            return threadName.substring(0, end - 1);
+        }
+        return threadName;
+    }
+
+    /**
+     * @return bytes allocated by each stage since the given snapshot, in stage name order
+     */
+    public Map<String, Long> since(StageAllocation before) {
+        final Map<String, Long> result = new TreeMap<String, Long>();
+        for (Map.Entry<String, Long> entry : allocatedBytes.entrySet()) {
+            final Long beforeBytes = before.allocatedBytes.get(entry.getKey());
+            final long bytes = entry.getValue() - (beforeBytes == null ? 0 : beforeBytes);
+            if (bytes > 0) {
+                result.put(entry.getKey(), bytes);
+            }
+        }
+        return result;
+    }
+}
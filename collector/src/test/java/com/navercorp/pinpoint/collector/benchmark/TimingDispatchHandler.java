@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.benchmark;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.thrift.TBase;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.navercorp.pinpoint.collector.receiver.DispatchHandler;
+
+/**
+ * Records the latency of the handlers per message type in the MetricRegistry as {@code handler.<TBase simple name>}.
+ */
+public class TimingDispatchHandler implements DispatchHandler {
+
+    public static final String METRIC_PREFIX = "handler";
+
+    private final DispatchHandler delegate;
+    private final MetricRegistry metricRegistry;
+
+    private final ConcurrentMap<Class<?>, Timer> timerMap = new ConcurrentHashMap<Class<?>, Timer>();
+
+    public TimingDispatchHandler(DispatchHandler delegate, MetricRegistry metricRegistry) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate must not be null");
+        }
+        if (metricRegistry == null) {
+            throw new NullPointerException("metricRegistry must not be null");
+        }
+        this.delegate = delegate;
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public void dispatchSendMessage(TBase<?, ?> tBase) {
+        final Timer.Context context = getTimer(tBase).time();
+        try {
+            delegate.dispatchSendMessage(tBase);
+        } finally {
+            context.stop();
+        }
+    }
+
+    @Override
+    public TBase dispatchRequestMessage(TBase<?, ?> tBase) {
+        final Timer.Context context = getTimer(tBase).time();
+        try {
+            return delegate.dispatchRequestMessage(tBase);
+        } finally {
+            context.stop();
+        }
+    }
+
+    private Timer getTimer(TBase<?, ?> tBase) {
+        final Class<?> type = tBase.getClass();
+        final Timer timer = timerMap.get(type);
+        if (timer != null) {
+            return timer;
+        }
+        final Timer newTimer = metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, type.getSimpleName()));
+        timerMap.putIfAbsent(type, newTimer);
+        return newTimer;
+    }
+}
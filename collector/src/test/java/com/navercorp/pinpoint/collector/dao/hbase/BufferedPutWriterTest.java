@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+
+public class BufferedPutWriterTest {
+
+    private static final String TABLE_NAME = "AgentStat";
+
+    @Test
+    public void batchBySize() throws InterruptedException {
+        final PutRecorder recorder = new PutRecorder();
+        final BufferedPutWriter writer = new BufferedPutWriter(recorder.newTemplate(), TABLE_NAME, 1, 1000, 10, 60000, false);
+        writer.start();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(writer.write(newPut(i)));
+        }
+        writer.stop();
+
+        Assert.assertEquals(100, writer.getWrittenCount());
+        Assert.assertEquals(10, recorder.batchSizes.size());
+        for (Integer batchSize : recorder.batchSizes) {
+            Assert.assertEquals(10, batchSize.intValue());
+        }
+    }
+
+    @Test
+    public void flushByAge() throws InterruptedException {
+        final PutRecorder recorder = new PutRecorder();
+        final BufferedPutWriter writer = new BufferedPutWriter(recorder.newTemplate(), TABLE_NAME, 1, 1000, 500, 50, false);
+        writer.start();
+        try {
+            writer.write(newPut(0));
+            writer.write(newPut(1));
+
+            Assert.assertTrue(recorder.flushed.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(2, recorder.batchSizes.get(0).intValue());
+        } finally {
+            writer.stop();
+        }
+    }
+
+    @Test
+    public void invalidSize() {
+        final HbaseOperations2 template = new PutRecorder().newTemplate();
+        assertInvalid(template, 0, 1000, 10, "threadSize");
+        assertInvalid(template, 1, 0, 10, "queueSize");
+        assertInvalid(template, 1, 1000, -1, "batchSize");
+    }
+
+    private void assertInvalid(HbaseOperations2 template, int threadSize, int queueSize, int batchSize, String name) {
+        try {
+            new BufferedPutWriter(template, TABLE_NAME, threadSize, queueSize, batchSize, 1000, false);
+            Assert.fail(name + " must be validated");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith(name));
+        }
+    }
+
+    @Test
+    public void dropWhenFull() {
+        final PutRecorder recorder = new PutRecorder();
+        // not started, so nothing is taken from the queue
+        final BufferedPutWriter writer = new BufferedPutWriter(recorder.newTemplate(), TABLE_NAME, 1, 2, 10, 1000, true);
+
+        Assert.assertTrue(writer.write(newPut(0)));
+        Assert.assertTrue(writer.write(newPut(1)));
+        Assert.assertFalse(writer.write(newPut(2)));
+        Assert.assertEquals(2, writer.getQueueSize());
+        Assert.assertEquals(1, writer.getDroppedCount());
+    }
+
+    @Test
+    public void failedBatch() {
+        final BufferedPutWriter writer = new BufferedPutWriter(newFailingTemplate(), TABLE_NAME, 1, 100, 10, 1000, false);
+        for (int i = 0; i < 15; i++) {
+            writer.write(newPut(i));
+        }
+        writer.stop();
+
+        Assert.assertEquals(15, writer.getFailedCount());
+        Assert.assertEquals(0, writer.getWrittenCount());
+        Assert.assertEquals(0, writer.getQueueSize());
+    }
+
+    private Put newPut(int i) {
+        final Put put = new Put(Bytes.toBytes("row" + i));
+        put.addColumn(Bytes.toBytes("S"), Bytes.toBytes("q"), Bytes.toBytes(i));
+        return put;
+    }
+
+    private static HbaseOperations2 newTemplate(InvocationHandler handler) {
+        return (HbaseOperations2) Proxy.newProxyInstance(HbaseOperations2.class.getClassLoader(), new Class[] { HbaseOperations2.class }, handler);
+    }
+
+    private static HbaseOperations2 newFailingTemplate() {
+        return newTemplate(new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                throw new IllegalStateException("hbase is down");
+            }
+        });
+    }
+
+    private static class PutRecorder implements InvocationHandler {
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+        private final CountDownLatch flushed = new CountDownLatch(1);
+
+        private HbaseOperations2 newTemplate() {
+            return BufferedPutWriterTest.newTemplate(this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!"put".equals(method.getName()) || args.length != 2 || !(args[1] instanceof List)) {
+                throw new UnsupportedOperationException(method.toString());
+            }
+            Assert.assertEquals(TABLE_NAME, args[0]);
+            batchSizes.add(((List<?>) args[1]).size());
+            flushed.countDown();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import static org.mockito.Mockito.*;
+
+import org.apache.hadoop.hbase.client.Put;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+
+public class HbaseApplicationIndexDaoTest {
+
+    private HbaseOperations2 hbaseTemplate;
+    private HbaseApplicationIndexDao applicationIndexDao;
+
+    @Before
+    public void setUp() {
+        hbaseTemplate = mock(HbaseOperations2.class);
+        applicationIndexDao = new HbaseApplicationIndexDao();
+        ReflectionTestUtils.setField(applicationIndexDao, "hbaseTemplate", hbaseTemplate);
+    }
+
+    @Test
+    public void insertOncePerTtl() {
+        TAgentInfo agentInfo = createAgentInfo();
+
+        applicationIndexDao.insert(agentInfo);
+        applicationIndexDao.insert(agentInfo);
+
+        verify(hbaseTemplate, times(1)).put(eq(HBaseTables.APPLICATION_INDEX), any(Put.class));
+    }
+
+    @Test
+    public void retryAfterFailedPut() {
+        doThrow(new RuntimeException("put fail")).doNothing().when(hbaseTemplate).put(eq(HBaseTables.APPLICATION_INDEX), any(Put.class));
+        TAgentInfo agentInfo = createAgentInfo();
+
+        try {
+            applicationIndexDao.insert(agentInfo);
+            Assert.fail("put failure must be thrown");
+        } catch (RuntimeException expected) {
+        }
+        applicationIndexDao.insert(agentInfo);
+        applicationIndexDao.insert(agentInfo);
+
+        verify(hbaseTemplate, times(2)).put(eq(HBaseTables.APPLICATION_INDEX), any(Put.class));
+    }
+
+    private TAgentInfo createAgentInfo() {
+        TAgentInfo agentInfo = new TAgentInfo();
+        agentInfo.setApplicationName("applicationName");
+        agentInfo.setAgentId("agentId");
+        agentInfo.setServiceType((short) 1000);
+        return agentInfo;
+    }
+}
@@ -19,14 +19,25 @@ package com.navercorp.pinpoint.collector.receiver.tcp;
 import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
 import com.navercorp.pinpoint.collector.receiver.UdpDispatchHandler;
 import com.navercorp.pinpoint.collector.receiver.tcp.TCPReceiver;
+import com.navercorp.pinpoint.collector.rpc.handler.AgentEventHandler;
+import com.navercorp.pinpoint.collector.rpc.handler.AgentLifeCycleHandler;
+import com.navercorp.pinpoint.common.util.AgentEventType;
+import com.navercorp.pinpoint.common.util.AgentLifeCycleState;
+import com.navercorp.pinpoint.rpc.packet.PingPacket;
+import com.navercorp.pinpoint.rpc.server.PinpointServer;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
 
 /**
  * @author emeroad
@@ -60,6 +71,40 @@ public class TCPReceiverTest {
 
     }
     
+    @Test
+    public void pingOfAuxiliaryChannelNotRecorded() {
+        final AgentLifeCycleHandler lifeCycleHandler = mock(AgentLifeCycleHandler.class);
+        final AgentEventHandler eventHandler = mock(AgentEventHandler.class);
+        final TCPReceiver tcpReceiver = new TCPReceiver(createConfiguration(), new UdpDispatchHandler());
+        ReflectionTestUtils.setField(tcpReceiver, "agentLifeCycleHandler", lifeCycleHandler);
+        ReflectionTestUtils.setField(tcpReceiver, "agentEventHandler", eventHandler);
+        try {
+            final PinpointServer controlChannel = mockServer(false);
+            final PinpointServer auxiliaryChannel = mockServer(true);
+
+            tcpReceiver.recordPing(new PingPacket(1), controlChannel);
+            tcpReceiver.recordPing(new PingPacket(1), auxiliaryChannel);
+            tcpReceiver.recordPing(new PingPacket(2), auxiliaryChannel);
+
+            verify(lifeCycleHandler, times(1)).handleLifeCycleEvent(any(PinpointServer.class), anyLong(), any(AgentLifeCycleState.class), anyInt());
+            verify(lifeCycleHandler, never()).handleLifeCycleEvent(eq(auxiliaryChannel), anyLong(), any(AgentLifeCycleState.class), anyInt());
+            verify(eventHandler, times(1)).handleEvent(any(PinpointServer.class), anyLong(), any(AgentEventType.class));
+            verify(eventHandler, never()).handleEvent(eq(auxiliaryChannel), anyLong(), any(AgentEventType.class));
+        } finally {
+            tcpReceiver.stop();
+        }
+    }
+
+    private PinpointServer mockServer(boolean auxiliaryChannel) {
+        final Map<Object, Object> properties = new HashMap<Object, Object>();
+        if (auxiliaryChannel) {
+            properties.put(AgentHandshakePropertyType.AUXILIARY_CHANNEL.getName(), true);
+        }
+        final PinpointServer pinpointServer = mock(PinpointServer.class);
+        when(pinpointServer.getChannelProperties()).thenReturn(properties);
+        return pinpointServer;
+    }
+
     private CollectorConfiguration createConfiguration() {
         CollectorConfiguration configuration = new CollectorConfiguration();
         configuration.setTcpListenIp("0.0.0.0");
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import java.net.DatagramPacket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.navercorp.pinpoint.collector.util.PacketUtils;
+import com.navercorp.pinpoint.collector.receiver.udp.PacketLaneExecutor.LaneSpec;
+
+public class PacketLaneExecutorTest {
+
+    private static final short AGENT_STAT = 55;
+    private static final short AGENT_STAT_BATCH = 56;
+    private static final short AGENT_INFO = 50;
+    private static final short SPAN = 40;
+
+    @Test
+    public void parse() {
+        List<LaneSpec> lanes = PacketLaneExecutor.parse(" stat=56+55:8:512 , other=10:2:128");
+
+        Assert.assertEquals(2, lanes.size());
+        Assert.assertEquals("stat", lanes.get(0).getName());
+        Assert.assertEquals(Arrays.asList(AGENT_STAT_BATCH, AGENT_STAT), lanes.get(0).getHeaderTypes());
+        Assert.assertEquals(8, lanes.get(0).getThreadSize());
+        Assert.assertEquals(512, lanes.get(0).getQueueSize());
+        Assert.assertEquals("other", lanes.get(1).getName());
+
+        Assert.assertTrue(PacketLaneExecutor.parse("").isEmpty());
+        Assert.assertTrue(PacketLaneExecutor.parse(null).isEmpty());
+    }
+
+    @Test
+    public void parseInvalid() {
+        assertInvalid("stat");
+        assertInvalid("stat=55:8");
+        assertInvalid("stat=span:8:512");
+        assertInvalid("stat=55:0:512");
+    }
+
+    @Test
+    public void shedLowPriorityFirst() throws InterruptedException {
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final PacketLaneExecutor executor = new PacketLaneExecutor("test", "high=55:1:2,low=50:1:2", metricRegistry);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            Assert.assertTrue(executor.execute(AGENT_STAT, new BlockingTask(release)));
+            Assert.assertTrue(executor.execute(AGENT_INFO, new BlockingTask(release)));
+
+            // low priority lane only admits packets while less than half of the total queue is used
+            Assert.assertTrue(executor.execute(AGENT_INFO, new BlockingTask(release)));
+            Assert.assertTrue(executor.execute(AGENT_INFO, new BlockingTask(release)));
+            Assert.assertFalse(executor.execute(AGENT_INFO, new BlockingTask(release)));
+            // unlisted types go to the last lane
+            Assert.assertFalse(executor.execute(SPAN, new BlockingTask(release)));
+
+            Assert.assertTrue(executor.execute(AGENT_STAT, new BlockingTask(release)));
+            Assert.assertTrue(executor.execute(AGENT_STAT, new BlockingTask(release)));
+
+            Assert.assertEquals(2, metricRegistry.counter("test-low-shed").getCount());
+            Assert.assertEquals(0, metricRegistry.counter("test-high-shed").getCount());
+            Assert.assertEquals(2, executor.getTotalThreadSize());
+            Assert.assertEquals(4, executor.getTotalQueueSize());
+        } finally {
+            release.countDown();
+            executor.shutdown(3000);
+        }
+    }
+
+    @Test
+    public void rejectWhenLaneIsFull() {
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final PacketLaneExecutor executor = new PacketLaneExecutor("test", "high=55:1:1,low=50:1:10", metricRegistry);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            Assert.assertTrue(executor.execute(AGENT_STAT, new BlockingTask(release)));
+            Assert.assertTrue(executor.execute(AGENT_STAT, new BlockingTask(release)));
+            Assert.assertFalse(executor.execute(AGENT_STAT, new BlockingTask(release)));
+            // the other lane is not affected
+            Assert.assertTrue(executor.execute(AGENT_INFO, new BlockingTask(release)));
+
+            Assert.assertEquals(1, metricRegistry.counter("test-high-rejected").getCount());
+            Assert.assertEquals(0, metricRegistry.counter("test-low-rejected").getCount());
+        } finally {
+            release.countDown();
+            executor.shutdown(3000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicatedHeaderType() {
+        new PacketLaneExecutor("test", "high=55:1:1,low=55+50:1:1", new MetricRegistry());
+    }
+
+    @Test
+    public void getHeaderType() {
+        byte[] data = new byte[] { 0, (byte) 0xef, 0x10, 0, AGENT_STAT_BATCH, 1, 2 };
+
+        Assert.assertEquals(AGENT_STAT_BATCH, PacketUtils.getHeaderType(new DatagramPacket(data, 1, 6)));
+        Assert.assertEquals(-1, PacketUtils.getHeaderType(new DatagramPacket(data, 0, 6)));
+        Assert.assertEquals(-1, PacketUtils.getHeaderType(new DatagramPacket(data, 1, 3)));
+    }
+
+    private void assertInvalid(String laneSpec) {
+        try {
+            PacketLaneExecutor.parse(laneSpec);
+            Assert.fail("invalid laneSpec parsed:" + laneSpec);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static class BlockingTask implements Runnable {
+        private final CountDownLatch release;
+
+        private BlockingTask(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.util.MockClock;
+
+public class AtomicLongUpdateMapTest {
+
+    @Test
+    public void update() {
+        AtomicLongUpdateMap<String> updateMap = new AtomicLongUpdateMap<String>();
+
+        Assert.assertTrue(updateMap.update("a", 10));
+        Assert.assertFalse(updateMap.update("a", 10));
+        Assert.assertFalse(updateMap.update("a", 5));
+        Assert.assertTrue(updateMap.update("a", 20));
+        Assert.assertTrue(updateMap.update("b", 10));
+
+        Assert.assertEquals(2, updateMap.getHitCount());
+        Assert.assertEquals(3, updateMap.getMissCount());
+        Assert.assertEquals(2, updateMap.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        AtomicLongUpdateMap<String> updateMap = new AtomicLongUpdateMap<String>(2, AtomicLongUpdateMap.NO_EXPIRATION, 1, new MockClock());
+
+        Assert.assertTrue(updateMap.update("a", 10));
+        Assert.assertTrue(updateMap.update("b", 10));
+        // touch a so that b is the eldest
+        Assert.assertFalse(updateMap.update("a", 10));
+        Assert.assertTrue(updateMap.update("c", 10));
+
+        Assert.assertEquals(2, updateMap.size());
+        Assert.assertEquals(1, updateMap.getEvictionCount());
+        Assert.assertFalse(updateMap.update("a", 10));
+        Assert.assertTrue(updateMap.update("b", 10));
+    }
+
+    @Test
+    public void boundedSize() {
+        AtomicLongUpdateMap<Integer> updateMap = new AtomicLongUpdateMap<Integer>(1024, AtomicLongUpdateMap.NO_EXPIRATION);
+        for (int i = 0; i < 1024 * 10; i++) {
+            updateMap.update(i, 1);
+        }
+        Assert.assertTrue(updateMap.size() <= 1024);
+        Assert.assertEquals(1024 * 10 - updateMap.size(), updateMap.getEvictionCount());
+    }
+
+    @Test
+    public void expire() {
+        MockClock clock = new MockClock();
+        AtomicLongUpdateMap<String> updateMap = new AtomicLongUpdateMap<String>(16, 1000, 4, clock);
+
+        clock.setTime(0);
+        Assert.assertTrue(updateMap.update("a"));
+        clock.setTime(999);
+        Assert.assertFalse(updateMap.update("a"));
+        clock.setTime(1000);
+        Assert.assertTrue(updateMap.update("a"));
+        Assert.assertFalse(updateMap.update("a"));
+
+        Assert.assertEquals(1, updateMap.getEvictionCount());
+    }
+
+    @Test
+    public void invalidate() {
+        AtomicLongUpdateMap<String> updateMap = new AtomicLongUpdateMap<String>();
+
+        Assert.assertTrue(updateMap.update("a"));
+        Assert.assertFalse(updateMap.update("a"));
+        updateMap.invalidate("a");
+        Assert.assertEquals(0, updateMap.size());
+        Assert.assertTrue(updateMap.update("a"));
+    }
+
+    @Test
+    public void metrics() {
+        AtomicLongUpdateMap<String> updateMap = new AtomicLongUpdateMap<String>();
+        Assert.assertTrue(updateMap.getMetrics().keySet().containsAll(java.util.Arrays.asList("size", "hit", "miss", "eviction")));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+
+/**
+ * Ends the scan as soon as the query is terminated : {@link #next()} returns null as if the scanner were exhausted,
+ * and the token is marked truncated. Extractors complete with the rows read so far, and the scanner is closed as usual.
+ */
+class CancellableResultScanner implements ResultScanner {
+
+    private static final Result[] EMPTY = new Result[0];
+
+    private final ResultScanner scanner;
+    private final CancellationToken token;
+
+    CancellableResultScanner(ResultScanner scanner, CancellationToken token) {
+        if (scanner == null) {
+            throw new NullPointerException("scanner must not be null");
+        }
+        if (token == null) {
+            throw new NullPointerException("token must not be null");
+        }
+        this.scanner = scanner;
+        this.token = token;
+    }
+
+    @Override
+    public Result next() throws IOException {
+        if (isTerminated()) {
+            return null;
+        }
+        return scanner.next();
+    }
+
+    @Override
+    public Result[] next(int nbRows) throws IOException {
+        if (isTerminated()) {
+            return EMPTY;
+        }
+        return scanner.next(nbRows);
+    }
+
+    private boolean isTerminated() {
+        if (token.isTerminated()) {
+            token.markTruncated();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        scanner.close();
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+        return new Iterator<Result>() {
+            private Result next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = CancellableResultScanner.this.next();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Result result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+/**
+ * Cancellation state of one query, shared by every hbase request made for it.
+ *
+ * A query is terminated when it is cancelled or when its deadline has passed.
+ * Scanners of a terminated query return no more rows, so the query completes with the rows read so far :
+ * {@link #isTruncated()} then tells the caller that the result is partial.
+ */
+public class CancellationToken {
+
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadline;
+
+    private volatile boolean cancelled;
+    private volatile boolean truncated;
+
+    public CancellationToken() {
+        this(NO_DEADLINE);
+    }
+
+    /**
+     * @param deadline epoch milliseconds after which the query is terminated
+     */
+    public CancellationToken(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return true if cancelled or the deadline has passed.
+     */
+    public boolean isTerminated() {
+        return cancelled || System.currentTimeMillis() >= deadline;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * called when a request stops early because the query was terminated.
+     */
+    public void markTruncated() {
+        this.truncated = true;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public String toString() {
+        return "CancellationToken{" +
+                "deadline=" + deadline +
+                ", cancelled=" + cancelled +
+                ", truncated=" + truncated +
+                '}';
+    }
+}
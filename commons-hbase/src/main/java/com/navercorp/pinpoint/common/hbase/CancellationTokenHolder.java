@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+/**
+ * Binds the {@link CancellationToken} of the current query to the thread.
+ * {@link HbaseTemplate2} reads it to stop the scanners of a terminated query, and passes it on to its asynchronous requests.
+ */
+public final class CancellationTokenHolder {
+
+    private static final ThreadLocal<CancellationToken> TOKEN = new ThreadLocal<CancellationToken>();
+
+    private CancellationTokenHolder() {
+    }
+
+    /**
+     * @return the token previously bound, null if none.
+     */
+    public static CancellationToken bind(CancellationToken token) {
+        final CancellationToken previous = TOKEN.get();
+        if (token == null) {
+            TOKEN.remove();
+        } else {
+            TOKEN.set(token);
+        }
+        return previous;
+    }
+
+    public static void unbind() {
+        TOKEN.remove();
+    }
+
+    /**
+     * @return the token of the current thread, null if not bound.
+     */
+    public static CancellationToken get() {
+        return TOKEN.get();
+    }
+
+    /**
+     * @return true if a token is bound and terminated.
+     */
+    public static boolean isTerminated() {
+        final CancellationToken token = TOKEN.get();
+        return token != null && token.isTerminated();
+    }
+
+    /**
+     * @return true if a token is bound and a request of its query stopped early.
+     */
+    public static boolean isTruncated() {
+        final CancellationToken token = TOKEN.get();
+        return token != null && token.isTruncated();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link Future} of an asynchronous hbase request that must complete before its deadline.
+ * Waiting never exceeds the deadline. Once it has passed, the request is cancelled
+ * and {@link #get()} fails with an {@link ExecutionException} caused by a {@link TimeoutException}.
+ */
+class DeadlineFuture<T> implements Future<T> {
+
+    private final Future<T> future;
+    private final long deadline;
+
+    DeadlineFuture(Future<T> future, long deadline) {
+        if (future == null) {
+            throw new NullPointerException("future must not be null");
+        }
+        this.future = future;
+        this.deadline = deadline;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return future.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        try {
+            return get0(remainingMillis());
+        } catch (TimeoutException e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (unit == null) {
+            throw new NullPointerException("unit must not be null");
+        }
+        final long remainingMillis = remainingMillis();
+        final long timeoutMillis = unit.toMillis(timeout);
+        if (timeoutMillis < remainingMillis) {
+            // the caller gives up first. the request itself is still alive.
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return get0(remainingMillis);
+    }
+
+    private T get0(long remainingMillis) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            return future.get(Math.max(remainingMillis, 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TimeoutException("deadline exceeded. deadline:" + deadline);
+        }
+    }
+
+    private long remainingMillis() {
+        return deadline - System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.data.hadoop.hbase.HbaseSystemException;
+
+/**
+ * Waits for the results of {@link HbaseOperations2} asynchronous requests, converting failures the same way as the synchronous api.
+ */
+public final class FutureUtils {
+
+    private static final long TERMINATION_CHECK_INTERVAL = 100;
+
+    private FutureUtils() {
+    }
+
+    /**
+     * @throws HbaseSystemException if the request failed with a checked exception, timed out or the caller was interrupted.
+     */
+    public static <T> T getResult(Future<T> future) {
+        if (future == null) {
+            throw new NullPointerException("future must not be null");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new HbaseSystemException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new HbaseSystemException((Exception) cause);
+        }
+    }
+
+    /**
+     * waits for every request in order. the remaining requests are cancelled when one of them fails.
+     */
+    public static <T> List<T> getResults(List<Future<T>> futureList) {
+        if (futureList == null) {
+            throw new NullPointerException("futureList must not be null");
+        }
+        final List<T> resultList = new ArrayList<T>(futureList.size());
+        boolean success = false;
+        try {
+            for (Future<T> future : futureList) {
+                resultList.add(getResult(future));
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                cancelAll(futureList);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * waits for the requests in order, until the query of the given token is terminated.
+     * The results of the requests completed before are returned in order : the remaining requests are cancelled
+     * and the token is marked truncated.
+     */
+    public static <T> List<T> getResults(List<Future<T>> futureList, CancellationToken token) {
+        if (futureList == null) {
+            throw new NullPointerException("futureList must not be null");
+        }
+        if (token == null) {
+            return getResults(futureList);
+        }
+        final List<T> resultList = new ArrayList<T>(futureList.size());
+        boolean success = false;
+        try {
+            for (Future<T> future : futureList) {
+                if (!waitFor(future, token)) {
+                    token.markTruncated();
+                    cancelAll(futureList.subList(resultList.size(), futureList.size()));
+                    break;
+                }
+                resultList.add(getResult(future));
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                cancelAll(futureList);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * @return false if the query was terminated before the request completed.
+     */
+    private static boolean waitFor(Future<?> future, CancellationToken token) {
+        while (!future.isDone()) {
+            if (token.isTerminated()) {
+                return false;
+            }
+            try {
+                future.get(TERMINATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (future.isCancelled()) {
+                    // the deadline of the request has passed
+                    throw new HbaseSystemException(e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new HbaseSystemException(e);
+            } catch (ExecutionException e) {
+                // reported by getResult()
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private static <T> void cancelAll(List<Future<T>> futureList) {
+        for (Future<T> future : futureList) {
+            future.cancel(true);
+        }
+    }
+}
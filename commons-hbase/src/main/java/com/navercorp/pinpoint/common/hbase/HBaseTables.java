@@ -33,6 +33,10 @@ public final class HBaseTables {
     public static final byte[] APPLICATION_TRACE_INDEX_CF_TRACE = Bytes.toBytes("I"); // applicationIndex
     public static final int APPLICATION_TRACE_INDEX_ROW_DISTRIBUTE_SIZE = 1; // applicationIndex hash size
 
+    public static final String APPLICATION_TRACE_INDEX_BUCKET = "ApplicationTraceIndexBucket";
+    public static final byte[] APPLICATION_TRACE_INDEX_BUCKET_CF_COUNT = Bytes.toBytes("C"); // ApplicationTraceIndex row count per time slot
+    public static final byte[] APPLICATION_TRACE_INDEX_BUCKET_CQ_COUNT = Bytes.toBytes("c"); // qualifier
+
     public static final String AGENT_STAT = "AgentStat";
     public static final byte[] AGENT_STAT_CF_STATISTICS = Bytes.toBytes("S"); // agent statistics column family
     public static final byte[] AGENT_STAT_CF_STATISTICS_V1 = Bytes.toBytes("V1"); // qualifier
@@ -45,6 +49,9 @@ public final class HBaseTables {
     public static final byte[] TRACES_CF_ANNOTATION = Bytes.toBytes("A");  //Annotation
     public static final byte[] TRACES_CF_TERMINALSPAN = Bytes.toBytes("T"); //TerminalSpan
 
+    public static final String TRACE_SUMMARY = "TraceSummary";
+    public static final byte[] TRACE_SUMMARY_CF_SUMMARY = Bytes.toBytes("S"); // filter summary of span and span chunk
+
     public static final String APPLICATION_INDEX = "ApplicationIndex";
     public static final byte[] APPLICATION_INDEX_CF_AGENTS = Bytes.toBytes("Agents");
 
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.common.hbase;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import org.apache.hadoop.hbase.client.*;
@@ -111,4 +112,26 @@ public interface HbaseOperations2 extends HbaseOperations {
 
     long incrementColumnValue(String tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final long amount, final boolean writeToWAL);
 
+    /**
+     * Asynchronous variant of {@link #get(String, Get, RowMapper)}.
+     * The request runs on a bounded executor and fails with a {@link java.util.concurrent.TimeoutException} once its deadline has passed.
+     * Use {@link FutureUtils#getResult(Future)} to wait for the result.
+     */
+    <T> Future<T> getAsync(String tableName, final Get get, final RowMapper<T> mapper);
+
+    <T> Future<List<T>> getAsync(String tableName, final List<Get> getList, final RowMapper<T> mapper);
+
+    /**
+     * Asynchronous variant of {@link #find(String, Scan, ResultsExtractor)}.
+     * The request runs on a bounded executor and fails with a {@link java.util.concurrent.TimeoutException} once its deadline has passed.
+     * Use {@link FutureUtils#getResult(Future)} to wait for the result.
+     */
+    <T> Future<T> findAsync(String tableName, final Scan scan, final ResultsExtractor<T> action);
+
+    <T> Future<List<T>> findAsync(String tableName, final Scan scan, final RowMapper<T> action);
+
+    <T> Future<T> findAsync(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action);
+
+    <T> Future<List<T>> findAsync(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action);
+
 }
@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.common.hbase;
 
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.common.util.StopWatch;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import com.sematext.hbase.wd.DistributedScanner;
@@ -34,10 +35,13 @@ import org.springframework.util.Assert;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author emeroad
@@ -46,37 +50,64 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private final ExecutorService executor = newCachedThreadPool();
+    public static final int DEFAULT_ASYNC_THREAD_SIZE = 32;
+    public static final int DEFAULT_ASYNC_QUEUE_SIZE = 1024;
+    // no deadline. the scanners of a query stop with its CancellationToken instead.
+    public static final long DEFAULT_ASYNC_TIMEOUT = 0;
 
-    public HbaseTemplate2() {
-    }
-
-    public ExecutorService newCachedThreadPool() {
-        return new ThreadPoolExecutor(0, 128,
-                60L, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>());
-    }
+    private int asyncThreadSize = DEFAULT_ASYNC_THREAD_SIZE;
+    private int asyncQueueSize = DEFAULT_ASYNC_QUEUE_SIZE;
+    private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
 
-//    public Executor getExecutor() {
-//        return executor;
-//    }
+    private volatile ExecutorService executor;
 
-//    public void setExecutor(Executor executor) {
-//        this.executor = executor;
-//    }
+    public HbaseTemplate2() {
+    }
 
     public HbaseTemplate2(Configuration configuration) {
         Assert.notNull(configuration);
         setConfiguration(configuration);
     }
 
+    /**
+     * executor of the asynchronous requests.
+     * When the queue is full, the request runs on the calling thread instead of being rejected.
+     */
+    private ExecutorService newAsyncExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(asyncThreadSize, asyncThreadSize,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(asyncQueueSize),
+                new PinpointThreadFactory("Pinpoint-HbaseTemplate2-Async", true),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public void setAsyncThreadSize(int asyncThreadSize) {
+        Assert.isTrue(asyncThreadSize > 0, "asyncThreadSize must be greater than 0");
+        this.asyncThreadSize = asyncThreadSize;
+    }
+
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        Assert.isTrue(asyncQueueSize > 0, "asyncQueueSize must be greater than 0");
+        this.asyncQueueSize = asyncQueueSize;
+    }
 
+    /**
+     * deadline of each asynchronous request in milliseconds, counted from its submission. 0 : no deadline.
+     * Past the deadline, waiting for the request fails. The query deadline of a {@link CancellationToken} truncates the scans instead.
+     */
+    public void setAsyncTimeout(long asyncTimeout) {
+        Assert.isTrue(asyncTimeout >= 0, "asyncTimeout must not be negative");
+        this.asyncTimeout = asyncTimeout;
+    }
 
     @Override
     public void afterPropertiesSet() {
         Configuration configuration = getConfiguration();
         Assert.notNull(configuration, "configuration is required");
         Assert.notNull(getTableFactory(), "tableFactory is required");
+        this.executor = newAsyncExecutor();
     }
 
     @Override
@@ -112,7 +143,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         return execute(tableName, new TableCallback<T>() {
             @Override
             public T doInTable(HTableInterface htable) throws Throwable {
-                final ResultScanner scanner = htable.getScanner(scan);
+                final ResultScanner scanner = getScanner(htable, scan);
                 try {
                     return action.extractData(scanner);
                 } finally {
@@ -376,7 +407,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
             public List<T> doInTable(HTableInterface htable) throws Throwable {
                 List<T> result = new ArrayList<T>(scanList.size());
                 for (Scan scan : scanList) {
-                    final ResultScanner scanner = htable.getScanner(scan);
+                    final ResultScanner scanner = getScanner(htable, scan);
                     try {
                         T t = action.extractData(scanner);
                         result.add(t);
@@ -399,7 +430,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         return execute(tableName, new TableCallback<List<T>>() {
             @Override
             public List<T> doInTable(HTableInterface htable) throws Throwable {
-                final ResultScanner scanner = createDistributeScanner(htable, scan, rowKeyDistributor);
+                final ResultScanner scanner = cancellable(createDistributeScanner(htable, scan, rowKeyDistributor));
                 try {
                     return resultsExtractor.extractData(scanner);
                 } finally {
@@ -414,7 +445,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         return execute(tableName, new TableCallback<List<T>>() {
             @Override
             public List<T> doInTable(HTableInterface htable) throws Throwable {
-                final ResultScanner scanner = createDistributeScanner(htable, scan, rowKeyDistributor);
+                final ResultScanner scanner = cancellable(createDistributeScanner(htable, scan, rowKeyDistributor));
                 try {
                     return resultsExtractor.extractData(scanner);
                 } finally {
@@ -429,7 +460,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         return execute(tableName, new TableCallback<List<T>>() {
             @Override
             public List<T> doInTable(HTableInterface htable) throws Throwable {
-                final ResultScanner scanner = createDistributeScanner(htable, scan, rowKeyDistributor);
+                final ResultScanner scanner = cancellable(createDistributeScanner(htable, scan, rowKeyDistributor));
                 try {
                     return resultsExtractor.extractData(scanner);
                 } finally {
@@ -452,7 +483,7 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
                     watch = new StopWatch();
                     watch.start();
                 }
-                final ResultScanner scanner = createDistributeScanner(htable, scan, rowKeyDistributor);
+                final ResultScanner scanner = cancellable(createDistributeScanner(htable, scan, rowKeyDistributor));
                 if (debugEnabled) {
                     logger.debug("DistributeScanner createTime:{}", watch.stop());
                 }
@@ -498,6 +529,21 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         return new DistributedScanner(rowKeyDistributor, scanner);
     }
 
+    private ResultScanner getScanner(HTableInterface htable, Scan scan) throws IOException {
+        return cancellable(htable.getScanner(scan));
+    }
+
+    /**
+     * scanners of a query bound to a {@link CancellationToken} stop once the query is terminated.
+     */
+    private ResultScanner cancellable(ResultScanner scanner) {
+        final CancellationToken token = CancellationTokenHolder.get();
+        if (token == null) {
+            return scanner;
+        }
+        return new CancellableResultScanner(scanner, token);
+    }
+
     private void closeScanner(ResultScanner[] scannerList ) {
         for (ResultScanner scanner : scannerList) {
             if (scanner != null) {
@@ -510,6 +556,102 @@ public class HbaseTemplate2 extends HbaseTemplate implements HbaseOperations2, I
         }
     }
 
+    @Override
+    public <T> Future<T> getAsync(String tableName, final Get get, final RowMapper<T> mapper) {
+        return executeAsync(tableName, new TableCallback<T>() {
+            @Override
+            public T doInTable(HTableInterface htable) throws Throwable {
+                Result result = htable.get(get);
+                return mapper.mapRow(result, 0);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> getAsync(String tableName, final List<Get> getList, final RowMapper<T> mapper) {
+        return executeAsync(tableName, new TableCallback<List<T>>() {
+            @Override
+            public List<T> doInTable(HTableInterface htable) throws Throwable {
+                Result[] result = htable.get(getList);
+                List<T> list = new ArrayList<T>(result.length);
+                for (int i = 0; i < result.length; i++) {
+                    T t = mapper.mapRow(result[i], i);
+                    list.add(t);
+                }
+                return list;
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<T> findAsync(String tableName, final Scan scan, final ResultsExtractor<T> action) {
+        return executeAsync(tableName, new TableCallback<T>() {
+            @Override
+            public T doInTable(HTableInterface htable) throws Throwable {
+                final ResultScanner scanner = getScanner(htable, scan);
+                try {
+                    return action.extractData(scanner);
+                } finally {
+                    scanner.close();
+                }
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> findAsync(String tableName, final Scan scan, final RowMapper<T> action) {
+        return findAsync(tableName, scan, new RowMapperResultsExtractor<T>(action));
+    }
+
+    @Override
+    public <T> Future<T> findAsync(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action) {
+        return executeAsync(tableName, new TableCallback<T>() {
+            @Override
+            public T doInTable(HTableInterface htable) throws Throwable {
+                final ResultScanner scanner = cancellable(createDistributeScanner(htable, scan, rowKeyDistributor));
+                try {
+                    return action.extractData(scanner);
+                } finally {
+                    scanner.close();
+                }
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> findAsync(String tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action) {
+        return findAsync(tableName, scan, rowKeyDistributor, new RowMapperResultsExtractor<T>(action));
+    }
+
+    private <T> Future<T> executeAsync(final String tableName, final TableCallback<T> action) {
+        final ExecutorService executor = this.executor;
+        if (executor == null) {
+            throw new IllegalStateException("HbaseTemplate2 is not initialized. afterPropertiesSet() must be called.");
+        }
+        final long deadline = asyncTimeout > 0 ? System.currentTimeMillis() + asyncTimeout : CancellationToken.NO_DEADLINE;
+        // the request belongs to the query of the calling thread. its scanners stop when the query is terminated.
+        final CancellationToken token = CancellationTokenHolder.get();
+        final Future<T> future = executor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                if (System.currentTimeMillis() >= deadline) {
+                    // expired while queued. nobody waits for the result any more.
+                    throw new TimeoutException(tableName + " request expired in queue.");
+                }
+                final CancellationToken previous = CancellationTokenHolder.bind(token);
+                try {
+                    return execute(tableName, action);
+                } finally {
+                    CancellationTokenHolder.bind(previous);
+                }
+            }
+        });
+        if (deadline == CancellationToken.NO_DEADLINE) {
+            return future;
+        }
+        return new DeadlineFuture<T>(future, deadline);
+    }
+
     public Result increment(String tableName, final Increment increment) {
         return execute(tableName, new TableCallback<Result>() {
             @Override
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CancellableResultScannerTest {
+
+    @Test
+    public void cancelRunningScan() throws InterruptedException {
+        final EndlessResultScanner scanner = new EndlessResultScanner();
+        final CancellationToken token = new CancellationToken();
+        final CancellableResultScanner cancellableScanner = new CancellableResultScanner(scanner, token);
+
+        final CountDownLatch scanning = new CountDownLatch(10);
+        final AtomicInteger rows = new AtomicInteger();
+        final Thread scanThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (Result result : cancellableScanner) {
+                    rows.incrementAndGet();
+                    scanning.countDown();
+                }
+                cancellableScanner.close();
+            }
+        });
+        scanThread.start();
+
+        Assert.assertTrue(scanning.await(5000, TimeUnit.MILLISECONDS));
+        token.cancel();
+        scanThread.join(5000);
+
+        Assert.assertFalse("scan must end once cancelled", scanThread.isAlive());
+        Assert.assertTrue(token.isTruncated());
+        Assert.assertTrue(scanner.closed);
+        Assert.assertEquals(scanner.count.get(), rows.get());
+    }
+
+    @Test
+    public void deadlinePassed() throws IOException {
+        final EndlessResultScanner scanner = new EndlessResultScanner();
+        final CancellationToken token = new CancellationToken(System.currentTimeMillis() - 1);
+        final CancellableResultScanner cancellableScanner = new CancellableResultScanner(scanner, token);
+
+        Assert.assertNull(cancellableScanner.next());
+        Assert.assertEquals(0, cancellableScanner.next(10).length);
+        Assert.assertFalse(cancellableScanner.iterator().hasNext());
+        Assert.assertEquals(0, scanner.count.get());
+        Assert.assertTrue(token.isTruncated());
+    }
+
+    @Test
+    public void notTerminated() throws IOException {
+        final EndlessResultScanner scanner = new EndlessResultScanner();
+        final CancellationToken token = new CancellationToken();
+        final CancellableResultScanner cancellableScanner = new CancellableResultScanner(scanner, token);
+
+        Assert.assertNotNull(cancellableScanner.next());
+        Assert.assertEquals(3, cancellableScanner.next(3).length);
+        final Iterator<Result> iterator = cancellableScanner.iterator();
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertNotNull(iterator.next());
+        Assert.assertEquals(5, scanner.count.get());
+        Assert.assertFalse(token.isTruncated());
+    }
+
+    private static class EndlessResultScanner implements ResultScanner {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile boolean closed;
+
+        @Override
+        public Result next() throws IOException {
+            count.incrementAndGet();
+            return new Result();
+        }
+
+        @Override
+        public Result[] next(int nbRows) throws IOException {
+            final Result[] results = new Result[nbRows];
+            for (int i = 0; i < nbRows; i++) {
+                results[i] = next();
+            }
+            return results;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.common.hbase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.hadoop.hbase.HbaseSystemException;
+
+public class FutureUtilsTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void getResult() {
+        Future<String> future = new DeadlineFuture<String>(executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "result";
+            }
+        }), System.currentTimeMillis() + 1000);
+
+        Assert.assertEquals("result", FutureUtils.getResult(future));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getResult_runtimeException() {
+        Future<String> future = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new IllegalStateException("fail");
+            }
+        });
+
+        FutureUtils.getResult(future);
+    }
+
+    @Test
+    public void getResult_deadlineExceeded() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Future<String> future = new DeadlineFuture<String>(executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                latch.await();
+                return "result";
+            }
+        }), System.currentTimeMillis() + 100);
+
+        final long startTime = System.currentTimeMillis();
+        try {
+            FutureUtils.getResult(future);
+            Assert.fail();
+        } catch (HbaseSystemException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 1000);
+        Assert.assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void getResults_terminated() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long deadline = System.currentTimeMillis() + 10000;
+        final Future<String> completed = new DeadlineFuture<String>(executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "result";
+            }
+        }), deadline);
+        final Future<String> blocked = new DeadlineFuture<String>(executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                latch.await();
+                return "blocked";
+            }
+        }), deadline);
+        final CancellationToken token = new CancellationToken(System.currentTimeMillis() + 200);
+
+        final long startTime = System.currentTimeMillis();
+        final List<String> resultList = FutureUtils.getResults(Arrays.asList(completed, blocked), token);
+
+        Assert.assertEquals(Arrays.asList("result"), resultList);
+        Assert.assertTrue(token.isTruncated());
+        Assert.assertTrue(blocked.isCancelled());
+        Assert.assertTrue(System.currentTimeMillis() - startTime < 1000);
+    }
+}
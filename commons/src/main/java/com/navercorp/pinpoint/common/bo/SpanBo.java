@@ -317,6 +317,10 @@ public class SpanBo implements com.navercorp.pinpoint.common.bo.Span {
         return spanEventBoList;
     }
 
+    public void setSpanEventBoList(List<SpanEventBo> spanEventBoList) {
+        this.spanEventBoList = spanEventBoList;
+    }
+
     public short getServiceType() {
         return serviceType;
     }
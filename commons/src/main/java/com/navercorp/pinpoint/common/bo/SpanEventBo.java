@@ -387,6 +387,12 @@ public class SpanEventBo implements Span {
         return exceptionClass;
     }
 
+    public void setExceptionInfo(int exceptionId, String exceptionMessage) {
+        this.hasException = true;
+        this.exceptionId = exceptionId;
+        this.exceptionMessage = exceptionMessage;
+    }
+
     public void setExceptionClass(String exceptionClass) {
         this.exceptionClass = exceptionClass;
     }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+
+/**
+ * Binary encoding of the agents connected to a collector, shared by the collector which publishes its membership
+ * buckets in zookeeper and the web which routes requests with them.
+ * <pre>
+ * version(1) applicationCount(var)
+ *   applicationName(prefixed) agentCount(var)
+ *     agentId(prefixed) startTimestamp(var)
+ * </pre>
+ * Agents are grouped by application name so that the name is written once per bucket.
+ */
+public final class AgentMembershipCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final char BUCKET_SEPARATOR = '#';
+
+    private static final byte[] EMPTY = new byte[] { VERSION, 0 };
+
+    private AgentMembershipCodec() {
+    }
+
+    public static byte[] encode(Collection<Member> members) {
+        if (members == null) {
+            throw new NullPointerException("members must not be null");
+        }
+        if (members.isEmpty()) {
+            return EMPTY.clone();
+        }
+
+        final Map<String, List<Member>> applicationMap = new HashMap<String, List<Member>>();
+        for (Member member : members) {
+            List<Member> applicationMembers = applicationMap.get(member.getApplicationName());
+            if (applicationMembers == null) {
+                applicationMembers = new ArrayList<Member>();
+                applicationMap.put(member.getApplicationName(), applicationMembers);
+            }
+            applicationMembers.add(member);
+        }
+
+        final Buffer buffer = new AutomaticBuffer(members.size() * 24);
+        buffer.put(VERSION);
+        buffer.putVar(applicationMap.size());
+        for (Map.Entry<String, List<Member>> entry : applicationMap.entrySet()) {
+            buffer.putPrefixedString(entry.getKey());
+            buffer.putVar(entry.getValue().size());
+            for (Member member : entry.getValue()) {
+                buffer.putPrefixedString(member.getAgentId());
+                buffer.putVar(member.getStartTimestamp());
+            }
+        }
+        return buffer.getBuffer();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not an encoded membership
+     */
+    public static List<Member> decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return Collections.emptyList();
+        }
+
+        final Buffer buffer = new FixedBuffer(data);
+        try {
+            final byte version = buffer.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unknown membership version:" + version);
+            }
+
+            final List<Member> members = new ArrayList<Member>();
+            final int applicationCount = buffer.readVarInt();
+            for (int i = 0; i < applicationCount; i++) {
+                final String applicationName = buffer.readPrefixedString();
+                final int agentCount = buffer.readVarInt();
+                for (int j = 0; j < agentCount; j++) {
+                    final String agentId = buffer.readPrefixedString();
+                    final long startTimestamp = buffer.readVarLong();
+                    members.add(new Member(applicationName, agentId, startTimestamp));
+                }
+            }
+            if (buffer.getOffset() != data.length) {
+                throw new IllegalArgumentException("trailing bytes after membership. offset:" + buffer.getOffset() + " length:" + data.length);
+            }
+            return members;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("truncated membership. length:" + data.length, e);
+        } catch (NullPointerException e) {
+            throw new IllegalArgumentException("null field in membership", e);
+        }
+    }
+
+    public static String bucketName(String collectorId, int bucket) {
+        return collectorId + BUCKET_SEPARATOR + bucket;
+    }
+
+    /**
+     * @return null if the name is not a bucket name
+     */
+    public static String getCollectorId(String bucketName) {
+        final int index = bucketName.lastIndexOf(BUCKET_SEPARATOR);
+        if (index <= 0) {
+            return null;
+        }
+        return bucketName.substring(0, index);
+    }
+
+    public static final class Member {
+        private final String applicationName;
+        private final String agentId;
+        private final long startTimestamp;
+
+        public Member(String applicationName, String agentId, long startTimestamp) {
+            if (applicationName == null) {
+                throw new NullPointerException("applicationName must not be null");
+            }
+            if (agentId == null) {
+                throw new NullPointerException("agentId must not be null");
+            }
+            this.applicationName = applicationName;
+            this.agentId = agentId;
+            this.startTimestamp = startTimestamp;
+        }
+
+        public String getApplicationName() {
+            return applicationName;
+        }
+
+        public String getAgentId() {
+            return agentId;
+        }
+
+        public long getStartTimestamp() {
+            return startTimestamp;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final Member member = (Member) o;
+            return startTimestamp == member.startTimestamp && applicationName.equals(member.applicationName) && agentId.equals(member.agentId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = applicationName.hashCode();
+            result = 31 * result + agentId.hashCode();
+            result = 31 * result + (int) (startTimestamp ^ (startTimestamp >>> 32));
+            return result;
+        }
+
+        /**
+         * applicationName:agentId:startTimestamp, the format of the single node membership
+         */
+        @Override
+        public String toString() {
+            return applicationName + ":" + agentId + ":" + startTimestamp;
+        }
+    }
+}
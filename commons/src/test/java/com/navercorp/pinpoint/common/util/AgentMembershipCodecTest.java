@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec.Member;
+
+public class AgentMembershipCodecTest {
+
+    @Test
+    public void encodeAndDecode() {
+        List<Member> members = Arrays.asList(new Member("app", "agent1", 1439358398000L), new Member("app", "agent2", 1439358398001L),
+                new Member("other-app", "에이전트", 1L), new Member("other-app", "", 0L));
+
+        List<Member> decoded = AgentMembershipCodec.decode(AgentMembershipCodec.encode(members));
+
+        Assert.assertEquals(new HashSet<Member>(members), new HashSet<Member>(decoded));
+        Assert.assertEquals(members.size(), decoded.size());
+    }
+
+    @Test
+    public void empty() {
+        byte[] data = AgentMembershipCodec.encode(Collections.<Member>emptyList());
+
+        Assert.assertEquals(2, data.length);
+        Assert.assertTrue(AgentMembershipCodec.decode(data).isEmpty());
+        Assert.assertTrue(AgentMembershipCodec.decode(new byte[0]).isEmpty());
+    }
+
+    @Test
+    public void compact() {
+        List<Member> members = new ArrayList<Member>();
+        StringBuilder legacy = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            Member member = new Member("applicationName", "agentId-" + i, 1439358398000L + i);
+            members.add(member);
+            legacy.append(member).append("\r\n");
+        }
+
+        byte[] data = AgentMembershipCodec.encode(members);
+        Assert.assertTrue(data.length * 2 < legacy.length());
+    }
+
+    @Test
+    public void malformed() {
+        byte[] data = AgentMembershipCodec.encode(Collections.singletonList(new Member("app", "agent", 100L)));
+
+        assertMalformed(Arrays.copyOf(data, data.length - 1));
+        assertMalformed(Arrays.copyOf(data, data.length + 1));
+        assertMalformed("app:agent:100".getBytes());
+    }
+
+    @Test
+    public void bucketName() {
+        String bucketName = AgentMembershipCodec.bucketName("1234@host-1", 7);
+
+        Assert.assertEquals("1234@host-1", AgentMembershipCodec.getCollectorId(bucketName));
+        Assert.assertNull(AgentMembershipCodec.getCollectorId("1234@host-1"));
+    }
+
+    private void assertMalformed(byte[] data) {
+        try {
+            AgentMembershipCodec.decode(data);
+            Assert.fail("malformed membership decoded");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
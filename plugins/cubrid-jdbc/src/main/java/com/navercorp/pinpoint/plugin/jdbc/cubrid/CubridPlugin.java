@@ -97,7 +97,7 @@ public class CubridPlugin implements ProfilerPlugin, CubridConstants {
                 
                 target.addField("com.navercorp.pinpoint.bootstrap.plugin.jdbc.DatabaseInfoAccessor");
                 target.addField("com.navercorp.pinpoint.bootstrap.plugin.jdbc.ParsingResultAccessor");
-                target.addField("com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor", "new java.util.HashMap()");
+                target.addField("com.navercorp.pinpoint.bootstrap.plugin.jdbc.BindValueAccessor", "new com.navercorp.pinpoint.bootstrap.plugin.jdbc.bindvalue.BindValueRecorder()");
                 
                 int maxBindValueSize = config.getMaxSqlBindValueSize();
                 InterceptorGroup group = instrumentContext.getInterceptorGroup(GROUP_CUBRID);
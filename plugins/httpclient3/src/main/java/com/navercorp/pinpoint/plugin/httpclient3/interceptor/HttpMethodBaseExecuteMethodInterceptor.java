@@ -31,6 +31,7 @@ import org.apache.commons.httpclient.methods.StringRequestEntity;
 
 import com.navercorp.pinpoint.bootstrap.config.DumpType;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.Header;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
@@ -85,6 +86,8 @@ public class HttpMethodBaseExecuteMethodInterceptor implements SimpleAroundInter
 
     private boolean io;
 
+    private boolean compactTraceHeader;
+
     public HttpMethodBaseExecuteMethodInterceptor(TraceContext traceContext, MethodDescriptor methodDescriptor, InterceptorGroup interceptorGroup) {
         this.traceContext = traceContext;
         this.descriptor = methodDescriptor;
@@ -106,6 +109,7 @@ public class HttpMethodBaseExecuteMethodInterceptor implements SimpleAroundInter
         }
 
         this.io = config.isApacheHttpClient3ProfileIo();
+        this.compactTraceHeader = config.isCompactTraceHeader();
     }
 
     @Override
@@ -137,7 +141,10 @@ public class HttpMethodBaseExecuteMethodInterceptor implements SimpleAroundInter
         recorder.recordNextSpanId(nextId.getSpanId());
         recorder.recordServiceType(HttpClient3Constants.HTTP_CLIENT_3);
 
-        if (httpMethod != null) {
+        if (httpMethod != null && compactTraceHeader) {
+            final String traceContextHeader = CompactTraceHeader.encode(nextId, traceContext.getApplicationName(), traceContext.getServerTypeCode(), getHost(httpMethod));
+            httpMethod.setRequestHeader(Header.HTTP_TRACE_CONTEXT.toString(), traceContextHeader);
+        } else if (httpMethod != null) {
             httpMethod.setRequestHeader(Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
             httpMethod.setRequestHeader(Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
             httpMethod.setRequestHeader(Header.HTTP_PARENT_SPAN_ID.toString(), String.valueOf(nextId.getParentSpanId()));
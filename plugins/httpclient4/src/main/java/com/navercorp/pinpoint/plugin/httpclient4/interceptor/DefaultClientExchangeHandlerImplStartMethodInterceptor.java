@@ -37,6 +37,7 @@ import com.navercorp.pinpoint.bootstrap.async.AsyncTraceIdAccessor;
 import com.navercorp.pinpoint.bootstrap.config.DumpType;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.context.AsyncTraceId;
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.Header;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
@@ -79,6 +80,8 @@ public class DefaultClientExchangeHandlerImplStartMethodInterceptor implements S
 
     protected boolean statusCode;
 
+    protected boolean compactTraceHeader;
+
     public DefaultClientExchangeHandlerImplStartMethodInterceptor(TraceContext traceContext, MethodDescriptor methodDescriptor) {
         setTraceContext(traceContext);
         this.methodDescriptor = methodDescriptor;
@@ -114,7 +117,10 @@ public class DefaultClientExchangeHandlerImplStartMethodInterceptor implements S
         recorder.recordNextSpanId(nextId.getSpanId());
         recorder.recordServiceType(HttpClient4Constants.HTTP_CLIENT_4);
 
-        if (httpRequest != null) {
+        if (httpRequest != null && compactTraceHeader) {
+            final String traceContextHeader = CompactTraceHeader.encode(nextId, traceContext.getApplicationName(), traceContext.getServerTypeCode(), getHostString(getHost(target)));
+            httpRequest.setHeader(Header.HTTP_TRACE_CONTEXT.toString(), traceContextHeader);
+        } else if (httpRequest != null) {
             httpRequest.setHeader(Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
             httpRequest.setHeader(Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
 
@@ -123,14 +129,8 @@ public class DefaultClientExchangeHandlerImplStartMethodInterceptor implements S
             httpRequest.setHeader(Header.HTTP_FLAGS.toString(), String.valueOf(nextId.getFlags()));
             httpRequest.setHeader(Header.HTTP_PARENT_APPLICATION_NAME.toString(), traceContext.getApplicationName());
             httpRequest.setHeader(Header.HTTP_PARENT_APPLICATION_TYPE.toString(), Short.toString(traceContext.getServerTypeCode()));
-            final NameIntValuePair<String> host = getHost(target);
-            if (host != null) {
-                final StringBuilder hostStringBuilder = new StringBuilder(host.getName());
-                if (host.getValue() > 0) {
-                    hostStringBuilder.append(":").append(host.getValue()); 
-                }
-                final String hostString = hostStringBuilder.toString();
-                logger.debug("Get host {}", hostString);
+            final String hostString = getHostString(getHost(target));
+            if (hostString != null) {
                 httpRequest.setHeader(Header.HTTP_HOST.toString(), hostString);
             }
         }
@@ -227,6 +227,19 @@ public class DefaultClientExchangeHandlerImplStartMethodInterceptor implements S
         return new NameIntValuePair<String>(httpHost.getHostName(), httpHost.getPort());
     }
 
+    private String getHostString(NameIntValuePair<String> host) {
+        if (host == null) {
+            return null;
+        }
+        final StringBuilder hostStringBuilder = new StringBuilder(host.getName());
+        if (host.getValue() > 0) {
+            hostStringBuilder.append(":").append(host.getValue());
+        }
+        final String hostString = hostStringBuilder.toString();
+        logger.debug("Get host {}", hostString);
+        return hostString;
+    }
+
     private String getEndpoint(String host, int port) {
         if (host == null) {
             return "UnknownHttpClient";
@@ -386,5 +399,6 @@ public class DefaultClientExchangeHandlerImplStartMethodInterceptor implements S
         if (entity) {
             this.entitySampler = SimpleSamplerFactory.createSampler(entity, profilerConfig.getApacheHttpClient4ProfileEntitySamplingRate());
         }
+        this.compactTraceHeader = profilerConfig.isCompactTraceHeader();
     }
 }
@@ -34,6 +34,7 @@ import org.apache.http.protocol.HTTP;
 
 import com.navercorp.pinpoint.bootstrap.config.DumpType;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.Header;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
@@ -84,6 +85,8 @@ public class HttpRequestExecutorExecuteMethodInterceptor implements SimpleAround
 
     private final boolean io;
 
+    private final boolean compactTraceHeader;
+
     public HttpRequestExecutorExecuteMethodInterceptor(TraceContext traceContext, MethodDescriptor methodDescriptor, InterceptorGroup interceptorGroup) {
         this.traceContext = traceContext;
         this.methodDescriptor = methodDescriptor;
@@ -107,6 +110,7 @@ public class HttpRequestExecutorExecuteMethodInterceptor implements SimpleAround
         }
         this.statusCode = profilerConfig.isApacheHttpClient4ProfileStatusCode();
         this.io = profilerConfig.isApacheHttpClient4ProfileIo();
+        this.compactTraceHeader = profilerConfig.isCompactTraceHeader();
     }
 
     @Override
@@ -137,7 +141,10 @@ public class HttpRequestExecutorExecuteMethodInterceptor implements SimpleAround
         recorder.recordNextSpanId(nextId.getSpanId());
         recorder.recordServiceType(HttpClient4Constants.HTTP_CLIENT_4);
 
-        if (httpRequest != null) {
+        if (httpRequest != null && compactTraceHeader) {
+            final String traceContextHeader = CompactTraceHeader.encode(nextId, traceContext.getApplicationName(), traceContext.getServerTypeCode(), getHostString(getHost()));
+            httpRequest.setHeader(Header.HTTP_TRACE_CONTEXT.toString(), traceContextHeader);
+        } else if (httpRequest != null) {
             httpRequest.setHeader(Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
             httpRequest.setHeader(Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
 
@@ -146,14 +153,8 @@ public class HttpRequestExecutorExecuteMethodInterceptor implements SimpleAround
             httpRequest.setHeader(Header.HTTP_FLAGS.toString(), String.valueOf(nextId.getFlags()));
             httpRequest.setHeader(Header.HTTP_PARENT_APPLICATION_NAME.toString(), traceContext.getApplicationName());
             httpRequest.setHeader(Header.HTTP_PARENT_APPLICATION_TYPE.toString(), Short.toString(traceContext.getServerTypeCode()));
-            final NameIntValuePair<String> host = getHost();
-            if (host != null) {
-                final StringBuilder hostStringBuilder = new StringBuilder(host.getName());
-                if (host.getValue() > 0) {
-                    hostStringBuilder.append(":").append(host.getValue()); 
-                }
-                final String hostString = hostStringBuilder.toString();
-                logger.debug("Get host {}", hostString);
+            final String hostString = getHostString(getHost());
+            if (hostString != null) {
                 httpRequest.setHeader(Header.HTTP_HOST.toString(), hostString);
             }
         }
@@ -188,6 +189,19 @@ public class HttpRequestExecutorExecuteMethodInterceptor implements SimpleAround
         return null;
     }
 
+    private String getHostString(NameIntValuePair<String> host) {
+        if (host == null) {
+            return null;
+        }
+        final StringBuilder hostStringBuilder = new StringBuilder(host.getName());
+        if (host.getValue() > 0) {
+            hostStringBuilder.append(":").append(host.getValue());
+        }
+        final String hostString = hostStringBuilder.toString();
+        logger.debug("Get host {}", hostString);
+        return hostString;
+    }
+
     @Override
     public void after(Object target, Object[] args, Object result, Throwable throwable) {
         if (isDebug) {
@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.plugin.jdk.http.interceptor;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.Header;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
@@ -56,11 +57,13 @@ public class HttpURLConnectionInterceptor implements SimpleAroundInterceptor, Jd
     private final TraceContext traceContext;
     private final MethodDescriptor descriptor;
     private final InterceptorGroup group;
+    private final boolean compactTraceHeader;
     
     public HttpURLConnectionInterceptor(TraceContext traceContext, MethodDescriptor descriptor, InterceptorGroup group) {
         this.traceContext = traceContext;
         this.descriptor = descriptor;
         this.group = group;
+        this.compactTraceHeader = traceContext.getProfilerConfig().isCompactTraceHeader();
     }
 
     @Override
@@ -100,15 +103,20 @@ public class HttpURLConnectionInterceptor implements SimpleAroundInterceptor, Jd
         // TODO How to represent protocol?
         String endpoint = getEndpoint(host, port);
 
-        request.setRequestProperty(Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
-        request.setRequestProperty(Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
-        request.setRequestProperty(Header.HTTP_PARENT_SPAN_ID.toString(), String.valueOf(nextId.getParentSpanId()));
-
-        request.setRequestProperty(Header.HTTP_FLAGS.toString(), String.valueOf(nextId.getFlags()));
-        request.setRequestProperty(Header.HTTP_PARENT_APPLICATION_NAME.toString(), traceContext.getApplicationName());
-        request.setRequestProperty(Header.HTTP_PARENT_APPLICATION_TYPE.toString(), Short.toString(traceContext.getServerTypeCode()));
-        if(host != null) {
-            request.setRequestProperty(Header.HTTP_HOST.toString(), endpoint);
+        if (compactTraceHeader) {
+            final String traceContextHeader = CompactTraceHeader.encode(nextId, traceContext.getApplicationName(), traceContext.getServerTypeCode(), host != null ? endpoint : null);
+            request.setRequestProperty(Header.HTTP_TRACE_CONTEXT.toString(), traceContextHeader);
+        } else {
+            request.setRequestProperty(Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
+            request.setRequestProperty(Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
+            request.setRequestProperty(Header.HTTP_PARENT_SPAN_ID.toString(), String.valueOf(nextId.getParentSpanId()));
+
+            request.setRequestProperty(Header.HTTP_FLAGS.toString(), String.valueOf(nextId.getFlags()));
+            request.setRequestProperty(Header.HTTP_PARENT_APPLICATION_NAME.toString(), traceContext.getApplicationName());
+            request.setRequestProperty(Header.HTTP_PARENT_APPLICATION_TYPE.toString(), Short.toString(traceContext.getServerTypeCode()));
+            if(host != null) {
+                request.setRequestProperty(Header.HTTP_HOST.toString(), endpoint);
+            }
         }
 
         recorder.recordServiceType(SERVICE_TYPE);
@@ -18,10 +18,12 @@ import com.navercorp.pinpoint.bootstrap.config.ExcludeUrlFilter;
 import com.navercorp.pinpoint.bootstrap.config.Filter;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.config.SkipFilter;
+import com.navercorp.pinpoint.bootstrap.util.CompiledPathMatcher;
 
 public class JettyConfiguration {
 
     private final Filter<String> jettyExcludeUrlFilter;
+    private final CompiledPathMatcher jettyUrlTemplateMatcher;
 
     public JettyConfiguration(ProfilerConfig config) {
         final String jettyExcludeURL = config.readString("profiler.jetty.excludeurl", "");
@@ -31,9 +33,14 @@ public class JettyConfiguration {
         } else{
             this.jettyExcludeUrlFilter = new  SkipFilter<String>();
         }
+        this.jettyUrlTemplateMatcher = CompiledPathMatcher.compile(config.readString("profiler.jetty.urltemplate", ""), ",");
     }
 
     public Filter<String> getJettyExcludeUrlFilter() {
         return jettyExcludeUrlFilter;
     }
+
+    public CompiledPathMatcher getJettyUrlTemplateMatcher() {
+        return jettyUrlTemplateMatcher;
+    }
 }
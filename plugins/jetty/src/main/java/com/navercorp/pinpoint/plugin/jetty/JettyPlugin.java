@@ -30,7 +30,7 @@ public class JettyPlugin implements ProfilerPlugin, JettyConstants{
     }
 
     private void addServerInterceptor(ProfilerPluginSetupContext context, JettyConfiguration config){
-        context.addClassFileTransformer("org.eclipse.jetty.server.Server", PinpointClassFileTransformers.addInterceptor("com.navercorp.pinpoint.plugin.jetty.interceptor.ServerHandleInterceptor", config.getJettyExcludeUrlFilter()));
+        context.addClassFileTransformer("org.eclipse.jetty.server.Server", PinpointClassFileTransformers.addInterceptor("com.navercorp.pinpoint.plugin.jetty.interceptor.ServerHandleInterceptor", config.getJettyExcludeUrlFilter(), config.getJettyUrlTemplateMatcher()));
     }
     
     private void addRequestEditor(ProfilerPluginSetupContext context) {
@@ -20,6 +20,7 @@ import org.eclipse.jetty.server.HttpChannel;
 import org.eclipse.jetty.server.Request;
 
 import com.navercorp.pinpoint.bootstrap.config.Filter;
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.Header;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
@@ -33,6 +34,7 @@ import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetMethod;
 import com.navercorp.pinpoint.bootstrap.logging.PLogger;
 import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
+import com.navercorp.pinpoint.bootstrap.util.CompiledPathMatcher;
 import com.navercorp.pinpoint.bootstrap.util.NetworkUtils;
 import com.navercorp.pinpoint.bootstrap.util.NumberUtils;
 import com.navercorp.pinpoint.bootstrap.util.StringUtils;
@@ -53,12 +55,18 @@ public class ServerHandleInterceptor implements SimpleAroundInterceptor, JettyCo
     private final MethodDescriptor methodDescriptor;
     private final TraceContext traceContext;
     private final Filter<String> excludeUrlFilter;
+    private final CompiledPathMatcher urlTemplateMatcher;
 
     public ServerHandleInterceptor(TraceContext traceContext, MethodDescriptor descriptor, Filter<String> excludeFilter) {
+        this(traceContext, descriptor, excludeFilter, CompiledPathMatcher.compile("", ","));
+    }
+
+    public ServerHandleInterceptor(TraceContext traceContext, MethodDescriptor descriptor, Filter<String> excludeFilter, CompiledPathMatcher urlTemplateMatcher) {
 
         this.traceContext = traceContext;
         this.methodDescriptor = descriptor;
         this.excludeUrlFilter = excludeFilter;
+        this.urlTemplateMatcher = urlTemplateMatcher;
 
         traceContext.cacheApi(JETTY_SYNC_API_TAG);
     }
@@ -112,12 +120,13 @@ public class ServerHandleInterceptor implements SimpleAroundInterceptor, JettyCo
             return trace;
         }
 
-        final TraceId traceId = populateTraceIdFromRequest(request);
+        final CompactTraceHeader compactTraceHeader = CompactTraceHeader.parse(request.getHeader(Header.HTTP_TRACE_CONTEXT.toString()));
+        final TraceId traceId = populateTraceIdFromRequest(request, compactTraceHeader);
         if (traceId != null) {
             final Trace trace = traceContext.continueTraceObject(traceId);
             if (trace.canSampled()) {
                 SpanRecorder recorder = trace.getSpanRecorder();
-                recordRootSpan(recorder, request);
+                recordRootSpan(recorder, request, compactTraceHeader);
                 setTraceMetadata(request, trace);
                 if (isDebug) {
                     logger.debug("TraceID exist. continue trace. traceId:{}, requestUrl:{}, remoteAddr:{}", new Object[] { traceId, request.getRequestURI(), request.getRemoteAddr() });
@@ -132,7 +141,7 @@ public class ServerHandleInterceptor implements SimpleAroundInterceptor, JettyCo
             final Trace trace = traceContext.newTraceObject();
             if (trace.canSampled()) {
                 SpanRecorder recorder = trace.getSpanRecorder();
-                recordRootSpan(recorder, request);
+                recordRootSpan(recorder, request, compactTraceHeader);
                 setTraceMetadata(request, trace);
                 if (isDebug) {
                     logger.debug("TraceID not exist. start new trace. requestUrl:{}, remoteAddr:{}", request.getRequestURI(), request.getRemoteAddr());
@@ -221,27 +230,44 @@ public class ServerHandleInterceptor implements SimpleAroundInterceptor, JettyCo
         return params.toString();
     }
 
-    private void recordParentInfo(SpanRecorder recorder, Request request) {
+    private void recordParentInfo(SpanRecorder recorder, Request request, CompactTraceHeader compactTraceHeader) {
+        if (compactTraceHeader != null) {
+            final String parentApplicationName = compactTraceHeader.getParentApplicationName();
+            if (parentApplicationName != null) {
+                recordAcceptorHost(recorder, request, compactTraceHeader.getHost());
+                recorder.recordParentApplication(parentApplicationName, compactTraceHeader.getParentApplicationType());
+            }
+            return;
+        }
         String parentApplicationName = request.getHeader(Header.HTTP_PARENT_APPLICATION_NAME.toString());
         if (parentApplicationName != null) {
-            final String host = request.getHeader(Header.HTTP_HOST.toString());
-            if (host != null) {
-                recorder.recordAcceptorHost(host);
-            } else {
-                recorder.recordAcceptorHost(NetworkUtils.getHostFromURL(request.getRequestURL().toString()));
-            }
+            recordAcceptorHost(recorder, request, request.getHeader(Header.HTTP_HOST.toString()));
             final String type = request.getHeader(Header.HTTP_PARENT_APPLICATION_TYPE.toString());
             final short parentApplicationType = NumberUtils.parseShort(type, ServiceType.UNDEFINED.getCode());
             recorder.recordParentApplication(parentApplicationName, parentApplicationType);
         }
     }
 
-    private void recordRootSpan(final SpanRecorder recorder, final Request request) {
+    private void recordAcceptorHost(SpanRecorder recorder, Request request, String host) {
+        if (host != null) {
+            recorder.recordAcceptorHost(host);
+        } else {
+            recorder.recordAcceptorHost(NetworkUtils.getHostFromURL(request.getRequestURL().toString()));
+        }
+    }
+
+    private void recordRootSpan(final SpanRecorder recorder, final Request request, final CompactTraceHeader compactTraceHeader) {
         // root
         recorder.recordServiceType(JettyConstants.JETTY);
 
         final String requestURL = request.getRequestURI();
-        recorder.recordRpcName(requestURL);
+        final String urlTemplate = urlTemplateMatcher.getMatchedPattern(requestURL);
+        if (urlTemplate != null) {
+            recorder.recordRpcName(urlTemplate);
+            recorder.recordAttribute(AnnotationKey.HTTP_URL, requestURL);
+        } else {
+            recorder.recordRpcName(requestURL);
+        }
 
         final int port = request.getServerPort();
         final String endPoint = request.getServerName() + ":" + port;
@@ -251,7 +277,7 @@ public class ServerHandleInterceptor implements SimpleAroundInterceptor, JettyCo
         recorder.recordRemoteAddress(remoteAddr);
 
         if (!recorder.isRoot()) {
-            recordParentInfo(recorder, request);
+            recordParentInfo(recorder, request, compactTraceHeader);
         }
         recorder.recordApi(JETTY_SYNC_API_TAG);
     }
@@ -260,9 +286,18 @@ public class ServerHandleInterceptor implements SimpleAroundInterceptor, JettyCo
      * Populate source trace from HTTP Header.
      *
      * @param request
+     * @param compactTraceHeader parsed {@link Header#HTTP_TRACE_CONTEXT}, read instead of the legacy headers. may be null
      * @return TraceId when it is possible to get a transactionId from Http header. if not possible return null
      */
-    private TraceId populateTraceIdFromRequest(Request request) {
+    private TraceId populateTraceIdFromRequest(Request request, CompactTraceHeader compactTraceHeader) {
+        if (compactTraceHeader != null) {
+            final TraceId id = traceContext.createTraceId(compactTraceHeader.getAgentId(), compactTraceHeader.getAgentStartTime(), compactTraceHeader.getTransactionSequence(),
+                    compactTraceHeader.getParentSpanId(), compactTraceHeader.getSpanId(), compactTraceHeader.getFlags());
+            if (isDebug) {
+                logger.debug("TraceID exist. continue trace. {}", id);
+            }
+            return id;
+        }
 
         String transactionId = request.getHeader(Header.HTTP_TRACE_ID.toString());
         if (transactionId != null) {
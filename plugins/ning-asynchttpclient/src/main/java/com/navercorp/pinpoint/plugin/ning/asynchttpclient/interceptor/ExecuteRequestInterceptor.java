@@ -23,6 +23,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.Header;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
@@ -68,6 +69,8 @@ public class ExecuteRequestInterceptor implements SimpleAroundInterceptor {
     private final SimpleSampler entitySampler;
     private final SimpleSampler paramSampler;
 
+    private final boolean compactTraceHeader;
+
     public ExecuteRequestInterceptor(TraceContext traceContext, MethodDescriptor descriptor) {
         this.traceContext = traceContext;
         this.descriptor = descriptor;
@@ -76,6 +79,7 @@ public class ExecuteRequestInterceptor implements SimpleAroundInterceptor {
         this.cookieSampler = config.isProfileCookie() ? SimpleSamplerFactory.createSampler(true, config.getCookieSamplingRate()) : null;
         this.entitySampler = config.isProfileEntity() ? SimpleSamplerFactory.createSampler(true, config.getEntitySamplingRate()) : null;
         this.paramSampler = config.isProfileParam() ? SimpleSamplerFactory.createSampler(true, config.getParamSamplingRate()) : null;
+        this.compactTraceHeader = traceContext.getProfilerConfig().isCompactTraceHeader();
     }
 
     @Override
@@ -114,7 +118,11 @@ public class ExecuteRequestInterceptor implements SimpleAroundInterceptor {
         recorder.recordNextSpanId(nextId.getSpanId());
         recorder.recordServiceType(NingAsyncHttpClientPlugin.ASYNC_HTTP_CLIENT);
 
-        if (httpRequest != null) {
+        if (httpRequest != null && compactTraceHeader) {
+            final String hostString = getEndpoint(httpRequest.getURI().getHost(), httpRequest.getURI().getPort());
+            final String traceContextHeader = CompactTraceHeader.encode(nextId, traceContext.getApplicationName(), traceContext.getServerTypeCode(), hostString);
+            putHeader(httpRequest.getHeaders(), Header.HTTP_TRACE_CONTEXT.toString(), traceContextHeader);
+        } else if (httpRequest != null) {
             final FluentCaseInsensitiveStringsMap httpRequestHeaders = httpRequest.getHeaders();
             putHeader(httpRequestHeaders, Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
             putHeader(httpRequestHeaders, Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
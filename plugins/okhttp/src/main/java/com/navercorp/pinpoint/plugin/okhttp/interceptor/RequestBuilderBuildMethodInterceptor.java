@@ -40,11 +40,13 @@ public class RequestBuilderBuildMethodInterceptor implements SimpleAroundInterce
     private TraceContext traceContext;
     private MethodDescriptor methodDescriptor;
     private InterceptorGroup interceptorGroup;
+    private boolean compactTraceHeader;
 
     public RequestBuilderBuildMethodInterceptor(TraceContext traceContext, MethodDescriptor methodDescriptor, InterceptorGroup interceptorGroup) {
         this.traceContext = traceContext;
         this.methodDescriptor = methodDescriptor;
         this.interceptorGroup = interceptorGroup;
+        this.compactTraceHeader = traceContext.getProfilerConfig().isCompactTraceHeader();
     }
 
     @Override
@@ -75,6 +77,11 @@ public class RequestBuilderBuildMethodInterceptor implements SimpleAroundInterce
             }
 
             final TraceId nextId = (TraceId) invocation.getAttachment();
+            if (compactTraceHeader) {
+                final String traceContextHeader = CompactTraceHeader.encode(nextId, traceContext.getApplicationName(), traceContext.getServerTypeCode(), getHost(target));
+                builder.header(Header.HTTP_TRACE_CONTEXT.toString(), traceContextHeader);
+                return;
+            }
             builder.header(Header.HTTP_TRACE_ID.toString(), nextId.getTransactionId());
             builder.header(Header.HTTP_SPAN_ID.toString(), String.valueOf(nextId.getSpanId()));
 
@@ -84,17 +91,25 @@ public class RequestBuilderBuildMethodInterceptor implements SimpleAroundInterce
             builder.header(Header.HTTP_PARENT_APPLICATION_NAME.toString(), traceContext.getApplicationName());
             builder.header(Header.HTTP_PARENT_APPLICATION_TYPE.toString(), Short.toString(traceContext.getServerTypeCode()));
 
-            if (target instanceof HttpUrlGetter) {
-                final HttpUrl url = ((HttpUrlGetter) target)._$PINPOINT$_getHttpUrl();
-                if (url != null) {
-                    builder.header(Header.HTTP_HOST.toString(), url.host());
-                }
+            final String host = getHost(target);
+            if (host != null) {
+                builder.header(Header.HTTP_HOST.toString(), host);
             }
         } catch (Throwable t) {
             logger.warn("Failed to BEFORE process. {}", t.getMessage(), t);
         }
     }
 
+    private String getHost(Object target) {
+        if (target instanceof HttpUrlGetter) {
+            final HttpUrl url = ((HttpUrlGetter) target)._$PINPOINT$_getHttpUrl();
+            if (url != null) {
+                return url.host();
+            }
+        }
+        return null;
+    }
+
     @Override
     public void after(Object target, Object[] args, Object result, Throwable throwable) {
         if (isDebug) {
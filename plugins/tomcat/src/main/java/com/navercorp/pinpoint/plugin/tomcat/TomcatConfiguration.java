@@ -17,6 +17,8 @@ package com.navercorp.pinpoint.plugin.tomcat;
 import com.navercorp.pinpoint.bootstrap.config.ExcludeUrlFilter;
 import com.navercorp.pinpoint.bootstrap.config.Filter;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.config.SkipFilter;
+import com.navercorp.pinpoint.bootstrap.util.CompiledPathMatcher;
 
 /**
  * @author Jongho Moon
@@ -25,6 +27,7 @@ import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 public class TomcatConfiguration {
     private final boolean tomcatHidePinpointHeader;
     private Filter<String> tomcatExcludeUrlFilter;
+    private final CompiledPathMatcher tomcatUrlTemplateMatcher;
 
     public TomcatConfiguration(ProfilerConfig config) {
         this.tomcatHidePinpointHeader = config.readBoolean("profiler.tomcat.hidepinpointheader", true);
@@ -32,13 +35,20 @@ public class TomcatConfiguration {
         
         if (!tomcatExcludeURL.isEmpty()) {
             this.tomcatExcludeUrlFilter = new ExcludeUrlFilter(tomcatExcludeURL);
+        } else {
+            this.tomcatExcludeUrlFilter = new SkipFilter<String>();
         }
+        this.tomcatUrlTemplateMatcher = CompiledPathMatcher.compile(config.readString("profiler.tomcat.urltemplate", ""), ",");
     }
 
     public Filter<String> getTomcatExcludeUrlFilter() {
         return tomcatExcludeUrlFilter;
     }
 
+    public CompiledPathMatcher getTomcatUrlTemplateMatcher() {
+        return tomcatUrlTemplateMatcher;
+    }
+
     public boolean isTomcatHidePinpointHeader() {
         return tomcatHidePinpointHeader;
     }
@@ -23,6 +23,7 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.catalina.connector.Request;
 
 import com.navercorp.pinpoint.bootstrap.config.Filter;
+import com.navercorp.pinpoint.bootstrap.context.CompactTraceHeader;
 import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
 import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
 import com.navercorp.pinpoint.bootstrap.context.Header;
@@ -35,6 +36,7 @@ import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.logging.PLogger;
 import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
+import com.navercorp.pinpoint.bootstrap.util.CompiledPathMatcher;
 import com.navercorp.pinpoint.bootstrap.util.NetworkUtils;
 import com.navercorp.pinpoint.bootstrap.util.NumberUtils;
 import com.navercorp.pinpoint.bootstrap.util.StringUtils;
@@ -62,11 +64,17 @@ public class StandardHostValveInvokeInterceptor implements SimpleAroundIntercept
     private TraceContext traceContext;
 
     private Filter<String> excludeUrlFilter;
+    private CompiledPathMatcher urlTemplateMatcher;
 
     public StandardHostValveInvokeInterceptor(TraceContext traceContext, MethodDescriptor descriptor, Filter<String> excludeFilter) {
+        this(traceContext, descriptor, excludeFilter, CompiledPathMatcher.compile("", ","));
+    }
+
+    public StandardHostValveInvokeInterceptor(TraceContext traceContext, MethodDescriptor descriptor, Filter<String> excludeFilter, CompiledPathMatcher urlTemplateMatcher) {
         this.traceContext = traceContext;
         this.methodDescriptor = descriptor;
         this.excludeUrlFilter = excludeFilter;
+        this.urlTemplateMatcher = urlTemplateMatcher;
 
         traceContext.cacheApi(SERVLET_ASYNCHRONOUS_API_TAG);
         traceContext.cacheApi(SERVLET_SYNCHRONOUS_API_TAG);
@@ -134,13 +142,14 @@ public class StandardHostValveInvokeInterceptor implements SimpleAroundIntercept
             return trace;
         }
 
-        final TraceId traceId = populateTraceIdFromRequest(request);
+        final CompactTraceHeader compactTraceHeader = CompactTraceHeader.parse(request.getHeader(Header.HTTP_TRACE_CONTEXT.toString()));
+        final TraceId traceId = populateTraceIdFromRequest(request, compactTraceHeader);
         if (traceId != null) {
             // TODO Maybe we should decide to trace or not even if the sampling flag is true to prevent too many requests are traced.
             final Trace trace = traceContext.continueTraceObject(traceId);
             if (trace.canSampled()) {
                 SpanRecorder recorder = trace.getSpanRecorder();
-                recordRootSpan(recorder, request);
+                recordRootSpan(recorder, request, compactTraceHeader);
                 setTraceMetadata(request, trace);
                 if (isDebug) {
                     logger.debug("TraceID exist. continue trace. traceId:{}, requestUrl:{}, remoteAddr:{}", new Object[] { traceId, request.getRequestURI(), request.getRemoteAddr() });
@@ -155,7 +164,7 @@ public class StandardHostValveInvokeInterceptor implements SimpleAroundIntercept
             final Trace trace = traceContext.newTraceObject();
             if (trace.canSampled()) {
                 SpanRecorder recorder = trace.getSpanRecorder();
-                recordRootSpan(recorder, request);
+                recordRootSpan(recorder, request, compactTraceHeader);
                 setTraceMetadata(request, trace);
                 if (isDebug) {
                     logger.debug("TraceID not exist. start new trace. requestUrl:{}, remoteAddr:{}", request.getRequestURI(), request.getRemoteAddr());
@@ -199,12 +208,19 @@ public class StandardHostValveInvokeInterceptor implements SimpleAroundIntercept
         return getAsyncMetadata(request);
     }
 
-    private void recordRootSpan(final SpanRecorder recorder, final HttpServletRequest request) {
+    private void recordRootSpan(final SpanRecorder recorder, final HttpServletRequest request, final CompactTraceHeader compactTraceHeader) {
         // root
         recorder.recordServiceType(TomcatConstants.TOMCAT);
 
         final String requestURL = request.getRequestURI();
-        recorder.recordRpcName(requestURL);
+        // record the template instead of the uri so that the rpc names of a service stay bounded
+        final String urlTemplate = urlTemplateMatcher.getMatchedPattern(requestURL);
+        if (urlTemplate != null) {
+            recorder.recordRpcName(urlTemplate);
+            recorder.recordAttribute(AnnotationKey.HTTP_URL, requestURL);
+        } else {
+            recorder.recordRpcName(requestURL);
+        }
 
         final int port = request.getServerPort();
         final String endPoint = request.getServerName() + ":" + port;
@@ -214,26 +230,37 @@ public class StandardHostValveInvokeInterceptor implements SimpleAroundIntercept
         recorder.recordRemoteAddress(remoteAddr);
 
         if (!recorder.isRoot()) {
-            recordParentInfo(recorder, request);
+            recordParentInfo(recorder, request, compactTraceHeader);
         }
         recorder.recordApi(SERVLET_SYNCHRONOUS_API_TAG);
     }
 
-    private void recordParentInfo(SpanRecorder recorder, HttpServletRequest request) {
+    private void recordParentInfo(SpanRecorder recorder, HttpServletRequest request, CompactTraceHeader compactTraceHeader) {
+        if (compactTraceHeader != null) {
+            final String parentApplicationName = compactTraceHeader.getParentApplicationName();
+            if (parentApplicationName != null) {
+                recordAcceptorHost(recorder, request, compactTraceHeader.getHost());
+                recorder.recordParentApplication(parentApplicationName, compactTraceHeader.getParentApplicationType());
+            }
+            return;
+        }
         String parentApplicationName = request.getHeader(Header.HTTP_PARENT_APPLICATION_NAME.toString());
         if (parentApplicationName != null) {
-            final String host = request.getHeader(Header.HTTP_HOST.toString());
-            if (host != null) {
-                recorder.recordAcceptorHost(host);
-            } else {
-                recorder.recordAcceptorHost(NetworkUtils.getHostFromURL(request.getRequestURL().toString()));
-            }
+            recordAcceptorHost(recorder, request, request.getHeader(Header.HTTP_HOST.toString()));
             final String type = request.getHeader(Header.HTTP_PARENT_APPLICATION_TYPE.toString());
             final short parentApplicationType = NumberUtils.parseShort(type, ServiceType.UNDEFINED.getCode());
             recorder.recordParentApplication(parentApplicationName, parentApplicationType);
         }
     }
 
+    private void recordAcceptorHost(SpanRecorder recorder, HttpServletRequest request, String host) {
+        if (host != null) {
+            recorder.recordAcceptorHost(host);
+        } else {
+            recorder.recordAcceptorHost(NetworkUtils.getHostFromURL(request.getRequestURL().toString()));
+        }
+    }
+
     @Override
     public void after(Object target, Object[] args, Object result, Throwable throwable) {
         if (isDebug) {
@@ -275,9 +302,18 @@ public class StandardHostValveInvokeInterceptor implements SimpleAroundIntercept
      * Populate source trace from HTTP Header.
      *
      * @param request
+     * @param compactTraceHeader parsed {@link Header#HTTP_TRACE_CONTEXT}, read instead of the legacy headers. may be null
      * @return TraceId when it is possible to get a transactionId from Http header. if not possible return null
      */
-    private TraceId populateTraceIdFromRequest(HttpServletRequest request) {
+    private TraceId populateTraceIdFromRequest(HttpServletRequest request, CompactTraceHeader compactTraceHeader) {
+        if (compactTraceHeader != null) {
+            final TraceId id = traceContext.createTraceId(compactTraceHeader.getAgentId(), compactTraceHeader.getAgentStartTime(), compactTraceHeader.getTransactionSequence(),
+                    compactTraceHeader.getParentSpanId(), compactTraceHeader.getSpanId(), compactTraceHeader.getFlags());
+            if (isDebug) {
+                logger.debug("TraceID exist. continue trace. {}", id);
+            }
+            return id;
+        }
 
         String transactionId = request.getHeader(Header.HTTP_TRACE_ID.toString());
         if (transactionId != null) {
@@ -29,6 +29,8 @@ import com.navercorp.pinpoint.rpc.util.ClassUtils;
 public enum AgentHandshakePropertyType {
 
     SUPPORT_SERVER("supportServer", Boolean.class),
+    // metadata and streaming channels of an agent. only its control channel is the agent session.
+    AUXILIARY_CHANNEL("auxiliaryChannel", Boolean.class),
 
     HOSTNAME("hostName", String.class),
     IP("ip", String.class),
@@ -58,7 +60,7 @@ public enum AgentHandshakePropertyType {
 
     public static boolean hasAllType(Map properties) {
         for (AgentHandshakePropertyType type : AgentHandshakePropertyType.values()) {
-            if (type == SUPPORT_SERVER) {
+            if (type == SUPPORT_SERVER || type == AUXILIARY_CHANNEL) {
                 continue;
             }
 
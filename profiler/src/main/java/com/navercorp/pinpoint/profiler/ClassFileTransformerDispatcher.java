@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import com.navercorp.pinpoint.bootstrap.config.Filter;
 import com.navercorp.pinpoint.bootstrap.instrument.DynamicTransformRequestListener;
+import com.navercorp.pinpoint.profiler.instrument.ClassRedefinitionContext;
 import com.navercorp.pinpoint.profiler.instrument.LegacyProfilerPluginClassInjector;
 import com.navercorp.pinpoint.profiler.instrument.transformer.DebugTransformer;
 import com.navercorp.pinpoint.profiler.instrument.transformer.DefaultTransformerRegistry;
@@ -111,9 +112,15 @@ public class ClassFileTransformerDispatcher implements ClassFileTransformer, Dyn
             final Thread thread = Thread.currentThread();
             final ClassLoader before = getContextClassLoader(thread);
             thread.setContextClassLoader(this.agentClassLoader);
+            if (classBeingRedefined != null) {
+                ClassRedefinitionContext.enter(classBeingRedefined);
+            }
             try {
                 return transformer.transform(classLoader, javaClassName, classBeingRedefined, protectionDomain, classFileBuffer);
             } finally {
+                if (classBeingRedefined != null) {
+                    ClassRedefinitionContext.exit();
+                }
                 // The context class loader have to be recovered even if it was null.
                 thread.setContextClassLoader(before);
             }
@@ -16,8 +16,12 @@
 
 package com.navercorp.pinpoint.profiler;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -39,6 +43,7 @@ import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.profiler.cluster.CollectorClusterManager;
 import com.navercorp.pinpoint.profiler.context.DefaultServerMetaDataHolder;
 import com.navercorp.pinpoint.profiler.context.DefaultTraceContext;
 import com.navercorp.pinpoint.profiler.context.active.ActiveTraceLocator;
@@ -46,6 +51,7 @@ import com.navercorp.pinpoint.profiler.context.storage.BufferedStorageFactory;
 import com.navercorp.pinpoint.profiler.context.storage.SpanStorageFactory;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
 import com.navercorp.pinpoint.profiler.instrument.JavassistClassPool;
+import com.navercorp.pinpoint.profiler.instrument.interceptor.InvokeCodeGenerator;
 import com.navercorp.pinpoint.profiler.interceptor.registry.DefaultInterceptorRegistryBinder;
 import com.navercorp.pinpoint.profiler.interceptor.registry.InterceptorRegistryBinder;
 import com.navercorp.pinpoint.profiler.logging.Slf4jLoggerBinder;
@@ -61,12 +67,16 @@ import com.navercorp.pinpoint.profiler.sender.DataSender;
 import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
 import com.navercorp.pinpoint.profiler.sender.TcpDataSender;
 import com.navercorp.pinpoint.profiler.sender.UdpDataSender;
+import com.navercorp.pinpoint.profiler.sender.spill.MappedSpillQueue;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillMetric;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillQueue;
 import com.navercorp.pinpoint.profiler.util.ApplicationServerTypeResolver;
 import com.navercorp.pinpoint.profiler.util.RuntimeMXBeanUtils;
 import com.navercorp.pinpoint.rpc.ClassPreLoader;
 import com.navercorp.pinpoint.rpc.PinpointSocketException;
 import com.navercorp.pinpoint.rpc.client.PinpointSocket;
 import com.navercorp.pinpoint.rpc.client.PinpointSocketFactory;
+import com.navercorp.pinpoint.rpc.client.PinpointSocketPool;
 
 /**
  * @author emeroad
@@ -90,10 +100,13 @@ public class DefaultAgent implements Agent {
 
     private PinpointSocketFactory factory;
     private PinpointSocket socket;
+    private PinpointSocketFactory simplexFactory;
+    private PinpointSocketPool socketPool;
     private final EnhancedDataSender tcpDataSender;
 
     private final DataSender statDataSender;
     private final DataSender spanDataSender;
+    private final List<SpillMetric> spillMetrics = new ArrayList<SpillMetric>();
 
     private final AgentInformation agentInformation;
     private final ServerMetaDataHolder serverMetaDataHolder;
@@ -184,6 +197,10 @@ public class DefaultAgent implements Agent {
                 this.profilerConfig.getStatDataSenderWriteQueueSize(), this.profilerConfig.getStatDataSenderSocketTimeout(),
                 this.profilerConfig.getStatDataSenderSocketSendBufferSize());
 
+        if (this.profilerConfig.isCollectorBalanceEnable()) {
+            enableCollectorBalance(commandDispatcher);
+        }
+
         this.traceContext = createTraceContext();
 
         addCommandService(commandDispatcher, traceContext);
@@ -191,15 +208,31 @@ public class DefaultAgent implements Agent {
         this.agentInfoSender = new AgentInfoSender(tcpDataSender, profilerConfig.getAgentInfoSendRetryInterval(), this.agentInformation);
         this.serverMetaDataHolder.addListener(this.agentInfoSender);
 
-        this.agentStatMonitor = new AgentStatMonitor(this.statDataSender, this.agentInformation.getAgentId(), this.agentInformation.getStartTime());
+        this.agentStatMonitor = new AgentStatMonitor(this.statDataSender, this.agentInformation.getAgentId(), this.agentInformation.getStartTime(), this.spillMetrics);
         
         InterceptorInvokerHelper.setPropagateException(profilerConfig.isPropagateInterceptorException());
+        InvokeCodeGenerator.setStaticHolderDispatch(profilerConfig.isInterceptorStaticHolderDispatch());
     }
 
     protected List<DefaultProfilerPluginContext> loadPlugins(AgentOption agentOption) {
         return new ProfilerPluginLoader(this).load(agentOption.getPluginJars());
     }
 
+    private void enableCollectorBalance(CommandDispatcher commandDispatcher) {
+        if (!this.profilerConfig.isTcpDataSenderCommandAcceptEnable()) {
+            // the collector cluster is pushed over the duplex tcp connection.
+            logger.warn("collector balance requires profiler.tcpdatasender.command.accept.enable=true");
+            return;
+        }
+        if (!(spanDataSender instanceof UdpDataSender) || !(statDataSender instanceof UdpDataSender)) {
+            logger.warn("collector balance is only supported by UdpDataSender. span:{}, stat:{}", spanDataSender, statDataSender);
+            return;
+        }
+        final CollectorClusterManager collectorClusterManager = new CollectorClusterManager(this.agentInformation.getApplicationName(),
+                (UdpDataSender) spanDataSender, (UdpDataSender) statDataSender);
+        commandDispatcher.setCollectorClusterListener(collectorClusterManager);
+    }
+
     private void addCommandService(CommandDispatcher commandDispatcher, TraceContext traceContext) {
         commandDispatcher.registerCommandService(new ThreadDumpService());
         commandDispatcher.registerCommandService(new EchoService());
@@ -307,6 +340,7 @@ public class DefaultAgent implements Agent {
     protected PinpointSocketFactory createPinpointSocketFactory(CommandDispatcher commandDispatcher) {
         PinpointSocketFactory pinpointSocketFactory = new PinpointSocketFactory();
         pinpointSocketFactory.setTimeoutMillis(1000 * 5);
+        setWriteBufferWaterMark(pinpointSocketFactory);
 
         Map<String, Object> properties = this.agentInformation.toMap();
         
@@ -325,6 +359,12 @@ public class DefaultAgent implements Agent {
         return pinpointSocketFactory;
     }
 
+    private void setWriteBufferWaterMark(PinpointSocketFactory pinpointSocketFactory) {
+        final int lowWaterMark = this.profilerConfig.getTcpDataSenderWriteBufferLowWaterMark();
+        final int highWaterMark = this.profilerConfig.getTcpDataSenderWriteBufferHighWaterMark();
+        pinpointSocketFactory.setWriteBufferWaterMark(lowWaterMark, highWaterMark);
+    }
+
     protected PinpointSocket createPinpointSocket(String host, int port, PinpointSocketFactory factory) {
         PinpointSocket socket = null;
         for (int i = 0; i < 3; i++) {
@@ -345,15 +385,58 @@ public class DefaultAgent implements Agent {
     protected EnhancedDataSender createTcpDataSender(CommandDispatcher commandDispatcher) {
         this.factory = createPinpointSocketFactory(commandDispatcher);
         this.socket = createPinpointSocket(this.profilerConfig.getCollectorTcpServerIp(), this.profilerConfig.getCollectorTcpServerPort(), factory);
-        return new TcpDataSender(socket);
+        this.socketPool = createPinpointSocketPool(this.socket);
+        return new TcpDataSender(socketPool, createSpillQueue("tcp"), this.profilerConfig.getSenderSpillReplayRate());
+    }
+
+    private PinpointSocketPool createPinpointSocketPool(PinpointSocket controlSocket) {
+        if (!this.profilerConfig.isTcpDataSenderChannelPoolEnable()) {
+            return new PinpointSocketPool(controlSocket);
+        }
+        // metadata and streaming channels never accept commands, so the collector does not register them as cluster points.
+        // they are marked auxiliary, so their pings and disconnects are not recorded as life cycle events of the agent.
+        this.simplexFactory = new PinpointSocketFactory();
+        this.simplexFactory.setTimeoutMillis(1000 * 5);
+        setWriteBufferWaterMark(this.simplexFactory);
+        final Map<String, Object> properties = new HashMap<String, Object>(this.agentInformation.toMap());
+        properties.put(AgentHandshakePropertyType.SUPPORT_SERVER.getName(), false);
+        properties.put(AgentHandshakePropertyType.AUXILIARY_CHANNEL.getName(), true);
+        this.simplexFactory.setProperties(properties);
+
+        final String host = this.profilerConfig.getCollectorTcpServerIp();
+        final int port = this.profilerConfig.getCollectorTcpServerPort();
+        final PinpointSocket metadataSocket = createPinpointSocket(host, port, simplexFactory);
+        final PinpointSocket streamingSocket = createPinpointSocket(host, port, simplexFactory);
+        return new PinpointSocketPool(controlSocket, metadataSocket, streamingSocket);
     }
 
     protected DataSender createUdpStatDataSender(int port, String threadName, int writeQueueSize, int timeout, int sendBufferSize) {
-        return new UdpDataSender(this.profilerConfig.getCollectorStatServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize);
+        return new UdpDataSender(this.profilerConfig.getCollectorStatServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize,
+                createSpillQueue("stat"), this.profilerConfig.getSenderSpillReplayRate());
     }
     
     protected DataSender createUdpSpanDataSender(int port, String threadName, int writeQueueSize, int timeout, int sendBufferSize) {
-        return new UdpDataSender(this.profilerConfig.getCollectorSpanServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize);
+        return new UdpDataSender(this.profilerConfig.getCollectorSpanServerIp(), port, threadName, writeQueueSize, timeout, sendBufferSize,
+                createSpillQueue("span"), this.profilerConfig.getSenderSpillReplayRate());
+    }
+
+    private SpillQueue createSpillQueue(String name) {
+        if (!this.profilerConfig.isSenderSpillEnable()) {
+            return null;
+        }
+        final File directory = new File(this.profilerConfig.getSenderSpillDirectory(), this.agentInformation.getAgentId());
+        try {
+            final SpillQueue spillQueue = new MappedSpillQueue(directory, name, this.profilerConfig.getSenderSpillSegmentSize(), this.profilerConfig.getSenderSpillMaxSize());
+            // reported with the agent stat
+            this.spillMetrics.add(spillQueue.getMetric());
+            return spillQueue;
+        } catch (IOException e) {
+            logger.warn("spill queue create fail. spill disabled. directory:{}, name:{}, Caused:{}", directory, name, e.getMessage(), e);
+            return null;
+        } catch (IllegalArgumentException e) {
+            logger.warn("invalid spill configuration. spill disabled. Caused:{}", e.getMessage(), e);
+            return null;
+        }
     }
 
     protected EnhancedDataSender getTcpDataSender() {
@@ -424,12 +507,17 @@ public class DefaultAgent implements Agent {
         if (this.tcpDataSender != null) {
             this.tcpDataSender.stop();
         }
-        if (this.socket != null) {
+        if (this.socketPool != null) {
+            this.socketPool.close();
+        } else if (this.socket != null) {
             this.socket.close();
         }
         if (this.factory != null) {
             this.factory.release();
         }
+        if (this.simplexFactory != null) {
+            this.simplexFactory.release();
+        }
     }
 
 }
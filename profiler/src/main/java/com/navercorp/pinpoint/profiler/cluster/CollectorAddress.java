@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.cluster;
+
+/**
+ * Udp address of a collector, published by the collector as "ip:spanPort:statPort".
+ */
+public class CollectorAddress {
+
+    private final String host;
+    private final int spanPort;
+    private final int statPort;
+
+    public CollectorAddress(String host, int spanPort, int statPort) {
+        if (host == null) {
+            throw new NullPointerException("host must not be null");
+        }
+        this.host = host;
+        this.spanPort = spanPort;
+        this.statPort = statPort;
+    }
+
+    /**
+     * @return null if the address is malformed.
+     */
+    public static CollectorAddress parse(String address) {
+        if (address == null) {
+            return null;
+        }
+        final String[] tokens = address.split(":");
+        if (tokens.length != 3 || tokens[0].isEmpty()) {
+            return null;
+        }
+        try {
+            return new CollectorAddress(tokens[0], Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getSpanPort() {
+        return spanPort;
+    }
+
+    public int getStatPort() {
+        return statPort;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CollectorAddress that = (CollectorAddress) o;
+
+        if (spanPort != that.spanPort) return false;
+        if (statPort != that.statPort) return false;
+        return host.equals(that.host);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = host.hashCode();
+        result = 31 * result + spanPort;
+        result = 31 * result + statPort;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + spanPort + ":" + statPort;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.cluster;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.profiler.sender.UdpDataSender;
+
+/**
+ * Points the span and stat senders at the collector that owns the application name.
+ *
+ * The owner is picked with a {@link ConsistentHashRing} over the collector membership,
+ * so all agents of an application send to the same collector and their statistics are aggregated in one place.
+ * On a membership change only the applications owned by the joining or leaving collector move.
+ * The configured addresses are used while the membership is unknown or empty.
+ */
+public class CollectorClusterManager implements CollectorClusterListener {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final String applicationName;
+    private final UdpDataSender spanDataSender;
+    private final UdpDataSender statDataSender;
+
+    // guarded by this
+    private CollectorAddress currentCollector;
+
+    public CollectorClusterManager(String applicationName, UdpDataSender spanDataSender, UdpDataSender statDataSender) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (spanDataSender == null) {
+            throw new NullPointerException("spanDataSender must not be null");
+        }
+        if (statDataSender == null) {
+            throw new NullPointerException("statDataSender must not be null");
+        }
+        this.applicationName = applicationName;
+        this.spanDataSender = spanDataSender;
+        this.statDataSender = statDataSender;
+    }
+
+    @Override
+    public synchronized void clusterChanged(List<String> collectorList) {
+        if (collectorList == null) {
+            throw new NullPointerException("collectorList must not be null");
+        }
+        final CollectorAddress owner = selectCollector(collectorList);
+        if (owner == null) {
+            if (currentCollector != null) {
+                logger.info("collector cluster is empty. use configured collector.");
+                spanDataSender.resetTarget();
+                statDataSender.resetTarget();
+                currentCollector = null;
+            }
+            return;
+        }
+        if (owner.equals(currentCollector)) {
+            return;
+        }
+        logger.info("collector changed. applicationName:{}, {} -> {}, collectorList:{}", applicationName, currentCollector, owner, collectorList);
+        spanDataSender.changeTarget(owner.getHost(), owner.getSpanPort());
+        statDataSender.changeTarget(owner.getHost(), owner.getStatPort());
+        currentCollector = owner;
+    }
+
+    CollectorAddress selectCollector(List<String> collectorList) {
+        final ConsistentHashRing ring = new ConsistentHashRing(collectorList);
+        final String owner = ring.getNode(applicationName);
+        if (owner == null) {
+            return null;
+        }
+        final CollectorAddress address = CollectorAddress.parse(owner);
+        if (address == null) {
+            logger.warn("invalid collector address:{}", owner);
+        }
+        return address;
+    }
+
+    public synchronized CollectorAddress getCurrentCollector() {
+        return currentCollector;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.cluster;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.navercorp.pinpoint.rpc.control.ProtocolException;
+import com.navercorp.pinpoint.rpc.util.ControlMessageEncodingUtils;
+
+/**
+ * Collector membership pushed by the collector as a control message encoded map.
+ */
+public final class CollectorClusterMessage {
+
+    // You must modify com.navercorp.pinpoint.collector.cluster.zookeeper.ZookeeperCollectorClusterManager when you modify this key.
+    public static final String COLLECTOR_LIST = "collectorList";
+
+    private CollectorClusterMessage() {
+    }
+
+    /**
+     * @return null if the payload is not a collector membership message.
+     */
+    public static List<String> decodeCollectorList(byte[] payload) {
+        if (payload == null) {
+            return null;
+        }
+        final Object message;
+        try {
+            message = ControlMessageEncodingUtils.decode(payload);
+        } catch (ProtocolException e) {
+            return null;
+        } catch (RuntimeException e) {
+            // not a control message
+            return null;
+        }
+        if (!(message instanceof Map)) {
+            return null;
+        }
+        final Object collectorList = ((Map) message).get(COLLECTOR_LIST);
+        if (!(collectorList instanceof Collection)) {
+            return null;
+        }
+        final List<String> result = new ArrayList<String>();
+        for (Object collector : (Collection) collectorList) {
+            if (collector instanceof String) {
+                result.add((String) collector);
+            }
+        }
+        return result;
+    }
+}
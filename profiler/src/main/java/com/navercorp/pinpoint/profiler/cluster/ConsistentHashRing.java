@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.cluster;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring over node names.
+ * Every node is placed on the ring several times (virtual nodes) so that keys spread evenly,
+ * and adding or removing a node only moves the keys of that node.
+ *
+ * The hash only depends on the node names and the key, so every agent computes the same assignment.
+ */
+public class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODE_COUNT = 128;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final TreeMap<Long, String> ring = new TreeMap<Long, String>();
+
+    public ConsistentHashRing(Collection<String> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODE_COUNT);
+    }
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodeCount) {
+        if (nodes == null) {
+            throw new NullPointerException("nodes must not be null");
+        }
+        if (virtualNodeCount <= 0) {
+            throw new IllegalArgumentException("virtualNodeCount must be greater than 0");
+        }
+        final MessageDigest md5 = createMessageDigest();
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodeCount; i++) {
+                ring.put(hash(md5, node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * @return null if the ring is empty.
+     */
+    public String getNode(String key) {
+        if (key == null) {
+            throw new NullPointerException("key must not be null");
+        }
+        if (ring.isEmpty()) {
+            return null;
+        }
+        final long hash = hash(createMessageDigest(), key);
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash);
+        if (entry == null) {
+            entry = ring.firstEntry();
+        }
+        return entry.getValue();
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    private long hash(MessageDigest md5, String value) {
+        md5.reset();
+        final byte[] digest = md5.digest(value.getBytes(UTF_8));
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not supported", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConsistentHashRing{");
+        sb.append("virtualNodes=").append(ring.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.navercorp.pinpoint.profiler.util.NamedThreadLocal;
+
+/**
+ * Per thread state of the agent, resolved with a single ThreadLocal lookup.
+ *
+ * The current trace of each {@link ThreadLocalBinder}, the invocation of each interceptor group and each scope
+ * used to be held by a ThreadLocal of their own, so an intercepted call walked the ThreadLocalMap of the thread
+ * once per group. Each of them now owns a slot id, allocated once at creation, and keeps its state in the slot
+ * table of the thread's context.
+ *
+ * Slot ids are dense and never reused. The table of a thread grows up to the highest slot id it has used.
+ *
+ * {@link #current()} is still one ThreadLocal lookup. A call that reads several slots resolves it once and passes it
+ * to the binder, group and scope methods taking a context.
+ */
+public final class AgentThreadContext {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final AtomicInteger SLOT_ID_GENERATOR = new AtomicInteger();
+
+    private static final ThreadLocal<AgentThreadContext> CONTEXT = new NamedThreadLocal<AgentThreadContext>("AgentThreadContext") {
+        @Override
+        protected AgentThreadContext initialValue() {
+            return new AgentThreadContext();
+        }
+    };
+
+    private Object[] slots = new Object[INITIAL_CAPACITY];
+
+    private AgentThreadContext() {
+    }
+
+    public static int newSlotId() {
+        return SLOT_ID_GENERATOR.getAndIncrement();
+    }
+
+    public static AgentThreadContext current() {
+        return CONTEXT.get();
+    }
+
+    public Object get(int slotId) {
+        final Object[] slots = this.slots;
+        if (slotId >= slots.length) {
+            return null;
+        }
+        return slots[slotId];
+    }
+
+    public void set(int slotId, Object value) {
+        if (slotId >= slots.length) {
+            if (value == null) {
+                return;
+            }
+            this.slots = Arrays.copyOf(slots, Math.max(slotId + 1, slots.length * 2));
+        }
+        slots[slotId] = value;
+    }
+}
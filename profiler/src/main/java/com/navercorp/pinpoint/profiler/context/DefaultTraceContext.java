@@ -258,6 +258,14 @@ public class DefaultTraceContext implements TraceContext {
         return DefaultTraceId.parse(transactionId, parentSpanID, spanID, flags);
     }
 
+    @Override
+    public TraceId createTraceId(final String agentId, final long agentStartTime, final long transactionSequence, final long parentSpanID, final long spanID, final short flags) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        return new DefaultTraceId(agentId, agentStartTime, transactionSequence, parentSpanID, spanID, flags);
+    }
+
 
     @Override
     public ParsingResult parseSql(final String sql) {
@@ -16,29 +16,45 @@
 
 package com.navercorp.pinpoint.profiler.context;
 
-import com.navercorp.pinpoint.profiler.util.NamedThreadLocal;
-
 /**
  * @author emeroad
  */
 public class ThreadLocalBinder<T> implements Binder<T> {
 
-    private final ThreadLocal<T> threadLocal = new NamedThreadLocal<T>("ThreadLocalBinder");
+    // the value is kept in the AgentThreadContext of the thread
+    private final int slotId = AgentThreadContext.newSlotId();
 
     @Override
     public T get() {
-        return threadLocal.get();
+        return get(AgentThreadContext.current());
+    }
+
+    /**
+     * @param context the context of the current thread, resolved once by the caller
+     */
+    @SuppressWarnings("unchecked")
+    public T get(AgentThreadContext context) {
+        return (T) context.get(slotId);
     }
 
     @Override
     public void set(T t) {
-        threadLocal.set(t);
+        set(AgentThreadContext.current(), t);
+    }
+
+    public void set(AgentThreadContext context, T t) {
+        context.set(slotId, t);
     }
 
     @Override
     public T remove() {
-        final T value = threadLocal.get();
-        threadLocal.remove();
+        return remove(AgentThreadContext.current());
+    }
+
+    @SuppressWarnings("unchecked")
+    public T remove(AgentThreadContext context) {
+        final T value = (T) context.get(slotId);
+        context.set(slotId, null);
         return value;
     }
 }
@@ -39,7 +39,8 @@ public class ThreadLocalTraceFactory implements TraceFactory {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private final Binder<Trace> threadLocalBinder = new ThreadLocalBinder<Trace>();
+    // methods that check and bind the trace resolve the AgentThreadContext once and pass it to the binder
+    private final ThreadLocalBinder<Trace> threadLocalBinder = new ThreadLocalBinder<Trace>();
 
     private final TraceContext traceContext;
 
@@ -100,9 +101,10 @@ public class ThreadLocalTraceFactory implements TraceFactory {
 
     @Override
     public Trace disableSampling() {
-        checkBeforeTraceObject();
+        final AgentThreadContext context = AgentThreadContext.current();
+        checkBeforeTraceObject(context);
         final Trace metricTrace = newDisableTrace();
-        bind(metricTrace);
+        bind(context, metricTrace);
 
         return metricTrace;
     }
@@ -110,7 +112,8 @@ public class ThreadLocalTraceFactory implements TraceFactory {
     // continue to trace the request that has been determined to be sampled on previous nodes
     @Override
     public Trace continueTraceObject(final TraceId traceID) {
-        checkBeforeTraceObject();
+        final AgentThreadContext context = AgentThreadContext.current();
+        checkBeforeTraceObject(context);
 
         // TODO need to modify how to bind a datasender
         // always set true because the decision of sampling has been  made on previous nodes
@@ -120,21 +123,22 @@ public class ThreadLocalTraceFactory implements TraceFactory {
         // final Storage storage = storageFactory.createStorage();
         final Storage storage = storageFactory.createStorage();
         trace.setStorage(storage);
-        bind(trace);
+        bind(context, trace);
         return trace;
     }
     
 
     @Override
     public Trace continueTraceObject(Trace trace) {
-        checkBeforeTraceObject();
+        final AgentThreadContext context = AgentThreadContext.current();
+        checkBeforeTraceObject(context);
 
-        bind(trace);
+        bind(context, trace);
         return trace;
     }
 
-    private void checkBeforeTraceObject() {
-        final Trace old = this.threadLocalBinder.get();
+    private void checkBeforeTraceObject(AgentThreadContext context) {
+        final Trace old = this.threadLocalBinder.get(context);
         if (old != null) {
             final PinpointException exception = new PinpointException("already Trace Object exist.");
             if (logger.isWarnEnabled()) {
@@ -151,7 +155,8 @@ public class ThreadLocalTraceFactory implements TraceFactory {
     
     @Override
     public Trace newTraceObject(TraceType traceType) {
-        checkBeforeTraceObject();
+        final AgentThreadContext context = AgentThreadContext.current();
+        checkBeforeTraceObject(context);
         // TODO need to modify how to inject a datasender
         final boolean sampling = sampler.isSampling();
         if (sampling) {
@@ -160,17 +165,17 @@ public class ThreadLocalTraceFactory implements TraceFactory {
             final Storage storage = storageFactory.createStorage();
             trace.setStorage(storage);
             trace.setTraceType(traceType);
-            bind(trace);
+            bind(context, trace);
             return trace;
         } else {
             final Trace disableTrace = newDisableTrace();
-            bind(disableTrace);
+            bind(context, disableTrace);
             return disableTrace;
         }
     }
 
-    private void bind(Trace trace) {
-        threadLocalBinder.set(trace);
+    private void bind(AgentThreadContext context, Trace trace) {
+        threadLocalBinder.set(context, trace);
 
 //        // TODO traceChain example
 //        Trace traceChain = new TraceChain(trace);
@@ -201,7 +206,8 @@ public class ThreadLocalTraceFactory implements TraceFactory {
     }
 
     public Trace continueAsyncTraceObject(AsyncTraceId traceId, int asyncId, long startTime) {
-        checkBeforeTraceObject();
+        final AgentThreadContext context = AgentThreadContext.current();
+        checkBeforeTraceObject(context);
         
         final TraceId parentTraceId = traceId.getParentTraceId();
         final boolean sampling = true;
@@ -210,7 +216,7 @@ public class ThreadLocalTraceFactory implements TraceFactory {
         trace.setStorage(new AsyncStorage(storage));
 
         final AsyncTrace asyncTrace = new AsyncTrace(trace, asyncId, traceId.nextAsyncSequence(), startTime);
-        bind(asyncTrace);
+        bind(context, asyncTrace);
 
         return asyncTrace;
     }
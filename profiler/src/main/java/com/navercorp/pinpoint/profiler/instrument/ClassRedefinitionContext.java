@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.instrument;
+
+import com.navercorp.pinpoint.profiler.context.AgentThreadContext;
+
+/**
+ * Marks the thread which transforms a class being redefined.
+ * The JVM does not allow to add a field to a loaded class, so the instrumentation must not depend on new fields then.
+ */
+public final class ClassRedefinitionContext {
+
+    private static final int SLOT_ID = AgentThreadContext.newSlotId();
+
+    private ClassRedefinitionContext() {
+    }
+
+    public static void enter(Class<?> classBeingRedefined) {
+        AgentThreadContext.current().set(SLOT_ID, classBeingRedefined);
+    }
+
+    public static void exit() {
+        AgentThreadContext.current().set(SLOT_ID, null);
+    }
+
+    public static boolean isRedefining() {
+        return AgentThreadContext.current().get(SLOT_ID) != null;
+    }
+}
@@ -23,6 +23,7 @@ import javassist.CannotCompileException;
 import javassist.CtBehavior;
 import javassist.CtClass;
 import javassist.CtConstructor;
+import javassist.CtField;
 import javassist.CtMethod;
 import javassist.Modifier;
 import javassist.NotFoundException;
@@ -223,14 +224,49 @@ public class JavassistMethod implements InstrumentMethod {
 
         boolean localVarsInitialized = false;
         
-        int offset = addBeforeInterceptor(interceptor, interceptorId, originalCodeOffset);
+        final boolean staticHolder = addInterceptorHolder(interceptor, interceptorId);
+        
+        int offset = addBeforeInterceptor(interceptor, interceptorId, originalCodeOffset, staticHolder);
         
         if (offset != -1) {
             localVarsInitialized = true;
             originalCodeOffset = offset;
         }
 
-        addAfterInterceptor(interceptor, interceptorId, localVarsInitialized, originalCodeOffset);
+        addAfterInterceptor(interceptor, interceptorId, localVarsInitialized, originalCodeOffset, staticHolder);
+    }
+
+    private boolean addInterceptorHolder(Interceptor interceptor, int interceptorId) throws CannotCompileException {
+        if (!InvokeCodeGenerator.isStaticHolderDispatch()) {
+            return false;
+        }
+        final CtClass ctClass = behavior.getDeclaringClass();
+        // a field can not be added to an interface or to a loaded class
+        if (ctClass.isInterface() || ClassRedefinitionContext.isRedefining()) {
+            return false;
+        }
+
+        final String holderField = InvokeCodeGenerator.getInterceptorHolderField(interceptorId);
+        if (hasDeclaredField(ctClass, holderField)) {
+            // the interceptor is added to another method of the class
+            return true;
+        }
+        final InvokeCodeGenerator generator = new InvokeCodeGenerator(interceptorId, interceptor.getClass(), this, true);
+        final String holderFieldCode = generator.getInterceptorHolderFieldCode();
+        if (isDebug) {
+            logger.debug("addInterceptorHolder class:{} code:{}", ctClass.getName(), holderFieldCode);
+        }
+        ctClass.addField(CtField.make(holderFieldCode, ctClass));
+        return true;
+    }
+
+    private static boolean hasDeclaredField(CtClass ctClass, String name) {
+        try {
+            ctClass.getDeclaredField(name);
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
     }
     
     private static final Method findMethod(Class<?> interceptorClass, String name) {
@@ -243,7 +279,7 @@ public class JavassistMethod implements InstrumentMethod {
         return null;
     }
 
-    private void addAfterInterceptor(Interceptor interceptor, int interceptorId, boolean localVarsInitialized, int originalCodeOffset) throws NotFoundException, CannotCompileException {
+    private void addAfterInterceptor(Interceptor interceptor, int interceptorId, boolean localVarsInitialized, int originalCodeOffset, boolean staticHolder) throws NotFoundException, CannotCompileException {
         Class<?> interceptorClass = interceptor.getClass();
         Method interceptorMethod = findMethod(interceptorClass, "after");
 
@@ -255,7 +291,7 @@ public class JavassistMethod implements InstrumentMethod {
         }
         
         
-        InvokeAfterCodeGenerator catchGenerator = new InvokeAfterCodeGenerator(interceptorId, interceptorClass, interceptorMethod, declaringClass, this, localVarsInitialized, true);
+        InvokeAfterCodeGenerator catchGenerator = new InvokeAfterCodeGenerator(interceptorId, interceptorClass, interceptorMethod, declaringClass, this, localVarsInitialized, true, staticHolder);
         String catchCode = catchGenerator.generate();
         
         if (isDebug) {
@@ -266,7 +302,7 @@ public class JavassistMethod implements InstrumentMethod {
         insertCatch(originalCodeOffset, catchCode, throwable, "$e");
 
         
-        InvokeAfterCodeGenerator afterGenerator = new InvokeAfterCodeGenerator(interceptorId, interceptorClass, interceptorMethod, declaringClass, this, localVarsInitialized, false);
+        InvokeAfterCodeGenerator afterGenerator = new InvokeAfterCodeGenerator(interceptorId, interceptorClass, interceptorMethod, declaringClass, this, localVarsInitialized, false, staticHolder);
         final String afterCode = afterGenerator.generate();
 
         if (isDebug) {
@@ -276,7 +312,7 @@ public class JavassistMethod implements InstrumentMethod {
         behavior.insertAfter(afterCode);
     }
 
-    private int addBeforeInterceptor(Interceptor interceptor, int interceptorId, int pos) throws CannotCompileException, NotFoundException {
+    private int addBeforeInterceptor(Interceptor interceptor, int interceptorId, int pos, boolean staticHolder) throws CannotCompileException, NotFoundException {
         Class<?> interceptorClass = interceptor.getClass();
         Method interceptorMethod = findMethod(interceptorClass, "before");
 
@@ -287,7 +323,7 @@ public class JavassistMethod implements InstrumentMethod {
             return -1;
         }
 
-        InvokeBeforeCodeGenerator generator = new InvokeBeforeCodeGenerator(interceptorId, interceptorClass, interceptorMethod, declaringClass, this);
+        InvokeBeforeCodeGenerator generator = new InvokeBeforeCodeGenerator(interceptorId, interceptorClass, interceptorMethod, declaringClass, this, staticHolder);
         String beforeCode = generator.generate();
 
         if (isDebug) {
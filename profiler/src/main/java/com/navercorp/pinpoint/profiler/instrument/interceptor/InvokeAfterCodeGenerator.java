@@ -31,7 +31,11 @@ public class InvokeAfterCodeGenerator extends InvokeCodeGenerator {
     private final boolean catchClause;
     
     public InvokeAfterCodeGenerator(int interceptorId, Class<?> interceptorClass, Method interceptorMethod, InstrumentClass targetClass, InstrumentMethod targetMethod, boolean localVarsInitialized, boolean catchCluase) {
-        super(interceptorId, interceptorClass, targetMethod);
+        this(interceptorId, interceptorClass, interceptorMethod, targetClass, targetMethod, localVarsInitialized, catchCluase, false);
+    }
+
+    public InvokeAfterCodeGenerator(int interceptorId, Class<?> interceptorClass, Method interceptorMethod, InstrumentClass targetClass, InstrumentMethod targetMethod, boolean localVarsInitialized, boolean catchCluase, boolean staticHolder) {
+        super(interceptorId, interceptorClass, targetMethod, staticHolder);
         
         this.interceptorId = interceptorId;
         this.interceptorMethod = interceptorMethod;
@@ -56,7 +60,7 @@ public class InvokeAfterCodeGenerator extends InvokeCodeGenerator {
         builder.append("try { ");
 
         if (!localVarsInitialized) {
-            builder.format("%1$s = %2$s.getInterceptor(%3$d); ", getInterceptorVar(), getInterceptorRegistryClassName(), interceptorId);
+            builder.format("%1$s = %2$s; ", getInterceptorVar(), getInterceptorLoadCode());
         } 
         
         if (interceptorMethod != null) {
@@ -110,6 +114,9 @@ public class InvokeAfterCodeGenerator extends InvokeCodeGenerator {
         case CUSTOM:
             appendCustomAfterArguments(builder);
             break;
+        case ARITY:
+            appendArityAfterArguments(builder);
+            break;
         }
     }
 
@@ -121,6 +128,11 @@ public class InvokeAfterCodeGenerator extends InvokeCodeGenerator {
         builder.format("%1$s, \"%2$s\", \"%3$s\", \"%4$s\", %5$s, %6$s, %7$s", getTarget(), targetClass.getName(), targetMethod.getName(), getParameterTypes(), getArguments(), getReturnValue(), getException());
     }
     
+    private void appendArityAfterArguments(CodeBuilder builder) {
+        builder.format("%1$s, %2$s, %3$s", getTarget(), getReturnValue(), getException());
+        builder.append(getDirectArguments());
+    }
+    
     private void appendCustomAfterArguments(CodeBuilder builder) {
         Class<?>[] paramTypes = interceptorMethod.getParameterTypes();
         
@@ -29,7 +29,11 @@ public class InvokeBeforeCodeGenerator extends InvokeCodeGenerator {
     private final InstrumentClass targetClass;
     
     public InvokeBeforeCodeGenerator(int interceptorId, Class<?> interceptorClass, Method interceptorMethod, InstrumentClass targetClass, InstrumentMethod targetMethod) {
-        super(interceptorId, interceptorClass, targetMethod);
+        this(interceptorId, interceptorClass, interceptorMethod, targetClass, targetMethod, false);
+    }
+
+    public InvokeBeforeCodeGenerator(int interceptorId, Class<?> interceptorClass, Method interceptorMethod, InstrumentClass targetClass, InstrumentMethod targetMethod, boolean staticHolder) {
+        super(interceptorId, interceptorClass, targetMethod, staticHolder);
         
         this.interceptorId = interceptorId;
         this.interceptorMethod = interceptorMethod;
@@ -49,7 +53,7 @@ public class InvokeBeforeCodeGenerator extends InvokeCodeGenerator {
         // }
         
         builder.append("try { ");
-        builder.format("%1$s = %2$s.getInterceptor(%3$d); ", getInterceptorVar(), getInterceptorRegistryClassName(), interceptorId);
+        builder.format("%1$s = %2$s; ", getInterceptorVar(), getInterceptorLoadCode());
         
         if (interceptorMethod != null) {
             builder.format("((%1$s)%2$s).before(", getInterceptorType(), getInterceptorVar());
@@ -75,6 +79,9 @@ public class InvokeBeforeCodeGenerator extends InvokeCodeGenerator {
         case CUSTOM:
             appendCustomBeforeArguments(builder);
             break;
+        case ARITY:
+            appendArityBeforeArguments(builder);
+            break;
         }
     }
 
@@ -86,6 +93,11 @@ public class InvokeBeforeCodeGenerator extends InvokeCodeGenerator {
         builder.format("%1$s, \"%2$s\", \"%3$s\", \"%4$s\", %5$s", getTarget(), targetClass.getName(), targetMethod.getName(), getParameterTypes(), getArguments());
     }
 
+    private void appendArityBeforeArguments(CodeBuilder builder) {
+        builder.append(getTarget());
+        builder.append(getDirectArguments());
+    }
+
     private void appendCustomBeforeArguments(CodeBuilder builder) {
         Class<?>[] paramTypes = interceptorMethod.getParameterTypes();
         
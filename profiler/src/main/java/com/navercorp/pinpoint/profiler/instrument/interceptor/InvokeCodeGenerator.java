@@ -17,9 +17,15 @@ package com.navercorp.pinpoint.profiler.instrument.interceptor;
 import java.lang.reflect.Modifier;
 
 import com.navercorp.pinpoint.bootstrap.instrument.InstrumentMethod;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor1;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor2;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor3;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor4;
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor5;
 import com.navercorp.pinpoint.bootstrap.interceptor.InterceptorInvokerHelper;
 import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.StaticAroundInterceptor;
+import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetArity;
 import com.navercorp.pinpoint.bootstrap.interceptor.registry.InterceptorRegistry;
 import com.navercorp.pinpoint.profiler.util.JavaAssistUtils;
 
@@ -28,27 +34,67 @@ import com.navercorp.pinpoint.profiler.util.JavaAssistUtils;
  *
  */
 public class InvokeCodeGenerator {
+    // read the interceptor from a static final field of the target class instead of the InterceptorRegistry.
+    private static volatile boolean staticHolderDispatch = false;
+
+    // AroundInterceptorN by arity
+    private static final Class<?>[] ARITY_INTERCEPTORS = {null, AroundInterceptor1.class, AroundInterceptor2.class, AroundInterceptor3.class, AroundInterceptor4.class, AroundInterceptor5.class};
+
     protected final Class<?> interceptorClass;
     protected final InstrumentMethod targetMethod;
     protected final int interceptorId;
     protected final Type type;
+    // number of arguments passed one by one to an ARITY interceptor
+    protected final int arity;
+    protected final boolean staticHolder;
     
     public InvokeCodeGenerator(int interceptorId, Class<?> interceptorClass, InstrumentMethod targetMethod) {
+        this(interceptorId, interceptorClass, targetMethod, false);
+    }
+
+    public InvokeCodeGenerator(int interceptorId, Class<?> interceptorClass, InstrumentMethod targetMethod, boolean staticHolder) {
         this.interceptorClass = interceptorClass;
         this.targetMethod = targetMethod;
         this.interceptorId = interceptorId;
+        this.staticHolder = staticHolder;
         
-        if (SimpleAroundInterceptor.class.isAssignableFrom(interceptorClass)) {
+        final int directArity = getDirectArity(interceptorClass, targetMethod);
+        if (directArity > 0) {
+            type = Type.ARITY;
+        } else if (SimpleAroundInterceptor.class.isAssignableFrom(interceptorClass)) {
             type = Type.SIMPLE;
         } else if (StaticAroundInterceptor.class.isAssignableFrom(interceptorClass)) {
             type = Type.STATIC;
         } else {
             type = Type.CUSTOM;
         }
+        this.arity = directArity;
+    }
+
+    /**
+     * @return number of parameters of the target method if the interceptor accepts them one by one, -1 otherwise
+     */
+    private static int getDirectArity(Class<?> interceptorClass, InstrumentMethod targetMethod) {
+        if (!SimpleAroundInterceptor.class.isAssignableFrom(interceptorClass)) {
+            return -1;
+        }
+        final TargetArity targetArity = interceptorClass.getAnnotation(TargetArity.class);
+        if (targetArity == null) {
+            return -1;
+        }
+        final int parameterCount = targetMethod.getParameterTypes().length;
+        // a method without parameter already passes null instead of an argument array
+        if (parameterCount < 1 || parameterCount > targetArity.value() || parameterCount >= ARITY_INTERCEPTORS.length) {
+            return -1;
+        }
+        if (!ARITY_INTERCEPTORS[parameterCount].isAssignableFrom(interceptorClass)) {
+            return -1;
+        }
+        return parameterCount;
     }
 
     protected enum Type {
-        SIMPLE, STATIC, CUSTOM
+        SIMPLE, STATIC, CUSTOM, ARITY
     }
 
     protected String getInterceptorType() {
@@ -59,6 +105,8 @@ public class InvokeCodeGenerator {
             return StaticAroundInterceptor.class.getName();
         case CUSTOM:
             return interceptorClass.getName();
+        case ARITY:
+            return ARITY_INTERCEPTORS[arity].getName();
         }
 
         return null;
@@ -81,6 +129,17 @@ public class InvokeCodeGenerator {
         return "$args";
     }
     
+    /**
+     * @return the arguments of the target method one by one, for an ARITY interceptor
+     */
+    protected String getDirectArguments() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 1; i <= arity; i++) {
+            builder.append(", ($w)$").append(i);
+        }
+        return builder.toString();
+    }
+
     protected String getInterceptorInvokerHelperClassName() {
         return InterceptorInvokerHelper.class.getName();
     }
@@ -89,6 +148,17 @@ public class InvokeCodeGenerator {
         return InterceptorRegistry.class.getName();
     }
     
+    /**
+     * @return expression which loads the interceptor
+     */
+    protected String getInterceptorLoadCode() {
+        if (staticHolder) {
+            // a static final field is a constant for the JIT, the registry lookup is an array read and a checkcast on every call
+            return getInterceptorHolderField(interceptorId);
+        }
+        return getInterceptorRegistryClassName() + ".getInterceptor(" + interceptorId + ")";
+    }
+
     protected String getInterceptorVar() {
         return getInterceptorVar(interceptorId);
     }
@@ -96,4 +166,23 @@ public class InvokeCodeGenerator {
     public static String getInterceptorVar(int interceptorId) {
         return "_$PINPOINT$_interceptor" + interceptorId;
     }
+
+    public static String getInterceptorHolderField(int interceptorId) {
+        return "_$PINPOINT$_interceptorHolder" + interceptorId;
+    }
+
+    /**
+     * @return declaration of the static final field holding the interceptor, to be added to the target class
+     */
+    public String getInterceptorHolderFieldCode() {
+        return "private static final " + getInterceptorType() + " " + getInterceptorHolderField(interceptorId) + " = (" + getInterceptorType() + ") " + getInterceptorRegistryClassName() + ".getInterceptor(" + interceptorId + ");";
+    }
+
+    public static boolean isStaticHolderDispatch() {
+        return staticHolderDispatch;
+    }
+
+    public static void setStaticHolderDispatch(boolean staticHolderDispatch) {
+        InvokeCodeGenerator.staticHolderDispatch = staticHolderDispatch;
+    }
 }
\ No newline at end of file
@@ -41,7 +41,9 @@ import com.navercorp.pinpoint.bootstrap.interceptor.Interceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.StaticAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.annotation.Group;
+import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetArity;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.ExecutionPolicy;
+import com.navercorp.pinpoint.bootstrap.interceptor.group.GroupedArityAroundInterceptor;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.GroupedInterceptor0;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.GroupedInterceptor1;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.GroupedInterceptor2;
@@ -91,6 +93,9 @@ public class AnnotatedInterceptorFactory implements InterceptorFactory {
     
     private Interceptor wrapByGroup(Interceptor interceptor, InterceptorGroup group, ExecutionPolicy policy) {
         if (interceptor instanceof SimpleAroundInterceptor) {
+            if (interceptor.getClass().isAnnotationPresent(TargetArity.class)) {
+                return new GroupedArityAroundInterceptor((SimpleAroundInterceptor)interceptor, group, policy);
+            }
             return new GroupedSimpleAroundInterceptor((SimpleAroundInterceptor)interceptor, group, policy);
         } else if (interceptor instanceof StaticAroundInterceptor) {
             return new GroupedStaticAroundInterceptor((StaticAroundInterceptor)interceptor, group, policy);
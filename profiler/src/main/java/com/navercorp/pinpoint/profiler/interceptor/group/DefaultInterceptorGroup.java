@@ -16,6 +16,7 @@ package com.navercorp.pinpoint.profiler.interceptor.group;
 
 import com.navercorp.pinpoint.bootstrap.interceptor.group.InterceptorGroup;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.InterceptorGroupInvocation;
+import com.navercorp.pinpoint.profiler.context.AgentThreadContext;
 
 /**
  * @author Jongho Moon
@@ -23,18 +24,12 @@ import com.navercorp.pinpoint.bootstrap.interceptor.group.InterceptorGroupInvoca
  */
 public class DefaultInterceptorGroup implements InterceptorGroup {
     private final String name;
-    private final ThreadLocal<InterceptorGroupInvocation> threadLocal;
+    // the invocation of each thread is kept in its AgentThreadContext
+    private final int slotId;
     
     public DefaultInterceptorGroup(final String name) {
         this.name = name;
-        this.threadLocal = new ThreadLocal<InterceptorGroupInvocation>() {
-
-            @Override
-            protected InterceptorGroupInvocation initialValue() {
-                return new DefaultInterceptorGroupInvocation(name);
-            }
-            
-        };
+        this.slotId = AgentThreadContext.newSlotId();
     }
 
     @Override
@@ -44,6 +39,13 @@ public class DefaultInterceptorGroup implements InterceptorGroup {
 
     @Override
     public InterceptorGroupInvocation getCurrentInvocation() {
-        return threadLocal.get();
+        return getCurrentInvocation(AgentThreadContext.current());
+    }
+
+    /**
+     * @param context the context of the current thread, resolved once by the caller
+     */
+    public InterceptorGroupInvocation getCurrentInvocation(AgentThreadContext context) {
+        return DefaultInterceptorGroupInvocation.get(context, slotId, name);
     }
 }
@@ -17,6 +17,7 @@ package com.navercorp.pinpoint.profiler.interceptor.group;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.AttachmentFactory;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.ExecutionPolicy;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.InterceptorGroupInvocation;
+import com.navercorp.pinpoint.profiler.context.AgentThreadContext;
 
 /**
  * @author Jongho Moon
@@ -33,6 +34,18 @@ public class DefaultInterceptorGroupInvocation implements InterceptorGroupInvoca
         this.name = name;
     }
 
+    /**
+     * @return the invocation kept in the given slot of the thread's context, created on first use
+     */
+    public static InterceptorGroupInvocation get(AgentThreadContext context, int slotId, String name) {
+        InterceptorGroupInvocation invocation = (InterceptorGroupInvocation) context.get(slotId);
+        if (invocation == null) {
+            invocation = new DefaultInterceptorGroupInvocation(name);
+            context.set(slotId, invocation);
+        }
+        return invocation;
+    }
+
     @Override
     public String getName() {
         return name;
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.profiler.monitor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -27,10 +28,12 @@ import com.navercorp.pinpoint.profiler.monitor.codahale.AgentStatCollectorFactor
 import com.navercorp.pinpoint.profiler.monitor.codahale.cpu.CpuLoadCollector;
 import com.navercorp.pinpoint.profiler.monitor.codahale.gc.GarbageCollector;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillMetric;
 import com.navercorp.pinpoint.thrift.dto.TAgentStat;
 import com.navercorp.pinpoint.thrift.dto.TAgentStatBatch;
 import com.navercorp.pinpoint.thrift.dto.TCpuLoad;
 import com.navercorp.pinpoint.thrift.dto.TJvmGc;
+import com.navercorp.pinpoint.thrift.dto.TSpillStat;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,13 +59,22 @@ public class AgentStatMonitor {
     private final DataSender dataSender;
     private final String agentId;
     private final AgentStatCollectorFactory agentStatCollectorFactory;
+    private final SpillStatCollector spillStatCollector;
     private final long agentStartTime;
 
     public AgentStatMonitor(DataSender dataSender, String agentId, long startTime) {
-        this(dataSender, agentId, startTime, DEFAULT_COLLECTION_INTERVAL_MS, DEFAULT_NUM_COLLECTIONS_PER_SEND);
+        this(dataSender, agentId, startTime, Collections.<SpillMetric>emptyList());
+    }
+
+    public AgentStatMonitor(DataSender dataSender, String agentId, long startTime, List<SpillMetric> spillMetrics) {
+        this(dataSender, agentId, startTime, DEFAULT_COLLECTION_INTERVAL_MS, DEFAULT_NUM_COLLECTIONS_PER_SEND, spillMetrics);
     }
 
     public AgentStatMonitor(DataSender dataSender, String agentId, long startTime, long collectionInterval, int numCollectionsPerBatch) {
+        this(dataSender, agentId, startTime, collectionInterval, numCollectionsPerBatch, Collections.<SpillMetric>emptyList());
+    }
+
+    public AgentStatMonitor(DataSender dataSender, String agentId, long startTime, long collectionInterval, int numCollectionsPerBatch, List<SpillMetric> spillMetrics) {
         if (dataSender == null) {
             throw new NullPointerException("dataSender must not be null");
         }
@@ -75,6 +87,7 @@ public class AgentStatMonitor {
         this.collectionIntervalMs = collectionInterval;
         this.numCollectionsPerBatch = numCollectionsPerBatch;
         this.agentStatCollectorFactory = new AgentStatCollectorFactory();
+        this.spillStatCollector = new SpillStatCollector(spillMetrics);
     }
 
     public void start() {
@@ -131,6 +144,8 @@ public class AgentStatMonitor {
             agentStat.setGc(gc);
             final TCpuLoad cpuLoad = cpuLoadCollector.collectCpuLoad();
             agentStat.setCpuLoad(cpuLoad);
+            final TSpillStat spillStat = spillStatCollector.collectSpillStat();
+            agentStat.setSpill(spillStat);
             if (isTrace) {
                 logger.trace("collect agentStat:{}", agentStat);
             }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.navercorp.pinpoint.profiler.sender.spill.SpillMetric;
+import com.navercorp.pinpoint.thrift.dto.TSpillStat;
+
+/**
+ * Sums the counters of the spill queues of the agent. The counts are totals since the agent started.
+ */
+public class SpillStatCollector {
+
+    private final List<SpillMetric> spillMetrics;
+
+    public SpillStatCollector(List<SpillMetric> spillMetrics) {
+        if (spillMetrics == null) {
+            throw new NullPointerException("spillMetrics must not be null");
+        }
+        this.spillMetrics = new ArrayList<SpillMetric>(spillMetrics);
+    }
+
+    public TSpillStat collectSpillStat() {
+        if (spillMetrics.isEmpty()) {
+            return null;
+        }
+        long spillCount = 0;
+        long replayCount = 0;
+        long discardCount = 0;
+        for (SpillMetric spillMetric : spillMetrics) {
+            spillCount += spillMetric.getSpillCount();
+            replayCount += spillMetric.getReplayCount();
+            discardCount += spillMetric.getDiscardCount();
+        }
+        final TSpillStat spillStat = new TSpillStat();
+        spillStat.setSpillCount(spillCount);
+        spillStat.setReplayCount(replayCount);
+        spillStat.setDiscardCount(discardCount);
+        return spillStat;
+    }
+}
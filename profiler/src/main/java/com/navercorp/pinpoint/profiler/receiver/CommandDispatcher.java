@@ -16,6 +16,8 @@
 
 package com.navercorp.pinpoint.profiler.receiver;
 
+import java.util.List;
+
 import org.apache.thrift.TBase;
 import org.apache.thrift.protocol.TCompactProtocol;
 import org.apache.thrift.protocol.TProtocolFactory;
@@ -24,6 +26,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.navercorp.pinpoint.common.Version;
+import com.navercorp.pinpoint.profiler.cluster.CollectorClusterListener;
+import com.navercorp.pinpoint.profiler.cluster.CollectorClusterMessage;
 import com.navercorp.pinpoint.rpc.client.MessageListener;
 import com.navercorp.pinpoint.rpc.packet.RequestPacket;
 import com.navercorp.pinpoint.rpc.packet.ResponsePacket;
@@ -59,6 +63,8 @@ public class CommandDispatcher implements MessageListener, ServerStreamChannelMe
     private final SerializerFactory<HeaderTBaseSerializer> serializerFactory;
     private final DeserializerFactory<HeaderTBaseDeserializer> deserializerFactory;
 
+    private volatile CollectorClusterListener collectorClusterListener;
+
     public CommandDispatcher() {
         this(Version.VERSION);
     }
@@ -83,6 +89,14 @@ public class CommandDispatcher implements MessageListener, ServerStreamChannelMe
     @Override
     public void handleSend(SendPacket sendPacket, Channel channel) {
         logger.info("MessageReceive {} {}", sendPacket, channel);
+
+        final CollectorClusterListener collectorClusterListener = this.collectorClusterListener;
+        if (collectorClusterListener != null) {
+            final List<String> collectorList = CollectorClusterMessage.decodeCollectorList(sendPacket.getPayload());
+            if (collectorList != null) {
+                collectorClusterListener.clusterChanged(collectorList);
+            }
+        }
     }
 
     @Override
@@ -150,6 +164,10 @@ public class CommandDispatcher implements MessageListener, ServerStreamChannelMe
         this.commandServiceRegistry.addService(commandServiceGroup);
     }
 
+    public void setCollectorClusterListener(CollectorClusterListener collectorClusterListener) {
+        this.collectorClusterListener = collectorClusterListener;
+    }
+
     private SerializerFactory<HeaderTBaseSerializer> wrappedThreadLocalSerializerFactory(SerializerFactory<HeaderTBaseSerializer> serializerFactory) {
         return new ThreadLocalHeaderTBaseSerializerFactory<HeaderTBaseSerializer>(serializerFactory);
     }
@@ -22,6 +22,11 @@ import org.apache.thrift.TBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.navercorp.pinpoint.profiler.sender.spill.SpillQueue;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillRecord;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillReplayTarget;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillReplayer;
+import com.navercorp.pinpoint.profiler.util.ObjectPool;
 import com.navercorp.pinpoint.rpc.FutureListener;
 import com.navercorp.pinpoint.rpc.ResponseMessage;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializer;
@@ -34,8 +39,17 @@ import com.navercorp.pinpoint.thrift.util.SerializationUtils;
  */
 public abstract class AbstractDataSender implements DataSender {
 
+    private static final int SPILL_SERIALIZER_POOL_SIZE = 2;
+    private static final int SPILL_SERIALIZER_POOL_MAX_SIZE = 8;
+
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    private SpillQueue spillQueue;
+    private SpillReplayer spillReplayer;
+    // overflow is spilled on application threads, so serializers are pooled instead of shared.
+    // the pool is bounded : a spill that finds every serializer in use is discarded.
+    private ObjectPool<HeaderTBaseSerializer> spillSerializerPool;
+
     abstract protected void sendPacket(Object dto);
 
     protected void sendPacketN(Collection<Object> messageList) {
@@ -71,6 +85,113 @@ public abstract class AbstractDataSender implements DataSender {
         return executor;
     }
 
+    protected void enableSpill(final AsyncQueueingExecutor<Object> executor, final int queueSize, SpillQueue spillQueue, int replayRatePerSecond, int serializerBufferSize, String replayerName) {
+        if (executor == null) {
+            throw new NullPointerException("executor must not be null");
+        }
+        if (spillQueue == null) {
+            throw new NullPointerException("spillQueue must not be null");
+        }
+        this.spillQueue = spillQueue;
+        this.spillSerializerPool = new ObjectPool<HeaderTBaseSerializer>(new HeaderTBaseSerializerPoolFactory(false, serializerBufferSize, false),
+                SPILL_SERIALIZER_POOL_SIZE, SPILL_SERIALIZER_POOL_MAX_SIZE);
+
+        executor.setOverflowHandler(new AsyncQueueingExecutorOverflowHandler<Object>() {
+            @Override
+            public boolean overflow(Object data) {
+                return spill(data);
+            }
+        });
+        // replay only while at least half of the queue is free, so that live data keeps priority.
+        final int replayThreshold = queueSize / 2;
+        this.spillReplayer = new SpillReplayer(spillQueue, new SpillReplayTarget() {
+            @Override
+            public boolean isReady() {
+                return isSpillReplayable() && executor.remainingCapacity() > replayThreshold;
+            }
+
+            @Override
+            public void replay(SpillRecord record) {
+                executor.execute(record);
+            }
+        }, replayRatePerSecond, replayerName);
+    }
+
+    protected boolean isSpillEnabled() {
+        return spillQueue != null;
+    }
+
+    /**
+     * @return true if the collector is expected to accept replayed data
+     */
+    protected boolean isSpillReplayable() {
+        return true;
+    }
+
+    protected boolean spill(Object message) {
+        final SpillQueue spillQueue = this.spillQueue;
+        if (spillQueue == null) {
+            return false;
+        }
+        if (message instanceof SpillRecord) {
+            final SpillRecord record = (SpillRecord) message;
+            return spillQueue.offer(record.getStoredType(), record.getData(), 0, record.getData().length);
+        }
+
+        final byte type;
+        final TBase tBase;
+        if (message instanceof TBase) {
+            type = SpillRecord.TYPE_SEND;
+            tBase = (TBase) message;
+        } else if (message instanceof RequestMarker && ((RequestMarker) message).getFutureListener() == null) {
+            // a response listener cannot be restored from disk.
+            type = SpillRecord.TYPE_REQUEST;
+            tBase = ((RequestMarker) message).getTBase();
+        } else {
+            return false;
+        }
+
+        final HeaderTBaseSerializer serializer = spillSerializerPool.getObject();
+        if (serializer == null) {
+            spillQueue.getMetric().incrementDiscard();
+            return false;
+        }
+        try {
+            final byte[] data = serialize(serializer, tBase);
+            if (data == null) {
+                return false;
+            }
+            final byte storedType = SpillRecord.toStoredType(type, getSpillChannel(tBase));
+            return spillQueue.offer(storedType, data, 0, serializer.getInterBufferSize());
+        } finally {
+            spillSerializerPool.returnObject(serializer);
+        }
+    }
+
+    /**
+     * @return the channel the message is written to, kept with the spilled message. see {@link SpillRecord#getChannel()}
+     */
+    protected int getSpillChannel(TBase tBase) {
+        return 0;
+    }
+
+    protected boolean spill(byte type, int channel, byte[] data, int length) {
+        final SpillQueue spillQueue = this.spillQueue;
+        if (spillQueue == null) {
+            return false;
+        }
+        return spillQueue.offer(SpillRecord.toStoredType(type, channel), data, 0, length);
+    }
+
+    protected void stopSpill() {
+        if (spillReplayer != null) {
+            spillReplayer.stop();
+        }
+        if (spillQueue != null) {
+            spillQueue.close();
+        }
+    }
+
     protected byte[] serialize(HeaderTBaseSerializer serializer, TBase tBase) {
         return SerializationUtils.serialize(tBase, serializer, null);
     }
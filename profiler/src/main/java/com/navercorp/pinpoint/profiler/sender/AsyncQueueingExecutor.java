@@ -47,6 +47,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
     private final Collection<T> drain;
 
     private AsyncQueueingExecutorListener<T> listener = EMPTY_LISTENER;
+    private AsyncQueueingExecutorOverflowHandler<T> overflowHandler;
 
 
     public AsyncQueueingExecutor() {
@@ -150,6 +151,10 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         }
         boolean offer = queue.offer(data);
         if (!offer) {
+            final AsyncQueueingExecutorOverflowHandler<T> overflowHandler = this.overflowHandler;
+            if (overflowHandler != null && overflowHandler.overflow(data)) {
+                return true;
+            }
             if (isWarn) {
                 logger.warn("{} Drop data. queue is full. size:{}", executorName, queue.size());
             }
@@ -157,6 +162,13 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         return offer;
     }
 
+    public void setOverflowHandler(AsyncQueueingExecutorOverflowHandler<T> overflowHandler) {
+        if (overflowHandler == null) {
+            throw new NullPointerException("overflowHandler must not be null");
+        }
+        this.overflowHandler = overflowHandler;
+    }
+
     public void setListener(AsyncQueueingExecutorListener<T> listener) {
         if (listener == null) {
             throw new NullPointerException("listener must not be null");
@@ -176,6 +188,10 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         return queue.isEmpty();
     }
 
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
     public boolean isRun() {
         return isRun.get();
     }
@@ -118,6 +118,7 @@ public class BufferedUdpDataSender extends UdpDataSender {
 
     @Override
     protected void sendPacket(Object message) {
+        connectTarget();
         if (message instanceof TBase) {
             try {
                 final TBase<?, ?> packet = (TBase<?, ?>) message;
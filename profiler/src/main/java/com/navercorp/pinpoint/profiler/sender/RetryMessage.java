@@ -16,16 +16,27 @@
 
 package com.navercorp.pinpoint.profiler.sender;
 
+import com.navercorp.pinpoint.rpc.client.SocketPriority;
+
 /**
  * @author emeroad
  */
 public class RetryMessage {
     private int retryCount;
     private byte[] bytes;
+    private final SocketPriority priority;
 
     public RetryMessage(int retryCount, byte[] bytes) {
+        this(retryCount, bytes, SocketPriority.CONTROL);
+    }
+
+    public RetryMessage(int retryCount, byte[] bytes, SocketPriority priority) {
+        if (priority == null) {
+            throw new NullPointerException("priority must not be null");
+        }
         this.retryCount = retryCount;
         this.bytes = bytes;
+        this.priority = priority;
     }
 
     public int getRetryCount() {
@@ -36,6 +47,10 @@ public class RetryMessage {
         return bytes;
     }
 
+    public SocketPriority getPriority() {
+        return priority;
+    }
+
     public int fail() {
         return ++retryCount;
     }
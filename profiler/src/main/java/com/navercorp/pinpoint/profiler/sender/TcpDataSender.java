@@ -30,13 +30,21 @@ import org.jboss.netty.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.navercorp.pinpoint.profiler.sender.spill.SpillQueue;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillRecord;
 import com.navercorp.pinpoint.rpc.Future;
 import com.navercorp.pinpoint.rpc.FutureListener;
 import com.navercorp.pinpoint.rpc.ResponseMessage;
 import com.navercorp.pinpoint.rpc.client.PinpointSocket;
+import com.navercorp.pinpoint.rpc.client.PinpointSocketPool;
 import com.navercorp.pinpoint.rpc.client.PinpointSocketReconnectEventListener;
+import com.navercorp.pinpoint.rpc.client.SocketPriority;
 import com.navercorp.pinpoint.rpc.util.TimerFactory;
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+import com.navercorp.pinpoint.thrift.dto.TApiMetaData;
 import com.navercorp.pinpoint.thrift.dto.TResult;
+import com.navercorp.pinpoint.thrift.dto.TSqlMetaData;
+import com.navercorp.pinpoint.thrift.dto.TStringMetaData;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializer;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializerFactory;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
@@ -50,12 +58,13 @@ import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
 public class TcpDataSender extends AbstractDataSender implements EnhancedDataSender {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private static final SocketPriority[] PRIORITIES = SocketPriority.values();
     static {
         // preClassLoad
         ChannelBuffers.buffer(2);
     }
 
-    private final PinpointSocket socket;
+    private final PinpointSocketPool socketPool;
     private final Timer timer;
     
     private final AtomicBoolean fireState = new AtomicBoolean(false);
@@ -70,10 +79,32 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
     private AsyncQueueingExecutor<Object> executor;
 
     public TcpDataSender(PinpointSocket socket) {
-        this.socket = socket;
+        this(socket, null, 0);
+    }
+
+    /**
+     * @param spillQueue may be null. if present, data that does not fit in the queue or is sent while disconnected
+     *                   is spilled and replayed after reconnect.
+     */
+    public TcpDataSender(PinpointSocket socket, SpillQueue spillQueue, int spillReplayRate) {
+        this(new PinpointSocketPool(socket), spillQueue, spillReplayRate);
+    }
+
+    /**
+     * @param socketPool messages are written to the channel of their {@link SocketPriority}
+     */
+    public TcpDataSender(PinpointSocketPool socketPool, SpillQueue spillQueue, int spillReplayRate) {
+        if (socketPool == null) {
+            throw new NullPointerException("socketPool must not be null");
+        }
+        this.socketPool = socketPool;
         this.timer = createTimer();
         writeFailFutureListener = new WriteFailFutureListener(logger, "io write fail.", "host", -1);
-        this.executor = createAsyncQueueingExecutor(1024 * 5, "Pinpoint-TcpDataExecutor");
+        final int queueSize = 1024 * 5;
+        this.executor = createAsyncQueueingExecutor(queueSize, "Pinpoint-TcpDataExecutor");
+        if (spillQueue != null) {
+            enableSpill(executor, queueSize, spillQueue, spillReplayRate, HeaderTBaseSerializerFactory.DEFAULT_STREAM_SIZE, "Pinpoint-TcpDataExecutor-SpillReplayer");
+        }
     }
     
     private Timer createTimer() {
@@ -106,17 +137,18 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
 
     @Override
     public boolean addReconnectEventListener(PinpointSocketReconnectEventListener eventListener) {
-        return this.socket.addPinpointSocketReconnectEventListener(eventListener);
+        return this.socketPool.addPinpointSocketReconnectEventListener(eventListener);
     }
 
     @Override
     public boolean removeReconnectEventListener(PinpointSocketReconnectEventListener eventListener) {
-        return this.socket.removePinpointSocketReconnectEventListener(eventListener);
+        return this.socketPool.removePinpointSocketReconnectEventListener(eventListener);
     }
 
     @Override
     public void stop() {
         executor.stop();
+        stopSpill();
 
         Set<Timeout> stop = timer.stop();
         if (!stop.isEmpty()) {
@@ -128,11 +160,17 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
     protected void sendPacket(Object message) {
         try {
             if (message instanceof TBase) {
-                byte[] copy = serialize(serializer, (TBase) message);
+                TBase tBase = (TBase) message;
+                byte[] copy = serialize(serializer, tBase);
                 if (copy == null) {
                     return;
                 }
-                doSend(copy);
+                SocketPriority priority = getSocketPriority(tBase);
+                if (isSpillEnabled() && !socketPool.isConnected()) {
+                    spill(SpillRecord.TYPE_SEND, priority.ordinal(), copy, copy.length);
+                    return;
+                }
+                doSend(copy, priority);
             } else if (message instanceof RequestMarker) {
                 RequestMarker requestMarker = (RequestMarker) message;
 
@@ -144,10 +182,21 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
                     return;
                 }
                 
+                SocketPriority priority = getSocketPriority(tBase);
                 if (futureListener != null) {
-                    doRequest(copy, futureListener);
+                    doRequest(copy, priority, futureListener);
+                } else if (isSpillEnabled() && !socketPool.isConnected()) {
+                    spill(SpillRecord.TYPE_REQUEST, priority.ordinal(), copy, copy.length);
+                } else {
+                    doRequest(copy, priority, retryCount, tBase);
+                }
+            } else if (message instanceof SpillRecord) {
+                SpillRecord spillRecord = (SpillRecord) message;
+                SocketPriority priority = getSocketPriority(spillRecord);
+                if (spillRecord.getType() == SpillRecord.TYPE_REQUEST) {
+                    doRequest(spillRecord.getData(), priority, 0, spillRecord);
                 } else {
-                    doRequest(copy, retryCount, tBase);
+                    doSend(spillRecord.getData(), priority);
                 }
             } else {
                 logger.error("sendPacket fail. invalid dto type:{}", message.getClass());
@@ -158,12 +207,36 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
         }
     }
 
-    private void doSend(byte[] copy) {
-        Future write = this.socket.sendAsync(copy);
+    private SocketPriority getSocketPriority(TBase tBase) {
+        if (tBase instanceof TApiMetaData || tBase instanceof TSqlMetaData || tBase instanceof TStringMetaData) {
+            return SocketPriority.METADATA;
+        }
+        if (tBase instanceof TAgentInfo) {
+            return SocketPriority.CONTROL;
+        }
+        return SocketPriority.STREAMING;
+    }
+
+    private SocketPriority getSocketPriority(SpillRecord spillRecord) {
+        final int channel = spillRecord.getChannel();
+        if (channel < PRIORITIES.length) {
+            return PRIORITIES[channel];
+        }
+        logger.warn("invalid spill channel:{}", spillRecord);
+        return SocketPriority.CONTROL;
+    }
+
+    @Override
+    protected int getSpillChannel(TBase tBase) {
+        return getSocketPriority(tBase).ordinal();
+    }
+
+    private void doSend(byte[] copy, SocketPriority priority) {
+        Future write = this.socketPool.sendAsync(priority, copy);
         write.setListener(writeFailFutureListener);
     }
 
-    private void doRequest(final byte[] requestPacket, final int retryCount, final Object targetClass) {
+    private void doRequest(final byte[] requestPacket, final SocketPriority priority, final int retryCount, final Object targetClass) {
         FutureListener futureListener = (new FutureListener<ResponseMessage>() {
             @Override
             public void onComplete(Future<ResponseMessage> future) {
@@ -177,7 +250,7 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
                             logger.debug("result success");
                         } else {
                             logger.warn("request fail. clazz:{} Caused:{}", targetClass, result.getMessage());
-                            retryRequest(requestPacket, retryCount, targetClass.getClass().getSimpleName());
+                            retryRequest(requestPacket, priority, retryCount, targetClass.getClass().getSimpleName());
                         }
                     } else {
                         logger.warn("Invalid ResponseMessage. {}", response);
@@ -187,16 +260,16 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
                     }
                 } else {
                     logger.warn("request fail. clazz:{} Caused:{}", targetClass, future.getCause().getMessage(), future.getCause());
-                    retryRequest(requestPacket, retryCount, targetClass.getClass().getSimpleName());
+                    retryRequest(requestPacket, priority, retryCount, targetClass.getClass().getSimpleName());
                 }
             }
         });
 
-        doRequest(requestPacket, futureListener);
+        doRequest(requestPacket, priority, futureListener);
     }
 
-    private void retryRequest(byte[] requestPacket, int retryCount, final String className) {
-        RetryMessage retryMessage = new RetryMessage(retryCount, requestPacket);
+    private void retryRequest(byte[] requestPacket, SocketPriority priority, int retryCount, final String className) {
+        RetryMessage retryMessage = new RetryMessage(retryCount, requestPacket, priority);
         retryQueue.add(retryMessage);
         if (fireTimeout()) {
             timer.newTimeout(new TimerTask() {
@@ -210,15 +283,15 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
                             return;
                         }
                         int fail = retryMessage.fail();
-                        doRequest(retryMessage.getBytes(), fail, className);
+                        doRequest(retryMessage.getBytes(), retryMessage.getPriority(), fail, className);
                     }
                 }
             }, 1000 * 10, TimeUnit.MILLISECONDS);
         }
     }
 
-    private void doRequest(final byte[] requestPacket, FutureListener futureListener) {
-        final Future<ResponseMessage> response = this.socket.request(requestPacket);
+    private void doRequest(final byte[] requestPacket, SocketPriority priority, FutureListener futureListener) {
+        final Future<ResponseMessage> response = this.socketPool.request(priority, requestPacket);
         response.setListener(futureListener);
     }
 
@@ -235,11 +308,13 @@ public class TcpDataSender extends AbstractDataSender implements EnhancedDataSen
         fireState.compareAndSet(true, false);
     }
 
+    @Override
+    protected boolean isSpillReplayable() {
+        return isNetworkAvailable();
+    }
+
     @Override
     public boolean isNetworkAvailable() {
-        if (this.socket == null) {
-            return false;
-        }
-        return this.socket.isConnected();
+        return this.socketPool.isConnected();
     }
 }
@@ -23,6 +23,8 @@ import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.util.Arrays;
 
+import com.navercorp.pinpoint.profiler.sender.spill.SpillQueue;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillRecord;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
 import com.navercorp.pinpoint.thrift.io.NetworkAvailabilityCheckPacket;
@@ -51,6 +53,12 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
 
     protected final DatagramSocket udpSocket;
 
+    private final InetSocketAddress defaultTarget;
+    // applied by the sender thread so that the socket is only touched by one thread.
+    private volatile InetSocketAddress target;
+    // Caution. not thread safe
+    private InetSocketAddress connectedTarget;
+
     // Caution. not thread safe
     private final HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory(false, UDP_MAX_PACKET_LENGTH, false).createSerializer();
 
@@ -61,6 +69,13 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
     }
 
     public UdpDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize) {
+        this(host, port, threadName, queueSize, timeout, sendBufferSize, null, 0);
+    }
+
+    /**
+     * @param spillQueue may be null. if present, data that does not fit in the queue is spilled and replayed later.
+     */
+    public UdpDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize, SpillQueue spillQueue, int spillReplayRate) {
         if (host == null ) {
             throw new NullPointerException("host must not be null");
         }
@@ -79,9 +94,15 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
 
         // TODO If fail to create socket, stop agent start
         logger.info("UdpDataSender initialized. host={}, port={}", host, port);
-        this.udpSocket = createSocket(host, port, timeout, sendBufferSize);
+        this.defaultTarget = new InetSocketAddress(host, port);
+        this.target = defaultTarget;
+        this.connectedTarget = defaultTarget;
+        this.udpSocket = createSocket(defaultTarget, timeout, sendBufferSize);
 
         this.executor = createAsyncQueueingExecutor(queueSize, threadName);
+        if (spillQueue != null) {
+            enableSpill(executor, queueSize, spillQueue, spillReplayRate, UDP_MAX_PACKET_LENGTH, threadName + "-SpillReplayer");
+        }
     }
 
     @Override
@@ -92,6 +113,7 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
     @Override
     public void stop() {
         executor.stop();
+        stopSpill();
     }
 
     public boolean isNetworkAvailable() {
@@ -121,7 +143,41 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
         }
     }
 
-    private DatagramSocket createSocket(String host, int port, int timeout, int sendBufferSize) {
+    /**
+     * sends subsequent data to the given address.
+     */
+    public void changeTarget(String host, int port) {
+        if (host == null) {
+            throw new NullPointerException("host must not be null");
+        }
+        this.target = new InetSocketAddress(host, port);
+    }
+
+    /**
+     * sends subsequent data to the address given at construction.
+     */
+    public void resetTarget() {
+        this.target = defaultTarget;
+    }
+
+    protected void connectTarget() {
+        final InetSocketAddress target = this.target;
+        if (target == connectedTarget) {
+            return;
+        }
+        try {
+            udpSocket.disconnect();
+            udpSocket.connect(target);
+            // DatagramSocket.send() rejects a packet addressed to the previously connected address.
+            reusePacket.setSocketAddress(target);
+            logger.info("UdpDataSender target changed. {} -> {}", connectedTarget, target);
+        } catch (SocketException e) {
+            logger.warn("UdpDataSender target change fail. target:{}, Caused:{}", target, e.getMessage(), e);
+        }
+        this.connectedTarget = target;
+    }
+
+    private DatagramSocket createSocket(InetSocketAddress serverAddress, int timeout, int sendBufferSize) {
         try {
             DatagramSocket datagramSocket = new DatagramSocket();
 
@@ -134,7 +190,6 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
                 }
             }
 
-            InetSocketAddress serverAddress = new InetSocketAddress(host, port);
             datagramSocket.connect(serverAddress);
             return datagramSocket;
         } catch (SocketException e) {
@@ -143,6 +198,7 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
     }
 
     protected void sendPacket(Object message) {
+        connectTarget();
         if (message instanceof TBase) {
             final TBase dto = (TBase) message;
             // do not copy bytes because it's single threaded
@@ -169,6 +225,14 @@ public class UdpDataSender extends AbstractDataSender implements DataSender {
             } catch (IOException e) {
                 logger.warn("packet send error. size:{}, {}", internalBufferSize, dto, e);
             }
+        } else if (message instanceof SpillRecord) {
+            final byte[] data = ((SpillRecord) message).getData();
+            reusePacket.setData(data, 0, data.length);
+            try {
+                udpSocket.send(reusePacket);
+            } catch (IOException e) {
+                logger.warn("spilled packet send error. size:{}", data.length, e);
+            }
         } else {
             logger.warn("sendPacket fail. invalid type:{}", message != null ? message.getClass() : null);
             return;
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender.spill;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SpillQueue} backed by memory-mapped segment files.
+ *
+ * Records are appended to the newest segment and read from the oldest one.
+ * When the newest one is full, writers switch to a spare segment mapped ahead by {@link #prepare()} on the replay thread,
+ * as long as the total size stays under the cap. Writers never create files : without a spare the record is discarded.
+ * Fully consumed segments are unmapped and deleted. Writers only use {@link ReentrantLock#tryLock()},
+ * so a contended or full queue discards the record instead of blocking the caller.
+ *
+ * Record layout : length(4) type(1) data(length)
+ *
+ * Spilled data does not survive an agent restart. Stale segment files are removed on creation.
+ */
+public class MappedSpillQueue implements SpillQueue {
+
+    private static final String SEGMENT_SUFFIX = ".spill";
+    private static final int RECORD_HEADER_SIZE = 4 + 1;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+    private final String name;
+    private final int segmentSize;
+    private final int maxSegmentCount;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private final LinkedList<Segment> segments = new LinkedList<Segment>();
+    // next segment for the writers, null until prepared
+    private Segment spare;
+    private long segmentSequence = 0;
+    private boolean closed = false;
+
+    private final SpillMetric metric = new SpillMetric();
+
+    public MappedSpillQueue(File directory, String name, int segmentSize, long maxSize) throws IOException {
+        if (directory == null) {
+            throw new NullPointerException("directory must not be null");
+        }
+        if (name == null) {
+            throw new NullPointerException("name must not be null");
+        }
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("invalid segmentSize:" + segmentSize);
+        }
+        if (maxSize < segmentSize) {
+            throw new IllegalArgumentException("maxSize must be greater than or equal to segmentSize. maxSize:" + maxSize);
+        }
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("spill directory create fail. " + directory);
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.maxSegmentCount = (int) Math.min(Integer.MAX_VALUE, maxSize / segmentSize);
+
+        deleteStaleSegments();
+        this.segments.add(createSegment(nextSegmentFile()));
+        prepare();
+        logger.info("MappedSpillQueue initialized. directory:{}, name:{}, segmentSize:{}, maxSegmentCount:{}", directory, name, segmentSize, maxSegmentCount);
+    }
+
+    private void deleteStaleSegments() {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String fileName = file.getName();
+            if (fileName.startsWith(name + "-") && fileName.endsWith(SEGMENT_SUFFIX)) {
+                logger.info("delete stale spill segment:{}", file);
+                deleteFile(file);
+            }
+        }
+    }
+
+    private File nextSegmentFile() {
+        return new File(directory, name + "-" + (segmentSequence++) + SEGMENT_SUFFIX);
+    }
+
+    private Segment createSegment(File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            // the mapping stays valid after the channel is closed.
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(file, buffer);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    @Override
+    public boolean offer(byte type, byte[] data, int offset, int length) {
+        if (data == null) {
+            throw new NullPointerException("data must not be null");
+        }
+        final int recordSize = RECORD_HEADER_SIZE + length;
+        if (recordSize > segmentSize) {
+            metric.incrementDiscard();
+            return false;
+        }
+        if (!lock.tryLock()) {
+            metric.incrementDiscard();
+            return false;
+        }
+        try {
+            if (closed) {
+                metric.incrementDiscard();
+                return false;
+            }
+            Segment tail = segments.getLast();
+            if (tail.writeBuffer.remaining() < recordSize) {
+                if (segments.size() >= maxSegmentCount || spare == null) {
+                    // full, or the next segment is not mapped yet
+                    metric.incrementDiscard();
+                    return false;
+                }
+                tail = spare;
+                spare = null;
+                segments.add(tail);
+            }
+            tail.writeBuffer.putInt(length);
+            tail.writeBuffer.put(type);
+            tail.writeBuffer.put(data, offset, length);
+            metric.incrementSpill();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * maps the spare segment if the writers may need one. the file is created outside of the lock.
+     */
+    @Override
+    public void prepare() {
+        final File file;
+        lock.lock();
+        try {
+            if (closed || spare != null || segments.size() >= maxSegmentCount) {
+                return;
+            }
+            file = nextSegmentFile();
+        } finally {
+            lock.unlock();
+        }
+
+        final Segment segment;
+        try {
+            segment = createSegment(file);
+        } catch (IOException e) {
+            logger.warn("spill segment create fail. Caused:{}", e.getMessage(), e);
+            deleteFile(file);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (!closed && spare == null) {
+                spare = segment;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        release(segment);
+    }
+
+    @Override
+    public SpillRecord poll() {
+        lock.lock();
+        try {
+            while (!closed) {
+                final Segment head = segments.getFirst();
+                if (head.readBuffer.position() < head.writeBuffer.position()) {
+                    final int length = head.readBuffer.getInt();
+                    final byte type = head.readBuffer.get();
+                    final byte[] data = new byte[length];
+                    head.readBuffer.get(data);
+                    return new SpillRecord(type, data);
+                }
+                if (segments.size() == 1) {
+                    // fully consumed and still written to. rewind so that the file can be reused.
+                    head.writeBuffer.clear();
+                    head.readBuffer.clear();
+                    return null;
+                }
+                segments.removeFirst();
+                release(head);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            if (closed) {
+                return true;
+            }
+            if (segments.size() > 1) {
+                return false;
+            }
+            final Segment head = segments.getFirst();
+            return head.readBuffer.position() >= head.writeBuffer.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public SpillMetric getMetric() {
+        return metric;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Segment segment : segments) {
+                release(segment);
+            }
+            segments.clear();
+            if (spare != null) {
+                release(spare);
+                spare = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.info("MappedSpillQueue closed. name:{}, {}", name, metric);
+    }
+
+    /**
+     * the segment must not be used afterwards : its memory is unmapped.
+     */
+    private void release(Segment segment) {
+        unmap(segment.buffer);
+        deleteFile(segment.file);
+    }
+
+    /**
+     * there is no public api to unmap a buffer. without access to its cleaner, the mapping is released when the buffer is garbage collected.
+     */
+    private void unmap(MappedByteBuffer buffer) {
+        try {
+            final Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            final Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("spill segment unmap fail. Caused:{}", e.getMessage());
+            }
+        }
+    }
+
+    private void deleteFile(File file) {
+        if (!file.delete()) {
+            // a mapped file cannot be deleted on some platforms until the mapping is garbage collected.
+            file.deleteOnExit();
+        }
+    }
+
+    private static class Segment {
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final ByteBuffer writeBuffer;
+        private final ByteBuffer readBuffer;
+
+        private Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+            this.writeBuffer = buffer;
+            this.readBuffer = buffer.duplicate();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender.spill;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link SpillQueue}.
+ */
+public class SpillMetric {
+
+    private final AtomicLong spillCount = new AtomicLong();
+    private final AtomicLong replayCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+
+    void incrementSpill() {
+        spillCount.incrementAndGet();
+    }
+
+    public void incrementDiscard() {
+        discardCount.incrementAndGet();
+    }
+
+    public void incrementReplay() {
+        replayCount.incrementAndGet();
+    }
+
+    public long getSpillCount() {
+        return spillCount.get();
+    }
+
+    public long getReplayCount() {
+        return replayCount.get();
+    }
+
+    public long getDiscardCount() {
+        return discardCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SpillMetric{spill=" + spillCount.get() + ", replay=" + replayCount.get() + ", discard=" + discardCount.get() + '}';
+    }
+}
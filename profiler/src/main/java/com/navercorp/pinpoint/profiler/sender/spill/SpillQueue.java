@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender.spill;
+
+/**
+ * Off-heap store for serialized messages that could not be handed over to the collector.
+ *
+ * {@link #offer(byte, byte[], int, int)} may be called from application threads and must never block.
+ * {@link #poll()} and {@link #prepare()} are called from a single replay thread.
+ */
+public interface SpillQueue {
+
+    boolean offer(byte type, byte[] data, int offset, int length);
+
+    SpillRecord poll();
+
+    /**
+     * does the blocking work offer() needs ahead of time, e.g. creating the next file.
+     */
+    void prepare();
+
+    boolean isEmpty();
+
+    SpillMetric getMetric();
+
+    void close();
+
+}
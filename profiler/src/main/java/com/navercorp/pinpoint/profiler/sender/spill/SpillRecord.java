@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender.spill;
+
+/**
+ * Serialized message read back from a {@link SpillQueue}.
+ *
+ * The stored type byte keeps the send type in its lower half and the channel the message was written to in its upper half,
+ * so that a replayed message goes back to the same channel.
+ */
+public class SpillRecord {
+
+    public static final byte TYPE_SEND = 0;
+    public static final byte TYPE_REQUEST = 1;
+
+    public static final int MAX_CHANNEL = 0x0f;
+
+    private static final int TYPE_MASK = 0x0f;
+    private static final int CHANNEL_SHIFT = 4;
+
+    private final byte storedType;
+    private final byte[] data;
+
+    /**
+     * @param storedType see {@link #toStoredType(byte, int)}
+     */
+    public SpillRecord(byte storedType, byte[] data) {
+        if (data == null) {
+            throw new NullPointerException("data must not be null");
+        }
+        this.storedType = storedType;
+        this.data = data;
+    }
+
+    /**
+     * @param type {@link #TYPE_SEND} or {@link #TYPE_REQUEST}
+     * @param channel 0 to {@link #MAX_CHANNEL}. 0 for a sender with a single channel.
+     */
+    public static byte toStoredType(byte type, int channel) {
+        if (type < 0 || type > TYPE_MASK) {
+            throw new IllegalArgumentException("invalid type:" + type);
+        }
+        if (channel < 0 || channel > MAX_CHANNEL) {
+            throw new IllegalArgumentException("invalid channel:" + channel);
+        }
+        return (byte) (channel << CHANNEL_SHIFT | type);
+    }
+
+    public byte getType() {
+        return (byte) (storedType & TYPE_MASK);
+    }
+
+    public int getChannel() {
+        return (storedType >> CHANNEL_SHIFT) & MAX_CHANNEL;
+    }
+
+    public byte getStoredType() {
+        return storedType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "SpillRecord{type=" + getType() + ", channel=" + getChannel() + ", length=" + data.length + '}';
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender.spill;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+
+/**
+ * Hands spilled records back to the sender at a throttled rate once the sender is ready again.
+ */
+public class SpillReplayer implements Runnable {
+
+    private static final long IDLE_WAIT_MILLIS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final SpillQueue spillQueue;
+    private final SpillReplayTarget target;
+    private final int replayRatePerSecond;
+
+    private final AtomicBoolean isRun = new AtomicBoolean(true);
+    private final Thread replayThread;
+    private final String replayerName;
+
+    public SpillReplayer(SpillQueue spillQueue, SpillReplayTarget target, int replayRatePerSecond, String replayerName) {
+        if (spillQueue == null) {
+            throw new NullPointerException("spillQueue must not be null");
+        }
+        if (target == null) {
+            throw new NullPointerException("target must not be null");
+        }
+        if (replayRatePerSecond <= 0) {
+            throw new IllegalArgumentException("replayRatePerSecond must be greater than 0");
+        }
+        if (replayerName == null) {
+            throw new NullPointerException("replayerName must not be null");
+        }
+        this.spillQueue = spillQueue;
+        this.target = target;
+        this.replayRatePerSecond = replayRatePerSecond;
+
+        final ThreadFactory threadFactory = new PinpointThreadFactory(replayerName, true);
+        this.replayThread = threadFactory.newThread(this);
+        this.replayerName = replayThread.getName();
+        this.replayThread.start();
+    }
+
+    @Override
+    public void run() {
+        logger.info("{} started.", replayerName);
+        while (isRun.get()) {
+            try {
+                final long startTime = System.currentTimeMillis();
+                // writers on application threads only use storage prepared here
+                spillQueue.prepare();
+                final int replayCount = replay(replayRatePerSecond);
+                if (replayCount == 0) {
+                    sleep(IDLE_WAIT_MILLIS);
+                } else {
+                    sleep(IDLE_WAIT_MILLIS - (System.currentTimeMillis() - startTime));
+                }
+            } catch (Throwable th) {
+                logger.warn("{} replay(). Unexpected Error. Cause:{}", replayerName, th.getMessage(), th);
+            }
+        }
+        logger.info("{} stopped. {}", replayerName, spillQueue.getMetric());
+    }
+
+    // for test
+    int replay(int maxCount) {
+        final SpillMetric metric = spillQueue.getMetric();
+        int count = 0;
+        while (count < maxCount && target.isReady()) {
+            final SpillRecord record = spillQueue.poll();
+            if (record == null) {
+                break;
+            }
+            target.replay(record);
+            metric.incrementReplay();
+            count++;
+        }
+        return count;
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void stop() {
+        isRun.set(false);
+        replayThread.interrupt();
+        try {
+            replayThread.join(3000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("{} stopped incompletely.", replayerName);
+        }
+    }
+
+}
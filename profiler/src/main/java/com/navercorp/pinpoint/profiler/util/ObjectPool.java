@@ -2,6 +2,7 @@ package com.navercorp.pinpoint.profiler.util;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author emeroad
@@ -14,24 +15,49 @@ public class ObjectPool<T> {
 
     private final ObjectPoolFactory<T> factory;
 
+    public static final int UNBOUNDED = -1;
+
+    private final int maxSize;
+    // objects created by the pool, pooled or in use.
+    private final AtomicInteger createdCount = new AtomicInteger();
+
     public ObjectPool(ObjectPoolFactory<T> factory, int size) {
+        this(factory, size, UNBOUNDED);
+    }
+
+    /**
+     * @param maxSize max number of objects the pool creates, {@link #UNBOUNDED} for no limit.
+     */
+    public ObjectPool(ObjectPoolFactory<T> factory, int size, int maxSize) {
         if (factory == null) {
             throw new NullPointerException("factory");
         }
+        if (maxSize != UNBOUNDED && maxSize < size) {
+            throw new IllegalArgumentException("maxSize must be greater than or equal to size. maxSize:" + maxSize);
+        }
         this.factory = factory;
+        this.maxSize = maxSize;
         fill(size);
     }
 
     private void fill(int size) {
         for (int i = 0; i < size; i++) {
             T t = this.factory.create();
+            createdCount.incrementAndGet();
             queue.offer(t);
         }
     }
 
+    /**
+     * @return null if the pool is bounded and all of its objects are in use.
+     */
     public T getObject() {
         T object = queue.poll();
         if (object == null) {
+            if (maxSize != UNBOUNDED && createdCount.incrementAndGet() > maxSize) {
+                createdCount.decrementAndGet();
+                return null;
+            }
             // create dynamically
             return factory.create();
         }
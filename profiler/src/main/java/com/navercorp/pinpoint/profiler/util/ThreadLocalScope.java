@@ -20,6 +20,7 @@ import com.navercorp.pinpoint.bootstrap.instrument.InterceptorGroupDefinition;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.AttachmentFactory;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.ExecutionPolicy;
 import com.navercorp.pinpoint.bootstrap.interceptor.group.InterceptorGroupInvocation;
+import com.navercorp.pinpoint.profiler.context.AgentThreadContext;
 import com.navercorp.pinpoint.profiler.interceptor.group.DefaultInterceptorGroupInvocation;
 
 /**
@@ -27,7 +28,9 @@ import com.navercorp.pinpoint.profiler.interceptor.group.DefaultInterceptorGroup
  */
 public class ThreadLocalScope implements InterceptorGroupInvocation {
 
-    private final NamedThreadLocal<InterceptorGroupInvocation> scope;
+    private final String name;
+    // the scope of each thread is kept in its AgentThreadContext
+    private final int slotId;
 
 
     public ThreadLocalScope(final InterceptorGroupDefinition scopeDefinition) {
@@ -35,12 +38,8 @@ public class ThreadLocalScope implements InterceptorGroupInvocation {
             throw new NullPointerException("scopeDefinition must not be null");
         }
         
-        this.scope = new NamedThreadLocal<InterceptorGroupInvocation>(scopeDefinition.getName()) {
-            @Override
-            protected InterceptorGroupInvocation initialValue() {
-                return new DefaultInterceptorGroupInvocation(scopeDefinition.getName());
-            }
-        };
+        this.name = scopeDefinition.getName();
+        this.slotId = AgentThreadContext.newSlotId();
     }
     
     @Override
@@ -62,19 +61,26 @@ public class ThreadLocalScope implements InterceptorGroupInvocation {
     }
 
     protected InterceptorGroupInvocation getLocalScope() {
-        return scope.get();
+        return getLocalScope(AgentThreadContext.current());
+    }
+
+    /**
+     * @param context the context of the current thread, resolved once by the caller
+     */
+    public InterceptorGroupInvocation getLocalScope(AgentThreadContext context) {
+        return DefaultInterceptorGroupInvocation.get(context, slotId, name);
     }
 
 
     @Override
     public String getName() {
-        return scope.getName();
+        return name;
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("ThreadLocalScope{");
-        sb.append("scope=").append(scope.getName());
+        sb.append("scope=").append(name);
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.bootstrap.instrument.DefaultInterceptorGroupDefinition;
+import com.navercorp.pinpoint.bootstrap.interceptor.group.ExecutionPolicy;
+import com.navercorp.pinpoint.bootstrap.interceptor.group.InterceptorGroupInvocation;
+import com.navercorp.pinpoint.profiler.context.AgentThreadContext;
+import com.navercorp.pinpoint.profiler.context.ThreadLocalBinder;
+import com.navercorp.pinpoint.profiler.interceptor.group.DefaultInterceptorGroup;
+import com.navercorp.pinpoint.profiler.util.ThreadLocalScope;
+
+/**
+ * Measures the per thread state lookups of an intercepted call : a grouped interceptor entering its group and a scope,
+ * starting, reading and removing a trace, then leaving the scope and the group.
+ * The same call is run with {@link AgentThreadContext#current()} resolved at every lookup, and resolved once at entry
+ * and passed down to the group, the scope and the binder.
+ * <p>
+ * Run the main class on the test classpath of the profiler. Options are system properties :
+ * <pre>
+ * benchmark.iterations(10000000) : calls of each round
+ * benchmark.rounds(5) : measured rounds of each variant, after as many warm up rounds
+ * benchmark.threadLocals(64) : other ThreadLocals set on the thread, as an application thread has
+ * </pre>
+ */
+public class AgentThreadContextBenchmark {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final int iterations = Integer.getInteger("benchmark.iterations", 10000000);
+    private final int rounds = Integer.getInteger("benchmark.rounds", 5);
+    private final int threadLocals = Integer.getInteger("benchmark.threadLocals", 64);
+
+    private final DefaultInterceptorGroup group = new DefaultInterceptorGroup("benchmark-group");
+    private final ThreadLocalScope scope = new ThreadLocalScope(new DefaultInterceptorGroupDefinition("benchmark-scope"));
+    private final ThreadLocalBinder<Object> binder = new ThreadLocalBinder<Object>();
+    private final Object trace = new Object();
+
+    // keeps the results alive, so that the lookups are not optimized away
+    private long sink;
+
+    public static void main(String[] args) {
+        new AgentThreadContextBenchmark().run();
+    }
+
+    public void run() {
+        final List<ThreadLocal<Object>> applicationThreadLocals = new ArrayList<ThreadLocal<Object>>(threadLocals);
+        for (int i = 0; i < threadLocals; i++) {
+            final ThreadLocal<Object> threadLocal = new ThreadLocal<Object>();
+            threadLocal.set(i);
+            applicationThreadLocals.add(threadLocal);
+        }
+
+        for (int i = 0; i < rounds; i++) {
+            perLookup();
+            resolvedOnce();
+        }
+
+        long perLookupNanos = Long.MAX_VALUE;
+        long resolvedOnceNanos = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            perLookupNanos = Math.min(perLookupNanos, perLookup());
+            resolvedOnceNanos = Math.min(resolvedOnceNanos, resolvedOnce());
+        }
+
+        final StringBuilder report = new StringBuilder(256);
+        report.append("AgentThreadContext lookups. iterations:").append(iterations);
+        report.append(" threadLocals:").append(applicationThreadLocals.size());
+        report.append(String.format(" per lookup:%.2fns/call", (double) perLookupNanos / iterations));
+        report.append(String.format(" resolved once:%.2fns/call", (double) resolvedOnceNanos / iterations));
+        report.append(String.format(" reduction:%.1f%%", 100.0 * (perLookupNanos - resolvedOnceNanos) / perLookupNanos));
+        report.append(" sink:").append(sink);
+        logger.info(report.toString());
+    }
+
+    /**
+     * 8 lookups per call
+     */
+    private long perLookup() {
+        long sink = 0;
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            group.getCurrentInvocation().tryEnter(ExecutionPolicy.ALWAYS);
+            scope.tryEnter(ExecutionPolicy.ALWAYS);
+            if (binder.get() == null) {
+                binder.set(trace);
+            }
+            sink += binder.get().hashCode();
+            sink += binder.remove().hashCode();
+            scope.leave(ExecutionPolicy.ALWAYS);
+            group.getCurrentInvocation().leave(ExecutionPolicy.ALWAYS);
+        }
+        final long elapsed = System.nanoTime() - startTime;
+        this.sink += sink;
+        return elapsed;
+    }
+
+    /**
+     * 1 lookup per call
+     */
+    private long resolvedOnce() {
+        long sink = 0;
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final AgentThreadContext context = AgentThreadContext.current();
+            final InterceptorGroupInvocation invocation = group.getCurrentInvocation(context);
+            invocation.tryEnter(ExecutionPolicy.ALWAYS);
+            final InterceptorGroupInvocation localScope = scope.getLocalScope(context);
+            localScope.tryEnter(ExecutionPolicy.ALWAYS);
+            if (binder.get(context) == null) {
+                binder.set(context, trace);
+            }
+            sink += binder.get(context).hashCode();
+            sink += binder.remove(context).hashCode();
+            localScope.leave(ExecutionPolicy.ALWAYS);
+            invocation.leave(ExecutionPolicy.ALWAYS);
+        }
+        final long elapsed = System.nanoTime() - startTime;
+        this.sink += sink;
+        return elapsed;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.ProtectionDomain;
+
+import org.apache.log4j.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.context.MethodDescriptor;
+import com.navercorp.pinpoint.bootstrap.context.SpanEventRecorder;
+import com.navercorp.pinpoint.bootstrap.context.TraceContext;
+import com.navercorp.pinpoint.bootstrap.instrument.InstrumentClass;
+import com.navercorp.pinpoint.bootstrap.instrument.InstrumentException;
+import com.navercorp.pinpoint.bootstrap.instrument.InstrumentMethod;
+import com.navercorp.pinpoint.bootstrap.instrument.PinpointInstrument;
+import com.navercorp.pinpoint.bootstrap.instrument.transformer.PinpointClassFileTransformer;
+import com.navercorp.pinpoint.bootstrap.interceptor.SpanEventSimpleAroundInterceptorForPlugin;
+import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetArity;
+import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.profiler.logging.Slf4jLoggerBinder;
+import com.navercorp.pinpoint.test.MockAgent;
+import com.navercorp.pinpoint.test.TestClassLoader;
+
+/**
+ * Measures the bytes allocated by an instrumented call without a trace, for a {@link SpanEventSimpleAroundInterceptorForPlugin}
+ * called with an argument array, as before {@link TargetArity}, and called with the arguments one by one.
+ * The target methods take two objects or two ints : ints are boxed on both paths, since the arity interceptors take Object.
+ * <p>
+ * Run the main class on the test classpath of the profiler, on a jvm which measures the allocation of threads.
+ * The loops are monomorphic, so escape analysis may remove allocations which remain in real applications :
+ * add -XX:-DoEscapeAnalysis to count every allocation of the generated code.
+ * Options are system properties :
+ * <pre>
+ * benchmark.iterations(10000000) : calls of each round
+ * benchmark.rounds(5) : measured rounds of each variant, after as many warm up rounds
+ * </pre>
+ */
+public class InterceptorArgumentAllocationBenchmark {
+
+    private static final String ARRAY_TARGET = ArrayTarget.class.getName();
+    private static final String ARITY_TARGET = ArityTarget.class.getName();
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final int iterations = Integer.getInteger("benchmark.iterations", 10000000);
+    private final int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+    private final com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+    private final Object arg0 = new Object();
+    private final Object arg1 = new Object();
+
+    public static void main(String[] args) throws Exception {
+        new InterceptorArgumentAllocationBenchmark().run();
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            throw new IllegalStateException("allocation of threads not measured by this jvm");
+        }
+        final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("allocation of threads not measured by this jvm");
+        }
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadMXBean;
+    }
+
+    public void run() throws Exception {
+        // debug logging reads the arguments of every call
+        org.apache.log4j.Logger.getLogger(ArrayInterceptor.class).setLevel(Level.INFO);
+        org.apache.log4j.Logger.getLogger(ArityInterceptor.class).setLevel(Level.INFO);
+
+        PLoggerFactory.initialize(new Slf4jLoggerBinder());
+        final ProfilerConfig profilerConfig = new ProfilerConfig();
+        profilerConfig.setApplicationServerType(ServiceType.TEST_STAND_ALONE.getName());
+        final TestClassLoader loader = new TestClassLoader(MockAgent.of(profilerConfig));
+        loader.addDelegateClass(Target.class.getName());
+        addInterceptor(loader, ARRAY_TARGET, ArrayInterceptor.class);
+        addInterceptor(loader, ARITY_TARGET, ArityInterceptor.class);
+        loader.initialize();
+
+        final Target arrayTarget = (Target) loader.loadClass(ARRAY_TARGET).newInstance();
+        final Target arityTarget = (Target) loader.loadClass(ARITY_TARGET).newInstance();
+
+        for (int i = 0; i < rounds; i++) {
+            objectArguments(arrayTarget);
+            objectArguments(arityTarget);
+            intArguments(arrayTarget);
+            intArguments(arityTarget);
+        }
+
+        long arrayObjectBytes = Long.MAX_VALUE;
+        long arityObjectBytes = Long.MAX_VALUE;
+        long arrayIntBytes = Long.MAX_VALUE;
+        long arityIntBytes = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            arrayObjectBytes = Math.min(arrayObjectBytes, objectArguments(arrayTarget));
+            arityObjectBytes = Math.min(arityObjectBytes, objectArguments(arityTarget));
+            arrayIntBytes = Math.min(arrayIntBytes, intArguments(arrayTarget));
+            arityIntBytes = Math.min(arityIntBytes, intArguments(arityTarget));
+        }
+
+        final StringBuilder report = new StringBuilder(256);
+        report.append("Interceptor argument allocation without trace. iterations:").append(iterations);
+        report.append(String.format(" (Object, Object) array:%.1fB/call arity:%.1fB/call", (double) arrayObjectBytes / iterations, (double) arityObjectBytes / iterations));
+        report.append(String.format(" (int, int) array:%.1fB/call arity:%.1fB/call", (double) arrayIntBytes / iterations, (double) arityIntBytes / iterations));
+        logger.info(report.toString());
+    }
+
+    private void addInterceptor(TestClassLoader loader, final String targetClassName, final Class<?> interceptorClass) {
+        loader.addTransformer(targetClassName, new PinpointClassFileTransformer() {
+            @Override
+            public byte[] transform(PinpointInstrument instrumentContext, ClassLoader classLoader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws InstrumentException {
+                final InstrumentClass target = instrumentContext.getInstrumentClass(classLoader, targetClassName, classfileBuffer);
+                for (InstrumentMethod method : target.getDeclaredMethods()) {
+                    method.addInterceptor(interceptorClass.getName());
+                }
+                return target.toBytecode();
+            }
+        });
+    }
+
+    /**
+     * @return bytes allocated
+     */
+    private long objectArguments(Target target) {
+        final long threadId = Thread.currentThread().getId();
+        final long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            target.objects(arg0, arg1);
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+    }
+
+    /**
+     * @return bytes allocated
+     */
+    private long intArguments(Target target) {
+        final long threadId = Thread.currentThread().getId();
+        final long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            // out of the Integer cache
+            target.ints(1000 + (i & 0xff), 2000 + (i & 0xff));
+        }
+        return threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+    }
+
+    public interface Target {
+        void objects(Object arg0, Object arg1);
+
+        void ints(int arg0, int arg1);
+    }
+
+    public static class ArrayTarget implements Target {
+        private int count;
+
+        @Override
+        public void objects(Object arg0, Object arg1) {
+            count++;
+        }
+
+        @Override
+        public void ints(int arg0, int arg1) {
+            count += arg0;
+        }
+    }
+
+    public static class ArityTarget implements Target {
+        private int count;
+
+        @Override
+        public void objects(Object arg0, Object arg1) {
+            count++;
+        }
+
+        @Override
+        public void ints(int arg0, int arg1) {
+            count += arg0;
+        }
+    }
+
+    /**
+     * called with an argument array
+     */
+    @TargetArity(0)
+    public static class ArrayInterceptor extends SpanEventSimpleAroundInterceptorForPlugin {
+
+        public ArrayInterceptor(TraceContext traceContext, MethodDescriptor descriptor) {
+            super(traceContext, descriptor);
+        }
+
+        @Override
+        protected void doInBeforeTrace(SpanEventRecorder recorder, Object target, Object[] args) {
+        }
+
+        @Override
+        protected void doInAfterTrace(SpanEventRecorder recorder, Object target, Object[] args, Object result, Throwable throwable) {
+        }
+    }
+
+    /**
+     * called with the arguments one by one
+     */
+    public static class ArityInterceptor extends SpanEventSimpleAroundInterceptorForPlugin {
+
+        public ArityInterceptor(TraceContext traceContext, MethodDescriptor descriptor) {
+            super(traceContext, descriptor);
+        }
+
+        @Override
+        protected void doInBeforeTrace(SpanEventRecorder recorder, Object target, Object[] args) {
+        }
+
+        @Override
+        protected void doInAfterTrace(SpanEventRecorder recorder, Object target, Object[] args, Object result, Throwable throwable) {
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.instrument.InstrumentClass;
+import com.navercorp.pinpoint.bootstrap.instrument.InstrumentException;
+import com.navercorp.pinpoint.bootstrap.instrument.PinpointInstrument;
+import com.navercorp.pinpoint.bootstrap.instrument.transformer.PinpointClassFileTransformer;
+import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
+import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.profiler.instrument.interceptor.InvokeCodeGenerator;
+import com.navercorp.pinpoint.profiler.logging.Slf4jLoggerBinder;
+import com.navercorp.pinpoint.test.MockAgent;
+import com.navercorp.pinpoint.test.TestClassLoader;
+
+/**
+ * Measures the per call cost of loading the interceptor in an instrumented method :
+ * the {@link com.navercorp.pinpoint.bootstrap.interceptor.registry.InterceptorRegistry} lookup, and the static holder field
+ * added with profiler.interceptor.dispatch.static.holder.
+ * The same no-op interceptor is added to a method without parameter, so that the two calls only differ by the dispatch.
+ * <p>
+ * Run the main class on the test classpath of the profiler. Options are system properties :
+ * <pre>
+ * benchmark.iterations(100000000) : calls of each round
+ * benchmark.rounds(5) : measured rounds of each variant, after as many warm up rounds
+ * </pre>
+ */
+public class InterceptorDispatchBenchmark {
+
+    private static final String REGISTRY_TARGET = RegistryTarget.class.getName();
+    private static final String HOLDER_TARGET = HolderTarget.class.getName();
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final int iterations = Integer.getInteger("benchmark.iterations", 100000000);
+    private final int rounds = Integer.getInteger("benchmark.rounds", 5);
+
+    private Runnable registryTarget;
+    private Runnable holderTarget;
+
+    public static void main(String[] args) throws Exception {
+        new InterceptorDispatchBenchmark().run();
+    }
+
+    public void run() throws Exception {
+        // one agent for both targets, so that both read the same interceptor registry
+        PLoggerFactory.initialize(new Slf4jLoggerBinder());
+        final ProfilerConfig profilerConfig = new ProfilerConfig();
+        profilerConfig.setApplicationServerType(ServiceType.TEST_STAND_ALONE.getName());
+        final TestClassLoader loader = new TestClassLoader(MockAgent.of(profilerConfig));
+        addNoopInterceptor(loader, REGISTRY_TARGET);
+        addNoopInterceptor(loader, HOLDER_TARGET);
+        loader.initialize();
+
+        // the dispatch is chosen when the class is instrumented, that is when it is loaded
+        this.registryTarget = (Runnable) loader.loadClass(REGISTRY_TARGET).newInstance();
+        InvokeCodeGenerator.setStaticHolderDispatch(true);
+        try {
+            this.holderTarget = (Runnable) loader.loadClass(HOLDER_TARGET).newInstance();
+        } finally {
+            InvokeCodeGenerator.setStaticHolderDispatch(false);
+        }
+
+        for (int i = 0; i < rounds; i++) {
+            registryLookup();
+            staticHolder();
+        }
+
+        long registryLookupNanos = Long.MAX_VALUE;
+        long staticHolderNanos = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            registryLookupNanos = Math.min(registryLookupNanos, registryLookup());
+            staticHolderNanos = Math.min(staticHolderNanos, staticHolder());
+        }
+
+        final StringBuilder report = new StringBuilder(256);
+        report.append("Interceptor dispatch. iterations:").append(iterations);
+        report.append(" holder fields:").append(countHolderFields(holderTarget.getClass()));
+        report.append(String.format(" registry lookup:%.2fns/call", (double) registryLookupNanos / iterations));
+        report.append(String.format(" static holder:%.2fns/call", (double) staticHolderNanos / iterations));
+        report.append(String.format(" reduction:%.1f%%", 100.0 * (registryLookupNanos - staticHolderNanos) / registryLookupNanos));
+        logger.info(report.toString());
+    }
+
+    /**
+     * @return 1 if the target reads the interceptor from a holder field
+     */
+    private int countHolderFields(Class<?> targetClass) {
+        int count = 0;
+        for (Field field : targetClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == SimpleAroundInterceptor.class) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void addNoopInterceptor(TestClassLoader loader, final String targetClassName) {
+        loader.addTransformer(targetClassName, new PinpointClassFileTransformer() {
+            @Override
+            public byte[] transform(PinpointInstrument instrumentContext, ClassLoader classLoader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws InstrumentException {
+                final InstrumentClass target = instrumentContext.getInstrumentClass(classLoader, targetClassName, classfileBuffer);
+                target.getDeclaredMethod("run").addInterceptor(NoopInterceptor.class.getName());
+                return target.toBytecode();
+            }
+        });
+    }
+
+    private long registryLookup() {
+        final Runnable target = this.registryTarget;
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            target.run();
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    private long staticHolder() {
+        final Runnable target = this.holderTarget;
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            target.run();
+        }
+        return System.nanoTime() - startTime;
+    }
+
+    public static class RegistryTarget implements Runnable {
+        private int count;
+
+        @Override
+        public void run() {
+            count++;
+        }
+    }
+
+    public static class HolderTarget implements Runnable {
+        private int count;
+
+        @Override
+        public void run() {
+            count++;
+        }
+    }
+
+    public static class NoopInterceptor implements SimpleAroundInterceptor {
+        // stands for the trace lookup of a real interceptor, so that the JIT can not fold the calls of the loop
+        private volatile boolean enabled = true;
+        private int count;
+
+        @Override
+        public void before(Object target, Object[] args) {
+            if (enabled) {
+                count++;
+            }
+        }
+
+        @Override
+        public void after(Object target, Object[] args, Object result, Throwable throwable) {
+            if (enabled) {
+                count++;
+            }
+        }
+    }
+}
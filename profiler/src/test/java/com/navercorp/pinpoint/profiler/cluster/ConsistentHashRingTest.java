@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.rpc.util.ControlMessageEncodingUtils;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEY_COUNT = 1000;
+
+    @Test
+    public void emptyRing() {
+        ConsistentHashRing ring = new ConsistentHashRing(Collections.<String>emptyList());
+        Assert.assertTrue(ring.isEmpty());
+        Assert.assertNull(ring.getNode("application"));
+    }
+
+    @Test
+    public void sameAssignmentRegardlessOfOrder() {
+        ConsistentHashRing ring1 = new ConsistentHashRing(Arrays.asList("10.0.0.1:9996:9995", "10.0.0.2:9996:9995", "10.0.0.3:9996:9995"));
+        ConsistentHashRing ring2 = new ConsistentHashRing(Arrays.asList("10.0.0.3:9996:9995", "10.0.0.1:9996:9995", "10.0.0.2:9996:9995"));
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = "application-" + i;
+            Assert.assertEquals(ring1.getNode(key), ring2.getNode(key));
+        }
+    }
+
+    @Test
+    public void onlyKeysOfRemovedNodeMove() {
+        List<String> nodes = new ArrayList<String>(Arrays.asList("10.0.0.1:9996:9995", "10.0.0.2:9996:9995", "10.0.0.3:9996:9995", "10.0.0.4:9996:9995"));
+        ConsistentHashRing before = new ConsistentHashRing(nodes);
+
+        final String removedNode = nodes.remove(3);
+        ConsistentHashRing after = new ConsistentHashRing(nodes);
+
+        Map<String, Integer> distribution = new HashMap<String, Integer>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = "application-" + i;
+            String beforeNode = before.getNode(key);
+            String afterNode = after.getNode(key);
+            if (!beforeNode.equals(removedNode)) {
+                Assert.assertEquals(beforeNode, afterNode);
+            }
+            Integer count = distribution.get(afterNode);
+            distribution.put(afterNode, count == null ? 1 : count + 1);
+        }
+
+        Assert.assertEquals(3, distribution.size());
+        for (Integer count : distribution.values()) {
+            // roughly even spread. (ideal is 333)
+            Assert.assertTrue(distribution.toString(), count > KEY_COUNT / 6);
+        }
+    }
+
+    @Test
+    public void decodeCollectorList() throws Exception {
+        Map<String, Object> message = new HashMap<String, Object>();
+        message.put(CollectorClusterMessage.COLLECTOR_LIST, Arrays.asList("10.0.0.1:9996:9995", "10.0.0.2:9996:9995"));
+        byte[] payload = ControlMessageEncodingUtils.encode(message);
+
+        List<String> collectorList = CollectorClusterMessage.decodeCollectorList(payload);
+        Assert.assertEquals(Arrays.asList("10.0.0.1:9996:9995", "10.0.0.2:9996:9995"), collectorList);
+
+        Assert.assertNull(CollectorClusterMessage.decodeCollectorList(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    public void parseCollectorAddress() {
+        Assert.assertEquals(new CollectorAddress("10.0.0.1", 9996, 9995), CollectorAddress.parse("10.0.0.1:9996:9995"));
+        Assert.assertNull(CollectorAddress.parse("10.0.0.1:9996"));
+        Assert.assertNull(CollectorAddress.parse("10.0.0.1:span:9995"));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AgentThreadContextTest {
+
+    @Test
+    public void slot() {
+        final int slotId = AgentThreadContext.newSlotId();
+        final AgentThreadContext context = AgentThreadContext.current();
+        Assert.assertNull(context.get(slotId));
+
+        context.set(slotId, "value");
+        Assert.assertEquals("value", AgentThreadContext.current().get(slotId));
+
+        context.set(slotId, null);
+        Assert.assertNull(context.get(slotId));
+    }
+
+    @Test
+    public void grow() {
+        int slotId = 0;
+        for (int i = 0; i < 100; i++) {
+            slotId = AgentThreadContext.newSlotId();
+        }
+        AgentThreadContext.current().set(slotId, "value");
+        Assert.assertEquals("value", AgentThreadContext.current().get(slotId));
+    }
+
+    @Test
+    public void threadLocal() throws InterruptedException {
+        final ThreadLocalBinder<String> binder = new ThreadLocalBinder<String>();
+        binder.set("main");
+
+        final AtomicReference<String> other = new AtomicReference<String>("not run");
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                other.set(binder.get());
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertNull(other.get());
+        Assert.assertEquals("main", binder.remove());
+        Assert.assertNull(binder.get());
+    }
+}
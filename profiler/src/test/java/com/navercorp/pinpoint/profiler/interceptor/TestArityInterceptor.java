@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.interceptor;
+
+import com.navercorp.pinpoint.bootstrap.interceptor.AroundInterceptor2;
+import com.navercorp.pinpoint.bootstrap.interceptor.SimpleAroundInterceptor;
+import com.navercorp.pinpoint.bootstrap.interceptor.annotation.TargetArity;
+import com.navercorp.pinpoint.profiler.interceptor.bci.TestInterceptors;
+
+@TargetArity
+public class TestArityInterceptor implements SimpleAroundInterceptor, AroundInterceptor2 {
+
+    public int arrayCall = 0;
+    public int directCall = 0;
+    public Object[] args;
+    public Object result;
+
+    @Override
+    public void before(Object target, Object[] args) {
+        arrayCall++;
+    }
+
+    @Override
+    public void after(Object target, Object[] args, Object result, Throwable throwable) {
+        arrayCall++;
+        this.args = args;
+        this.result = result;
+        TestInterceptors.add(this);
+    }
+
+    @Override
+    public void before(Object target, Object arg0, Object arg1) {
+        directCall++;
+    }
+
+    @Override
+    public void after(Object target, Object result, Throwable throwable, Object arg0, Object arg1) {
+        directCall++;
+        this.args = new Object[] {arg0, arg1};
+        this.result = result;
+        TestInterceptors.add(this);
+    }
+}
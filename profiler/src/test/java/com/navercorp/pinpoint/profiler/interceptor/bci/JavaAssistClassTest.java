@@ -18,6 +18,8 @@ package com.navercorp.pinpoint.profiler.interceptor.bci;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -44,7 +46,9 @@ import com.navercorp.pinpoint.bootstrap.logging.PLoggerFactory;
 import com.navercorp.pinpoint.bootstrap.plugin.jdbc.UnKnownDatabaseInfo;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.profiler.DefaultAgent;
+import com.navercorp.pinpoint.profiler.instrument.ClassRedefinitionContext;
 import com.navercorp.pinpoint.profiler.instrument.JavassistClassPool;
+import com.navercorp.pinpoint.profiler.instrument.interceptor.InvokeCodeGenerator;
 import com.navercorp.pinpoint.profiler.interceptor.registry.GlobalInterceptorRegistryBinder;
 import com.navercorp.pinpoint.profiler.logging.Slf4jLoggerBinder;
 import com.navercorp.pinpoint.test.MockAgent;
@@ -317,6 +321,161 @@ public class JavaAssistClassTest {
 
     }
 
+    @Test
+    public void testAddAfterInterceptorStaticHolder() throws Exception {
+        final TestClassLoader loader = getTestClassLoader();
+        // the agent applies profiler.interceptor.dispatch.static.holder when it is created
+        InvokeCodeGenerator.setStaticHolderDispatch(true);
+        try {
+            final String testClassObject = "com.navercorp.pinpoint.profiler.interceptor.bci.TestObject2";
+
+            loader.addTransformer(testClassObject, new PinpointClassFileTransformer() {
+
+                @Override
+                public byte[] transform(PinpointInstrument instrumentContext, ClassLoader classLoader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws InstrumentException {
+                    InstrumentClass aClass = instrumentContext.getInstrumentClass(classLoader, testClassObject, classfileBuffer);
+
+                    aClass.getDeclaredMethod("callA").addInterceptor("com.navercorp.pinpoint.profiler.interceptor.TestAfterInterceptor");
+                    aClass.getDeclaredMethod("callB").addInterceptor("com.navercorp.pinpoint.profiler.interceptor.TestAfterInterceptor");
+
+                    return aClass.toBytecode();
+                }
+            });
+
+            loader.initialize();
+
+            Class<?> testObjectClazz = loader.loadClass(testClassObject);
+            final Object testObject = testObjectClazz.newInstance();
+            Object result = testObjectClazz.getMethod("callA").invoke(testObject);
+            testObjectClazz.getMethod("callB").invoke(testObject);
+
+            Interceptor interceptor = getInterceptor(loader, 0);
+            assertEqualsIntField(interceptor, "call", 1);
+            assertEqualsObjectField(interceptor, "methodName", "callA");
+            assertEqualsObjectField(interceptor, "result", result);
+
+            Interceptor interceptor2 = getInterceptor(loader, 1);
+            assertEqualsIntField(interceptor2, "call", 1);
+            assertEqualsObjectField(interceptor2, "methodName", "callB");
+
+            int holderCount = 0;
+            for (Field field : testObjectClazz.getDeclaredFields()) {
+                if (field.getName().startsWith("_$PINPOINT$_interceptorHolder")) {
+                    Assert.assertTrue(java.lang.reflect.Modifier.isStatic(field.getModifiers()));
+                    Assert.assertTrue(java.lang.reflect.Modifier.isFinal(field.getModifiers()));
+                    holderCount++;
+                }
+            }
+            Assert.assertEquals(2, holderCount);
+        } finally {
+            InvokeCodeGenerator.setStaticHolderDispatch(false);
+        }
+    }
+
+    @Test
+    public void testAddArityInterceptor() throws Exception {
+        final TestClassLoader loader = getTestClassLoader();
+        final String testClassObject = "com.navercorp.pinpoint.profiler.interceptor.bci.TestObject4";
+
+        loader.addTransformer(testClassObject, new PinpointClassFileTransformer() {
+
+            @Override
+            public byte[] transform(PinpointInstrument instrumentContext, ClassLoader classLoader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws InstrumentException {
+                InstrumentClass aClass = instrumentContext.getInstrumentClass(classLoader, testClassObject, classfileBuffer);
+
+                aClass.getDeclaredMethod("concat", "java.lang.String", "int").addInterceptor("com.navercorp.pinpoint.profiler.interceptor.TestArityInterceptor");
+                aClass.getDeclaredMethod("concat", "java.lang.String", "java.lang.String", "java.lang.String").addInterceptor("com.navercorp.pinpoint.profiler.interceptor.TestArityInterceptor");
+
+                return aClass.toBytecode();
+            }
+        });
+
+        loader.initialize();
+
+        Class<?> testObjectClazz = loader.loadClass(testClassObject);
+        final Object testObject = testObjectClazz.newInstance();
+        testObjectClazz.getMethod("concat", String.class, int.class).invoke(testObject, "a", 1);
+        testObjectClazz.getMethod("concat", String.class, String.class, String.class).invoke(testObject, "a", "b", "c");
+
+        // arguments passed one by one
+        Interceptor interceptor = getInterceptor(loader, 0);
+        assertEqualsIntField(interceptor, "directCall", 2);
+        assertEqualsIntField(interceptor, "arrayCall", 0);
+        Assert.assertArrayEquals(new Object[] {"a", 1}, (Object[]) interceptor.getClass().getField("args").get(interceptor));
+        assertEqualsObjectField(interceptor, "result", "a1");
+
+        // AroundInterceptor3 is not implemented
+        Interceptor interceptor2 = getInterceptor(loader, 1);
+        assertEqualsIntField(interceptor2, "directCall", 0);
+        assertEqualsIntField(interceptor2, "arrayCall", 2);
+        assertEqualsObjectField(interceptor2, "result", "abc");
+    }
+
+    @Test
+    public void testRetransformStaticHolder() throws Exception {
+        PLoggerFactory.initialize(new Slf4jLoggerBinder());
+        ProfilerConfig profilerConfig = new ProfilerConfig();
+        profilerConfig.setApplicationServerType(ServiceType.TEST_STAND_ALONE.getName());
+        final DefaultAgent agent = MockAgent.of(profilerConfig);
+        final TestClassLoader loader = new TestClassLoader(agent);
+        InvokeCodeGenerator.setStaticHolderDispatch(true);
+        try {
+            final String testClassObject = "com.navercorp.pinpoint.profiler.interceptor.bci.TestObject2";
+
+            loader.addTransformer(testClassObject, new PinpointClassFileTransformer() {
+
+                @Override
+                public byte[] transform(PinpointInstrument instrumentContext, ClassLoader classLoader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) throws InstrumentException {
+                    InstrumentClass aClass = instrumentContext.getInstrumentClass(classLoader, testClassObject, classfileBuffer);
+                    aClass.getDeclaredMethod("callA").addInterceptor("com.navercorp.pinpoint.profiler.interceptor.TestAfterInterceptor");
+                    final byte[] transformed = aClass.toBytecode();
+
+                    // the loaded class has the holder field. it is retransformed from these bytes
+                    try {
+                        agent.getClassPool().getClassPool(classLoader).makeClass(new ByteArrayInputStream(transformed));
+                    } catch (IOException e) {
+                        throw new InstrumentException(e);
+                    }
+                    ClassRedefinitionContext.enter(TestObject2.class);
+                    try {
+                        InstrumentClass retransformClass = instrumentContext.getInstrumentClass(classLoader, testClassObject, transformed);
+                        retransformClass.getDeclaredMethod("callB").addInterceptor("com.navercorp.pinpoint.profiler.interceptor.TestAfterInterceptor");
+                        return retransformClass.toBytecode();
+                    } finally {
+                        ClassRedefinitionContext.exit();
+                    }
+                }
+            });
+
+            loader.initialize();
+
+            Class<?> testObjectClazz = loader.loadClass(testClassObject);
+            final Object testObject = testObjectClazz.newInstance();
+            testObjectClazz.getMethod("callA").invoke(testObject);
+            testObjectClazz.getMethod("callB").invoke(testObject);
+
+            Interceptor interceptor = getInterceptor(loader, 0);
+            assertEqualsIntField(interceptor, "call", 1);
+            assertEqualsObjectField(interceptor, "methodName", "callA");
+
+            // added by the registry lookup
+            Interceptor interceptor2 = getInterceptor(loader, 1);
+            assertEqualsIntField(interceptor2, "call", 1);
+            assertEqualsObjectField(interceptor2, "methodName", "callB");
+
+            // the retransformation adds no field
+            int holderCount = 0;
+            for (Field field : testObjectClazz.getDeclaredFields()) {
+                if (field.getName().startsWith("_$PINPOINT$_interceptorHolder")) {
+                    holderCount++;
+                }
+            }
+            Assert.assertEquals(1, holderCount);
+        } finally {
+            InvokeCodeGenerator.setStaticHolderDispatch(false);
+        }
+    }
+
     @Test
     public void nullDescriptor() {
         String nullDescriptor = Descriptor.ofParameters(null);
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.monitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.navercorp.pinpoint.profiler.sender.spill.MappedSpillQueue;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillMetric;
+import com.navercorp.pinpoint.profiler.sender.spill.SpillRecord;
+import com.navercorp.pinpoint.thrift.dto.TSpillStat;
+
+public class SpillStatCollectorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MappedSpillQueue first;
+    private MappedSpillQueue second;
+
+    @Before
+    public void setUp() throws IOException {
+        final File directory = temporaryFolder.newFolder("spill");
+        first = new MappedSpillQueue(directory, "first", 1024, 1024 * 4);
+        second = new MappedSpillQueue(directory, "second", 1024, 1024 * 4);
+    }
+
+    @After
+    public void tearDown() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void noSpillQueue() {
+        SpillStatCollector collector = new SpillStatCollector(Collections.<SpillMetric>emptyList());
+        Assert.assertNull(collector.collectSpillStat());
+    }
+
+    @Test
+    public void sumOfSpillQueues() {
+        first.offer(SpillRecord.TYPE_SEND, new byte[]{1, 2, 3}, 0, 3);
+        first.offer(SpillRecord.TYPE_SEND, new byte[]{4, 5}, 0, 2);
+        second.offer(SpillRecord.TYPE_SEND, new byte[]{6}, 0, 1);
+        first.poll();
+        first.getMetric().incrementReplay();
+        second.getMetric().incrementDiscard();
+
+        SpillStatCollector collector = new SpillStatCollector(Arrays.asList(first.getMetric(), second.getMetric()));
+        TSpillStat spillStat = collector.collectSpillStat();
+
+        Assert.assertEquals(3, spillStat.getSpillCount());
+        Assert.assertEquals(1, spillStat.getReplayCount());
+        Assert.assertEquals(1, spillStat.getDiscardCount());
+    }
+}
@@ -28,6 +28,10 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -92,6 +96,37 @@ public class UdpDataSenderTest {
         Assert.assertFalse(limit);
     }
 
+    @Test
+    public void changeTarget() throws Exception {
+        DatagramSocket defaultCollector = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        DatagramSocket assignedCollector = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        defaultCollector.setSoTimeout(3000);
+        assignedCollector.setSoTimeout(3000);
+
+        UdpDataSender sender = new UdpDataSender("127.0.0.1", defaultCollector.getLocalPort(), "test", 128, 1000, 1024*64*100);
+        try {
+            sender.send(new TAgentInfo());
+            receive(defaultCollector);
+
+            sender.changeTarget("127.0.0.1", assignedCollector.getLocalPort());
+            sender.send(new TAgentInfo());
+            receive(assignedCollector);
+
+            sender.resetTarget();
+            sender.send(new TAgentInfo());
+            receive(defaultCollector);
+        } finally {
+            sender.stop();
+            defaultCollector.close();
+            assignedCollector.close();
+        }
+    }
+
+    private void receive(DatagramSocket collector) throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[UdpDataSender.UDP_MAX_PACKET_LENGTH], UdpDataSender.UDP_MAX_PACKET_LENGTH);
+        collector.receive(packet);
+        Assert.assertTrue(packet.getLength() > 0);
+    }
     
     private boolean sendMessage_getLimit(TBase tbase, long waitTimeMillis) throws InterruptedException {
         final AtomicBoolean limitCounter = new AtomicBoolean(false);
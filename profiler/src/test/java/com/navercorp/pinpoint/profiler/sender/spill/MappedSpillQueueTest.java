@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender.spill;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedSpillQueueTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private MappedSpillQueue spillQueue;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temporaryFolder.newFolder("spill");
+        // 3 segments of 32 bytes
+        spillQueue = new MappedSpillQueue(directory, "test", 32, 96);
+    }
+
+    @After
+    public void tearDown() {
+        spillQueue.close();
+    }
+
+    @Test
+    public void offerAndPoll() {
+        Assert.assertTrue(spillQueue.isEmpty());
+
+        Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, new byte[]{1, 2, 3}, 0, 3));
+        Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_REQUEST, new byte[]{9, 4, 5, 9}, 1, 2));
+        Assert.assertFalse(spillQueue.isEmpty());
+
+        SpillRecord first = spillQueue.poll();
+        Assert.assertEquals(SpillRecord.TYPE_SEND, first.getType());
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, first.getData());
+
+        SpillRecord second = spillQueue.poll();
+        Assert.assertEquals(SpillRecord.TYPE_REQUEST, second.getType());
+        Assert.assertArrayEquals(new byte[]{4, 5}, second.getData());
+
+        Assert.assertNull(spillQueue.poll());
+        Assert.assertTrue(spillQueue.isEmpty());
+        Assert.assertEquals(2, spillQueue.getMetric().getSpillCount());
+    }
+
+    @Test
+    public void keepChannel() {
+        Assert.assertTrue(spillQueue.offer(SpillRecord.toStoredType(SpillRecord.TYPE_REQUEST, 1), new byte[]{1}, 0, 1));
+        Assert.assertTrue(spillQueue.offer(SpillRecord.toStoredType(SpillRecord.TYPE_SEND, SpillRecord.MAX_CHANNEL), new byte[]{2}, 0, 1));
+
+        SpillRecord first = spillQueue.poll();
+        Assert.assertEquals(SpillRecord.TYPE_REQUEST, first.getType());
+        Assert.assertEquals(1, first.getChannel());
+
+        SpillRecord second = spillQueue.poll();
+        Assert.assertEquals(SpillRecord.TYPE_SEND, second.getType());
+        Assert.assertEquals(SpillRecord.MAX_CHANNEL, second.getChannel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidChannel() {
+        SpillRecord.toStoredType(SpillRecord.TYPE_SEND, SpillRecord.MAX_CHANNEL + 1);
+    }
+
+    @Test
+    public void rollSegmentAndDelete() {
+        byte[] data = new byte[20];
+        for (int i = 0; i < 3; i++) {
+            data[0] = (byte) i;
+            Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+            spillQueue.prepare();
+        }
+        // no spare beyond the cap
+        Assert.assertEquals(3, directory.listFiles().length);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(i, spillQueue.poll().getData()[0]);
+        }
+        Assert.assertNull(spillQueue.poll());
+        Assert.assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void discardWhenFull() {
+        byte[] data = new byte[20];
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+            spillQueue.prepare();
+        }
+        Assert.assertFalse(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+        // larger than a segment
+        Assert.assertFalse(spillQueue.offer(SpillRecord.TYPE_SEND, new byte[64], 0, 64));
+
+        Assert.assertEquals(3, spillQueue.getMetric().getSpillCount());
+        Assert.assertEquals(2, spillQueue.getMetric().getDiscardCount());
+    }
+
+    @Test
+    public void discardWithoutSpare() {
+        byte[] data = new byte[20];
+        // the first segment and the spare mapped on creation
+        Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+        Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+        Assert.assertEquals(2, directory.listFiles().length);
+
+        // writers never create a segment
+        Assert.assertFalse(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+        Assert.assertEquals(2, directory.listFiles().length);
+        Assert.assertEquals(1, spillQueue.getMetric().getDiscardCount());
+
+        spillQueue.prepare();
+        Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+        Assert.assertEquals(3, spillQueue.getMetric().getSpillCount());
+    }
+
+    @Test
+    public void releaseSpareOnClose() {
+        Assert.assertEquals(2, directory.listFiles().length);
+        spillQueue.close();
+        Assert.assertEquals(0, directory.listFiles().length);
+        // nothing to prepare after close
+        spillQueue.prepare();
+        Assert.assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void reuseSegmentAfterDrain() {
+        byte[] data = new byte[20];
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(spillQueue.offer(SpillRecord.TYPE_SEND, data, 0, data.length));
+            Assert.assertNotNull(spillQueue.poll());
+            // as the replayer does
+            spillQueue.prepare();
+        }
+        // the segment and its unused spare
+        Assert.assertEquals(2, directory.listFiles().length);
+        Assert.assertEquals(0, spillQueue.getMetric().getDiscardCount());
+    }
+
+    @Test
+    public void discardAfterClose() {
+        spillQueue.close();
+
+        Assert.assertFalse(spillQueue.offer(SpillRecord.TYPE_SEND, new byte[1], 0, 1));
+        Assert.assertNull(spillQueue.poll());
+        Assert.assertTrue(spillQueue.isEmpty());
+        Assert.assertEquals(0, directory.listFiles().length);
+    }
+}
@@ -182,4 +182,8 @@ public class PinpointSocket {
     public boolean isConnected() {
         return this.socketHandler.isConnected();
     }
+
+    public boolean isWritable() {
+        return this.socketHandler.isWritable();
+    }
 }
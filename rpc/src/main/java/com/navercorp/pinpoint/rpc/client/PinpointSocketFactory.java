@@ -144,6 +144,21 @@ public class PinpointSocketFactory {
         return (Integer) bootstrap.getOption(CONNECT_TIMEOUT_MILLIS);
     }
 
+    /**
+     * {@link PinpointSocket#isWritable()} turns false while more than highWaterMark bytes are queued for write,
+     * and true again once it drops below lowWaterMark.
+     */
+    public void setWriteBufferWaterMark(int lowWaterMark, int highWaterMark) {
+        if (lowWaterMark < 0) {
+            throw new IllegalArgumentException("lowWaterMark cannot be a negative number");
+        }
+        if (highWaterMark < lowWaterMark) {
+            throw new IllegalArgumentException("highWaterMark must be greater than or equal to lowWaterMark");
+        }
+        bootstrap.setOption("writeBufferHighWaterMark", highWaterMark);
+        bootstrap.setOption("writeBufferLowWaterMark", lowWaterMark);
+    }
+
     public long getReconnectDelay() {
         return reconnectDelay;
     }
@@ -613,6 +613,16 @@ public class PinpointSocketHandler extends SimpleChannelHandler implements Socke
         return this.state.isEnableCommunication();
     }
 
+    @Override
+    public boolean isWritable() {
+        final Channel channel = this.channel;
+        if (channel == null || !isConnected()) {
+            return false;
+        }
+        // false while the outbound buffer is above writeBufferHighWaterMark.
+        return channel.isWritable();
+    }
+
     @Override
     public boolean isSupportServerMode() {
         return messageListener != SimpleLoggingMessageListener.LISTENER;
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.rpc.DefaultFuture;
+import com.navercorp.pinpoint.rpc.Future;
+import com.navercorp.pinpoint.rpc.PinpointSocketException;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelContext;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelMessageListener;
+import com.navercorp.pinpoint.rpc.util.AssertUtils;
+
+/**
+ * Small set of {@link PinpointSocket}s to the same server, one per {@link SocketPriority}.
+ * Every channel has its own netty outbound buffer and {@link RequestManager},
+ * so bulk traffic on one channel cannot head-of-line block another.
+ *
+ * Backpressure is applied per channel : a message is rejected with a failed future
+ * while its channel is above the write buffer high water mark, instead of piling up in memory.
+ * A channel that is not connected falls back to the control channel.
+ *
+ * Only the control socket should be created by a factory that accepts server requests.
+ * The other sockets should handshake as simplex so that the server does not register them as cluster points.
+ */
+public class PinpointSocketPool {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final SocketPriority[] PRIORITIES = SocketPriority.values();
+
+    private final PinpointSocket[] sockets = new PinpointSocket[PRIORITIES.length];
+    private final AtomicLong[] rejectedCounts = new AtomicLong[PRIORITIES.length];
+
+    /**
+     * every priority shares the given socket.
+     */
+    public PinpointSocketPool(PinpointSocket socket) {
+        this(socket, socket, socket);
+    }
+
+    public PinpointSocketPool(PinpointSocket controlSocket, PinpointSocket metadataSocket, PinpointSocket streamingSocket) {
+        AssertUtils.assertNotNull(controlSocket, "controlSocket");
+        AssertUtils.assertNotNull(metadataSocket, "metadataSocket");
+        AssertUtils.assertNotNull(streamingSocket, "streamingSocket");
+
+        this.sockets[SocketPriority.CONTROL.ordinal()] = controlSocket;
+        this.sockets[SocketPriority.METADATA.ordinal()] = metadataSocket;
+        this.sockets[SocketPriority.STREAMING.ordinal()] = streamingSocket;
+        for (int i = 0; i < rejectedCounts.length; i++) {
+            rejectedCounts[i] = new AtomicLong();
+        }
+    }
+
+    public PinpointSocket getSocket(SocketPriority priority) {
+        AssertUtils.assertNotNull(priority, "priority");
+
+        final PinpointSocket socket = sockets[priority.ordinal()];
+        if (priority == SocketPriority.CONTROL || socket.isConnected()) {
+            return socket;
+        }
+        final PinpointSocket controlSocket = getControlSocket();
+        if (controlSocket.isConnected()) {
+            return controlSocket;
+        }
+        return socket;
+    }
+
+    public PinpointSocket getControlSocket() {
+        return sockets[SocketPriority.CONTROL.ordinal()];
+    }
+
+    public Future sendAsync(SocketPriority priority, byte[] bytes) {
+        final PinpointSocket socket = getSocket(priority);
+        if (isOverflow(socket)) {
+            return rejectedFuture(priority);
+        }
+        return socket.sendAsync(bytes);
+    }
+
+    public Future<ResponseMessage> request(SocketPriority priority, byte[] bytes) {
+        final PinpointSocket socket = getSocket(priority);
+        if (isOverflow(socket)) {
+            return rejectedFuture(priority);
+        }
+        return socket.request(bytes);
+    }
+
+    public ClientStreamChannelContext createStreamChannel(byte[] payload, ClientStreamChannelMessageListener clientStreamChannelMessageListener) {
+        return getSocket(SocketPriority.STREAMING).createStreamChannel(payload, clientStreamChannelMessageListener);
+    }
+
+    private boolean isOverflow(PinpointSocket socket) {
+        // a disconnected socket fails by itself.
+        return socket.isConnected() && !socket.isWritable();
+    }
+
+    private <T> Future<T> rejectedFuture(SocketPriority priority) {
+        final long rejectedCount = rejectedCounts[priority.ordinal()].incrementAndGet();
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} channel is not writable. rejectedCount:{}", priority, rejectedCount);
+        }
+        DefaultFuture<T> future = new DefaultFuture<T>();
+        future.setFailure(new PinpointSocketException(priority + " channel is not writable."));
+        return future;
+    }
+
+    public long getRejectedCount(SocketPriority priority) {
+        AssertUtils.assertNotNull(priority, "priority");
+        return rejectedCounts[priority.ordinal()].get();
+    }
+
+    public boolean addPinpointSocketReconnectEventListener(PinpointSocketReconnectEventListener eventListener) {
+        return getControlSocket().addPinpointSocketReconnectEventListener(eventListener);
+    }
+
+    public boolean removePinpointSocketReconnectEventListener(PinpointSocketReconnectEventListener eventListener) {
+        return getControlSocket().removePinpointSocketReconnectEventListener(eventListener);
+    }
+
+    public boolean isConnected() {
+        return getControlSocket().isConnected();
+    }
+
+    public void close() {
+        // PinpointSocket.close() is idempotent, so shared sockets can be closed more than once.
+        for (PinpointSocket socket : sockets) {
+            socket.close();
+        }
+    }
+
+}
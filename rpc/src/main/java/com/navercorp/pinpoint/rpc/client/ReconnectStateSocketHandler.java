@@ -117,6 +117,11 @@ public class ReconnectStateSocketHandler implements SocketHandler {
         return false;
     }
 
+    @Override
+    public boolean isWritable() {
+        return false;
+    }
+
     @Override
     public boolean isSupportServerMode() {
         return false;
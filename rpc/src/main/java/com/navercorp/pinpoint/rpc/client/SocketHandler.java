@@ -57,6 +57,8 @@ public interface SocketHandler {
 
     boolean isConnected();
 
+    boolean isWritable();
+
     boolean isSupportServerMode();
     
     SocketStateCode getCurrentStateCode();
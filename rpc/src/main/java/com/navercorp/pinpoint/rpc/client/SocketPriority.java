@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+/**
+ * Traffic class of a {@link PinpointSocketPool} channel.
+ */
+public enum SocketPriority {
+
+    /**
+     * handshake, agent info, ping and server initiated commands/streams. this channel is the duplex one.
+     */
+    CONTROL,
+
+    /**
+     * small request/response messages that must not wait behind bulk data. (api, sql, string metadata)
+     */
+    METADATA,
+
+    /**
+     * bulk sends and client initiated streams.
+     */
+    STREAMING
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.navercorp.pinpoint.rpc.Future;
+import com.navercorp.pinpoint.rpc.FutureListener;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import com.navercorp.pinpoint.rpc.TestByteUtils;
+import com.navercorp.pinpoint.rpc.packet.HandshakeResponseCode;
+import com.navercorp.pinpoint.rpc.packet.HandshakeResponseType;
+import com.navercorp.pinpoint.rpc.packet.PingPacket;
+import com.navercorp.pinpoint.rpc.packet.RequestPacket;
+import com.navercorp.pinpoint.rpc.packet.SendPacket;
+import com.navercorp.pinpoint.rpc.server.PinpointServer;
+import com.navercorp.pinpoint.rpc.server.PinpointServerAcceptor;
+import com.navercorp.pinpoint.rpc.server.ServerMessageListener;
+import com.navercorp.pinpoint.rpc.util.PinpointRPCTestUtils;
+
+public class PinpointSocketPoolTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinpointSocketPoolTest.class);
+
+    private static final long METADATA_LATENCY_LIMIT = 1000;
+
+    private static int bindPort;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        bindPort = PinpointRPCTestUtils.findAvailablePort();
+    }
+
+    @Test
+    public void sharedSocket() throws InterruptedException {
+        RecordingServerMessageListener serverListener = new RecordingServerMessageListener();
+        PinpointServerAcceptor serverAcceptor = PinpointRPCTestUtils.createPinpointServerFactory(bindPort, serverListener);
+        PinpointSocketFactory socketFactory = new PinpointSocketFactory();
+        try {
+            PinpointSocket socket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocketPool socketPool = new PinpointSocketPool(socket);
+            try {
+                for (SocketPriority priority : SocketPriority.values()) {
+                    Assert.assertSame(socket, socketPool.getSocket(priority));
+                    assertEcho(socketPool, priority);
+                }
+                Assert.assertEquals(1, serverListener.getRequestServers().size());
+            } finally {
+                socketPool.close();
+            }
+            Assert.assertTrue(socket.isClosed());
+        } finally {
+            socketFactory.release();
+            PinpointRPCTestUtils.close(serverAcceptor);
+        }
+    }
+
+    @Test
+    public void fallbackToControlSocket() throws InterruptedException {
+        PinpointServerAcceptor serverAcceptor = PinpointRPCTestUtils.createPinpointServerFactory(bindPort, new RecordingServerMessageListener());
+        PinpointSocketFactory socketFactory = new PinpointSocketFactory();
+        try {
+            PinpointSocket controlSocket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocket metadataSocket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocket streamingSocket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocketPool socketPool = new PinpointSocketPool(controlSocket, metadataSocket, streamingSocket);
+            try {
+                Assert.assertSame(metadataSocket, socketPool.getSocket(SocketPriority.METADATA));
+
+                metadataSocket.close();
+                Assert.assertSame(controlSocket, socketPool.getSocket(SocketPriority.METADATA));
+                assertEcho(socketPool, SocketPriority.METADATA);
+            } finally {
+                socketPool.close();
+            }
+        } finally {
+            socketFactory.release();
+            PinpointRPCTestUtils.close(serverAcceptor);
+        }
+    }
+
+    /**
+     * floods the streaming channel while metadata requests are in flight.
+     * each metadata request must complete within METADATA_LATENCY_LIMIT, whatever the streaming backlog.
+     */
+    @Test
+    public void streamingLoadDoesNotBlockMetadata() throws InterruptedException {
+        RecordingServerMessageListener serverListener = new RecordingServerMessageListener();
+        PinpointServerAcceptor serverAcceptor = PinpointRPCTestUtils.createPinpointServerFactory(bindPort, serverListener);
+        PinpointSocketFactory socketFactory = new PinpointSocketFactory();
+        socketFactory.setWriteBufferWaterMark(1024 * 16, 1024 * 64);
+        try {
+            PinpointSocket controlSocket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocket metadataSocket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocket streamingSocket = socketFactory.connect("127.0.0.1", bindPort);
+            PinpointSocketPool socketPool = new PinpointSocketPool(controlSocket, metadataSocket, streamingSocket);
+            try {
+                final byte[] bulk = TestByteUtils.createRandomByte(1024 * 32);
+                final List<Future<ResponseMessage>> metadataFutures = new ArrayList<Future<ResponseMessage>>();
+                final List<LatencyListener> latencyListeners = new ArrayList<LatencyListener>();
+
+                for (int i = 0; i < 2000; i++) {
+                    socketPool.sendAsync(SocketPriority.STREAMING, bulk);
+                    if (i % 20 == 0) {
+                        final LatencyListener latencyListener = new LatencyListener();
+                        final Future<ResponseMessage> future = socketPool.request(SocketPriority.METADATA, TestByteUtils.createRandomByte(32));
+                        future.setListener(latencyListener);
+                        metadataFutures.add(future);
+                        latencyListeners.add(latencyListener);
+                    }
+                }
+
+                for (Future<ResponseMessage> future : metadataFutures) {
+                    Assert.assertTrue(future.await());
+                    Assert.assertTrue(future.isSuccess());
+                }
+                long maxLatency = 0;
+                for (LatencyListener latencyListener : latencyListeners) {
+                    maxLatency = Math.max(maxLatency, latencyListener.getLatency());
+                }
+                logger.info("metadata requests:{} max latency:{}ms streaming rejected:{}", metadataFutures.size(), maxLatency, socketPool.getRejectedCount(SocketPriority.STREAMING));
+
+                Assert.assertTrue("metadata latency " + maxLatency + "ms", maxLatency < METADATA_LATENCY_LIMIT);
+                Assert.assertEquals(0, socketPool.getRejectedCount(SocketPriority.METADATA));
+                Assert.assertEquals(1, serverListener.getRequestServers().size());
+            } finally {
+                socketPool.close();
+            }
+        } finally {
+            socketFactory.release();
+            PinpointRPCTestUtils.close(serverAcceptor);
+        }
+    }
+
+    private void assertEcho(PinpointSocketPool socketPool, SocketPriority priority) {
+        byte[] payload = TestByteUtils.createRandomByte(10);
+        Future<ResponseMessage> future = socketPool.request(priority, payload);
+        Assert.assertTrue(future.await());
+        Assert.assertArrayEquals(payload, future.getResult().getMessage());
+    }
+
+    private static class LatencyListener implements FutureListener<ResponseMessage> {
+
+        private final long startTime = System.currentTimeMillis();
+        private volatile long latency = -1;
+
+        @Override
+        public void onComplete(Future<ResponseMessage> future) {
+            latency = System.currentTimeMillis() - startTime;
+        }
+
+        public long getLatency() {
+            return latency;
+        }
+    }
+
+    private static class RecordingServerMessageListener implements ServerMessageListener {
+
+        private final Set<PinpointServer> requestServers = Collections.newSetFromMap(new ConcurrentHashMap<PinpointServer, Boolean>());
+
+        @Override
+        public void handleSend(SendPacket sendPacket, PinpointServer pinpointServer) {
+        }
+
+        @Override
+        public void handleRequest(RequestPacket requestPacket, PinpointServer pinpointServer) {
+            requestServers.add(pinpointServer);
+            pinpointServer.response(requestPacket, requestPacket.getPayload());
+        }
+
+        @Override
+        public HandshakeResponseCode handleHandshake(Map properties) {
+            return HandshakeResponseType.Success.DUPLEX_COMMUNICATION;
+        }
+
+        @Override
+        public void handlePing(PingPacket pingPacket, PinpointServer pinpointServer) {
+        }
+
+        public Set<PinpointServer> getRequestServers() {
+            return requestServers;
+        }
+    }
+}
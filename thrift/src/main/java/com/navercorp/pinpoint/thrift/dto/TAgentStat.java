@@ -43,6 +43,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
   private static final org.apache.thrift.protocol.TField TIMESTAMP_FIELD_DESC = new org.apache.thrift.protocol.TField("timestamp", org.apache.thrift.protocol.TType.I64, (short)3);
   private static final org.apache.thrift.protocol.TField GC_FIELD_DESC = new org.apache.thrift.protocol.TField("gc", org.apache.thrift.protocol.TType.STRUCT, (short)10);
   private static final org.apache.thrift.protocol.TField CPU_LOAD_FIELD_DESC = new org.apache.thrift.protocol.TField("cpuLoad", org.apache.thrift.protocol.TType.STRUCT, (short)20);
+  private static final org.apache.thrift.protocol.TField SPILL_FIELD_DESC = new org.apache.thrift.protocol.TField("spill", org.apache.thrift.protocol.TType.STRUCT, (short)30);
   private static final org.apache.thrift.protocol.TField METADATA_FIELD_DESC = new org.apache.thrift.protocol.TField("metadata", org.apache.thrift.protocol.TType.STRING, (short)200);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
@@ -56,6 +57,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
   private long timestamp; // optional
   private TJvmGc gc; // optional
   private TCpuLoad cpuLoad; // optional
+  private TSpillStat spill; // optional
   private String metadata; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
@@ -65,6 +67,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     TIMESTAMP((short)3, "timestamp"),
     GC((short)10, "gc"),
     CPU_LOAD((short)20, "cpuLoad"),
+    SPILL((short)30, "spill"),
     METADATA((short)200, "metadata");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
@@ -90,6 +93,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
           return GC;
         case 20: // CPU_LOAD
           return CPU_LOAD;
+        case 30: // SPILL
+          return SPILL;
         case 200: // METADATA
           return METADATA;
         default:
@@ -135,7 +140,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
   private static final int __STARTTIMESTAMP_ISSET_ID = 0;
   private static final int __TIMESTAMP_ISSET_ID = 1;
   private byte __isset_bitfield = 0;
-  private static final _Fields optionals[] = {_Fields.AGENT_ID,_Fields.START_TIMESTAMP,_Fields.TIMESTAMP,_Fields.GC,_Fields.CPU_LOAD,_Fields.METADATA};
+  private static final _Fields optionals[] = {_Fields.AGENT_ID,_Fields.START_TIMESTAMP,_Fields.TIMESTAMP,_Fields.GC,_Fields.CPU_LOAD,_Fields.SPILL,_Fields.METADATA};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -149,6 +154,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TJvmGc.class)));
     tmpMap.put(_Fields.CPU_LOAD, new org.apache.thrift.meta_data.FieldMetaData("cpuLoad", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TCpuLoad.class)));
+    tmpMap.put(_Fields.SPILL, new org.apache.thrift.meta_data.FieldMetaData("spill", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.StructMetaData(org.apache.thrift.protocol.TType.STRUCT, TSpillStat.class)));
     tmpMap.put(_Fields.METADATA, new org.apache.thrift.meta_data.FieldMetaData("metadata", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
@@ -174,6 +181,9 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     if (other.isSetCpuLoad()) {
       this.cpuLoad = new TCpuLoad(other.cpuLoad);
     }
+    if (other.isSetSpill()) {
+      this.spill = new TSpillStat(other.spill);
+    }
     if (other.isSetMetadata()) {
       this.metadata = other.metadata;
     }
@@ -192,6 +202,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     this.timestamp = 0;
     this.gc = null;
     this.cpuLoad = null;
+    this.spill = null;
     this.metadata = null;
   }
 
@@ -308,6 +319,29 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     }
   }
 
+  public TSpillStat getSpill() {
+    return this.spill;
+  }
+
+  public void setSpill(TSpillStat spill) {
+    this.spill = spill;
+  }
+
+  public void unsetSpill() {
+    this.spill = null;
+  }
+
+  /** Returns true if field spill is set (has been assigned a value) and false otherwise */
+  public boolean isSetSpill() {
+    return this.spill != null;
+  }
+
+  public void setSpillIsSet(boolean value) {
+    if (!value) {
+      this.spill = null;
+    }
+  }
+
   public String getMetadata() {
     return this.metadata;
   }
@@ -373,6 +407,14 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       }
       break;
 
+    case SPILL:
+      if (value == null) {
+        unsetSpill();
+      } else {
+        setSpill((TSpillStat)value);
+      }
+      break;
+
     case METADATA:
       if (value == null) {
         unsetMetadata();
@@ -401,6 +443,9 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     case CPU_LOAD:
       return getCpuLoad();
 
+    case SPILL:
+      return getSpill();
+
     case METADATA:
       return getMetadata();
 
@@ -425,6 +470,8 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       return isSetGc();
     case CPU_LOAD:
       return isSetCpuLoad();
+    case SPILL:
+      return isSetSpill();
     case METADATA:
       return isSetMetadata();
     }
@@ -489,6 +536,15 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         return false;
     }
 
+    boolean this_present_spill = true && this.isSetSpill();
+    boolean that_present_spill = true && that.isSetSpill();
+    if (this_present_spill || that_present_spill) {
+      if (!(this_present_spill && that_present_spill))
+        return false;
+      if (!this.spill.equals(that.spill))
+        return false;
+    }
+
     boolean this_present_metadata = true && this.isSetMetadata();
     boolean that_present_metadata = true && that.isSetMetadata();
     if (this_present_metadata || that_present_metadata) {
@@ -530,6 +586,11 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     if (present_cpuLoad)
       list.add(cpuLoad);
 
+    boolean present_spill = true && (isSetSpill());
+    list.add(present_spill);
+    if (present_spill)
+      list.add(spill);
+
     boolean present_metadata = true && (isSetMetadata());
     list.add(present_metadata);
     if (present_metadata)
@@ -596,6 +657,16 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetSpill()).compareTo(other.isSetSpill());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetSpill()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.spill, other.spill);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     lastComparison = Boolean.valueOf(isSetMetadata()).compareTo(other.isSetMetadata());
     if (lastComparison != 0) {
       return lastComparison;
@@ -667,6 +738,16 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       }
       first = false;
     }
+    if (isSetSpill()) {
+      if (!first) sb.append(", ");
+      sb.append("spill:");
+      if (this.spill == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.spill);
+      }
+      first = false;
+    }
     if (isSetMetadata()) {
       if (!first) sb.append(", ");
       sb.append("metadata:");
@@ -690,6 +771,9 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     if (cpuLoad != null) {
       cpuLoad.validate();
     }
+    if (spill != null) {
+      spill.validate();
+    }
   }
 
   private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
@@ -770,6 +854,15 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 30: // SPILL
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRUCT) {
+              struct.spill = new TSpillStat();
+              struct.spill.read(iprot);
+              struct.setSpillIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           case 200: // METADATA
             if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
               struct.metadata = iprot.readString();
@@ -822,6 +915,13 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
           oprot.writeFieldEnd();
         }
       }
+      if (struct.spill != null) {
+        if (struct.isSetSpill()) {
+          oprot.writeFieldBegin(SPILL_FIELD_DESC);
+          struct.spill.write(oprot);
+          oprot.writeFieldEnd();
+        }
+      }
       if (struct.metadata != null) {
         if (struct.isSetMetadata()) {
           oprot.writeFieldBegin(METADATA_FIELD_DESC);
@@ -862,10 +962,13 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       if (struct.isSetCpuLoad()) {
         optionals.set(4);
       }
-      if (struct.isSetMetadata()) {
+      if (struct.isSetSpill()) {
         optionals.set(5);
       }
-      oprot.writeBitSet(optionals, 6);
+      if (struct.isSetMetadata()) {
+        optionals.set(6);
+      }
+      oprot.writeBitSet(optionals, 7);
       if (struct.isSetAgentId()) {
         oprot.writeString(struct.agentId);
       }
@@ -881,6 +984,9 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
       if (struct.isSetCpuLoad()) {
         struct.cpuLoad.write(oprot);
       }
+      if (struct.isSetSpill()) {
+        struct.spill.write(oprot);
+      }
       if (struct.isSetMetadata()) {
         oprot.writeString(struct.metadata);
       }
@@ -889,7 +995,7 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
     @Override
     public void read(org.apache.thrift.protocol.TProtocol prot, TAgentStat struct) throws org.apache.thrift.TException {
       TTupleProtocol iprot = (TTupleProtocol) prot;
-      BitSet incoming = iprot.readBitSet(6);
+      BitSet incoming = iprot.readBitSet(7);
       if (incoming.get(0)) {
         struct.agentId = iprot.readString();
         struct.setAgentIdIsSet(true);
@@ -913,6 +1019,11 @@ public class TAgentStat implements org.apache.thrift.TBase<TAgentStat, TAgentSta
         struct.setCpuLoadIsSet(true);
       }
       if (incoming.get(5)) {
+        struct.spill = new TSpillStat();
+        struct.spill.read(iprot);
+        struct.setSpillIsSet(true);
+      }
+      if (incoming.get(6)) {
         struct.metadata = iprot.readString();
         struct.setMetadataIsSet(true);
       }
@@ -53,12 +53,19 @@ struct TCpuLoad {
     2: optional double       systemCpuLoad
 }
 
+struct TSpillStat {
+    1: optional i64         spillCount
+    2: optional i64         replayCount
+    3: optional i64         discardCount
+}
+
 struct TAgentStat {
     1: optional string      agentId
     2: optional i64         startTimestamp
     3: optional i64         timestamp
     10: optional TJvmGc     gc
     20: optional TCpuLoad   cpuLoad
+    30: optional TSpillStat spill
     200: optional string    metadata    
 }
 
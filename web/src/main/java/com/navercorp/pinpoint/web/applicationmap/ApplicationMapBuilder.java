@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.web.applicationmap;
 
+import com.navercorp.pinpoint.common.hbase.FutureUtils;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.common.util.AgentLifeCycleState;
 import com.navercorp.pinpoint.web.applicationmap.histogram.*;
@@ -28,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * @author emeroad
@@ -86,6 +88,11 @@ public class ApplicationMapBuilder {
         }
 
         NodeList nodeList = buildNode(linkDataDuplexMap);
+        return build(nodeList, linkDataDuplexMap, agentInfoService, nodeHistogramDataSource);
+    }
+
+    private ApplicationMap build(NodeList nodeList, LinkDataDuplexMap linkDataDuplexMap, AgentInfoService agentInfoService,
+            NodeHistogramDataSource nodeHistogramDataSource) {
         LinkList linkList = buildLink(nodeList, linkDataDuplexMap);
 
         appendNodeResponseTime(nodeList, linkList, nodeHistogramDataSource);
@@ -97,15 +104,50 @@ public class ApplicationMapBuilder {
 
     public ApplicationMap build(LinkDataDuplexMap linkDataDuplexMap, AgentInfoService agentInfoService,
             final MapResponseDao mapResponseDao) {
+        if (linkDataDuplexMap == null) {
+            throw new NullPointerException("linkDataMap must not be null");
+        }
+        if (agentInfoService == null) {
+            throw new NullPointerException("agentInfoService must not be null");
+        }
+        final NodeList nodeList = buildNode(linkDataDuplexMap);
+        final Map<Application, Future<List<ResponseTime>>> responseTimeFutureMap = selectResponseTimeAsync(nodeList, mapResponseDao);
         NodeHistogramDataSource responseSource = new NodeHistogramDataSource() {
             @Override
             public NodeHistogram createNodeHistogram(Application application) {
-                final List<ResponseTime> responseHistogram = mapResponseDao.selectResponseTime(application, range);
+                final Future<List<ResponseTime>> responseTimeFuture = responseTimeFutureMap.get(application);
+                final List<ResponseTime> responseHistogram;
+                if (responseTimeFuture != null) {
+                    responseHistogram = FutureUtils.getResult(responseTimeFuture);
+                } else {
+                    responseHistogram = mapResponseDao.selectResponseTime(application, range);
+                }
                 final NodeHistogram nodeHistogram = new NodeHistogram(application, range, responseHistogram);
                 return nodeHistogram;
             }
         };
-        return this.build(linkDataDuplexMap, agentInfoService, responseSource);
+        try {
+            return this.build(nodeList, linkDataDuplexMap, agentInfoService, responseSource);
+        } finally {
+            // scans left after a failure or not needed by the map. completed ones are not affected.
+            for (Future<List<ResponseTime>> responseTimeFuture : responseTimeFutureMap.values()) {
+                responseTimeFuture.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * issues the response time scans of every WAS node at once, instead of one node after another.
+     */
+    private Map<Application, Future<List<ResponseTime>>> selectResponseTimeAsync(NodeList nodeList, MapResponseDao mapResponseDao) {
+        final Map<Application, Future<List<ResponseTime>>> responseTimeFutureMap = new HashMap<Application, Future<List<ResponseTime>>>();
+        for (Node node : nodeList.getNodeList()) {
+            if (node.getServiceType().isWas()) {
+                final Application application = node.getApplication();
+                responseTimeFutureMap.put(application, mapResponseDao.selectResponseTimeAsync(application, range));
+            }
+        }
+        return responseTimeFutureMap;
     }
 
     public ApplicationMap build(LinkDataDuplexMap linkDataDuplexMap, AgentInfoService agentInfoService,
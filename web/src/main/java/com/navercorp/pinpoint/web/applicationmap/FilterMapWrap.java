@@ -29,6 +29,7 @@ import java.util.List;
 public class FilterMapWrap {
     private final ApplicationMap applicationMap;
     private Long lastFetchedTimestamp;
+    private boolean truncated;
 
     public FilterMapWrap(ApplicationMap applicationMap) {
         this.applicationMap = applicationMap;
@@ -39,6 +40,17 @@ public class FilterMapWrap {
         this.lastFetchedTimestamp = lastFetchedTimestamp;
     }
 
+    /**
+     * @param truncated true if the query was terminated before the map was complete
+     */
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
     public ApplicationMap getApplicationMap() {
         return applicationMap;
     }
@@ -65,31 +65,50 @@ public class Histogram {
 
     // TODO one may extract slot number from this class
     public void addCallCount(final short slotTime, final long count) {
-        final HistogramSchema schema = this.schema;
+        addCount(getSlotType(this.schema, slotTime, count), count);
+    }
+
+    static SlotType getSlotType(final HistogramSchema schema, final short slotTime, final long count) {
         if (slotTime == schema.getVerySlowSlot().getSlotTime()) { // 0 is slow slotTime
-            this.verySlowCount += count;
-            return;
+            return SlotType.VERY_SLOW;
         }
         if (slotTime == schema.getErrorSlot().getSlotTime()) { // -1 is error
-            this.errorCount += count;
-            return;
+            return SlotType.ERROR;
         }
                 // TODO if clause condition should be "==", not "<="
         if (slotTime <= schema.getFastSlot().getSlotTime()) {
-            this.fastCount += count;
-            return;
+            return SlotType.FAST;
         }
         if (slotTime <= schema.getNormalSlot().getSlotTime()) {
-            this.normalCount += count;
-            return;
+            return SlotType.NORMAL;
         }
         if (slotTime <= schema.getSlowSlot().getSlotTime()) {
-            this.slowCount += count;
-            return;
+            return SlotType.SLOW;
         }
         throw new IllegalArgumentException("slot not found slotTime:" + slotTime + " count:" + count);
     }
 
+    void addCount(final SlotType slotType, final long count) {
+        switch (slotType) {
+            case FAST:
+                this.fastCount += count;
+                return;
+            case NORMAL:
+                this.normalCount += count;
+                return;
+            case SLOW:
+                this.slowCount += count;
+                return;
+            case VERY_SLOW:
+                this.verySlowCount += count;
+                return;
+            case ERROR:
+                this.errorCount += count;
+                return;
+        }
+        throw new IllegalArgumentException("slotType:" + slotType);
+    }
+
     public HistogramSchema getHistogramSchema() {
         return this.schema;
     }
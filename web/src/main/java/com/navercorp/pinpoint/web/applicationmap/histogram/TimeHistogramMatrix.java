@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.applicationmap.histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.SlotType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+
+/**
+ * Histograms of one link or agent per time slot, stored in primitive arrays.
+ *
+ * A row holds the counts of every {@link SlotType} of a time slot : counts[row * SLOT_COUNT + slotType.ordinal()].
+ * Rows are found through an open addressing index on the time stamp, so no boxed key or {@link TimeHistogram} is kept per time slot.
+ * {@link TimeHistogram}s are only created when they are asked for.
+ */
+public class TimeHistogramMatrix {
+
+    private static final SlotType[] SLOT_TYPES = SlotType.values();
+    private static final int SLOT_COUNT = SLOT_TYPES.length;
+
+    private static final int INITIAL_ROW_CAPACITY = 4;
+
+    private final HistogramSchema schema;
+
+    private long[] timeStamps = new long[INITIAL_ROW_CAPACITY];
+    private long[] counts = new long[INITIAL_ROW_CAPACITY * SLOT_COUNT];
+    private int rowCount;
+
+    // row + 1 of each time stamp. 0 is an empty bucket
+    private int[] index = new int[INITIAL_ROW_CAPACITY * 2];
+
+    public TimeHistogramMatrix(HistogramSchema schema) {
+        if (schema == null) {
+            throw new NullPointerException("schema must not be null");
+        }
+        this.schema = schema;
+    }
+
+    public HistogramSchema getHistogramSchema() {
+        return schema;
+    }
+
+    public void addCallCount(long timeStamp, short slotTime, long count) {
+        final SlotType slotType = Histogram.getSlotType(schema, slotTime, count);
+        final int row = getRow(timeStamp);
+        counts[row * SLOT_COUNT + slotType.ordinal()] += count;
+    }
+
+    public void add(long timeStamp, Histogram histogram) {
+        if (histogram == null) {
+            throw new NullPointerException("histogram must not be null");
+        }
+        checkSchema(histogram.getHistogramSchema());
+        final int offset = getRow(timeStamp) * SLOT_COUNT;
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            counts[offset + i] += histogram.getCount(SLOT_TYPES[i]);
+        }
+    }
+
+    /**
+     * @param timeWindow refines the time stamps of the given matrix. null keeps them as they are.
+     */
+    public void add(TimeHistogramMatrix matrix, TimeWindow timeWindow) {
+        if (matrix == null) {
+            throw new NullPointerException("matrix must not be null");
+        }
+        checkSchema(matrix.schema);
+        for (int copyRow = 0; copyRow < matrix.rowCount; copyRow++) {
+            long timeStamp = matrix.timeStamps[copyRow];
+            if (timeWindow != null) {
+                timeStamp = timeWindow.refineTimestamp(timeStamp);
+            }
+            final int offset = getRow(timeStamp) * SLOT_COUNT;
+            final int copyOffset = copyRow * SLOT_COUNT;
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                counts[offset + i] += matrix.counts[copyOffset + i];
+            }
+        }
+    }
+
+    private void checkSchema(HistogramSchema schema) {
+        if (this.schema != schema) {
+            throw new IllegalArgumentException("schema not equals. this=" + this.schema + ", schema=" + schema);
+        }
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public long getTotalCount() {
+        long totalCount = 0;
+        final int length = rowCount * SLOT_COUNT;
+        for (int i = 0; i < length; i++) {
+            totalCount += counts[i];
+        }
+        return totalCount;
+    }
+
+    /**
+     * sum of every time slot
+     */
+    public void sumTo(Histogram histogram) {
+        if (histogram == null) {
+            throw new NullPointerException("histogram must not be null");
+        }
+        checkSchema(histogram.getHistogramSchema());
+        for (int row = 0; row < rowCount; row++) {
+            addRow(row, histogram);
+        }
+    }
+
+    public List<TimeHistogram> getTimeHistogramList() {
+        final List<TimeHistogram> timeHistogramList = new ArrayList<TimeHistogram>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            final TimeHistogram timeHistogram = new TimeHistogram(schema, timeStamps[row]);
+            addRow(row, timeHistogram);
+            timeHistogramList.add(timeHistogram);
+        }
+        return timeHistogramList;
+    }
+
+    private void addRow(int row, Histogram histogram) {
+        final int offset = row * SLOT_COUNT;
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            final long count = counts[offset + i];
+            if (count != 0) {
+                histogram.addCount(SLOT_TYPES[i], count);
+            }
+        }
+    }
+
+    private int getRow(long timeStamp) {
+        final int mask = index.length - 1;
+        int bucket = hash(timeStamp) & mask;
+        while (true) {
+            final int entry = index[bucket];
+            if (entry == 0) {
+                return insertRow(timeStamp, bucket);
+            }
+            if (timeStamps[entry - 1] == timeStamp) {
+                return entry - 1;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    private int insertRow(long timeStamp, int bucket) {
+        if (rowCount == timeStamps.length) {
+            final int rowCapacity = rowCount * 2;
+            this.timeStamps = Arrays.copyOf(timeStamps, rowCapacity);
+            this.counts = Arrays.copyOf(counts, rowCapacity * SLOT_COUNT);
+        }
+        final int row = rowCount++;
+        timeStamps[row] = timeStamp;
+        index[bucket] = row + 1;
+        // keep the load factor of the index under 0.5
+        if (rowCount * 2 > index.length) {
+            rehash();
+        }
+        return row;
+    }
+
+    private void rehash() {
+        final int[] newIndex = new int[index.length * 2];
+        final int mask = newIndex.length - 1;
+        for (int row = 0; row < rowCount; row++) {
+            int bucket = hash(timeStamps[row]) & mask;
+            while (newIndex[bucket] != 0) {
+                bucket = (bucket + 1) & mask;
+            }
+            newIndex[bucket] = row + 1;
+        }
+        this.index = newIndex;
+    }
+
+    private static int hash(long timeStamp) {
+        // time stamps are multiples of a time slot. spread the higher bits
+        long hash = timeStamp * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "TimeHistogramMatrix{" +
+                "schema=" + schema +
+                ", " + getTimeHistogramList() +
+                '}';
+    }
+}
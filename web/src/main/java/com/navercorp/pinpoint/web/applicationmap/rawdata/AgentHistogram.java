@@ -19,13 +19,12 @@ package com.navercorp.pinpoint.web.applicationmap.rawdata;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.web.applicationmap.histogram.Histogram;
 import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogramMatrix;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  *
@@ -39,7 +38,7 @@ public class AgentHistogram {
      */
     private final Application agentId;
 
-    private final Map<Long, TimeHistogram> timeHistogramMap;
+    private final TimeHistogramMatrix timeHistogramMatrix;
 
     public AgentHistogram(Application agentId) {
         if (agentId == null) {
@@ -47,7 +46,7 @@ public class AgentHistogram {
         }
 
         this.agentId = agentId;
-        this.timeHistogramMap = new HashMap<Long, TimeHistogram>();
+        this.timeHistogramMatrix = new TimeHistogramMatrix(agentId.getServiceType().getHistogramSchema());
     }
 
     public AgentHistogram(AgentHistogram copyAgentHistogram) {
@@ -57,8 +56,8 @@ public class AgentHistogram {
 
         this.agentId = copyAgentHistogram.agentId;
 
-        this.timeHistogramMap = new HashMap<Long, TimeHistogram>();
-        addTimeHistogram(copyAgentHistogram.timeHistogramMap.values());
+        this.timeHistogramMatrix = new TimeHistogramMatrix(agentId.getServiceType().getHistogramSchema());
+        this.timeHistogramMatrix.add(copyAgentHistogram.timeHistogramMatrix, null);
     }
 
     @JsonProperty("name")
@@ -79,24 +78,32 @@ public class AgentHistogram {
     @JsonProperty("histogram")
     public Histogram getHistogram() {
         Histogram histogram = new Histogram(agentId.getServiceType());
-        for (TimeHistogram timeHistogram : timeHistogramMap.values()) {
-            histogram.add(timeHistogram);
-        }
+        timeHistogramMatrix.sumTo(histogram);
         return histogram;
     }
 
+    /**
+     * @return new {@link TimeHistogram}s
+     */
     @JsonIgnore
     public Collection<TimeHistogram> getTimeHistogram() {
-        return timeHistogramMap.values();
+        return timeHistogramMatrix.getTimeHistogramList();
+    }
+
+    @JsonIgnore
+    public TimeHistogramMatrix getTimeHistogramMatrix() {
+        return timeHistogramMatrix;
     }
 
     public void addTimeHistogram(TimeHistogram timeHistogram) {
-        TimeHistogram find = this.timeHistogramMap.get(timeHistogram.getTimeStamp());
-        if (find == null) {
-            find = new TimeHistogram(agentId.getServiceType(), timeHistogram.getTimeStamp());
-            this.timeHistogramMap.put(timeHistogram.getTimeStamp(), find);
+        this.timeHistogramMatrix.add(timeHistogram.getTimeStamp(), timeHistogram);
+    }
+
+    public void addTimeHistogram(TimeHistogramMatrix timeHistogramMatrix) {
+        if (timeHistogramMatrix == null) {
+            throw new NullPointerException("timeHistogramMatrix must not be null");
         }
-        find.add(timeHistogram);
+        this.timeHistogramMatrix.add(timeHistogramMatrix, null);
     }
 
     public void addTimeHistogram(Collection<TimeHistogram> histogramList) {
@@ -116,7 +123,7 @@ public class AgentHistogram {
         sb.append("agent='").append(agentId.getName()).append('\'');
         sb.append(", serviceType=").append(agentId.getServiceType());
         // FIXME temporarily hard-coded due to a change in the data structure
-        sb.append(", ").append(timeHistogramMap);
+        sb.append(", ").append(timeHistogramMatrix);
         sb.append('}');
         return sb.toString();
     }
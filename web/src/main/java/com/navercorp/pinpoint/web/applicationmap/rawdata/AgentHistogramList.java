@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.web.applicationmap.rawdata;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.web.applicationmap.histogram.Histogram;
 import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogramMatrix;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.navercorp.pinpoint.web.vo.ResponseTime;
 
@@ -86,6 +87,15 @@ public class AgentHistogramList {
         addTimeHistogram(agentId, timeHistogram);
     }
 
+    public void addAgentHistogram(String agentName, ServiceType serviceType, TimeHistogramMatrix timeHistogramMatrix) {
+        if (timeHistogramMatrix == null) {
+            throw new NullPointerException("timeHistogramMatrix must not be null");
+        }
+        Application agentId = new Application(agentName, serviceType);
+        AgentHistogram agentHistogram = getAgentHistogram(agentId);
+        agentHistogram.addTimeHistogram(timeHistogramMatrix);
+    }
+
 
 
     private AgentHistogram getAgentHistogram(Application agentId) {
@@ -120,7 +130,7 @@ public class AgentHistogramList {
 
         Application agentId = new Application(hostName, serviceType);
         AgentHistogram findAgentHistogram = getAgentHistogram(agentId);
-        findAgentHistogram.addTimeHistogram(agentHistogram.getTimeHistogram());
+        findAgentHistogram.addTimeHistogram(agentHistogram.getTimeHistogramMatrix());
     }
 
     public void addAgentHistogram(AgentHistogramList addAgentHistogramList) {
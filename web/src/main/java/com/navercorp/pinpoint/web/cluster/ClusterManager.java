@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.web.cluster;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author koo.taejin
@@ -29,4 +30,9 @@ public interface ClusterManager {
 
     List<String> getRegisteredAgentList(String applicationName, String agentId, long startTimeStamp);
 
+    /**
+     * @return agentId -> startTimestamp of the agents of the application connected to a collector
+     */
+    Map<String, Long> getConnectedAgents(String applicationName);
+
 }
@@ -18,10 +18,15 @@ package com.navercorp.pinpoint.web.cluster;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec;
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec.Member;
+
 /**
  * @author koo.taejin
  *
@@ -32,71 +37,188 @@ public class CollectorClusterInfoRepository {
 
     private static final String PROFILER_SEPARATOR = "\r\n";
 
-    private final Map<String, Map<String, String>> repository = new HashMap<String, Map<String, String>>();
+    // source -> profiler -> collectorId. a source is the node of a collector, or one of its membership buckets
+    private final Map<String, Map<Member, String>> repository = new HashMap<String, Map<Member, String>>();
+
+    // collectors listing each profiler
+    private final Map<Member, List<String>> profilerCollectors = new HashMap<Member, List<String>>();
+    // applicationName -> agentId -> startTimestamp of the agents connected to a collector. updated with the changes of each collector
+    private final Map<String, Map<String, Long>> applicationAgentIndex = new HashMap<String, Map<String, Long>>();
 
     private final Object lock = new Object();
 
+    /**
+     * replaces the profilers of a collector published in a single node
+     */
     public void put(String id, byte[] data) {
-        synchronized (lock) {
-            Map<String, String> newMap = new HashMap<String, String>();
+        List<Member> profilers = new ArrayList<Member>();
 
-            String[] profilerInfoList = new String(data, charset).split(PROFILER_SEPARATOR);
+        String[] profilerInfoList = new String(data, charset).split(PROFILER_SEPARATOR);
+        for (String profilerInfo : profilerInfoList) {
+            if (profilerInfo == null || profilerInfo.trim().equals("")) {
+                continue;
+            }
 
-            for (String profilerInfo : profilerInfoList) {
-                if (profilerInfo == null || profilerInfo.trim().equals("")) {
-                    continue;
-                }
+            Member profiler = parseProfilerInfo(profilerInfo);
+            if (profiler != null) {
+                profilers.add(profiler);
+            }
+        }
+
+        put(id, id, profilers);
+    }
+
+    /**
+     * replaces the profilers of a membership bucket, leaving the other buckets of the collector as they are
+     *
+     * @throws IllegalArgumentException if the name or the data is not a membership bucket
+     */
+    public void putBucket(String bucketName, byte[] data) {
+        String collectorId = AgentMembershipCodec.getCollectorId(bucketName);
+        if (collectorId == null) {
+            throw new IllegalArgumentException("not a membership bucket:" + bucketName);
+        }
+
+        put(bucketName, collectorId, AgentMembershipCodec.decode(data));
+    }
 
-                newMap.put(profilerInfo, id);
+    private void put(String sourceId, String collectorId, Collection<Member> profilers) {
+        synchronized (lock) {
+            Map<Member, String> newMap = new HashMap<Member, String>();
+            for (Member profiler : profilers) {
+                newMap.put(profiler, collectorId);
             }
 
-            repository.put(id, newMap);
+            final Map<Member, String> oldMap = repository.put(sourceId, newMap);
+            for (Member profiler : newMap.keySet()) {
+                if (oldMap == null || !oldMap.containsKey(profiler)) {
+                    addProfiler(profiler, collectorId);
+                }
+            }
+            if (oldMap != null) {
+                for (Map.Entry<Member, String> entry : oldMap.entrySet()) {
+                    if (!newMap.containsKey(entry.getKey())) {
+                        removeProfiler(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
         }
     }
 
+    /**
+     * removes a collector node or a membership bucket
+     */
     public void remove(String id) {
         synchronized (lock) {
-            repository.remove(id);
+            final Map<Member, String> oldMap = repository.remove(id);
+            if (oldMap != null) {
+                for (Map.Entry<Member, String> entry : oldMap.entrySet()) {
+                    removeProfiler(entry.getKey(), entry.getValue());
+                }
+            }
         }
     }
 
-    public List<String> get(String applicationName, String agentId, long startTimeStamp) {
-        List<String> result = new ArrayList<String>();
+    private void addProfiler(Member profiler, String collectorId) {
+        List<String> collectors = profilerCollectors.get(profiler);
+        if (collectors != null) {
+            collectors.add(collectorId);
+            return;
+        }
+        collectors = new ArrayList<String>(1);
+        collectors.add(collectorId);
+        profilerCollectors.put(profiler, collectors);
+
+        Map<String, Long> agentMap = applicationAgentIndex.get(profiler.getApplicationName());
+        if (agentMap == null) {
+            agentMap = new HashMap<String, Long>();
+            applicationAgentIndex.put(profiler.getApplicationName(), agentMap);
+        }
+        final Long startTimestamp = agentMap.get(profiler.getAgentId());
+        if (startTimestamp == null || startTimestamp < profiler.getStartTimestamp()) {
+            // the latest start of a restarted agent
+            agentMap.put(profiler.getAgentId(), profiler.getStartTimestamp());
+        }
+    }
+
+    private void removeProfiler(Member profiler, String collectorId) {
+        final List<String> collectors = profilerCollectors.get(profiler);
+        if (collectors == null) {
+            return;
+        }
+        collectors.remove(collectorId);
+        if (!collectors.isEmpty()) {
+            return;
+        }
+        profilerCollectors.remove(profiler);
+
+        final Map<String, Long> agentMap = applicationAgentIndex.get(profiler.getApplicationName());
+        if (agentMap == null) {
+            return;
+        }
+        final Long startTimestamp = agentMap.get(profiler.getAgentId());
+        if (startTimestamp != null && startTimestamp == profiler.getStartTimestamp()) {
+            agentMap.remove(profiler.getAgentId());
+            if (agentMap.isEmpty()) {
+                applicationAgentIndex.remove(profiler.getApplicationName());
+            }
+        }
+    }
 
+    /**
+     * @return agentId -> startTimestamp of the agents of the application connected to a collector
+     */
+    public Map<String, Long> getConnectedAgents(String applicationName) {
         synchronized (lock) {
-            String key = bindingKey(applicationName, agentId, startTimeStamp);
-            for (Map<String, String> eachCollectorClusterInfo : repository.values()) {
-                String collectorId = eachCollectorClusterInfo.get(key);
-                if (collectorId != null) {
-                    result.add(collectorId);
-                }
+            final Map<String, Long> agentMap = applicationAgentIndex.get(applicationName);
+            if (agentMap == null) {
+                return Collections.emptyMap();
             }
+            return new HashMap<String, Long>(agentMap);
         }
+    }
 
-        return result;
+    public List<String> get(String applicationName, String agentId, long startTimeStamp) {
+        synchronized (lock) {
+            final List<String> collectors = profilerCollectors.get(new Member(applicationName, agentId, startTimeStamp));
+            if (collectors == null) {
+                return new ArrayList<String>();
+            }
+            return new ArrayList<String>(collectors);
+        }
     }
 
     public void clear() {
         synchronized (lock) {
             repository.clear();
+            profilerCollectors.clear();
+            applicationAgentIndex.clear();
         }
     }
 
-    private String bindingKey(String applicationName, String agentId, long startTimeStamp) {
-        StringBuilder key = new StringBuilder();
-
-        key.append(applicationName);
-        key.append(":");
-        key.append(agentId);
-        key.append(":");
-        key.append(startTimeStamp);
-
-        return key.toString();
-    }
-
     @Override
     public String toString() {
         return repository.toString();
     }
 
+    /**
+     * parses applicationName:agentId:startTimestamp. null if malformed.
+     */
+    private static Member parseProfilerInfo(String profilerInfo) {
+        final int startTimestampIndex = profilerInfo.lastIndexOf(':');
+        if (startTimestampIndex <= 0) {
+            return null;
+        }
+        final int agentIdIndex = profilerInfo.lastIndexOf(':', startTimestampIndex - 1);
+        if (agentIdIndex <= 0) {
+            return null;
+        }
+        try {
+            final long startTimestamp = Long.parseLong(profilerInfo.substring(startTimestampIndex + 1));
+            return new Member(profilerInfo.substring(0, agentIdIndex), profilerInfo.substring(agentIdIndex + 1, startTimestampIndex), startTimestamp);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
 }
@@ -17,9 +17,12 @@
 package com.navercorp.pinpoint.web.cluster.zookeeper;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -51,6 +54,7 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
     private static final String PINPOINT_CLUSTER_PATH = "/pinpoint-cluster";
     private static final String PINPOINT_WEB_CLUSTER_PATh = PINPOINT_CLUSTER_PATH + "/web";
     private static final String PINPOINT_COLLECTOR_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/collector";
+    private static final String PINPOINT_MEMBERSHIP_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/membership";
 
     private static final long SYNC_INTERVAL_TIME_MILLIS = 15 * 1000;
 
@@ -70,6 +74,9 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
 
     private final CollectorClusterInfoRepository collectorClusterInfo = new CollectorClusterInfoRepository();
 
+    // membership buckets whose data is watched. a children change only fetches the buckets not listed here.
+    private final Set<String> membershipBuckets = new HashSet<String>();
+
     public ZookeeperClusterManager(String zookeeperAddress, int sessionTimeout, int retryInterval) throws KeeperException, IOException, InterruptedException {
         synchronized(initializeLock) {
             this.client = new ZookeeperClient(zookeeperAddress, sessionTimeout, this, DEFAULT_RECONNECT_DELAY_WHEN_SESSION_EXPIRED);
@@ -149,7 +156,10 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
 
     private boolean handleDisconnected() {
         connected.compareAndSet(true, false);
-        collectorClusterInfo.clear();
+        synchronized (this) {
+            collectorClusterInfo.clear();
+            membershipBuckets.clear();
+        }
         return true;
     }
 
@@ -184,6 +194,11 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
                 return true;
             }
             timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (PINPOINT_MEMBERSHIP_CLUSTER_PATH.equals(path)) {
+            if (pullNewMembershipBuckets()) {
+                return true;
+            }
+            timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
         }
 
         return false;
@@ -191,6 +206,15 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
 
     private boolean handleNodeDeleted(String path) {
         if (path != null) {
+            String bucketName = zookeeperClusterManagerHelper.extractMembershipBucketName(path, PINPOINT_MEMBERSHIP_CLUSTER_PATH);
+            if (bucketName != null) {
+                synchronized (this) {
+                    membershipBuckets.remove(bucketName);
+                    collectorClusterInfo.remove(bucketName);
+                }
+                return true;
+            }
+
             String id = zookeeperClusterManagerHelper.extractCollectorClusterId(path, PINPOINT_COLLECTOR_CLUSTER_PATH);
             if (id != null) {
                 collectorClusterInfo.remove(id);
@@ -202,6 +226,15 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
 
     private boolean handleNodeDataChanged(String path) {
         if (path != null) {
+            String bucketName = zookeeperClusterManagerHelper.extractMembershipBucketName(path, PINPOINT_MEMBERSHIP_CLUSTER_PATH);
+            if (bucketName != null) {
+                if (pushMembershipBucketData(bucketName)) {
+                    return true;
+                }
+                timer.newTimeout(new PullCollectorClusterJob(), SYNC_INTERVAL_TIME_MILLIS, TimeUnit.MILLISECONDS);
+                return false;
+            }
+
             String id = zookeeperClusterManagerHelper.extractCollectorClusterId(path, PINPOINT_COLLECTOR_CLUSTER_PATH);
             if (id != null) {
                 if (pushCollectorClusterData(id)) {
@@ -230,6 +263,11 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
         return collectorClusterInfo.get(applicationName, agentId, startTimeStamp);
     }
 
+    @Override
+    public Map<String, Long> getConnectedAgents(String applicationName) {
+        return collectorClusterInfo.getConnectedAgents(applicationName);
+    }
+
     private Timer createTimer() {
         HashedWheelTimer timer = TimerFactory.createHashedWheelTimer("Pinpoint-Web-Cluster-Timer", 100, TimeUnit.MILLISECONDS, 512);
         timer.start();
@@ -250,10 +288,87 @@ public class ZookeeperClusterManager implements ClusterManager, Watcher {
             for (Map.Entry<String, byte[]> entry : map.entrySet()) {
                 collectorClusterInfo.put(entry.getKey(), entry.getValue());
             }
+
+            return syncPullMembershipBuckets();
+        }
+    }
+
+    private boolean syncPullMembershipBuckets() {
+        synchronized (this) {
+            Map<String, byte[]> map = zookeeperClusterManagerHelper.syncPullMembershipBuckets(client, PINPOINT_MEMBERSHIP_CLUSTER_PATH);
+            if (Collections.EMPTY_MAP == map) {
+                return false;
+            }
+
+            for (String bucketName : new ArrayList<String>(membershipBuckets)) {
+                if (!map.containsKey(bucketName)) {
+                    membershipBuckets.remove(bucketName);
+                    collectorClusterInfo.remove(bucketName);
+                }
+            }
+            for (Map.Entry<String, byte[]> entry : map.entrySet()) {
+                putMembershipBucket(entry.getKey(), entry.getValue());
+            }
             return true;
         }
     }
 
+    // buckets are created once per collector and bucket, so only the new ones are read. the others are followed by their data watch.
+    private boolean pullNewMembershipBuckets() {
+        synchronized (this) {
+            try {
+                List<String> bucketNameList = client.getChildren(PINPOINT_MEMBERSHIP_CLUSTER_PATH, true);
+                for (String bucketName : bucketNameList) {
+                    if (!membershipBuckets.contains(bucketName)) {
+                        pushMembershipBucketData(bucketName);
+                    }
+                }
+
+                Set<String> removedBuckets = new HashSet<String>(membershipBuckets);
+                removedBuckets.removeAll(bucketNameList);
+                for (String bucketName : removedBuckets) {
+                    membershipBuckets.remove(bucketName);
+                    collectorClusterInfo.remove(bucketName);
+                }
+                return true;
+            } catch (Exception e) {
+                logger.warn(e.getMessage(), e);
+            }
+
+            return false;
+        }
+    }
+
+    private boolean pushMembershipBucketData(String bucketName) {
+        String path = zookeeperClusterManagerHelper.bindingPathAndZnode(PINPOINT_MEMBERSHIP_CLUSTER_PATH, bucketName);
+        synchronized (this) {
+            try {
+                byte[] data = client.getData(path, true);
+
+                putMembershipBucket(bucketName, data);
+                return true;
+            } catch(NoNodeException e) {
+                logger.warn("No node path({}).", path);
+                membershipBuckets.remove(bucketName);
+                collectorClusterInfo.remove(bucketName);
+                return true;
+            } catch (Exception e) {
+                logger.warn(e.getMessage(), e);
+            }
+
+            return false;
+        }
+    }
+
+    private void putMembershipBucket(String bucketName, byte[] data) {
+        try {
+            collectorClusterInfo.putBucket(bucketName, data);
+            membershipBuckets.add(bucketName);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Illegal membership bucket({}). {}", bucketName, e.getMessage());
+        }
+    }
+
     private boolean pushCollectorClusterData(String id) {
         String path = zookeeperClusterManagerHelper.bindingPathAndZnode(PINPOINT_COLLECTOR_CLUSTER_PATH, id);
         synchronized (this) {
@@ -85,6 +85,32 @@ public class ZookeeperClusterManagerHelper {
         return null;
     }
 
+    Map<String, byte[]> syncPullMembershipBuckets(ZookeeperClient client, String path) {
+        try {
+            // the parent must exist for the children watch to be registered before any collector publishes its buckets
+            if (!client.exists(path)) {
+                client.createPath(bindingPathAndZnode(path, "bucket"));
+            }
+        } catch (Exception e) {
+            logger.warn(e.getMessage(), e);
+            return Collections.emptyMap();
+        }
+
+        return syncPullCollectorCluster(client, path);
+    }
+
+    /**
+     * @return null if the path is not a child of the membership path
+     */
+    String extractMembershipBucketName(String path, String membershipPath) {
+        String parentPath = membershipPath + PATH_SEPARATOR;
+        if (path.startsWith(parentPath) && path.length() > parentPath.length()) {
+            return path.substring(parentPath.length());
+        }
+
+        return null;
+    }
+
     boolean pushWebClusterResource(ZookeeperClient client, PushWebClusterJob job) {
         if (job == null) {
             return false;
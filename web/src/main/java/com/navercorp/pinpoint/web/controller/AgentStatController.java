@@ -121,6 +121,14 @@ public class AgentStatController {
         return this.agentInfoService.getAgentStatus(agentId, timestamp);
     }
     
+    @RequestMapping(value="/getAgentStatusList", method=RequestMethod.GET)
+    @ResponseBody
+    public List<AgentStatus> getAgentStatusList(
+            @RequestParam("application") String applicationName,
+            @RequestParam("timestamp") long timestamp) {
+        return this.agentInfoService.getAgentStatusList(applicationName, timestamp);
+    }
+    
     @RequestMapping(value="/getAgentEvent", method=RequestMethod.GET)
     @ResponseBody
     public AgentEvent getAgentEvent(
@@ -34,6 +34,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMap;
 import com.navercorp.pinpoint.web.calltree.span.CallTreeIterator;
 import com.navercorp.pinpoint.web.filter.Filter;
@@ -190,6 +191,8 @@ public class BusinessTransactionController {
         mv.addObject("callstackStart", recordSet.getStartTime());
         mv.addObject("callstackEnd", recordSet.getEndTime());
         mv.addObject("completeState", spanResult.getCompleteTypeString());
+        // the query was terminated before the metadata of the call tree was read
+        mv.addObject("truncated", CancellationTokenHolder.isTruncated());
         
         mv.addObject("logLinkEnable", logLinkEnable);
         mv.addObject("loggingTransactionInfo", recordSet.isLoggingTransactionInfo());
@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.web.controller;
 
 import java.util.List;
 
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.util.DateUtils;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMap;
@@ -126,6 +127,7 @@ public class FilteredMapController {
 
         FilterMapWrap mapWrap = new FilterMapWrap(map);
         mapWrap.setLastFetchedTimestamp(lastScanTime);
+        mapWrap.setTruncated(CancellationTokenHolder.isTruncated());
         return mapWrap;
     }
 
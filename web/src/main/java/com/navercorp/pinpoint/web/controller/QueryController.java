@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.navercorp.pinpoint.web.service.QueryCancellationRegistry;
+
+/**
+ * cancels a query the browser gave up on, by the queryId parameter it was requested with.
+ */
+@Controller
+public class QueryController {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private QueryCancellationRegistry registry;
+
+    @RequestMapping(value = "/cancelQuery", method = {RequestMethod.GET, RequestMethod.POST})
+    @ResponseBody
+    public String cancelQuery(@RequestParam("queryId") String queryId) {
+        final boolean cancelled = registry.cancel(queryId);
+        logger.debug("cancelQuery queryId:{} cancelled:{}", queryId, cancelled);
+        return cancelled ? "OK" : "NOT_FOUND";
+    }
+}
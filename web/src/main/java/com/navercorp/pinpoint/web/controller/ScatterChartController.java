@@ -16,11 +16,13 @@
 
 package com.navercorp.pinpoint.web.controller;
 
+import java.io.IOException;
 import java.util.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
 import com.navercorp.pinpoint.common.bo.SpanBo;
 import com.navercorp.pinpoint.common.util.DateUtils;
 import com.navercorp.pinpoint.web.filter.Filter;
@@ -29,8 +31,12 @@ import com.navercorp.pinpoint.web.service.FilteredMapService;
 import com.navercorp.pinpoint.web.service.ScatterChartService;
 import com.navercorp.pinpoint.web.util.LimitUtils;
 import com.navercorp.pinpoint.web.util.TimeUtils;
+import com.navercorp.pinpoint.web.view.CompactScatterWriter;
 import com.navercorp.pinpoint.web.vo.*;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotScanResult;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterGrid;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterGridIndex;
 import com.navercorp.pinpoint.web.vo.scatter.ScatterIndex;
 
 import org.slf4j.Logger;
@@ -67,6 +73,8 @@ public class ScatterChartController {
     private static final String PREFIX_TIME = "T";
     private static final String PREFIX_RESPONSE_TIME = "R";
 
+    private static final int COMPACT_VERSION = 4;
+
     @Deprecated
     @RequestMapping(value = "/scatterpopup", method = RequestMethod.GET)
     public String scatterPopup(Model model,
@@ -91,18 +99,31 @@ public class ScatterChartController {
      * @param to
      * @param limit           max number of data return. if the requested data exceed this limit, we need additional calls to
      *                        fetch the rest of the data
+     * @param xGroupUnit      when both group units are given, dots are aggregated into a grid of xGroupUnit(ms) x yGroupUnit(ms) cells
+     *                        and only the cell counts with a few sample dots are returned
+     * @param yGroupUnit
+     * @param version         4 streams the dots in the binary format of {@link CompactScatterWriter}. filter and group units are not supported
      * @return
      */
     @RequestMapping(value = "/getScatterData", method = RequestMethod.GET)
-    public ModelAndView getScatterData(
+    public ModelAndView getScatterData(HttpServletResponse response,
             @RequestParam("application") String applicationName,
             @RequestParam("from") long from,
             @RequestParam("to") long to,
             @RequestParam("limit") int limit,
             @RequestParam(value = "filter", required = false) String filterText,
             @RequestParam(value = "_callback", required = false) String jsonpCallback,
-            @RequestParam(value = "v", required = false, defaultValue = "2") int version) {
+            @RequestParam(value = "v", required = false, defaultValue = "2") int version,
+            @RequestParam(value = "xGroupUnit", required = false, defaultValue = "0") long xGroupUnit,
+            @RequestParam(value = "yGroupUnit", required = false, defaultValue = "0") int yGroupUnit) throws IOException {
         limit = LimitUtils.checkRange(limit);
+        if (xGroupUnit < 0 || yGroupUnit < 0) {
+            throw new IllegalArgumentException("negative groupUnit. xGroupUnit:" + xGroupUnit + ", yGroupUnit:" + yGroupUnit);
+        }
+        final ScatterGrid scatterGrid = createScatterGrid(xGroupUnit, yGroupUnit);
+        if (version == COMPACT_VERSION && (filterText != null || scatterGrid != null)) {
+            throw new IllegalArgumentException("v=" + COMPACT_VERSION + " does not support filter or groupUnit");
+        }
 
         StopWatch watch = new StopWatch();
         watch.start("selectScatterData");
@@ -112,10 +133,14 @@ public class ScatterChartController {
         logger.debug("fetch scatter data. {}, LIMIT={}, FILTER={}", range, limit, filterText);
 
         ModelAndView mv;
-        if (filterText == null) {
-            mv = selectScatterData(applicationName, range, limit, jsonpCallback, version);
+        if (version == COMPACT_VERSION) {
+            writeCompactScatterData(applicationName, range, limit, response);
+            // the response is already written.
+            mv = null;
+        } else if (filterText == null) {
+            mv = selectScatterData(applicationName, range, limit, jsonpCallback, version, scatterGrid);
         } else {
-            mv = selectFilterScatterDataData(applicationName, range, filterText, limit, jsonpCallback, version);
+            mv = selectFilterScatterDataData(applicationName, range, filterText, limit, jsonpCallback, version, scatterGrid);
         }
 
         watch.stop();
@@ -125,7 +150,14 @@ public class ScatterChartController {
         return mv;
     }
 
-    private ModelAndView selectFilterScatterDataData(String applicationName, Range range, String filterText, int limit, String jsonpCallback, int version) {
+    private ScatterGrid createScatterGrid(long xGroupUnit, int yGroupUnit) {
+        if (xGroupUnit == 0 || yGroupUnit == 0) {
+            return null;
+        }
+        return new ScatterGrid(xGroupUnit, yGroupUnit);
+    }
+
+    private ModelAndView selectFilterScatterDataData(String applicationName, Range range, String filterText, int limit, String jsonpCallback, int version, ScatterGrid scatterGrid) {
 
         final LimitedScanResult<List<TransactionId>> limitedScanResult = flow.selectTraceIdsFromApplicationTraceIndex(applicationName, range, limit);
 
@@ -149,27 +181,51 @@ public class ScatterChartController {
         } else {
             resultRange = new Range(limitedScanResult.getLimitedTime(), range.getTo());
         }
-        return createModelAndView(resultRange, jsonpCallback, scatterData, version);
+        return createModelAndView(resultRange, jsonpCallback, scatterData, version, scatterGrid);
     }
 
-    private ModelAndView selectScatterData(String applicationName, Range range, int limit, String jsonpCallback, int version) {
+    private ModelAndView selectScatterData(String applicationName, Range range, int limit, String jsonpCallback, int version, ScatterGrid scatterGrid) {
 
-        final List<Dot> scatterData = scatter.selectScatterData(applicationName, range, limit);
+        final DotScanResult dotScanResult = scatter.selectScatterData(applicationName, range, limit);
+        final List<Dot> scatterData = dotScanResult.getDotList();
         Range resultRange;
         if (scatterData.isEmpty()) {
             resultRange = new Range(-1, -1);
         } else {
             resultRange = new Range(scatterData.get(scatterData.size() - 1).getAcceptedTime(), range.getTo());
         }
-        return createModelAndView(resultRange, jsonpCallback, scatterData, version);
+        final ModelAndView mv = createModelAndView(resultRange, jsonpCallback, scatterData, version, scatterGrid);
+
+        final long totalCount = dotScanResult.getTotalCount();
+        if (totalCount != DotScanResult.UNKNOWN_TOTAL_COUNT) {
+            // counts are rounded to time slots, so they may be a little short of the dots of a narrow range
+            final long sampleCount = scatterData.size();
+            mv.addObject("totalCount", Math.max(totalCount, sampleCount));
+            mv.addObject("samplingRatio", sampleCount == 0 ? 1.0 : (double) sampleCount / Math.max(totalCount, sampleCount));
+        }
+        return mv;
+    }
+
+    private void writeCompactScatterData(String applicationName, Range range, int limit, HttpServletResponse response) throws IOException {
+        response.setContentType(CompactScatterWriter.CONTENT_TYPE);
+        final CompactScatterWriter writer = new CompactScatterWriter(response.getOutputStream(), range);
+        scatter.selectScatterData(applicationName, range, limit, writer);
+        writer.close();
+        logger.debug("compact scatter data written. dotCount:{}", writer.getDotCount());
     }
 
-    private ModelAndView createModelAndView(Range range, String jsonpCallback, List<Dot> scatterData, int version) {
+    private ModelAndView createModelAndView(Range range, String jsonpCallback, List<Dot> scatterData, int version, ScatterGrid scatterGrid) {
         ModelAndView mv = new ModelAndView();
         mv.addObject("resultFrom", range.getFrom());
         mv.addObject("resultTo", range.getTo());
-        mv.addObject("scatterIndex", ScatterIndex.MATA_DATA);
-        if(version <= 2) {
+        // the query was terminated. dots are read up to resultFrom
+        mv.addObject("truncated", CancellationTokenHolder.isTruncated());
+        if (scatterGrid != null) {
+            scatterGrid.addDotList(scatterData);
+            mv.addObject("scatterIndex", ScatterGridIndex.META_DATA);
+            mv.addObject("scatter", scatterGrid);
+        } else if(version <= 2) {
+            mv.addObject("scatterIndex", ScatterIndex.MATA_DATA);
             mv.addObject("scatter", scatterData);
         } else {
             final Map<String, List<Dot>> scatterAgentData = new HashMap<String, List<Dot>>();
@@ -182,6 +238,7 @@ public class ScatterChartController {
                 list.add(dot);
             }
 
+            mv.addObject("scatterIndex", ScatterIndex.MATA_DATA);
             mv.addObject("scatter", scatterAgentData);
         }
 
@@ -201,20 +258,22 @@ public class ScatterChartController {
      * @return
      */
     @RequestMapping(value = "/getLastScatterData", method = RequestMethod.GET)
-    public ModelAndView getLastScatterData(
+    public ModelAndView getLastScatterData(HttpServletResponse response,
             @RequestParam("application") String applicationName,
             @RequestParam("period") long period,
             @RequestParam("limit") int limit,
             @RequestParam(value = "filter", required = false) String filterText,
             @RequestParam(value = "_callback", required = false) String jsonpCallback,
-            @RequestParam(value = "v", required = false, defaultValue = "1") int version) {
+            @RequestParam(value = "v", required = false, defaultValue = "1") int version,
+            @RequestParam(value = "xGroupUnit", required = false, defaultValue = "0") long xGroupUnit,
+            @RequestParam(value = "yGroupUnit", required = false, defaultValue = "0") int yGroupUnit) throws IOException {
         limit = LimitUtils.checkRange(limit);
 
         long to = TimeUtils.getDelayLastTime();
         long from = to - period;
 
         // TODO versioning is temporary. to sync template change and server dev
-        return getScatterData(applicationName, from, to, limit, filterText, jsonpCallback, version);
+        return getScatterData(response, applicationName, from, to, limit, filterText, jsonpCallback, version, xGroupUnit, yGroupUnit);
     }
 
     /**
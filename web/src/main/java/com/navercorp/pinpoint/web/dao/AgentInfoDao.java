@@ -16,6 +16,9 @@
 
 package com.navercorp.pinpoint.web.dao;
 
+import java.util.List;
+import java.util.Map;
+
 import com.navercorp.pinpoint.common.bo.AgentInfoBo;
 
 /**
@@ -27,4 +30,20 @@ public interface AgentInfoDao {
     AgentInfoBo getAgentInfo(String agentId, long timestamp);
     
     AgentInfoBo getInitialAgentInfo(String agentId);
+
+    /**
+     * @return information of each agent with its start time closest to the given timestamp, in the order of the given agents. null if not found.
+     */
+    List<AgentInfoBo> getAgentInfoList(List<String> agentIdList, long timestamp);
+
+    /**
+     * @param agentStartTimestampMap agentId -> startTimestamp
+     * @return information of the agents started at the given time. agents not found are left out.
+     */
+    List<AgentInfoBo> getAgentInfoList(Map<String, Long> agentStartTimestampMap);
+
+    /**
+     * @return the very first information of each agent, in the order of the given agents. null if not found.
+     */
+    List<AgentInfoBo> getInitialAgentInfoList(List<String> agentIdList);
 }
@@ -16,6 +16,8 @@
 
 package com.navercorp.pinpoint.web.dao;
 
+import java.util.List;
+
 import com.navercorp.pinpoint.common.bo.AgentLifeCycleBo;
 
 /**
@@ -24,5 +26,10 @@ import com.navercorp.pinpoint.common.bo.AgentLifeCycleBo;
 public interface AgentLifeCycleDao {
 
     AgentLifeCycleBo getAgentLifeCycle(String agentId, long timestamp);
+
+    /**
+     * @return the latest life cycle of each agent before the given timestamp, in the order of the given agents. null if not found.
+     */
+    List<AgentLifeCycleBo> getAgentLifeCycleList(List<String> agentIdList, long timestamp);
     
 }
@@ -19,10 +19,17 @@ package com.navercorp.pinpoint.web.dao;
 import java.util.List;
 
 import com.navercorp.pinpoint.common.bo.ApiMetaDataBo;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 /**
  * @author emeroad
  */
 public interface ApiMetaDataDao {
     List<ApiMetaDataBo> getApiMetaData(String agentId, long time, int apiId);
+
+    /**
+     * selects every key with a single multi get.
+     * @return metadata of each key in the order of the given keys. an empty list if not found.
+     */
+    List<List<ApiMetaDataBo>> getApiMetaDataList(List<MetaDataKey> keyList);
 }
@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotHandler;
 
 /**
  * @author emeroad
@@ -36,6 +37,19 @@ public interface ApplicationTraceIndexDao {
 
     List<Dot> scanTraceScatter(String applicationName, Range range, int limit);
 
+    /**
+     * passes the dots to the handler while scanning instead of collecting them.
+     *
+     * @return number of dots passed to the handler
+     */
+    int scanTraceScatter(String applicationName, Range range, int limit, DotHandler dotHandler);
+
+    /**
+     * scans the given partitions of a range in parallel.
+     * the dots are returned in the order of the partitions, which must be newest first, and stop at the first row boundary after the limit.
+     */
+    List<Dot> scanTraceScatter(String applicationName, List<Range> partitionList, int limit);
+
     /**
      *
      * select transactions in a selection range(box) in the scatter chart.
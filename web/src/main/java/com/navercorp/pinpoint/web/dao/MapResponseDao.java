@@ -21,6 +21,7 @@ import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.ResponseTime;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * 
@@ -30,4 +31,6 @@ import java.util.List;
 public interface MapResponseDao {
     List<ResponseTime> selectResponseTime(Application application, Range range);
 
+    Future<List<ResponseTime>> selectResponseTimeAsync(Application application, Range range);
+
 }
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.web.dao;
 
 import com.navercorp.pinpoint.common.bo.StringMetaDataBo;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 import java.util.List;
 
@@ -25,4 +26,10 @@ import java.util.List;
  */
 public interface StringMetaDataDao {
     List<StringMetaDataBo> getStringMetaData(String agentId, long time, int stringId);
+
+    /**
+     * selects every key with a single multi get.
+     * @return metadata of each key in the order of the given keys. an empty list if not found.
+     */
+    List<List<StringMetaDataBo>> getStringMetaDataList(List<MetaDataKey> keyList);
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.navercorp.pinpoint.web.vo.TraceSummary;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+/**
+ * Summaries of transactions written by the collector. Each span only carries the fields that filters look at.
+ */
+public interface TraceSummaryDao {
+
+    /**
+     * @return summaries in the iteration order of transactionIdList. a summary without spans for a transaction that has no summary.
+     */
+    List<TraceSummary> selectSummaries(Collection<TransactionId> transactionIdList);
+
+    /**
+     * Sets the number of spans and span events of Traces to each summary, with a single multi get of Traces.
+     * @param summaryList summaries of transactionIdList, in the same order
+     */
+    void selectTraceCellCount(List<TransactionId> transactionIdList, List<TraceSummary> summaryList);
+
+}
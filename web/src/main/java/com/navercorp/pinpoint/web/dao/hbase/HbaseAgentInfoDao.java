@@ -20,6 +20,7 @@ import com.navercorp.pinpoint.common.bo.AgentInfoBo;
 import com.navercorp.pinpoint.common.bo.ServerMetaDataBo;
 import com.navercorp.pinpoint.common.buffer.Buffer;
 import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+import com.navercorp.pinpoint.common.hbase.FutureUtils;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
@@ -28,12 +29,19 @@ import com.navercorp.pinpoint.common.util.RowKeyUtils;
 import com.navercorp.pinpoint.common.util.TimeUtils;
 import com.navercorp.pinpoint.web.dao.AgentInfoDao;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
 import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.hadoop.hbase.ResultsExtractor;
+import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -86,6 +94,71 @@ public class HbaseAgentInfoDao implements AgentInfoDao {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
+        Scan scan = createInitialScan(agentId);
+
+        AgentInfoBo result = this.hbaseOperations2.find(HBaseTables.AGENTINFO, scan, new AgentInfoBoResultsExtractor(agentId));
+        if (result == null) {
+            logger.warn("agentInfo not found. agentId={}, time={}", agentId, 0);
+        }
+        return result;
+    }
+
+    @Override
+    public List<AgentInfoBo> getAgentInfoList(List<String> agentIdList, long timestamp) {
+        if (agentIdList == null) {
+            throw new NullPointerException("agentIdList must not be null");
+        }
+        // one small scan per agent, run in parallel
+        final List<Future<AgentInfoBo>> futureList = new ArrayList<Future<AgentInfoBo>>(agentIdList.size());
+        for (String agentId : agentIdList) {
+            Scan scan = createScan(agentId, timestamp);
+            scan.setMaxVersions(1);
+            scan.setCaching(1);
+            futureList.add(this.hbaseOperations2.findAsync(HBaseTables.AGENTINFO, scan, new AgentInfoBoResultsExtractor(agentId)));
+        }
+        return FutureUtils.getResults(futureList);
+    }
+
+    @Override
+    public List<AgentInfoBo> getAgentInfoList(Map<String, Long> agentStartTimestampMap) {
+        if (agentStartTimestampMap == null) {
+            throw new NullPointerException("agentStartTimestampMap must not be null");
+        }
+        if (agentStartTimestampMap.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // the row key of an agent started at a known time
+        final List<Get> getList = new ArrayList<Get>(agentStartTimestampMap.size());
+        for (Map.Entry<String, Long> entry : agentStartTimestampMap.entrySet()) {
+            byte[] agentIdBytes = Bytes.toBytes(entry.getKey());
+            long reverseStartTime = TimeUtils.reverseTimeMillis(entry.getValue());
+            Get get = new Get(RowKeyUtils.concatFixedByteAndLong(agentIdBytes, HBaseTables.AGENT_NAME_MAX_LEN, reverseStartTime));
+            get.addFamily(HBaseTables.AGENTINFO_CF_INFO);
+            getList.add(get);
+        }
+        final List<AgentInfoBo> agentInfoBoList = this.hbaseOperations2.get(HBaseTables.AGENTINFO, getList, agentInfoMapper);
+        final List<AgentInfoBo> result = new ArrayList<AgentInfoBo>(agentInfoBoList.size());
+        for (AgentInfoBo agentInfoBo : agentInfoBoList) {
+            if (agentInfoBo != null) {
+                result.add(agentInfoBo);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<AgentInfoBo> getInitialAgentInfoList(List<String> agentIdList) {
+        if (agentIdList == null) {
+            throw new NullPointerException("agentIdList must not be null");
+        }
+        final List<Future<AgentInfoBo>> futureList = new ArrayList<Future<AgentInfoBo>>(agentIdList.size());
+        for (String agentId : agentIdList) {
+            futureList.add(this.hbaseOperations2.findAsync(HBaseTables.AGENTINFO, createInitialScan(agentId), new AgentInfoBoResultsExtractor(agentId)));
+        }
+        return FutureUtils.getResults(futureList);
+    }
+
+    private Scan createInitialScan(String agentId) {
         Scan scan = new Scan();
         byte[] agentIdBytes = Bytes.toBytes(agentId);
         byte[] reverseStartKey = RowKeyUtils.concatFixedByteAndLong(agentIdBytes, HBaseTables.AGENT_NAME_MAX_LEN, Long.MAX_VALUE);
@@ -93,12 +166,7 @@ public class HbaseAgentInfoDao implements AgentInfoDao {
         scan.setReversed(true);
         scan.setMaxVersions(1);
         scan.setCaching(1);
-        
-        AgentInfoBo result = this.hbaseOperations2.find(HBaseTables.AGENTINFO, scan, new AgentInfoBoResultsExtractor(agentId));
-        if (result == null) {
-            logger.warn("agentInfo not found. agentId={}, time={}", agentId, 0);
-        }
-        return result;
+        return scan;
     }
 
     private Scan createScan(String agentId, long currentTime) {
@@ -127,50 +195,64 @@ public class HbaseAgentInfoDao implements AgentInfoDao {
         @Override
         public AgentInfoBo extractData(ResultScanner results) throws Exception {
             for (Result next : results) {
-                byte[] row = next.getRow();
-                long reverseStartTime = BytesUtils.bytesToLong(row, HBaseTables.AGENT_NAME_MAX_LEN);
-                long startTime = TimeUtils.recoveryTimeMillis(reverseStartTime);
-                
-                byte[] serializedAgentInfo = next.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_IDENTIFIER);
-                byte[] serializedServerMetaData = next.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_SERVER_META_DATA);
-
-                final AgentInfoBo.Builder agentInfoBoBuilder = createBuilderFromValue(serializedAgentInfo);
-                agentInfoBoBuilder.setAgentId(this.agentId);
-                agentInfoBoBuilder.setStartTime(startTime);
-                // TODO fix
-                agentInfoBoBuilder.setServiceType(registry.findServiceType(agentInfoBoBuilder.getServiceTypeCode()));
-                if (serializedServerMetaData != null) {
-                    agentInfoBoBuilder.setServerMetaData(new ServerMetaDataBo.Builder(serializedServerMetaData).build());
-                }
-                final AgentInfoBo agentInfoBo = agentInfoBoBuilder.build();
-
-                logger.debug("agent:{} startTime value {}", agentId, startTime);
-
-                return agentInfoBo;
+                return createAgentInfoBo(next, this.agentId);
             }
 
             return null;
         }
-        
-        private AgentInfoBo.Builder createBuilderFromValue(byte[] serializedAgentInfo) {
-            final Buffer buffer = new FixedBuffer(serializedAgentInfo);
-            final AgentInfoBo.Builder builder = new AgentInfoBo.Builder();
-            builder.setHostName(buffer.readPrefixedString());
-            builder.setIp(buffer.readPrefixedString());
-            builder.setPorts(buffer.readPrefixedString());
-            builder.setApplicationName(buffer.readPrefixedString());
-            builder.setServiceTypeCode(buffer.readShort());
-            builder.setPid(buffer.readInt());
-            builder.setAgentVersion(buffer.readPrefixedString());
-            builder.setStartTime(buffer.readLong());
-            builder.setEndTimeStamp(buffer.readLong());
-            builder.setEndStatus(buffer.readInt());
-            // FIXME - 2015.09 v1.5.0 added vmVersion (check for compatibility)
-            if (buffer.limit() > 0) {
-                builder.setVmVersion(buffer.readPrefixedString());
+    }
+
+    private final RowMapper<AgentInfoBo> agentInfoMapper = new RowMapper<AgentInfoBo>() {
+        @Override
+        public AgentInfoBo mapRow(Result result, int rowNum) throws Exception {
+            if (result.isEmpty()) {
+                return null;
             }
-            return builder;
+            final String agentId = BytesUtils.toStringAndRightTrim(result.getRow(), 0, HBaseTables.AGENT_NAME_MAX_LEN);
+            return createAgentInfoBo(result, agentId);
         }
-        
+    };
+
+    private AgentInfoBo createAgentInfoBo(Result next, String agentId) {
+        byte[] row = next.getRow();
+        long reverseStartTime = BytesUtils.bytesToLong(row, HBaseTables.AGENT_NAME_MAX_LEN);
+        long startTime = TimeUtils.recoveryTimeMillis(reverseStartTime);
+
+        byte[] serializedAgentInfo = next.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_IDENTIFIER);
+        byte[] serializedServerMetaData = next.getValue(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_SERVER_META_DATA);
+
+        final AgentInfoBo.Builder agentInfoBoBuilder = createBuilderFromValue(serializedAgentInfo);
+        agentInfoBoBuilder.setAgentId(agentId);
+        agentInfoBoBuilder.setStartTime(startTime);
+        // TODO fix
+        agentInfoBoBuilder.setServiceType(registry.findServiceType(agentInfoBoBuilder.getServiceTypeCode()));
+        if (serializedServerMetaData != null) {
+            agentInfoBoBuilder.setServerMetaData(new ServerMetaDataBo.Builder(serializedServerMetaData).build());
+        }
+        final AgentInfoBo agentInfoBo = agentInfoBoBuilder.build();
+
+        logger.debug("agent:{} startTime value {}", agentId, startTime);
+
+        return agentInfoBo;
+    }
+
+    private AgentInfoBo.Builder createBuilderFromValue(byte[] serializedAgentInfo) {
+        final Buffer buffer = new FixedBuffer(serializedAgentInfo);
+        final AgentInfoBo.Builder builder = new AgentInfoBo.Builder();
+        builder.setHostName(buffer.readPrefixedString());
+        builder.setIp(buffer.readPrefixedString());
+        builder.setPorts(buffer.readPrefixedString());
+        builder.setApplicationName(buffer.readPrefixedString());
+        builder.setServiceTypeCode(buffer.readShort());
+        builder.setPid(buffer.readInt());
+        builder.setAgentVersion(buffer.readPrefixedString());
+        builder.setStartTime(buffer.readLong());
+        builder.setEndTimeStamp(buffer.readLong());
+        builder.setEndStatus(buffer.readInt());
+        // FIXME - 2015.09 v1.5.0 added vmVersion (check for compatibility)
+        if (buffer.limit() > 0) {
+            builder.setVmVersion(buffer.readPrefixedString());
+        }
+        return builder;
     }
 }
@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.web.dao.hbase;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -32,6 +33,7 @@ import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import com.navercorp.pinpoint.common.bo.AgentLifeCycleBo;
+import com.navercorp.pinpoint.common.hbase.FutureUtils;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.util.RowKeyUtils;
@@ -65,19 +67,7 @@ public class HbaseAgentLifeCycleDao implements AgentLifeCycleDao {
             throw new IllegalArgumentException("timestamp must not be less than 0");
         }
 
-        Scan scan = new Scan();
-        scan.setMaxVersions(1);
-        scan.setCaching(SCAN_CACHING_SIZE);
-
-        long fromTime = TimeUtils.reverseTimeMillis(timestamp);
-
-        byte[] agentIdBytes = Bytes.toBytes(agentId);
-        byte[] startKeyBytes = RowKeyUtils.concatFixedByteAndLong(agentIdBytes, HBaseTables.AGENT_NAME_MAX_LEN, fromTime);
-        byte[] endKeyBytes = RowKeyUtils.concatFixedByteAndLong(agentIdBytes, HBaseTables.AGENT_NAME_MAX_LEN, Long.MAX_VALUE);
-
-        scan.setStartRow(startKeyBytes);
-        scan.setStopRow(endKeyBytes);
-        scan.addColumn(HBaseTables.AGENT_LIFECYCLE_CF_STATUS, HBaseTables.AGENT_LIFECYCLE_CF_STATUS_QUALI_STATES);
+        Scan scan = createScan(agentId, timestamp);
 
         try {
             List<AgentLifeCycleBo> agentLifeCycles = this.hbaseOperations2.find(HBaseTables.AGENT_LIFECYCLE, scan, new AgentLifeCycleResultsExtractor(timestamp));
@@ -95,6 +85,52 @@ public class HbaseAgentLifeCycleDao implements AgentLifeCycleDao {
         }
     }
 
+    @Override
+    public List<AgentLifeCycleBo> getAgentLifeCycleList(List<String> agentIdList, long timestamp) {
+        if (agentIdList == null) {
+            throw new NullPointerException("agentIdList must not be null");
+        }
+        if (timestamp < 0) {
+            throw new IllegalArgumentException("timestamp must not be less than 0");
+        }
+        // one small scan per agent, run in parallel
+        final List<Future<List<AgentLifeCycleBo>>> futureList = new ArrayList<Future<List<AgentLifeCycleBo>>>(agentIdList.size());
+        for (String agentId : agentIdList) {
+            Scan scan = createScan(agentId, timestamp);
+            futureList.add(this.hbaseOperations2.findAsync(HBaseTables.AGENT_LIFECYCLE, scan, new AgentLifeCycleResultsExtractor(timestamp)));
+        }
+
+        final List<AgentLifeCycleBo> result = new ArrayList<AgentLifeCycleBo>(agentIdList.size());
+        for (int i = 0; i < futureList.size(); i++) {
+            final String agentId = agentIdList.get(i);
+            try {
+                final List<AgentLifeCycleBo> agentLifeCycles = FutureUtils.getResult(futureList.get(i));
+                result.add(agentLifeCycles.isEmpty() ? null : agentLifeCycles.get(0));
+            } catch (Exception e) {
+                logger.warn("could not retrieve agentLifeCycle for agentId={}, timestamp={}", agentId, timestamp);
+                result.add(null);
+            }
+        }
+        return result;
+    }
+
+    private Scan createScan(String agentId, long timestamp) {
+        Scan scan = new Scan();
+        scan.setMaxVersions(1);
+        scan.setCaching(SCAN_CACHING_SIZE);
+
+        long fromTime = TimeUtils.reverseTimeMillis(timestamp);
+
+        byte[] agentIdBytes = Bytes.toBytes(agentId);
+        byte[] startKeyBytes = RowKeyUtils.concatFixedByteAndLong(agentIdBytes, HBaseTables.AGENT_NAME_MAX_LEN, fromTime);
+        byte[] endKeyBytes = RowKeyUtils.concatFixedByteAndLong(agentIdBytes, HBaseTables.AGENT_NAME_MAX_LEN, Long.MAX_VALUE);
+
+        scan.setStartRow(startKeyBytes);
+        scan.setStopRow(endKeyBytes);
+        scan.addColumn(HBaseTables.AGENT_LIFECYCLE_CF_STATUS, HBaseTables.AGENT_LIFECYCLE_CF_STATUS_QUALI_STATES);
+        return scan;
+    }
+
     private class AgentLifeCycleResultsExtractor implements ResultsExtractor<List<AgentLifeCycleBo>> {
         
         private final long timestamp;
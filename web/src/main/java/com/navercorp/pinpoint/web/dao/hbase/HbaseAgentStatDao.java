@@ -20,7 +20,9 @@ import static com.navercorp.pinpoint.common.hbase.HBaseTables.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
+import com.navercorp.pinpoint.common.hbase.FutureUtils;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.util.BytesUtils;
@@ -62,10 +64,22 @@ public class HbaseAgentStatDao implements AgentStatDao {
 
     private int scanCacheSize = 256;
 
+    // ranges longer than this are split into slices that are scanned concurrently.
+    private long scanSliceInterval = 1000 * 60 * 60;
+    private int maxScanSliceCount = 8;
+
     public void setScanCacheSize(int scanCacheSize) {
         this.scanCacheSize = scanCacheSize;
     }
 
+    public void setScanSliceInterval(long scanSliceInterval) {
+        this.scanSliceInterval = scanSliceInterval;
+    }
+
+    public void setMaxScanSliceCount(int maxScanSliceCount) {
+        this.maxScanSliceCount = maxScanSliceCount;
+    }
+
     public List<AgentStat> scanAgentStatList(String agentId, Range range) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
@@ -79,20 +93,49 @@ public class HbaseAgentStatDao implements AgentStatDao {
         }
 
 
-        Scan scan = createScan(agentId, range);
-
-        List<List<AgentStat>> intermediate = hbaseOperations2.find(HBaseTables.AGENT_STAT, scan, rowKeyDistributor, agentStatMapper);
+        final List<Range> sliceList = splitRange(range);
+        final List<Future<List<List<AgentStat>>>> futureList = new ArrayList<Future<List<List<AgentStat>>>>(sliceList.size());
+        for (Range slice : sliceList) {
+            Scan scan = createScan(agentId, slice);
+            futureList.add(hbaseOperations2.findAsync(HBaseTables.AGENT_STAT, scan, rowKeyDistributor, agentStatMapper));
+        }
+        final List<List<List<AgentStat>>> intermediateList = FutureUtils.getResults(futureList);
 
         int expectedSize = (int)(range.getRange() / 5000); // data for 5 seconds
         List<AgentStat> merged = new ArrayList<AgentStat>(expectedSize);
 
-        for(List<AgentStat> each : intermediate) {
-            merged.addAll(each);
+        for (List<List<AgentStat>> intermediate : intermediateList) {
+            for (List<AgentStat> each : intermediate) {
+                merged.addAll(each);
+            }
         }
 
         return merged;
     }
 
+    /**
+     * splits the range into contiguous slices, latest first to keep the order of the reversed row keys.
+     */
+    List<Range> splitRange(Range range) {
+        final long rangeSize = range.getTo() - range.getFrom();
+        final long sliceCount = Math.min(maxScanSliceCount, rangeSize / scanSliceInterval);
+        if (sliceCount <= 1) {
+            final List<Range> sliceList = new ArrayList<Range>(1);
+            sliceList.add(range);
+            return sliceList;
+        }
+
+        final long sliceSize = rangeSize / sliceCount;
+        final List<Range> sliceList = new ArrayList<Range>((int) sliceCount);
+        long to = range.getTo();
+        for (int i = 0; i < sliceCount; i++) {
+            final long from = (i == sliceCount - 1) ? range.getFrom() : to - sliceSize;
+            sliceList.add(new Range(from, to));
+            to = from;
+        }
+        return sliceList;
+    }
+
     /**
      * make a row key based on timestamp
      * FIXME there is the same duplicate code at collector's dao module
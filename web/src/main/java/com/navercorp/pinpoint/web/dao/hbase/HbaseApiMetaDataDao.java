@@ -16,6 +16,8 @@
 
 package com.navercorp.pinpoint.web.dao.hbase;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
@@ -31,6 +33,7 @@ import com.navercorp.pinpoint.common.bo.ApiMetaDataBo;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 /**
  * @author emeroad
@@ -54,6 +57,26 @@ public class HbaseApiMetaDataDao implements ApiMetaDataDao {
     @Override
     @Cacheable(value="apiMetaData", key=SPEL_KEY)
     public List<ApiMetaDataBo> getApiMetaData(String agentId, long time, int apiId) {
+        Get get = createGet(agentId, time, apiId);
+        return hbaseOperations2.get(HBaseTables.API_METADATA, get, apiMetaDataMapper);
+    }
+
+    @Override
+    public List<List<ApiMetaDataBo>> getApiMetaDataList(List<MetaDataKey> keyList) {
+        if (keyList == null) {
+            throw new NullPointerException("keyList must not be null");
+        }
+        if (keyList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Get> getList = new ArrayList<Get>(keyList.size());
+        for (MetaDataKey key : keyList) {
+            getList.add(createGet(key.getAgentId(), key.getAgentStartTime(), key.getId()));
+        }
+        return hbaseOperations2.get(HBaseTables.API_METADATA, getList, apiMetaDataMapper);
+    }
+
+    private Get createGet(String agentId, long time, int apiId) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
@@ -62,7 +85,7 @@ public class HbaseApiMetaDataDao implements ApiMetaDataDao {
         byte[] sqlId = getDistributedKey(apiMetaDataBo.toRowKey());
         Get get = new Get(sqlId);
         get.addFamily(HBaseTables.API_METADATA_CF_API);
-        return hbaseOperations2.get(HBaseTables.API_METADATA, get, apiMetaDataMapper);
+        return get;
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
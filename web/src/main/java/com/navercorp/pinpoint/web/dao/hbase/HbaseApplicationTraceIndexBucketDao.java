@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.hadoop.hbase.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.util.DefaultTimeSlot;
+import com.navercorp.pinpoint.common.util.SpanUtils;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexBucketDao;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.TraceIndexBucket;
+
+/**
+ * The row key is the application name + reversed slot time, so a range is read newest first.
+ */
+@Repository
+public class HbaseApplicationTraceIndexBucketDao implements ApplicationTraceIndexBucketDao {
+
+    @Autowired
+    private HbaseOperations2 hbaseOperations2;
+
+    @Autowired
+    @Qualifier("traceIndexBucketMapper")
+    private RowMapper<TraceIndexBucket> traceIndexBucketMapper;
+
+    // same time slot as the collector
+    private final TimeSlot timeSlot = new DefaultTimeSlot();
+
+    @Override
+    public List<TraceIndexBucket> selectBucketList(String applicationName, Range range) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        final Scan scan = createScan(applicationName, range);
+        final List<TraceIndexBucket> bucketList = hbaseOperations2.find(HBaseTables.APPLICATION_TRACE_INDEX_BUCKET, scan, traceIndexBucketMapper);
+
+        final List<TraceIndexBucket> result = new ArrayList<TraceIndexBucket>(bucketList.size());
+        for (TraceIndexBucket bucket : bucketList) {
+            if (bucket != null) {
+                result.add(bucket);
+            }
+        }
+        return result;
+    }
+
+    private Scan createScan(String applicationName, Range range) {
+        final byte[] bApplicationName = Bytes.toBytes(applicationName);
+        final long fromSlot = timeSlot.getTimeSlot(range.getFrom());
+        final long toSlot = timeSlot.getTimeSlot(range.getTo());
+
+        final Scan scan = new Scan();
+        scan.setCaching(256);
+        // the key is reversed : the newest slot is the start row. the stop row is exclusive, so it is one millisecond before the oldest slot.
+        scan.setStartRow(SpanUtils.getTraceIndexRowKey(bApplicationName, toSlot));
+        scan.setStopRow(SpanUtils.getTraceIndexRowKey(bApplicationName, fromSlot - 1));
+        scan.addColumn(HBaseTables.APPLICATION_TRACE_INDEX_BUCKET_CF_COUNT, HBaseTables.APPLICATION_TRACE_INDEX_BUCKET_CQ_COUNT);
+        scan.setId("ApplicationTraceIndexBucketScan");
+        return scan;
+    }
+}
@@ -18,10 +18,12 @@ package com.navercorp.pinpoint.web.dao.hbase;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.filter.BinaryPrefixComparator;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
@@ -34,12 +36,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import com.navercorp.pinpoint.common.PinpointConstants;
 import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
 import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.common.hbase.FutureUtils;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.common.hbase.LimitEventHandler;
@@ -49,6 +54,7 @@ import com.navercorp.pinpoint.common.util.SpanUtils;
 import com.navercorp.pinpoint.common.util.TimeUtils;
 import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.web.mapper.TraceIndexScatterMapper2;
+import com.navercorp.pinpoint.web.mapper.TraceIndexScatterStreamExtractor;
 import com.navercorp.pinpoint.web.mapper.TransactionIdMapper;
 import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
@@ -56,6 +62,7 @@ import com.navercorp.pinpoint.web.vo.ResponseTimeRange;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotHandler;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 
 /**
@@ -119,6 +126,13 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
             if (logger.isDebugEnabled()) {
                 logger.debug("lastRowTimestamp lastTime:{}", DateUtils.longToDateStr(lastRowTimestamp));
             }
+        } else if (CancellationTokenHolder.isTruncated()) {
+            // the query was terminated. the older part of the range is not scanned.
+            final Long lastRowTimestamp = lastRowAccessor.getLastRowTimestamp();
+            limitedScanResult.setLimitedTime(lastRowTimestamp != null ? lastRowTimestamp : range.getTo());
+            if (logger.isDebugEnabled()) {
+                logger.debug("scan truncated lastTime:{}", DateUtils.longToDateStr(limitedScanResult.getLimitedTime()));
+            }
         } else {
             if (logger.isDebugEnabled()) {
                 logger.debug("scanner start lastTime:{}", DateUtils.longToDateStr(range.getFrom()));
@@ -160,6 +174,13 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
             if (logger.isDebugEnabled()) {
                 logger.debug("lastRowTimestamp lastTime:{}", DateUtils.longToDateStr(lastRowTimestamp));
             }
+        } else if (CancellationTokenHolder.isTruncated()) {
+            // the query was terminated. the older part of the range is not scanned.
+            final Long lastRowTimestamp = lastRowAccessor.getLastRowTimestamp();
+            limitedScanResult.setLimitedTime(lastRowTimestamp != null ? lastRowTimestamp : area.getTimeRange().getTo());
+            if (logger.isDebugEnabled()) {
+                logger.debug("scan truncated lastTime:{}", DateUtils.longToDateStr(limitedScanResult.getLimitedTime()));
+            }
         } else {
             if (logger.isDebugEnabled()) {
                 logger.debug("scanner start lastTime:{}", DateUtils.longToDateStr(area.getTimeRange().getFrom()));
@@ -252,6 +273,118 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
         return mergeList;
     }
 
+    @Override
+    public int scanTraceScatter(String applicationName, Range range, int limit, DotHandler dotHandler) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit:" + limit);
+        }
+        if (dotHandler == null) {
+            throw new NullPointerException("dotHandler must not be null");
+        }
+        logger.debug("scanTraceScatter stream");
+        Scan scan = createScan(applicationName, range);
+
+        TraceIndexScatterStreamExtractor extractor = new TraceIndexScatterStreamExtractor(dotHandler, limit);
+        return hbaseOperations2.find(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, extractor);
+    }
+
+    @Override
+    public List<Dot> scanTraceScatter(String applicationName, List<Range> partitionList, int limit) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (partitionList == null) {
+            throw new NullPointerException("partitionList must not be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit:" + limit);
+        }
+        logger.debug("scanTraceScatter partitions:{}", partitionList.size());
+
+        final List<PartitionScatterExtractor> extractorList = new ArrayList<PartitionScatterExtractor>(partitionList.size());
+        final List<Future<Integer>> futureList = new ArrayList<Future<Integer>>(partitionList.size());
+        for (Range partition : partitionList) {
+            // no partition needs more than the limit. only the rows of the whole result past the limit are dropped.
+            final PartitionScatterExtractor extractor = new PartitionScatterExtractor(limit);
+            extractorList.add(extractor);
+            final Scan scan = createScan(applicationName, partition);
+            futureList.add(hbaseOperations2.findAsync(HBaseTables.APPLICATION_TRACE_INDEX, scan, traceIdRowKeyDistributor, extractor));
+        }
+        // once the query is terminated, the partitions not completed yet are cancelled and left out
+        final int completedCount = FutureUtils.getResults(futureList, CancellationTokenHolder.get()).size();
+        return mergePartitions(extractorList.subList(0, completedCount), limit);
+    }
+
+    /**
+     * @param extractorList completed partitions, newest first
+     */
+    static List<Dot> mergePartitions(List<PartitionScatterExtractor> extractorList, int limit) {
+        final List<Dot> result = new ArrayList<Dot>(limit + 10);
+        for (PartitionScatterExtractor extractor : extractorList) {
+            for (Dot dot : extractor.getDotList()) {
+                // a row holds the dots of one accepted time. keep the whole row like the limited scan does.
+                if (result.size() >= limit && result.get(result.size() - 1).getAcceptedTime() != dot.getAcceptedTime()) {
+                    return result;
+                }
+                result.add(dot);
+            }
+            if (extractor.isTruncated()) {
+                // the older partitions would leave a gap below the last dot, which the caller reports as the start of the result
+                return result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the dots of a partition scanned in parallel, and whether the scan was cut short by the termination of the query.
+     */
+    static class PartitionScatterExtractor implements ResultsExtractor<Integer>, DotHandler {
+
+        private final List<Dot> dotList = new ArrayList<Dot>();
+        private final TraceIndexScatterStreamExtractor extractor;
+        private final int limit;
+        private volatile boolean truncated;
+
+        PartitionScatterExtractor(int limit) {
+            this.extractor = new TraceIndexScatterStreamExtractor(this, limit);
+            this.limit = limit;
+        }
+
+        @Override
+        public void handleDot(Dot dot) {
+            dotList.add(dot);
+        }
+
+        @Override
+        public Integer extractData(ResultScanner results) throws Exception {
+            final int dotCount = extractor.extractData(results);
+            // the scanner of a terminated query ends early. a partition which filled the limit is complete anyway.
+            if (dotCount < limit && CancellationTokenHolder.isTerminated()) {
+                this.truncated = true;
+            }
+            return dotCount;
+        }
+
+        List<Dot> getDotList() {
+            return dotList;
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        void markTruncated() {
+            this.truncated = true;
+        }
+    }
+
     /**
      *
      */
@@ -33,6 +33,7 @@ import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * @author netspider
@@ -77,6 +78,18 @@ public class HbaseMapResponseTimeDao implements MapResponseDao {
         return responseTimeList;
     }
 
+    @Override
+    public Future<List<ResponseTime>> selectResponseTimeAsync(Application application, Range range) {
+        if (application == null) {
+            throw new NullPointerException("application must not be null");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("selectResponseTimeAsync applicationName:{}, {}", application, range);
+        }
+        Scan scan = createScan(application, range);
+        return hbaseOperations2.findAsync(tableName, scan, responseTimeMapper);
+    }
+
     private Scan createScan(Application application, Range range) {
         range = rangeFactory.createStatisticsRange(range);
 
@@ -61,17 +61,29 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
     @Autowired
     private RangeFactory rangeFactory;
 
+    @Autowired
+    private MapStatisticsSlotCache mapStatisticsSlotCache;
+
     @Override
-    public LinkDataMap selectCallee(Application calleeApplication, Range range) {
+    public LinkDataMap selectCallee(final Application calleeApplication, Range range) {
         if (calleeApplication == null) {
             throw new NullPointerException("calleeApplication must not be null");
         }
         if (range == null) {
             throw new NullPointerException("range must not be null");
         }
-        Scan scan = createScan(calleeApplication, range);
         //List<LinkDataMap> foundListList = hbaseOperations2.find(HBaseTables.MAP_STATISTICS_CALLER, scan, mapStatisticsCalleeMapper);
         final TimeWindow timeWindow = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
+        if (mapStatisticsSlotCache.isEnable()) {
+            return mapStatisticsSlotCache.select(HBaseTables.MAP_STATISTICS_CALLER, calleeApplication, range, timeWindow, new MapStatisticsSlotCache.SlotLoader() {
+                @Override
+                public Map<Long, LinkDataMap> load(Range slotRange) {
+                    final Scan slotScan = createScan(calleeApplication, slotRange);
+                    return hbaseOperations2.find(HBaseTables.MAP_STATISTICS_CALLER, slotScan, new MapStatisticsSlotResultExtractor(mapStatisticsCalleeMapper));
+                }
+            });
+        }
+        final Scan scan = createScan(calleeApplication, range);
         final ResultsExtractor<LinkDataMap> resultExtractor = new RowMapReduceResultExtractor<LinkDataMap>(mapStatisticsCalleeMapper, new MapStatisticsTimeWindowReducer(timeWindow));
         LinkDataMap foundListList = hbaseOperations2.find(HBaseTables.MAP_STATISTICS_CALLER, scan, resultExtractor);
 
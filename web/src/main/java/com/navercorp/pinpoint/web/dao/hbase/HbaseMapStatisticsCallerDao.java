@@ -61,12 +61,24 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
     @Autowired
     private RangeFactory rangeFactory;
 
+    @Autowired
+    private MapStatisticsSlotCache mapStatisticsSlotCache;
+
     @Override
-    public LinkDataMap selectCaller(Application callerApplication, Range range) {
-        Scan scan = createScan(callerApplication, range);
+    public LinkDataMap selectCaller(final Application callerApplication, Range range) {
         //final List<LinkDataMap> foundList = hbaseOperations2.find(HBaseTables.MAP_STATISTICS_CALLEE, scan, mapStatisticsCallerMapper);
 
         final TimeWindow timeWindow = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
+        if (mapStatisticsSlotCache.isEnable()) {
+            return mapStatisticsSlotCache.select(HBaseTables.MAP_STATISTICS_CALLEE, callerApplication, range, timeWindow, new MapStatisticsSlotCache.SlotLoader() {
+                @Override
+                public Map<Long, LinkDataMap> load(Range slotRange) {
+                    final Scan slotScan = createScan(callerApplication, slotRange);
+                    return hbaseOperations2.find(HBaseTables.MAP_STATISTICS_CALLEE, slotScan, new MapStatisticsSlotResultExtractor(mapStatisticsCallerMapper));
+                }
+            });
+        }
+        final Scan scan = createScan(callerApplication, range);
         final ResultsExtractor<LinkDataMap> resultExtractor = new RowMapReduceResultExtractor<LinkDataMap>(mapStatisticsCallerMapper, new MapStatisticsTimeWindowReducer(timeWindow));
         final LinkDataMap foundList = hbaseOperations2.find(HBaseTables.MAP_STATISTICS_CALLEE, scan, resultExtractor);
         logger.debug("Caller data. {}, {}", foundList, range);
@@ -27,6 +27,7 @@ import com.navercorp.pinpoint.common.bo.SqlMetaDataBo;
 import com.navercorp.pinpoint.common.hbase.HBaseAdminTemplate;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 /**
  * @author minwoo.jung
@@ -83,6 +84,35 @@ public class HbaseSqlMetaDataCompatibility implements SqlMetaDataDao {
     
         return sqlMetaDataList;
     }
+
+    @Override
+    public List<List<SqlMetaDataBo>> getSqlMetaDataList(List<MetaDataKey> keyList) {
+        if (!SQL_METADATA_EXISTED) {
+            return hbaseSqlMetaDataDao.getSqlMetaDataList(keyList);
+        }
+        if (!SQL_METADATA_VER2_EXISTED) {
+            return hbaseSqlMetaDataPastVersionDao.getSqlMetaDataList(keyList);
+        }
+
+        final List<List<SqlMetaDataBo>> sqlMetaDataList = new ArrayList<List<SqlMetaDataBo>>(hbaseSqlMetaDataDao.getSqlMetaDataList(keyList));
+        // keys missing in SqlMetaData_Ver2 are looked up in the past version table with one more multi get
+        final List<Integer> missIndexList = new ArrayList<Integer>();
+        final List<MetaDataKey> missKeyList = new ArrayList<MetaDataKey>();
+        for (int i = 0; i < sqlMetaDataList.size(); i++) {
+            if (sqlMetaDataList.get(i).isEmpty()) {
+                missIndexList.add(i);
+                missKeyList.add(keyList.get(i));
+            }
+        }
+        if (missKeyList.isEmpty()) {
+            return sqlMetaDataList;
+        }
+        final List<List<SqlMetaDataBo>> pastVersionList = hbaseSqlMetaDataPastVersionDao.getSqlMetaDataList(missKeyList);
+        for (int i = 0; i < missIndexList.size(); i++) {
+            sqlMetaDataList.set(missIndexList.get(i), pastVersionList.get(i));
+        }
+        return sqlMetaDataList;
+    }
     
     public void setHbaseSqlMetaDataDao(SqlMetaDataDao hbaseSqlMetaDataDao) {
         this.hbaseSqlMetaDataDao = hbaseSqlMetaDataDao;
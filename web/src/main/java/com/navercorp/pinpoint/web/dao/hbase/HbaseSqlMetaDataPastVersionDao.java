@@ -16,6 +16,8 @@
 
 package com.navercorp.pinpoint.web.dao.hbase;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
@@ -30,6 +32,7 @@ import com.navercorp.pinpoint.common.bo.SqlMetaDataBo;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 /**
  * @author minwoo.jung
@@ -51,6 +54,26 @@ public class HbaseSqlMetaDataPastVersionDao implements SqlMetaDataDao {
 
     @Override
     public List<SqlMetaDataBo> getSqlMetaData(String agentId, long time, int hashCode) {
+        Get get = createGet(agentId, time, hashCode);
+        return hbaseOperations2.get(HBaseTables.SQL_METADATA, get, sqlMetaDataMapper);
+    }
+
+    @Override
+    public List<List<SqlMetaDataBo>> getSqlMetaDataList(List<MetaDataKey> keyList) {
+        if (keyList == null) {
+            throw new NullPointerException("keyList must not be null");
+        }
+        if (keyList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Get> getList = new ArrayList<Get>(keyList.size());
+        for (MetaDataKey key : keyList) {
+            getList.add(createGet(key.getAgentId(), key.getAgentStartTime(), key.getId()));
+        }
+        return hbaseOperations2.get(HBaseTables.SQL_METADATA, getList, sqlMetaDataMapper);
+    }
+
+    private Get createGet(String agentId, long time, int hashCode) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
@@ -60,8 +83,7 @@ public class HbaseSqlMetaDataPastVersionDao implements SqlMetaDataDao {
 
         Get get = new Get(sqlId);
         get.addFamily(HBaseTables.SQL_METADATA_CF_SQL);
-
-        return hbaseOperations2.get(HBaseTables.SQL_METADATA, get, sqlMetaDataMapper);
+        return get;
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
@@ -20,6 +20,7 @@ import com.navercorp.pinpoint.common.bo.StringMetaDataBo;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
 import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 
 import org.apache.hadoop.hbase.client.Get;
@@ -28,6 +29,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -49,6 +52,26 @@ public class HbaseStringMetaDataDao implements StringMetaDataDao {
 
     @Override
     public List<StringMetaDataBo> getStringMetaData(String agentId, long time, int stringId) {
+        Get get = createGet(agentId, time, stringId);
+        return hbaseOperations2.get(HBaseTables.STRING_METADATA, get, stringMetaDataMapper);
+    }
+
+    @Override
+    public List<List<StringMetaDataBo>> getStringMetaDataList(List<MetaDataKey> keyList) {
+        if (keyList == null) {
+            throw new NullPointerException("keyList must not be null");
+        }
+        if (keyList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Get> getList = new ArrayList<Get>(keyList.size());
+        for (MetaDataKey key : keyList) {
+            getList.add(createGet(key.getAgentId(), key.getAgentStartTime(), key.getId()));
+        }
+        return hbaseOperations2.get(HBaseTables.STRING_METADATA, getList, stringMetaDataMapper);
+    }
+
+    private Get createGet(String agentId, long time, int stringId) {
         if (agentId == null) {
             throw new NullPointerException("agentId must not be null");
         }
@@ -58,8 +81,7 @@ public class HbaseStringMetaDataDao implements StringMetaDataDao {
 
         Get get = new Get(rowKey);
         get.addFamily(HBaseTables.STRING_METADATA_CF_STR);
-
-        return hbaseOperations2.get(HBaseTables.STRING_METADATA, get, stringMetaDataMapper);
+        return get;
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
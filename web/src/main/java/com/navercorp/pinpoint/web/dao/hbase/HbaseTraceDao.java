@@ -19,10 +19,21 @@ package com.navercorp.pinpoint.web.dao.hbase;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.common.hbase.FutureUtils;
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.web.dao.TraceDao;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
@@ -30,6 +41,7 @@ import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import org.apache.hadoop.hbase.client.Get;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.hadoop.hbase.RowMapper;
 import org.springframework.stereotype.Repository;
 
@@ -54,6 +66,41 @@ public class HbaseTraceDao implements TraceDao {
     @Qualifier("spanAnnotationMapper")
     private RowMapper<List<SpanBo>> spanAnnotationMapper;
 
+    @Value("#{pinpointWebProps['web.trace.multiGet.batchSize'] ?: 500}")
+    private int multiGetBatchSize = 500;
+
+    @Value("#{pinpointWebProps['web.trace.multiGet.threadSize'] ?: 8}")
+    private int multiGetThreadSize = 8;
+
+    // batches are fetched on their own threads instead of the shared async executor of HbaseOperations2,
+    // where a caller running on that executor would wait for batches queued behind itself.
+    private ExecutorService multiGetExecutor;
+
+    public void setMultiGetBatchSize(int multiGetBatchSize) {
+        if (multiGetBatchSize <= 0) {
+            throw new IllegalArgumentException("multiGetBatchSize must be greater than 0");
+        }
+        this.multiGetBatchSize = multiGetBatchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (multiGetBatchSize <= 0) {
+            throw new IllegalArgumentException("multiGetBatchSize must be greater than 0");
+        }
+        if (multiGetThreadSize <= 0) {
+            throw new IllegalArgumentException("multiGetThreadSize must be greater than 0");
+        }
+        this.multiGetExecutor = Executors.newFixedThreadPool(multiGetThreadSize, new PinpointThreadFactory("Pinpoint-TraceMultiGet", true));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (multiGetExecutor != null) {
+            multiGetExecutor.shutdownNow();
+        }
+    }
+
     @Override
     public List<SpanBo> selectSpan(TransactionId transactionId) {
         if (transactionId == null) {
@@ -108,7 +155,46 @@ public class HbaseTraceDao implements TraceDao {
             get.addFamily(HBaseTables.TRACES_CF_TERMINALSPAN);
             gets.add(get);
         }
-        return template2.get(HBaseTables.TRACES, gets, spanMapper);
+        if (gets.size() <= multiGetBatchSize) {
+            return template2.get(HBaseTables.TRACES, gets, spanMapper);
+        }
+
+        // large requests are split into batches fetched in parallel. the result keeps the order of the given transactions.
+        final CancellationToken token = CancellationTokenHolder.get();
+        final List<Future<List<List<SpanBo>>>> futureList = new ArrayList<Future<List<List<SpanBo>>>>();
+        for (int from = 0; from < gets.size(); from += multiGetBatchSize) {
+            final int to = Math.min(from + multiGetBatchSize, gets.size());
+            final List<Get> batch = new ArrayList<Get>(gets.subList(from, to));
+            futureList.add(multiGetExecutor.submit(new MultiGetTask(batch, token)));
+        }
+        // a terminated query keeps the batches completed so far
+        final List<List<SpanBo>> result = new ArrayList<List<SpanBo>>(gets.size());
+        for (List<List<SpanBo>> batchResult : FutureUtils.getResults(futureList, token)) {
+            result.addAll(batchResult);
+        }
+        return result;
+    }
+
+    private class MultiGetTask implements Callable<List<List<SpanBo>>> {
+
+        private final List<Get> getList;
+        // the batch belongs to the query of the calling thread
+        private final CancellationToken token;
+
+        private MultiGetTask(List<Get> getList, CancellationToken token) {
+            this.getList = getList;
+            this.token = token;
+        }
+
+        @Override
+        public List<List<SpanBo>> call() {
+            final CancellationToken previous = CancellationTokenHolder.bind(token);
+            try {
+                return template2.get(HBaseTables.TRACES, getList, spanMapper);
+            } finally {
+                CancellationTokenHolder.bind(previous);
+            }
+        }
     }
 
     @Override
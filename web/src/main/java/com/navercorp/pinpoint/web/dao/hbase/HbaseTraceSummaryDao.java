@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.hadoop.hbase.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.web.dao.TraceSummaryDao;
+import com.navercorp.pinpoint.web.vo.TraceSummary;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+
+/**
+ * Also reads the keys of the span and span event cells of Traces, without their values, to tell whether a summary is complete.
+ */
+@Repository
+public class HbaseTraceSummaryDao implements TraceSummaryDao {
+
+    private static final RowMapper<int[]> TRACE_CELL_COUNT_MAPPER = new TraceCellCountMapper();
+
+    @Autowired
+    private HbaseOperations2 template2;
+
+    @Autowired
+    @Qualifier("traceDistributor")
+    private AbstractRowKeyDistributor rowKeyDistributor;
+
+    @Autowired
+    @Qualifier("traceSummaryMapper")
+    private RowMapper<TraceSummary> traceSummaryMapper;
+
+    @Override
+    public List<TraceSummary> selectSummaries(Collection<TransactionId> transactionIdList) {
+        if (transactionIdList == null) {
+            throw new NullPointerException("transactionIdList must not be null");
+        }
+
+        final List<Get> summaryGets = new ArrayList<Get>(transactionIdList.size());
+        for (TransactionId transactionId : transactionIdList) {
+            final byte[] transactionIdBytes = this.rowKeyDistributor.getDistributedKey(transactionId.getBytes());
+            final Get summaryGet = new Get(transactionIdBytes);
+            summaryGet.addFamily(HBaseTables.TRACE_SUMMARY_CF_SUMMARY);
+            summaryGets.add(summaryGet);
+        }
+        return template2.get(HBaseTables.TRACE_SUMMARY, summaryGets, traceSummaryMapper);
+    }
+
+    @Override
+    public void selectTraceCellCount(List<TransactionId> transactionIdList, List<TraceSummary> summaryList) {
+        if (transactionIdList == null) {
+            throw new NullPointerException("transactionIdList must not be null");
+        }
+        if (summaryList == null) {
+            throw new NullPointerException("summaryList must not be null");
+        }
+        if (transactionIdList.size() != summaryList.size()) {
+            throw new IllegalArgumentException("summaryList size " + summaryList.size() + " != transactionIdList size " + transactionIdList.size());
+        }
+        if (transactionIdList.isEmpty()) {
+            return;
+        }
+
+        final List<Get> traceGets = new ArrayList<Get>(transactionIdList.size());
+        for (TransactionId transactionId : transactionIdList) {
+            final byte[] transactionIdBytes = this.rowKeyDistributor.getDistributedKey(transactionId.getBytes());
+            final Get traceGet = new Get(transactionIdBytes);
+            traceGet.addFamily(HBaseTables.TRACES_CF_SPAN);
+            traceGet.addFamily(HBaseTables.TRACES_CF_TERMINALSPAN);
+            traceGet.setFilter(new KeyOnlyFilter());
+            traceGets.add(traceGet);
+        }
+        final List<int[]> traceCellCountList = template2.get(HBaseTables.TRACES, traceGets, TRACE_CELL_COUNT_MAPPER);
+
+        for (int i = 0; i < summaryList.size(); i++) {
+            final TraceSummary summary = summaryList.get(i);
+            final int[] traceCellCount = traceCellCountList.get(i);
+            summary.setTraceSpanCount(traceCellCount[0]);
+            summary.setTraceSpanEventCount(traceCellCount[1]);
+        }
+    }
+
+    /**
+     * number of span cells and span event cells of a Traces row
+     */
+    private static class TraceCellCountMapper implements RowMapper<int[]> {
+        @Override
+        public int[] mapRow(Result result, int rowNum) throws Exception {
+            final int[] count = new int[2];
+            if (result.isEmpty()) {
+                return count;
+            }
+            for (Cell cell : result.rawCells()) {
+                if (CellUtil.matchingFamily(cell, HBaseTables.TRACES_CF_SPAN)) {
+                    count[0]++;
+                } else if (CellUtil.matchingFamily(cell, HBaseTables.TRACES_CF_TERMINALSPAN)) {
+                    count[1]++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.common.util.DefaultTimeSlot;
+import com.navercorp.pinpoint.common.util.SystemClock;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+
+/**
+ * Caches the caller/callee statistics of an application per one minute time slot.
+ *
+ * The collector keeps adding to the row of the current minute, and flushes its counters with a small delay.
+ * So the newest hot slots are always scanned, and only older slots are cached : they do not change anymore.
+ * A refresh of a sliding server map window therefore scans the newest one or two minutes,
+ * and merges them with the cached slots into a {@link LinkDataMap} down sampled for the requested range.
+ *
+ * The cache is bounded by an estimated memory size, and evicts the least recently used slots first.
+ * Search depth is not part of the key : every application visited by the server map search caches its own slots.
+ * Slots are cached only from complete scans : a failed load throws, and a truncated one is not stored.
+ */
+@Component
+public class MapStatisticsSlotCache {
+
+    public static final int DEFAULT_HOT_SLOT_COUNT = 2;
+    public static final long DEFAULT_MAX_MEMORY = 64 * 1024 * 1024;
+
+    // MapStatistics rows are written by the collector in one minute slots.
+    static final long SLOT_SIZE = 60000;
+
+    // rough heap size of a LinkDataMap, and of a LinkCallData with its single TimeHistogram and map entries.
+    static final long FRAGMENT_BYTES = 256;
+    static final long LINK_CALL_DATA_BYTES = 512;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final TimeSlot timeSlot = new DefaultTimeSlot(SLOT_SIZE);
+
+    @Value("#{pinpointWebProps['web.servermap.slotCache.enable'] ?: true}")
+    private boolean enable = true;
+
+    @Value("#{pinpointWebProps['web.servermap.slotCache.hotSlotCount'] ?: 2}")
+    private int hotSlotCount = DEFAULT_HOT_SLOT_COUNT;
+
+    @Value("#{pinpointWebProps['web.servermap.slotCache.maxMemory'] ?: 67108864}")
+    private long maxMemory = DEFAULT_MAX_MEMORY;
+
+    private Clock clock = SystemClock.INSTANCE;
+
+    private final SlotMap slotMap = new SlotMap();
+
+    public interface SlotLoader {
+        /**
+         * @return statistics of every slot found in the given range, keyed by slot time.
+         */
+        Map<Long, LinkDataMap> load(Range slotRange);
+    }
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    public void setEnable(boolean enable) {
+        this.enable = enable;
+    }
+
+    public void setHotSlotCount(int hotSlotCount) {
+        if (hotSlotCount < 1) {
+            throw new IllegalArgumentException("hotSlotCount must be greater than 0");
+        }
+        this.hotSlotCount = hotSlotCount;
+    }
+
+    public void setMaxMemory(long maxMemory) {
+        if (maxMemory < 0) {
+            throw new IllegalArgumentException("maxMemory must not be negative");
+        }
+        this.maxMemory = maxMemory;
+    }
+
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new NullPointerException("clock must not be null");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * @param tableName distinguishes the caller and callee statistics of the same application.
+     */
+    public LinkDataMap select(String tableName, Application application, Range range, TimeWindow timeWindow, SlotLoader slotLoader) {
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        if (application == null) {
+            throw new NullPointerException("application must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (slotLoader == null) {
+            throw new NullPointerException("slotLoader must not be null");
+        }
+
+        final long fromSlot = timeSlot.getTimeSlot(range.getFrom());
+        final long toSlot = timeSlot.getTimeSlot(range.getTo());
+        final long hotSlot = timeSlot.getTimeSlot(clock.getTime()) - (hotSlotCount - 1) * SLOT_SIZE;
+
+        final Map<Long, LinkDataMap> fragmentMap = new HashMap<Long, LinkDataMap>();
+        long firstMissSlot = -1;
+        long lastMissSlot = -1;
+        for (long slot = fromSlot; slot <= toSlot; slot += SLOT_SIZE) {
+            final LinkDataMap cached = slot < hotSlot ? slotMap.get(new SlotKey(tableName, application, slot)) : null;
+            if (cached != null) {
+                fragmentMap.put(slot, cached);
+                continue;
+            }
+            if (firstMissSlot == -1) {
+                firstMissSlot = slot;
+            }
+            lastMissSlot = slot;
+        }
+
+        if (firstMissSlot != -1) {
+            // cached slots between the missing ones are scanned again. it keeps the refresh to a single scan.
+            final Map<Long, LinkDataMap> loaded = slotLoader.load(new Range(firstMissSlot, lastMissSlot));
+            // a scan stopped by the query deadline or a cancel misses rows. its slots are used once, never cached.
+            final boolean cacheable = !CancellationTokenHolder.isTruncated();
+            for (long slot = firstMissSlot; slot <= lastMissSlot; slot += SLOT_SIZE) {
+                if (fragmentMap.containsKey(slot)) {
+                    continue;
+                }
+                LinkDataMap fragment = loaded.get(slot);
+                if (fragment == null) {
+                    // remember empty slots too, so that an idle minute is not scanned again.
+                    fragment = new LinkDataMap();
+                }
+                if (cacheable && slot < hotSlot) {
+                    slotMap.put(new SlotKey(tableName, application, slot), fragment);
+                }
+                fragmentMap.put(slot, fragment);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} {} slots:{}, scanned:{}~{}", tableName, application, (toSlot - fromSlot) / SLOT_SIZE + 1, firstMissSlot, lastMissSlot);
+        }
+
+        // cached fragments are shared. merging copies them into a new map.
+        final LinkDataMap result = new LinkDataMap(timeWindow);
+        for (LinkDataMap fragment : fragmentMap.values()) {
+            result.addLinkDataMap(fragment);
+        }
+        return result;
+    }
+
+    public int size() {
+        return slotMap.size();
+    }
+
+    public long getMemorySize() {
+        return slotMap.getMemorySize();
+    }
+
+    static long estimateMemorySize(LinkDataMap linkDataMap) {
+        long size = FRAGMENT_BYTES;
+        for (LinkData linkData : linkDataMap.getLinkDataList()) {
+            size += linkData.getLinkCallDataMap().getLinkDataList().size() * LINK_CALL_DATA_BYTES;
+        }
+        return size;
+    }
+
+    private class SlotMap {
+
+        // access order for LRU. guarded by this
+        private final LinkedHashMap<SlotKey, Slot> map = new LinkedHashMap<SlotKey, Slot>(256, 0.75f, true);
+        private long memorySize;
+
+        private synchronized LinkDataMap get(SlotKey key) {
+            final Slot slot = map.get(key);
+            if (slot == null) {
+                return null;
+            }
+            return slot.linkDataMap;
+        }
+
+        private synchronized void put(SlotKey key, LinkDataMap linkDataMap) {
+            if (map.containsKey(key)) {
+                return;
+            }
+            final long slotMemorySize = estimateMemorySize(linkDataMap);
+            if (slotMemorySize > maxMemory) {
+                return;
+            }
+            map.put(key, new Slot(linkDataMap, slotMemorySize));
+            memorySize += slotMemorySize;
+
+            final Iterator<Slot> eldest = map.values().iterator();
+            while (memorySize > maxMemory && eldest.hasNext()) {
+                memorySize -= eldest.next().memorySize;
+                eldest.remove();
+            }
+        }
+
+        private synchronized int size() {
+            return map.size();
+        }
+
+        private synchronized long getMemorySize() {
+            return memorySize;
+        }
+    }
+
+    private static final class Slot {
+        private final LinkDataMap linkDataMap;
+        private final long memorySize;
+
+        private Slot(LinkDataMap linkDataMap, long memorySize) {
+            this.linkDataMap = linkDataMap;
+            this.memorySize = memorySize;
+        }
+    }
+
+    private static final class SlotKey {
+        private final String tableName;
+        private final Application application;
+        private final long slot;
+
+        private SlotKey(String tableName, Application application, long slot) {
+            this.tableName = tableName;
+            this.application = application;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            SlotKey that = (SlotKey) o;
+
+            if (slot != that.slot) return false;
+            if (!tableName.equals(that.tableName)) return false;
+            return application.equals(that.application);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = tableName.hashCode();
+            result = 31 * result + application.hashCode();
+            result = 31 * result + (int) (slot ^ (slot >>> 32));
+            return result;
+        }
+    }
+}
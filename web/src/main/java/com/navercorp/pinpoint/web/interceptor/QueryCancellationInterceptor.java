@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.interceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.web.service.QueryCancellationRegistry;
+
+/**
+ * Binds a {@link CancellationToken} to each request, so that the hbase scanners of the query stop
+ * once the request passes its deadline (web.query.timeout) or is cancelled by the browser with its queryId.
+ * The token is cancelled when the request completes, so that requests of the query still running on other threads stop too.
+ * This includes a client that disconnected : the container reports it as a failed write of the response.
+ *
+ * Map it only to the requests that report {@link CancellationTokenHolder#isTruncated()} in their response.
+ * Without a bound token, the scans of other requests are never cut short, so they cannot return partial data that looks complete.
+ */
+public class QueryCancellationInterceptor extends HandlerInterceptorAdapter {
+
+    public static final String QUERY_ID_PARAMETER = "queryId";
+
+    private static final String TOKEN_ATTRIBUTE = QueryCancellationInterceptor.class.getName() + ".token";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private QueryCancellationRegistry registry;
+
+    // milliseconds. 0 : no deadline
+    @Value("#{pinpointWebProps['web.query.timeout'] ?: 60000}")
+    private long queryTimeout = 60000;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        final CancellationToken token = createToken();
+        final String queryId = request.getParameter(QUERY_ID_PARAMETER);
+        if (queryId != null) {
+            registry.register(queryId, token);
+        }
+        request.setAttribute(TOKEN_ATTRIBUTE, token);
+        CancellationTokenHolder.bind(token);
+        return true;
+    }
+
+    private CancellationToken createToken() {
+        if (queryTimeout <= 0) {
+            return new CancellationToken();
+        }
+        return new CancellationToken(System.currentTimeMillis() + queryTimeout);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        CancellationTokenHolder.unbind();
+        final CancellationToken token = (CancellationToken) request.getAttribute(TOKEN_ATTRIBUTE);
+        if (token == null) {
+            return;
+        }
+        if (ex != null && logger.isDebugEnabled()) {
+            logger.debug("query failed, cancelling. uri:{} cause:{}", request.getRequestURI(), ex.toString());
+        }
+        // nobody waits for the result any more
+        token.cancel();
+        final String queryId = request.getParameter(QUERY_ID_PARAMETER);
+        if (queryId != null) {
+            registry.unregister(queryId, token);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.data.hadoop.hbase.RowMapper;
+import org.springframework.stereotype.Component;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.TimeUtils;
+import com.navercorp.pinpoint.web.vo.TraceIndexBucket;
+
+/**
+ * Maps an ApplicationTraceIndexBucket row : application name + reversed slot time, with a single counter.
+ */
+@Component
+public class TraceIndexBucketMapper implements RowMapper<TraceIndexBucket> {
+
+    @Override
+    public TraceIndexBucket mapRow(Result result, int rowNum) throws Exception {
+        if (result.isEmpty()) {
+            return null;
+        }
+        final long reverseBucketTime = BytesUtils.bytesToLong(result.getRow(), HBaseTables.APPLICATION_NAME_MAX_LEN);
+        final long bucketTime = TimeUtils.recoveryTimeMillis(reverseBucketTime);
+
+        final byte[] count = result.getValue(HBaseTables.APPLICATION_TRACE_INDEX_BUCKET_CF_COUNT, HBaseTables.APPLICATION_TRACE_INDEX_BUCKET_CQ_COUNT);
+        if (count == null) {
+            return new TraceIndexBucket(bucketTime, 0);
+        }
+        return new TraceIndexBucket(bucketTime, Bytes.toLong(count));
+    }
+}
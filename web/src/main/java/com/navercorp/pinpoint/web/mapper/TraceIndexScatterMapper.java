@@ -56,7 +56,7 @@ public class TraceIndexScatterMapper implements RowMapper<List<Dot>> {
         return list;
     }
 
-    private Dot createDot(Cell cell) {
+    static Dot createDot(Cell cell) {
         final int valueOffset = cell.getValueOffset();
         final Buffer valueBuffer = new OffsetFixedBuffer(cell.getValueArray(), valueOffset);
         int elapsed = valueBuffer.readVarInt();
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import com.navercorp.pinpoint.web.vo.scatter.DotHandler;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.springframework.data.hadoop.hbase.ResultsExtractor;
+
+/**
+ * Passes every dot of the application trace index to a {@link DotHandler} as the rows are scanned.
+ * Like {@link com.navercorp.pinpoint.common.hbase.LimitRowMapperResultsExtractor}, the scan stops at the first row boundary after the limit is reached.
+ *
+ * @see TraceIndexScatterMapper
+ */
+public class TraceIndexScatterStreamExtractor implements ResultsExtractor<Integer> {
+
+    private final DotHandler dotHandler;
+    private final int limit;
+
+    public TraceIndexScatterStreamExtractor(DotHandler dotHandler, int limit) {
+        if (dotHandler == null) {
+            throw new NullPointerException("dotHandler must not be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit:" + limit);
+        }
+        this.dotHandler = dotHandler;
+        this.limit = limit;
+    }
+
+    /**
+     * @return number of dots passed to the handler
+     */
+    @Override
+    public Integer extractData(ResultScanner results) throws Exception {
+        int dotCount = 0;
+        for (Result result : results) {
+            if (result.isEmpty()) {
+                continue;
+            }
+            for (Cell cell : result.rawCells()) {
+                dotHandler.handleDot(TraceIndexScatterMapper.createDot(cell));
+                dotCount++;
+            }
+            if (dotCount >= limit) {
+                break;
+            }
+        }
+        return dotCount;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.data.hadoop.hbase.RowMapper;
+import org.springframework.stereotype.Component;
+
+import com.navercorp.pinpoint.common.bo.AnnotationBo;
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+import com.navercorp.pinpoint.common.trace.AnnotationKey;
+import com.navercorp.pinpoint.web.vo.TraceSummary;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+/**
+ * Reads the TraceSummary row written by the collector into spans that only carry the fields used by {@link com.navercorp.pinpoint.web.filter.Filter}s.
+ * span events of span chunks are attached to their span like {@link SpanMapper}.
+ * The url of an rpc span event is restored as an {@link AnnotationKey#HTTP_URL} annotation.
+ * The number of span events is summed up over all cells, for {@link TraceSummary#isComplete()}.
+ */
+@Component
+public class TraceSummaryMapper implements RowMapper<TraceSummary> {
+
+    private static final int SPAN_QUALIFIER_LENGTH = Bytes.SIZEOF_LONG;
+
+    @Override
+    public TraceSummary mapRow(Result result, int rowNum) throws Exception {
+        if (result.isEmpty()) {
+            return new TraceSummary(Collections.<SpanBo>emptyList(), 0);
+        }
+
+        final TransactionId transactionId = new TransactionId(result.getRow(), TransactionId.DISTRIBUTE_HASH_SIZE);
+
+        final Cell[] rawCells = result.rawCells();
+        final List<SpanBo> spanList = new ArrayList<SpanBo>();
+        final Map<Long, SpanBo> spanMap = new HashMap<Long, SpanBo>();
+        final Map<Long, List<SpanEventBo>> chunkEventMap = new HashMap<Long, List<SpanEventBo>>();
+        int spanEventCount = 0;
+        for (Cell cell : rawCells) {
+            final long spanId = Bytes.toLong(cell.getQualifierArray(), cell.getQualifierOffset());
+            final Buffer buffer = new OffsetFixedBuffer(cell.getValueArray(), cell.getValueOffset());
+            // version
+            buffer.readByte();
+
+            if (cell.getQualifierLength() == SPAN_QUALIFIER_LENGTH) {
+                final SpanBo spanBo = readSpan(buffer, transactionId, spanId);
+                final int spanEventCountOfSpan = buffer.readVarInt();
+                spanEventCount += spanEventCountOfSpan;
+                final List<SpanEventBo> spanEventList = new ArrayList<SpanEventBo>();
+                readSpanEvents(buffer, spanId, spanEventList);
+                // keep null when the span has no span event at all, same as SpanMapper.
+                if (spanEventCountOfSpan > 0) {
+                    spanBo.setSpanEventBoList(spanEventList);
+                }
+                spanBo.setCollectorAcceptTime(cell.getTimestamp());
+                spanList.add(spanBo);
+                spanMap.put(spanId, spanBo);
+            } else {
+                spanEventCount += buffer.readVarInt();
+                List<SpanEventBo> chunkEventList = chunkEventMap.get(spanId);
+                if (chunkEventList == null) {
+                    chunkEventList = new ArrayList<SpanEventBo>();
+                    chunkEventMap.put(spanId, chunkEventList);
+                }
+                readSpanEvents(buffer, spanId, chunkEventList);
+            }
+        }
+
+        for (Map.Entry<Long, List<SpanEventBo>> entry : chunkEventMap.entrySet()) {
+            final SpanBo spanBo = spanMap.get(entry.getKey());
+            if (spanBo == null) {
+                continue;
+            }
+            if (spanBo.getSpanEventBoList() == null) {
+                spanBo.setSpanEventBoList(new ArrayList<SpanEventBo>());
+            }
+            spanBo.getSpanEventBoList().addAll(entry.getValue());
+        }
+        return new TraceSummary(spanList, spanEventCount);
+    }
+
+    private SpanBo readSpan(Buffer buffer, TransactionId transactionId, long spanId) {
+        final SpanBo spanBo = new SpanBo();
+        spanBo.setTraceAgentId(transactionId.getAgentId());
+        spanBo.setTraceAgentStartTime(transactionId.getAgentStartTime());
+        spanBo.setTraceTransactionSequence(transactionId.getTransactionSequence());
+        spanBo.setSpanID(spanId);
+
+        spanBo.setApplicationId(buffer.readPrefixedString());
+        spanBo.setAgentId(buffer.readPrefixedString());
+        spanBo.setServiceType(buffer.readShort());
+        spanBo.setParentSpanId(buffer.readSVarLong());
+        spanBo.setElapsed(buffer.readVarInt());
+        spanBo.setErrCode(buffer.readSVarInt());
+        spanBo.setRpc(buffer.readPrefixedString());
+        return spanBo;
+    }
+
+    private void readSpanEvents(Buffer buffer, long spanId, List<SpanEventBo> spanEventList) {
+        final int count = buffer.readVarInt();
+        for (int i = 0; i < count; i++) {
+            final SpanEventBo spanEventBo = new SpanEventBo();
+            spanEventBo.setSpanId(spanId);
+            spanEventBo.setServiceType(buffer.readShort());
+            spanEventBo.setDestinationId(buffer.readPrefixedString());
+            spanEventBo.setEndElapsed(buffer.readVarInt());
+            final boolean hasException = buffer.readBoolean();
+            if (hasException) {
+                spanEventBo.setExceptionInfo(buffer.readSVarInt(), null);
+            }
+            final String url = buffer.readPrefixedString();
+            if (url != null) {
+                final AnnotationBo annotationBo = new AnnotationBo();
+                annotationBo.setKey(AnnotationKey.HTTP_URL.getCode());
+                annotationBo.setValue(url);
+                final List<AnnotationBo> annotationBoList = new ArrayList<AnnotationBo>(1);
+                annotationBoList.add(annotationBo);
+                spanEventBo.setAnnotationBoList(annotationBoList);
+            }
+            spanEventList.add(spanEventBo);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.web.server;
 import java.io.IOException;
 import java.net.SocketException;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -116,6 +117,17 @@ public class PinpointSocketManager {
         return serverAcceptor.getWritableServerList();
     }
 
+    /**
+     * @return agentId -> startTimestamp of the agents of the application connected to a collector. empty if the cluster is disabled.
+     */
+    public Map<String, Long> getConnectedAgents(String applicationName) {
+        final ClusterManager clusterManager = this.clusterManager;
+        if (clusterManager == null) {
+            return Collections.emptyMap();
+        }
+        return clusterManager.getConnectedAgents(applicationName);
+    }
+
     public PinpointServer getCollector(AgentInfo agentInfo) {
         return getCollector(agentInfo.getApplicationName(), agentInfo.getAgentId(), agentInfo.getStartTimestamp());
     }
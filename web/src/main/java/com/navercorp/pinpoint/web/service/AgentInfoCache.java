@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.navercorp.pinpoint.common.bo.AgentInfoBo;
+
+/**
+ * Bounded LRU cache of agent information, shared by every agent list request.
+ *
+ * An AgentInfo row is written once per agent start, so the information of an agent start never changes and does not expire.
+ * The first start of an agent never changes either.
+ * Information read from hbase is put in the cache as it is read, by whichever request read it.
+ */
+public class AgentInfoCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    // guarded by this
+    private final Map<AgentStartKey, AgentInfoBo> agentInfoMap;
+    // agentId -> information of the first start. guarded by this
+    private final Map<String, AgentInfoBo> initialAgentInfoMap;
+
+    public AgentInfoCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.agentInfoMap = newLruMap(maxSize);
+        this.initialAgentInfoMap = newLruMap(maxSize);
+    }
+
+    private static <K, V> Map<K, V> newLruMap(final int maxSize) {
+        return new LinkedHashMap<K, V>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return information of the agent started at the given time. null if not cached.
+     */
+    public synchronized AgentInfoBo getAgentInfo(String agentId, long startTimestamp) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        return agentInfoMap.get(new AgentStartKey(agentId, startTimestamp));
+    }
+
+    public synchronized void putAgentInfo(AgentInfoBo agentInfoBo) {
+        if (agentInfoBo == null) {
+            throw new NullPointerException("agentInfoBo must not be null");
+        }
+        agentInfoMap.put(new AgentStartKey(agentInfoBo.getAgentId(), agentInfoBo.getStartTime()), agentInfoBo);
+    }
+
+    /**
+     * @return information of the first start of the agent. null if not cached.
+     */
+    public synchronized AgentInfoBo getInitialAgentInfo(String agentId) {
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        return initialAgentInfoMap.get(agentId);
+    }
+
+    public synchronized void putInitialAgentInfo(AgentInfoBo agentInfoBo) {
+        if (agentInfoBo == null) {
+            throw new NullPointerException("agentInfoBo must not be null");
+        }
+        initialAgentInfoMap.put(agentInfoBo.getAgentId(), agentInfoBo);
+        agentInfoMap.put(new AgentStartKey(agentInfoBo.getAgentId(), agentInfoBo.getStartTime()), agentInfoBo);
+    }
+
+    public synchronized int size() {
+        return agentInfoMap.size();
+    }
+
+    private static final class AgentStartKey {
+        private final String agentId;
+        private final long startTimestamp;
+
+        private AgentStartKey(String agentId, long startTimestamp) {
+            this.agentId = agentId;
+            this.startTimestamp = startTimestamp;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            AgentStartKey that = (AgentStartKey) o;
+
+            if (startTimestamp != that.startTimestamp) return false;
+            return agentId.equals(that.agentId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentId.hashCode();
+            result = 31 * result + (int) (startTimestamp ^ (startTimestamp >>> 32));
+            return result;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.web.service;
 
+import java.util.List;
 import java.util.Set;
 
 import com.navercorp.pinpoint.web.vo.AgentInfo;
@@ -34,4 +35,9 @@ public interface AgentInfoService {
     AgentInfo getAgentInfo(String agentId, long timestamp);
 
     AgentStatus getAgentStatus(String agentId, long timestamp);
+
+    /**
+     * @return status of every agent of the application
+     */
+    List<AgentStatus> getAgentStatusList(String applicationName, long timestamp);
 }
@@ -18,12 +18,15 @@ package com.navercorp.pinpoint.web.service;
 
 import java.util.*;
 
+import javax.annotation.PostConstruct;
+
 import com.navercorp.pinpoint.common.bo.AgentInfoBo;
 import com.navercorp.pinpoint.common.bo.AgentLifeCycleBo;
 import com.navercorp.pinpoint.common.util.AgentLifeCycleState;
 import com.navercorp.pinpoint.web.dao.AgentInfoDao;
 import com.navercorp.pinpoint.web.dao.AgentLifeCycleDao;
 import com.navercorp.pinpoint.web.dao.ApplicationIndexDao;
+import com.navercorp.pinpoint.web.server.PinpointSocketManager;
 import com.navercorp.pinpoint.web.vo.AgentInfo;
 import com.navercorp.pinpoint.web.vo.AgentStatus;
 import com.navercorp.pinpoint.web.vo.ApplicationAgentList;
@@ -32,6 +35,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -53,6 +57,19 @@ public class AgentInfoServiceImpl implements AgentInfoService {
     @Autowired
     private AgentLifeCycleDao agentLifeCycleDao;
 
+    @Autowired
+    private PinpointSocketManager pinpointSocketManager;
+
+    @Value("#{pinpointWebProps['web.agentInfo.cache.maxSize'] ?: 10000}")
+    private int agentInfoCacheMaxSize = AgentInfoCache.DEFAULT_MAX_SIZE;
+
+    private AgentInfoCache agentInfoCache;
+
+    @PostConstruct
+    public void init() {
+        this.agentInfoCache = new AgentInfoCache(agentInfoCacheMaxSize);
+    }
+
     @Override
     public ApplicationAgentList getApplicationAgentList(String applicationName, long timestamp) {
         if (applicationName == null) {
@@ -72,24 +89,10 @@ public class AgentInfoServiceImpl implements AgentInfoService {
         // value= list fo agentinfo
         SortedMap<String, List<AgentInfo>> result = new TreeMap<String, List<AgentInfo>>();
 
-        for (String agentId : agentIdList) {
-            AgentInfoBo agentInfoBo = this.agentInfoDao.getAgentInfo(agentId, timestamp);
-
-            if (agentInfoBo == null) {
-                continue;
-            }
-
-            final AgentInfo agentInfo = new AgentInfo(agentInfoBo);
-
-            final AgentStatus currentStatus = this.getAgentStatus(agentId, timestamp);
-            agentInfo.setStatus(currentStatus);
-
-            final AgentInfoBo initialAgentInfo = this.agentInfoDao.getInitialAgentInfo(agentId);
-            if (initialAgentInfo != null) {
-                agentInfo.setInitialStartTimestamp(initialAgentInfo.getStartTime());
-            }
-
-            String hostname = agentInfoBo.getHostName();
+        final List<AgentInfo> agentInfoList = getAgentInfoList(applicationName, agentIdList, timestamp);
+        setInitialStartTimestamp(agentInfoList);
+        for (AgentInfo agentInfo : agentInfoList) {
+            String hostname = agentInfo.getHostName();
 
             if (result.containsKey(hostname)) {
                 result.get(hostname).add(agentInfo);
@@ -100,8 +103,8 @@ public class AgentInfoServiceImpl implements AgentInfoService {
             }
         }
 
-        for (List<AgentInfo> agentInfoList : result.values()) {
-            Collections.sort(agentInfoList, AgentInfo.AGENT_NAME_ASC_COMPARATOR);
+        for (List<AgentInfo> hostAgentInfoList : result.values()) {
+            Collections.sort(hostAgentInfoList, AgentInfo.AGENT_NAME_ASC_COMPARATOR);
         }
 
         logger.info("getApplicationAgentList={}", result);
@@ -116,18 +119,118 @@ public class AgentInfoServiceImpl implements AgentInfoService {
         }
 
         List<String> agentIds = this.applicationIndexDao.selectAgentIds(applicationName);
-        Set<AgentInfo> agentSet = new HashSet<AgentInfo>();
-        for (String agentId : agentIds) {
-            // TODO Temporarily scans for the most recent AgentInfo row starting from range's to value.
-            // (As we do not yet have a way to accurately record the agent's lifecycle.)
-            AgentInfoBo agentInfoBo = this.agentInfoDao.getAgentInfo(agentId, timestamp);
+        // TODO Temporarily scans for the most recent AgentInfo row starting from range's to value.
+        // (As we do not yet have a way to accurately record the agent's lifecycle.)
+        return new HashSet<AgentInfo>(getAgentInfoList(applicationName, agentIds, timestamp));
+    }
+
+    @Override
+    public List<AgentStatus> getAgentStatusList(String applicationName, long timestamp) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (timestamp < 0) {
+            throw new IllegalArgumentException("timestamp must not be less than 0");
+        }
+        final List<String> agentIdList = this.applicationIndexDao.selectAgentIds(applicationName);
+        if (CollectionUtils.isEmpty(agentIdList)) {
+            return Collections.emptyList();
+        }
+        return getAgentStatusList(agentIdList, timestamp);
+    }
+
+    /**
+     * Information and status of the agents, read in batches.
+     * Agents connected to a collector run their latest start, known from the cluster : their information is read
+     * from the cache or with a single multi get. The other agents are scanned in parallel.
+     */
+    private List<AgentInfo> getAgentInfoList(String applicationName, List<String> agentIdList, long timestamp) {
+        if (CollectionUtils.isEmpty(agentIdList)) {
+            return Collections.emptyList();
+        }
+        final Map<String, Long> connectedAgents = this.pinpointSocketManager.getConnectedAgents(applicationName);
+
+        final List<AgentInfoBo> agentInfoBoList = new ArrayList<AgentInfoBo>(agentIdList.size());
+        final Map<String, Long> startedAgentMap = new HashMap<String, Long>();
+        final List<String> scanAgentIdList = new ArrayList<String>();
+        for (String agentId : agentIdList) {
+            final Long startTimestamp = connectedAgents.get(agentId);
+            if (startTimestamp == null || startTimestamp > timestamp) {
+                scanAgentIdList.add(agentId);
+                continue;
+            }
+            final AgentInfoBo agentInfoBo = this.agentInfoCache.getAgentInfo(agentId, startTimestamp);
             if (agentInfoBo != null) {
-                AgentInfo agentInfo = new AgentInfo(agentInfoBo);
-                agentInfo.setStatus(this.getAgentStatus(agentId, timestamp));
-                agentSet.add(agentInfo);
+                agentInfoBoList.add(agentInfoBo);
+            } else {
+                startedAgentMap.put(agentId, startTimestamp);
+            }
+        }
+
+        if (!startedAgentMap.isEmpty()) {
+            for (AgentInfoBo agentInfoBo : this.agentInfoDao.getAgentInfoList(startedAgentMap)) {
+                this.agentInfoCache.putAgentInfo(agentInfoBo);
+                agentInfoBoList.add(agentInfoBo);
+                startedAgentMap.remove(agentInfoBo.getAgentId());
+            }
+            // not written yet
+            scanAgentIdList.addAll(startedAgentMap.keySet());
+        }
+
+        if (!scanAgentIdList.isEmpty()) {
+            for (AgentInfoBo agentInfoBo : this.agentInfoDao.getAgentInfoList(scanAgentIdList, timestamp)) {
+                if (agentInfoBo != null) {
+                    this.agentInfoCache.putAgentInfo(agentInfoBo);
+                    agentInfoBoList.add(agentInfoBo);
+                }
+            }
+        }
+
+        final List<String> foundAgentIdList = new ArrayList<String>(agentInfoBoList.size());
+        for (AgentInfoBo agentInfoBo : agentInfoBoList) {
+            foundAgentIdList.add(agentInfoBo.getAgentId());
+        }
+        final List<AgentStatus> agentStatusList = getAgentStatusList(foundAgentIdList, timestamp);
+
+        final List<AgentInfo> agentInfoList = new ArrayList<AgentInfo>(agentInfoBoList.size());
+        for (int i = 0; i < agentInfoBoList.size(); i++) {
+            final AgentInfo agentInfo = new AgentInfo(agentInfoBoList.get(i));
+            agentInfo.setStatus(agentStatusList.get(i));
+            agentInfoList.add(agentInfo);
+        }
+        return agentInfoList;
+    }
+
+    private List<AgentStatus> getAgentStatusList(List<String> agentIdList, long timestamp) {
+        final List<AgentLifeCycleBo> agentLifeCycleBoList = this.agentLifeCycleDao.getAgentLifeCycleList(agentIdList, timestamp);
+        final List<AgentStatus> agentStatusList = new ArrayList<AgentStatus>(agentIdList.size());
+        for (int i = 0; i < agentIdList.size(); i++) {
+            agentStatusList.add(createAgentStatus(agentIdList.get(i), agentLifeCycleBoList.get(i)));
+        }
+        return agentStatusList;
+    }
+
+    private void setInitialStartTimestamp(List<AgentInfo> agentInfoList) {
+        final List<String> missAgentIdList = new ArrayList<String>();
+        for (AgentInfo agentInfo : agentInfoList) {
+            final AgentInfoBo initialAgentInfo = this.agentInfoCache.getInitialAgentInfo(agentInfo.getAgentId());
+            if (initialAgentInfo == null) {
+                missAgentIdList.add(agentInfo.getAgentId());
+            }
+        }
+        if (!missAgentIdList.isEmpty()) {
+            for (AgentInfoBo initialAgentInfo : this.agentInfoDao.getInitialAgentInfoList(missAgentIdList)) {
+                if (initialAgentInfo != null) {
+                    this.agentInfoCache.putInitialAgentInfo(initialAgentInfo);
+                }
+            }
+        }
+        for (AgentInfo agentInfo : agentInfoList) {
+            final AgentInfoBo initialAgentInfo = this.agentInfoCache.getInitialAgentInfo(agentInfo.getAgentId());
+            if (initialAgentInfo != null) {
+                agentInfo.setInitialStartTimestamp(initialAgentInfo.getStartTime());
             }
         }
-        return agentSet;
     }
 
     @Override
@@ -156,6 +259,10 @@ public class AgentInfoServiceImpl implements AgentInfoService {
             throw new IllegalArgumentException("timestamp must not be less than 0");
         }
         AgentLifeCycleBo agentLifeCycleBo = this.agentLifeCycleDao.getAgentLifeCycle(agentId, timestamp);
+        return createAgentStatus(agentId, agentLifeCycleBo);
+    }
+
+    private AgentStatus createAgentStatus(String agentId, AgentLifeCycleBo agentLifeCycleBo) {
         if (agentLifeCycleBo == null) {
             AgentStatus agentStatus = new AgentStatus();
             agentStatus.setAgentId(agentId);
@@ -19,18 +19,29 @@ package com.navercorp.pinpoint.web.service;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.web.vo.Application;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
+ * Applications are interned, so that the statistics of a large server map share one instance per application
+ * instead of one per hbase cell. The intern map stops growing at MAX_INTERN_SIZE.
+ *
  * @author emeroad
  */
 @Component
 public class DefaultApplicationFactory implements ApplicationFactory {
 
+    private static final int MAX_INTERN_SIZE = 1024 * 16;
+
     @Autowired
     private ServiceTypeRegistryService registry;
 
+    private final ConcurrentMap<Application, Application> internMap = new ConcurrentHashMap<Application, Application>();
+
     @Override
     public Application createApplication(String applicationName, short serviceTypeCode) {
         if (applicationName == null) {
@@ -38,12 +49,12 @@ public class DefaultApplicationFactory implements ApplicationFactory {
         }
 
         final ServiceType serviceType = registry.findServiceType(serviceTypeCode);
-        return new Application(applicationName, serviceType);
+        return intern(new Application(applicationName, serviceType));
     }
 
     @Override
     public Application createApplication(String applicationName, ServiceType serviceType) {
-        return new Application(applicationName, serviceType);
+        return intern(new Application(applicationName, serviceType));
     }
 
     @Override
@@ -56,7 +67,22 @@ public class DefaultApplicationFactory implements ApplicationFactory {
         }
 
         final ServiceType serviceType = registry.findServiceTypeByName(serviceTypeName);
-        return new Application(applicationName, serviceType);
+        return intern(new Application(applicationName, serviceType));
+    }
+
+    private Application intern(Application application) {
+        final Application interned = internMap.get(application);
+        if (interned != null) {
+            return interned;
+        }
+        if (internMap.size() >= MAX_INTERN_SIZE) {
+            return application;
+        }
+        final Application prev = internMap.putIfAbsent(application, application);
+        if (prev != null) {
+            return prev;
+        }
+        return application;
     }
 
 }
@@ -18,10 +18,13 @@ package com.navercorp.pinpoint.web.service;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
 import com.navercorp.pinpoint.common.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.trace.HistogramSchema;
 import com.navercorp.pinpoint.common.trace.HistogramSlot;
 import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMap;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMapBuilder;
 import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
@@ -38,10 +41,19 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StopWatch;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author netspider
@@ -59,6 +71,9 @@ public class FilteredMapServiceImpl implements FilteredMapService {
     @Autowired
     private ApplicationTraceIndexDao applicationTraceIndexDao;
 
+    @Autowired
+    private TraceSummaryService traceSummaryService;
+
     @Autowired
     private AgentInfoService agentInfoService;
     
@@ -68,8 +83,38 @@ public class FilteredMapServiceImpl implements FilteredMapService {
     @Autowired
     private ApplicationFactory applicationFactory;
 
+    @Value("#{pinpointWebProps['web.filteredmap.parallelism'] ?: 0}")
+    private int parallelism;
+
+    @Value("#{pinpointWebProps['web.filteredmap.partitionSize'] ?: 1000}")
+    private int partitionSize = 1000;
+
+    private ExecutorService executor;
+
     private static final Object V = new Object();
 
+    @PostConstruct
+    public void start() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("partitionSize must be greater than 0");
+        }
+        if (parallelism > 1) {
+            // the calling thread converts a partition too
+            this.executor = Executors.newFixedThreadPool(parallelism - 1, new PinpointThreadFactory("Pinpoint-FilteredMap", true));
+        }
+        logger.info("FilteredMapService parallelism:{}, partitionSize:{}", parallelism, partitionSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     public LimitedScanResult<List<TransactionId>> selectTraceIdsFromApplicationTraceIndex(String applicationName, Range range, int limit) {
         if (applicationName == null) {
@@ -213,8 +258,11 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         // do not filter here if we change to a tree-based collision check in the future. 
         final Collection<TransactionId> recursiveFilterList = recursiveCallFilter(transactionIdList);
 
+        // skip transactions whose summary does not pass the filter before reading the spans
+        final Collection<TransactionId> candidateList = traceSummaryService.selectFilterCandidates(recursiveFilterList, filter);
+
         // FIXME might be better to simply traverse the List<Span> and create a process chain for execution
-        final List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(recursiveFilterList);
+        final List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(candidateList);
 
         return filterList2(originalList, filter);
     }
@@ -224,72 +272,194 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         // TODO inject TimeWindow from elsewhere 
         final TimeWindow window = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
 
+        final MapPartition mapPartition = buildMapPartition(range, scanRange, window, filterList);
 
-        final LinkDataDuplexMap linkDataDuplexMap = new LinkDataDuplexMap();
+        List<ApplicationScatterScanResult> applicationScatterScanResult = mapPartition.dotExtractor.getApplicationScatterScanResult();
 
-        final DotExtractor dotExtractor = new DotExtractor(scanRange, applicationFactory);
-        final ResponseHistogramBuilder mapHistogramSummary = new ResponseHistogramBuilder(range);
-        /**
-         * Convert to statistical data
-         */
-        for (List<SpanBo> transaction : filterList) {
-            final Map<Long, SpanBo> transactionSpanMap = checkDuplicatedSpanId(transaction);
+        ApplicationMapBuilder applicationMapBuilder = new ApplicationMapBuilder(range);
+        final ResponseHistogramBuilder mapHistogramSummary = mapPartition.mapHistogramSummary;
+        mapHistogramSummary.build();
+        ApplicationMap map = applicationMapBuilder.build(mapPartition.linkDataDuplexMap, agentInfoService, mapHistogramSummary);
 
-            for (SpanBo span : transaction) {
-                final Application parentApplication = createParentApplication(span, transactionSpanMap);
-                final Application spanApplication = this.applicationFactory.createApplication(span.getApplicationId(), span.getApplicationServiceType());
+        map.setApplicationScatterScanResult(applicationScatterScanResult);
 
-                // records the Span's response time statistics
-                recordSpanResponseTime(spanApplication, span, mapHistogramSummary, span.getCollectorAcceptTime());
+        return map;
+    }
 
-                if (!spanApplication.getServiceType().isRecordStatistics() || spanApplication.getServiceType().isRpcClient()) {
-                    // span's serviceType is probably not set correctly
-                    logger.warn("invalid span application:{}", spanApplication);
-                    continue;
+    /**
+     * Large transaction lists are split into contiguous partitions converted in parallel, then merged in order,
+     * so that the result is the same as converting the whole list on the calling thread.
+     */
+    MapPartition buildMapPartition(Range range, Range scanRange, TimeWindow window, List<List<SpanBo>> filterList) {
+        final int partitionCount = getPartitionCount(filterList.size());
+        if (partitionCount <= 1) {
+            final MapPartition mapPartition = new MapPartition(range, scanRange, window, filterList);
+            return mapPartition.call();
+        }
+
+        final int size = filterList.size();
+        final List<Future<MapPartition>> futureList = new ArrayList<Future<MapPartition>>(partitionCount - 1);
+        MapPartition first = null;
+        boolean success = false;
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                final int from = (int) ((long) size * i / partitionCount);
+                final int to = (int) ((long) size * (i + 1) / partitionCount);
+                final MapPartition mapPartition = new MapPartition(range, scanRange, window, filterList.subList(from, to));
+                if (i == 0) {
+                    // the calling thread converts the first partition
+                    first = mapPartition;
+                } else {
+                    futureList.add(executor.submit(mapPartition));
+                }
+            }
+            first.call();
+            for (Future<MapPartition> future : futureList) {
+                first.merge(getMapPartition(future));
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                for (Future<MapPartition> future : futureList) {
+                    future.cancel(true);
                 }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("filtered map converted. transactions:{}, partitions:{}", size, partitionCount);
+        }
+        return first;
+    }
 
-                final short slotTime = getHistogramSlotTime(span, spanApplication.getServiceType());
-                // might need to reconsider using collector's accept time for link statistics.
-                // we need to convert to time window's timestamp. If not, it may lead to OOM due to mismatch in timeslots. 
-                long timestamp = window.refineTimestamp(span.getCollectorAcceptTime());
+    private int getPartitionCount(int transactionCount) {
+        if (executor == null || transactionCount <= partitionSize) {
+            return 1;
+        }
+        final int partitionCount = (transactionCount + partitionSize - 1) / partitionSize;
+        return Math.min(partitionCount, parallelism);
+    }
 
-                if (parentApplication.getServiceType() == ServiceType.USER) {
-                    // Outbound data
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("span user:{} {} -> span:{} {}", parentApplication, span.getAgentId(), spanApplication, span.getAgentId());
-                    }
-                    final LinkDataMap sourceLinkData = linkDataDuplexMap.getSourceLinkDataMap();
-                    sourceLinkData.addLinkData(parentApplication, span.getAgentId(), spanApplication,  span.getAgentId(), timestamp, slotTime, 1);
+    private MapPartition getMapPartition(Future<MapPartition> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("filtered map conversion interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
 
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("span target user:{} {} -> span:{} {}", parentApplication, span.getAgentId(), spanApplication, span.getAgentId());
+    /**
+     * statistics of a partition of the transaction list
+     */
+    class MapPartition implements Callable<MapPartition> {
+
+        private final TimeWindow window;
+        private final List<List<SpanBo>> transactionList;
+        // token of the request. partitions are converted on other threads too
+        private final CancellationToken token;
+
+        private final LinkDataDuplexMap linkDataDuplexMap;
+        private final DotExtractor dotExtractor;
+        private final ResponseHistogramBuilder mapHistogramSummary;
+
+        private MapPartition(Range range, Range scanRange, TimeWindow window, List<List<SpanBo>> transactionList) {
+            this.window = window;
+            this.transactionList = transactionList;
+            this.token = CancellationTokenHolder.get();
+
+            this.linkDataDuplexMap = new LinkDataDuplexMap();
+            this.dotExtractor = new DotExtractor(scanRange, applicationFactory);
+            this.mapHistogramSummary = new ResponseHistogramBuilder(range);
+        }
+
+        @Override
+        public MapPartition call() {
+            /**
+             * Convert to statistical data
+             */
+            for (List<SpanBo> transaction : transactionList) {
+                if (token != null && token.isTerminated()) {
+                    // nobody waits for the rest of the map
+                    token.markTruncated();
+                    break;
+                }
+                final Map<Long, SpanBo> transactionSpanMap = checkDuplicatedSpanId(transaction);
+
+                for (SpanBo span : transaction) {
+                    final Application parentApplication = createParentApplication(span, transactionSpanMap);
+                    final Application spanApplication = applicationFactory.createApplication(span.getApplicationId(), span.getApplicationServiceType());
+
+                    // records the Span's response time statistics
+                    recordSpanResponseTime(spanApplication, span, mapHistogramSummary, span.getCollectorAcceptTime());
+
+                    if (!spanApplication.getServiceType().isRecordStatistics() || spanApplication.getServiceType().isRpcClient()) {
+                        // span's serviceType is probably not set correctly
+                        logger.warn("invalid span application:{}", spanApplication);
+                        continue;
                     }
-                    // Inbound data
-                    final LinkDataMap targetLinkDataMap = linkDataDuplexMap.getTargetLinkDataMap();
-                    targetLinkDataMap.addLinkData(parentApplication, span.getAgentId(), spanApplication, span.getAgentId(), timestamp, slotTime, 1);
-                } else {
-                    // Inbound data
-                    if (logger.isTraceEnabled()) {
-                        logger.trace("span target parent:{} {} -> span:{} {}", parentApplication, span.getAgentId(), spanApplication, span.getAgentId());
+
+                    final short slotTime = getHistogramSlotTime(span, spanApplication.getServiceType());
+                    // might need to reconsider using collector's accept time for link statistics.
+                    // we need to convert to time window's timestamp. If not, it may lead to OOM due to mismatch in timeslots. 
+                    long timestamp = window.refineTimestamp(span.getCollectorAcceptTime());
+
+                    if (parentApplication.getServiceType() == ServiceType.USER) {
+                        // Outbound data
+                        if (logger.isTraceEnabled()) {
+                            logger.trace("span user:{} {} -> span:{} {}", parentApplication, span.getAgentId(), spanApplication, span.getAgentId());
+                        }
+                        final LinkDataMap sourceLinkData = linkDataDuplexMap.getSourceLinkDataMap();
+                        sourceLinkData.addLinkData(parentApplication, span.getAgentId(), spanApplication,  span.getAgentId(), timestamp, slotTime, 1);
+
+                        if (logger.isTraceEnabled()) {
+                            logger.trace("span target user:{} {} -> span:{} {}", parentApplication, span.getAgentId(), spanApplication, span.getAgentId());
+                        }
+                        // Inbound data
+                        final LinkDataMap targetLinkDataMap = linkDataDuplexMap.getTargetLinkDataMap();
+                        targetLinkDataMap.addLinkData(parentApplication, span.getAgentId(), spanApplication, span.getAgentId(), timestamp, slotTime, 1);
+                    } else {
+                        // Inbound data
+                        if (logger.isTraceEnabled()) {
+                            logger.trace("span target parent:{} {} -> span:{} {}", parentApplication, span.getAgentId(), spanApplication, span.getAgentId());
+                        }
+                        final LinkDataMap targetLinkDataMap = linkDataDuplexMap.getTargetLinkDataMap();
+                        targetLinkDataMap.addLinkData(parentApplication, span.getAgentId(), spanApplication, span.getAgentId(), timestamp, slotTime, 1);
                     }
-                    final LinkDataMap targetLinkDataMap = linkDataDuplexMap.getTargetLinkDataMap();
-                    targetLinkDataMap.addLinkData(parentApplication, span.getAgentId(), spanApplication, span.getAgentId(), timestamp, slotTime, 1);
-                }
 
 
-                addNodeFromSpanEvent(span, window, linkDataDuplexMap, transactionSpanMap);
-                dotExtractor.addDot(span);
+                    addNodeFromSpanEvent(span, window, linkDataDuplexMap, transactionSpanMap);
+                    dotExtractor.addDot(span);
+                }
             }
+            return this;
         }
-        List<ApplicationScatterScanResult> applicationScatterScanResult = dotExtractor.getApplicationScatterScanResult();
 
-        ApplicationMapBuilder applicationMapBuilder = new ApplicationMapBuilder(range);
-        mapHistogramSummary.build();
-        ApplicationMap map = applicationMapBuilder.build(linkDataDuplexMap, agentInfoService, mapHistogramSummary);
+        LinkDataDuplexMap getLinkDataDuplexMap() {
+            return linkDataDuplexMap;
+        }
 
-        map.setApplicationScatterScanResult(applicationScatterScanResult);
+        DotExtractor getDotExtractor() {
+            return dotExtractor;
+        }
 
-        return map;
+        ResponseHistogramBuilder getMapHistogramSummary() {
+            return mapHistogramSummary;
+        }
+
+        private void merge(MapPartition mapPartition) {
+            this.linkDataDuplexMap.addLinkDataDuplexMap(mapPartition.linkDataDuplexMap);
+            this.dotExtractor.merge(mapPartition.dotExtractor);
+            this.mapHistogramSummary.merge(mapPartition.mapHistogramSummary);
+        }
     }
 
     private Map<Long, SpanBo> checkDuplicatedSpanId(List<SpanBo> transaction) {
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.common.util.SystemClock;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
+
+/**
+ * Bounded LRU cache of the metadata of one metadata table, shared by every call tree request.
+ *
+ * Metadata never changes once written, so found entries do not expire.
+ * Missing metadata is cached too, as an empty list : a call tree of an agent whose metadata was lost
+ * would otherwise query the same rows again on every request.
+ * The agent may still send the metadata later, so a negative entry expires after the negative ttl.
+ */
+public class MetaDataCache<T> {
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    public static final long DEFAULT_NEGATIVE_TTL = 60000;
+
+    public interface MetaDataLoader<T> {
+        /**
+         * @return metadata of each key, in the order of the given keys. an empty list if not found.
+         */
+        List<List<T>> load(List<MetaDataKey> keyList);
+    }
+
+    private final int maxSize;
+    private final long negativeTtlMillis;
+    private final Clock clock;
+
+    // access order for LRU. guarded by this
+    private final LinkedHashMap<MetaDataKey, Entry<T>> map;
+
+    public MetaDataCache(int maxSize, long negativeTtlMillis) {
+        this(maxSize, negativeTtlMillis, SystemClock.INSTANCE);
+    }
+
+    MetaDataCache(final int maxSize, long negativeTtlMillis, Clock clock) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        if (negativeTtlMillis < 0) {
+            throw new IllegalArgumentException("negativeTtlMillis must not be negative");
+        }
+        if (clock == null) {
+            throw new NullPointerException("clock must not be null");
+        }
+        this.maxSize = maxSize;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.map = new LinkedHashMap<MetaDataKey, Entry<T>>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MetaDataKey, Entry<T>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the metadata of every given key. Keys not cached are loaded with a single call of the loader.
+     */
+    public Map<MetaDataKey, List<T>> getAll(Collection<MetaDataKey> keys, MetaDataLoader<T> loader) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        if (loader == null) {
+            throw new NullPointerException("loader must not be null");
+        }
+        final Map<MetaDataKey, List<T>> result = new HashMap<MetaDataKey, List<T>>(keys.size() * 2);
+        final List<MetaDataKey> missList = new ArrayList<MetaDataKey>();
+        final long currentTime = clock.getTime();
+        synchronized (this) {
+            for (MetaDataKey key : keys) {
+                if (result.containsKey(key)) {
+                    continue;
+                }
+                final Entry<T> entry = map.get(key);
+                if (entry == null || entry.isExpired(currentTime)) {
+                    // reserve the slot so that a duplicated key is loaded once
+                    result.put(key, null);
+                    missList.add(key);
+                } else {
+                    result.put(key, entry.metaDataList);
+                }
+            }
+        }
+        if (missList.isEmpty()) {
+            return result;
+        }
+
+        final List<List<T>> loadedList = loader.load(missList);
+        if (loadedList == null || loadedList.size() != missList.size()) {
+            throw new IllegalStateException("loaded size not equals. keys:" + missList.size() + ", loaded:" + (loadedList == null ? null : loadedList.size()));
+        }
+        final long loadTime = clock.getTime();
+        synchronized (this) {
+            for (int i = 0; i < missList.size(); i++) {
+                final MetaDataKey key = missList.get(i);
+                List<T> metaDataList = loadedList.get(i);
+                if (metaDataList == null || metaDataList.isEmpty()) {
+                    metaDataList = Collections.emptyList();
+                }
+                result.put(key, metaDataList);
+                if (maxSize > 0) {
+                    map.put(key, new Entry<T>(metaDataList, metaDataList.isEmpty() ? loadTime + negativeTtlMillis : Long.MAX_VALUE));
+                }
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private static final class Entry<T> {
+        private final List<T> metaDataList;
+        private final long expireTime;
+
+        private Entry(List<T> metaDataList, long expireTime) {
+            this.metaDataList = metaDataList;
+            this.expireTime = expireTime;
+        }
+
+        private boolean isExpired(long currentTime) {
+            return currentTime >= expireTime;
+        }
+    }
+}
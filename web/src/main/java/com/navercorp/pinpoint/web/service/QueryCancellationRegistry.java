@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+
+/**
+ * {@link CancellationToken}s of the running queries, by the query id given by the browser.
+ *
+ * A query registered with the id of a running query supersedes it : the previous query is cancelled,
+ * as the browser no longer waits for its result.
+ */
+@Component
+public class QueryCancellationRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<String, CancellationToken> tokenMap = new ConcurrentHashMap<String, CancellationToken>();
+
+    public void register(String queryId, CancellationToken token) {
+        if (queryId == null) {
+            throw new NullPointerException("queryId must not be null");
+        }
+        if (token == null) {
+            throw new NullPointerException("token must not be null");
+        }
+        removeTerminated();
+        final CancellationToken previous = tokenMap.put(queryId, token);
+        if (previous != null) {
+            logger.debug("query superseded. queryId:{}", queryId);
+            previous.cancel();
+        }
+    }
+
+    /**
+     * drops the queries past their deadline, in case their requests never complete.
+     */
+    private void removeTerminated() {
+        for (Map.Entry<String, CancellationToken> entry : tokenMap.entrySet()) {
+            if (entry.getValue().isTerminated()) {
+                tokenMap.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public void unregister(String queryId, CancellationToken token) {
+        if (queryId == null) {
+            throw new NullPointerException("queryId must not be null");
+        }
+        tokenMap.remove(queryId, token);
+    }
+
+    /**
+     * @return false if no query is running with the given id.
+     */
+    public boolean cancel(String queryId) {
+        if (queryId == null) {
+            throw new NullPointerException("queryId must not be null");
+        }
+        final CancellationToken token = tokenMap.remove(queryId);
+        if (token == null) {
+            return false;
+        }
+        logger.debug("query cancelled. queryId:{}", queryId);
+        token.cancel();
+        return true;
+    }
+
+    public int size() {
+        return tokenMap.size();
+    }
+}
@@ -23,6 +23,8 @@ import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.TransactionMetadataQuery;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotHandler;
+import com.navercorp.pinpoint.web.vo.scatter.DotScanResult;
 
 import java.util.Collection;
 import java.util.List;
@@ -45,9 +47,20 @@ public interface ScatterChartService {
      * @param applicationName
      * @param range
      * @param limit
-     * @return
+     * @return dots with the number of transactions of the time range, if counted by the collector
+     */
+    DotScanResult selectScatterData(String applicationName, Range range, int limit);
+
+    /**
+     * Streams the data of the time range to the handler without collecting it.
+     *
+     * @param applicationName
+     * @param range
+     * @param limit
+     * @param dotHandler
+     * @return number of dots passed to the handler
      */
-    List<Dot> selectScatterData(String applicationName, Range range, int limit);
+    int selectScatterData(String applicationName, Range range, int limit, DotHandler dotHandler);
 
     /**
      * @param applicationName
@@ -23,17 +23,23 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexBucketDao;
 import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.web.dao.TraceDao;
 import com.navercorp.pinpoint.web.filter.Filter;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
+import com.navercorp.pinpoint.web.vo.TraceIndexBucket;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 import com.navercorp.pinpoint.web.vo.TransactionMetadataQuery;
 import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotHandler;
+import com.navercorp.pinpoint.web.vo.scatter.DotScanResult;
 
 /**
  * @author netspider
@@ -47,18 +53,58 @@ public class ScatterChartServiceImpl implements ScatterChartService {
     @Autowired
     private ApplicationTraceIndexDao applicationTraceIndexDao;
 
+    @Autowired
+    private ApplicationTraceIndexBucketDao applicationTraceIndexBucketDao;
+
+    @Value("#{pinpointWebProps['web.traceIndexBucket.enable'] ?: false}")
+    private boolean traceIndexBucketEnable;
+
+    @Value("#{pinpointWebProps['web.traceIndexBucket.partitionCount'] ?: 4}")
+    private int traceIndexPartitionCount = 4;
+
+    @Autowired
+    private TraceSummaryService traceSummaryService;
+
     @Autowired
     private TraceDao traceDao;
 
     @Override
-    public List<Dot> selectScatterData(String applicationName, Range range, int limit) {
+    public DotScanResult selectScatterData(String applicationName, Range range, int limit) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (!traceIndexBucketEnable) {
+            return new DotScanResult(applicationTraceIndexDao.scanTraceScatter(applicationName, range, limit), DotScanResult.UNKNOWN_TOTAL_COUNT);
+        }
+        final List<TraceIndexBucket> bucketList = applicationTraceIndexBucketDao.selectBucketList(applicationName, range);
+        if (bucketList.isEmpty()) {
+            // not counted by the collector
+            return new DotScanResult(applicationTraceIndexDao.scanTraceScatter(applicationName, range, limit), DotScanResult.UNKNOWN_TOTAL_COUNT);
+        }
+        final TraceIndexScanPlan plan = TraceIndexScanPlan.create(range, bucketList, limit, traceIndexPartitionCount);
+        logger.debug("scatter scan plan:{}", plan);
+
+        final List<Dot> dotList = applicationTraceIndexDao.scanTraceScatter(applicationName, plan.getPartitionList(), limit);
+        final Range remainingRange = plan.getRemainingRange();
+        if (dotList.size() < limit && remainingRange != null && !CancellationTokenHolder.isTerminated()) {
+            // the counts were short of the index
+            dotList.addAll(applicationTraceIndexDao.scanTraceScatter(applicationName, remainingRange, limit - dotList.size()));
+        }
+        return new DotScanResult(dotList, plan.getTotalCount());
+    }
+
+    @Override
+    public int selectScatterData(String applicationName, Range range, int limit, DotHandler dotHandler) {
         if (applicationName == null) {
             throw new NullPointerException("applicationName must not be null");
         }
         if (range == null) {
             throw new NullPointerException("range must not be null");
         }
-        return applicationTraceIndexDao.scanTraceScatter(applicationName, range, limit);
+        return applicationTraceIndexDao.scanTraceScatter(applicationName, range, limit, dotHandler);
     }
 
     @Override
@@ -84,7 +130,8 @@ public class ScatterChartServiceImpl implements ScatterChartService {
             throw new NullPointerException("filter must not be null");
         }
 
-        final List<List<SpanBo>> traceList = traceDao.selectAllSpans(transactionIdList);
+        final Collection<TransactionId> candidateList = traceSummaryService.selectFilterCandidates(transactionIdList, filter);
+        final List<List<SpanBo>> traceList = traceDao.selectAllSpans(candidateList);
 
         final List<Dot> result = new ArrayList<Dot>();
 
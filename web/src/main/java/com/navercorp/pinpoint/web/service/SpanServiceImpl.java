@@ -17,10 +17,14 @@
 package com.navercorp.pinpoint.web.service;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.navercorp.pinpoint.common.bo.*;
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
 import com.navercorp.pinpoint.common.trace.AnnotationKey;
 import com.navercorp.pinpoint.common.util.DefaultSqlParser;
 import com.navercorp.pinpoint.common.util.OutputParameterParser;
@@ -34,12 +38,16 @@ import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
 import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
 import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
 import com.navercorp.pinpoint.web.dao.TraceDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 import com.navercorp.pinpoint.web.vo.TransactionId;
 
+import javax.annotation.PostConstruct;
+
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -63,9 +71,48 @@ public class SpanServiceImpl implements SpanService {
     @Autowired
     private StringMetaDataDao stringMetaDataDao;
 
+    @Value("#{pinpointWebProps['web.metadata.cache.maxSize'] ?: 10000}")
+    private int metaDataCacheMaxSize = MetaDataCache.DEFAULT_MAX_SIZE;
+
+    @Value("#{pinpointWebProps['web.metadata.cache.negativeTtl'] ?: 60000}")
+    private long metaDataCacheNegativeTtl = MetaDataCache.DEFAULT_NEGATIVE_TTL;
+
+    private MetaDataCache<ApiMetaDataBo> apiMetaDataCache;
+    private MetaDataCache<SqlMetaDataBo> sqlMetaDataCache;
+    private MetaDataCache<StringMetaDataBo> stringMetaDataCache;
+
+    private final MetaDataCache.MetaDataLoader<ApiMetaDataBo> apiMetaDataLoader = new MetaDataCache.MetaDataLoader<ApiMetaDataBo>() {
+        @Override
+        public List<List<ApiMetaDataBo>> load(List<MetaDataKey> keyList) {
+            return apiMetaDataDao.getApiMetaDataList(keyList);
+        }
+    };
+
+    private final MetaDataCache.MetaDataLoader<SqlMetaDataBo> sqlMetaDataLoader = new MetaDataCache.MetaDataLoader<SqlMetaDataBo>() {
+        @Override
+        public List<List<SqlMetaDataBo>> load(List<MetaDataKey> keyList) {
+            return sqlMetaDataDao.getSqlMetaDataList(keyList);
+        }
+    };
+
+    private final MetaDataCache.MetaDataLoader<StringMetaDataBo> stringMetaDataLoader = new MetaDataCache.MetaDataLoader<StringMetaDataBo>() {
+        @Override
+        public List<List<StringMetaDataBo>> load(List<MetaDataKey> keyList) {
+            return stringMetaDataDao.getStringMetaDataList(keyList);
+        }
+    };
+
     private final SqlParser sqlParser = new DefaultSqlParser();
     private final OutputParameterParser outputParameterParser = new OutputParameterParser();
 
+    @PostConstruct
+    public void init() {
+        // each metadata table has its own cache, shared by every call tree request
+        this.apiMetaDataCache = new MetaDataCache<ApiMetaDataBo>(metaDataCacheMaxSize, metaDataCacheNegativeTtl);
+        this.sqlMetaDataCache = new MetaDataCache<SqlMetaDataBo>(metaDataCacheMaxSize, metaDataCacheNegativeTtl);
+        this.stringMetaDataCache = new MetaDataCache<StringMetaDataBo>(metaDataCacheMaxSize, metaDataCacheNegativeTtl);
+    }
+
     @Override
     public SpanResult selectSpan(TransactionId transactionId, long selectedSpanHint) {
         if (transactionId == null) {
@@ -80,16 +127,94 @@ public class SpanServiceImpl implements SpanService {
         final SpanResult result = order(spans, selectedSpanHint);
         final CallTreeIterator callTreeIterator = result.getCallTree();
         final List<SpanAlign> values = callTreeIterator.values();
-        
-        transitionDynamicApiId(values);
-        transitionSqlId(values);
-        transitionCachedString(values);
-        transitionException(values);
+
+        final CancellationToken token = CancellationTokenHolder.get();
+        if (token != null && token.isTerminated()) {
+            // the call tree is returned with the ids of the metadata
+            token.markTruncated();
+            return result;
+        }
+
+        // distinct metadata keys of the whole call tree are resolved with one multi get per metadata table
+        // before the annotations are rewritten.
+        final Map<MetaDataKey, List<ApiMetaDataBo>> apiMetaDataMap = apiMetaDataCache.getAll(collectApiMetaDataKey(values), apiMetaDataLoader);
+        final Map<MetaDataKey, List<SqlMetaDataBo>> sqlMetaDataMap = sqlMetaDataCache.getAll(collectSqlMetaDataKey(values), sqlMetaDataLoader);
+        final Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap = stringMetaDataCache.getAll(collectStringMetaDataKey(values), stringMetaDataLoader);
+
+        transitionDynamicApiId(values, apiMetaDataMap);
+        transitionSqlId(values, sqlMetaDataMap);
+        transitionCachedString(values, stringMetaDataMap);
+        transitionException(values, stringMetaDataMap);
         // TODO need to at least show the row data when root span is not found. 
         return result;
     }
 
+    private Set<MetaDataKey> collectApiMetaDataKey(List<SpanAlign> spans) {
+        final Set<MetaDataKey> keySet = new HashSet<MetaDataKey>();
+        for (SpanAlign spanAlign : spans) {
+            keySet.add(createMetaDataKey(getAgentKey(spanAlign), getApiId(spanAlign)));
+        }
+        return keySet;
+    }
 
+    private Set<MetaDataKey> collectSqlMetaDataKey(List<SpanAlign> spans) {
+        final Set<MetaDataKey> keySet = new HashSet<MetaDataKey>();
+        for (SpanAlign spanAlign : spans) {
+            final List<AnnotationBo> annotationBoList = getAnnotationBoList(spanAlign);
+            if (annotationBoList == null) {
+                continue;
+            }
+            final AnnotationBo sqlIdAnnotation = findAnnotation(annotationBoList, AnnotationKey.SQL_ID.getCode());
+            if (sqlIdAnnotation == null) {
+                continue;
+            }
+            final int hashCode = ((IntStringStringValue) sqlIdAnnotation.getValue()).getIntValue();
+            keySet.add(createMetaDataKey(getAgentKey(spanAlign), hashCode));
+        }
+        return keySet;
+    }
+
+    private Set<MetaDataKey> collectStringMetaDataKey(List<SpanAlign> spans) {
+        final Set<MetaDataKey> keySet = new HashSet<MetaDataKey>();
+        for (SpanAlign spanAlign : spans) {
+            final AgentKey agentKey = getAgentKey(spanAlign);
+            final List<AnnotationBo> annotationBoList = getAnnotationBoList(spanAlign);
+            if (annotationBoList != null) {
+                for (AnnotationBo annotationBo : findCachedStringAnnotation(annotationBoList)) {
+                    keySet.add(createMetaDataKey(agentKey, (Integer) annotationBo.getValue()));
+                }
+            }
+            if (spanAlign.isSpan()) {
+                final SpanBo spanBo = spanAlign.getSpanBo();
+                if (spanBo.hasException()) {
+                    keySet.add(createMetaDataKey(agentKey, spanBo.getExceptionId()));
+                }
+            } else {
+                final SpanEventBo spanEventBo = spanAlign.getSpanEventBo();
+                if (spanEventBo.hasException()) {
+                    keySet.add(createMetaDataKey(agentKey, spanEventBo.getExceptionId()));
+                }
+            }
+        }
+        return keySet;
+    }
+
+    private <T> List<T> getMetaData(Map<MetaDataKey, List<T>> metaDataMap, AgentKey agentKey, int id) {
+        final List<T> metaDataList = metaDataMap.get(createMetaDataKey(agentKey, id));
+        if (metaDataList == null) {
+            // every key of the call tree is collected beforehand
+            throw new IllegalStateException("metadata not resolved. agentId:" + agentKey.getAgentId() + ", id:" + id);
+        }
+        return metaDataList;
+    }
+
+    private List<AnnotationBo> getAnnotationBoList(SpanAlign spanAlign) {
+        if (spanAlign.isSpan()) {
+            return spanAlign.getSpanBo().getAnnotationBoList();
+        } else {
+            return spanAlign.getSpanEventBo().getAnnotationBoList();
+        }
+    }
 
     private void transitionAnnotation(List<SpanAlign> spans, AnnotationReplacementCallback annotationReplacementCallback) {
         for (SpanAlign spanAlign : spans) {
@@ -112,7 +237,7 @@ public class SpanServiceImpl implements SpanService {
         }
     }
 
-    private void transitionSqlId(final List<SpanAlign> spans) {
+    private void transitionSqlId(final List<SpanAlign> spans, final Map<MetaDataKey, List<SqlMetaDataBo>> sqlMetaDataMap) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(SpanAlign spanAlign, List<AnnotationBo> annotationBoList) {
@@ -127,7 +252,7 @@ public class SpanServiceImpl implements SpanService {
                 final IntStringStringValue sqlValue = (IntStringStringValue) sqlIdAnnotation.getValue();
                 final int hashCode = sqlValue.getIntValue();
                 final String sqlParam = sqlValue.getStringValue1();
-                final List<SqlMetaDataBo> sqlMetaDataList = sqlMetaDataDao.getSqlMetaData(agentKey.getAgentId(), agentKey.getAgentStartTime(), hashCode);
+                final List<SqlMetaDataBo> sqlMetaDataList = getMetaData(sqlMetaDataMap, agentKey, hashCode);
                 final int size = sqlMetaDataList.size();
                 if (size == 0) {
                     AnnotationBo api = new AnnotationBo();
@@ -220,14 +345,14 @@ public class SpanServiceImpl implements SpanService {
     }
 
 
-    private void transitionDynamicApiId(List<SpanAlign> spans) {
+    private void transitionDynamicApiId(List<SpanAlign> spans, final Map<MetaDataKey, List<ApiMetaDataBo>> apiMetaDataMap) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(SpanAlign spanAlign, List<AnnotationBo> annotationBoList) {
                 final AgentKey key = getAgentKey(spanAlign);
                 final int apiId = getApiId(spanAlign);
                 // may be able to get a more accurate data using agentIdentifier.
-                List<ApiMetaDataBo> apiMetaDataList = apiMetaDataDao.getApiMetaData(key.getAgentId(), key.getAgentStartTime(), apiId);
+                List<ApiMetaDataBo> apiMetaDataList = getMetaData(apiMetaDataMap, key, apiId);
                 int size = apiMetaDataList.size();
                 if (size == 0) {
                     AnnotationBo api = new AnnotationBo();
@@ -266,7 +391,7 @@ public class SpanServiceImpl implements SpanService {
         });
     }
 
-    private void transitionCachedString(List<SpanAlign> spans) {
+    private void transitionCachedString(List<SpanAlign> spans, final Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(SpanAlign spanAlign, List<AnnotationBo> annotationBoList) {
@@ -278,7 +403,7 @@ public class SpanServiceImpl implements SpanService {
                 for (AnnotationBo annotationBo : cachedStringAnnotation) {
                     final int cachedArgsKey = annotationBo.getKey();
                     int stringMetaDataId = (Integer) annotationBo.getValue();
-                    List<StringMetaDataBo> stringMetaList = stringMetaDataDao.getStringMetaData(key.getAgentId(), key.getAgentStartTime(), stringMetaDataId);
+                    List<StringMetaDataBo> stringMetaList = getMetaData(stringMetaDataMap, key, stringMetaDataId);
                     int size = stringMetaList.size();
                     if (size == 0) {
                         logger.warn("StringMetaData not Found {}/{}/{}", key.getAgentId(), stringMetaDataId, key.getAgentStartTime());
@@ -314,18 +439,18 @@ public class SpanServiceImpl implements SpanService {
         return findAnnotationBoList;
     }
 
-    private void transitionException(List<SpanAlign> spanAlignList) {
+    private void transitionException(List<SpanAlign> spanAlignList, Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap) {
         for (SpanAlign spanAlign : spanAlignList) {
             if (spanAlign.isSpan()) {
                 final SpanBo spanBo = spanAlign.getSpanBo();
                 if (spanBo.hasException()) {
-                    StringMetaDataBo stringMetaData = selectStringMetaData(spanBo.getAgentId(), spanBo.getExceptionId(), spanBo.getAgentStartTime());
+                    StringMetaDataBo stringMetaData = selectStringMetaData(stringMetaDataMap, spanBo.getAgentId(), spanBo.getExceptionId(), spanBo.getAgentStartTime());
                     spanBo.setExceptionClass(stringMetaData.getStringValue());
                 }
             } else {
                 final SpanEventBo spanEventBo = spanAlign.getSpanEventBo();
                 if (spanEventBo.hasException()) {
-                    StringMetaDataBo stringMetaData = selectStringMetaData(spanEventBo.getAgentId(), spanEventBo.getExceptionId(), spanEventBo.getAgentStartTime());
+                    StringMetaDataBo stringMetaData = selectStringMetaData(stringMetaDataMap, spanEventBo.getAgentId(), spanEventBo.getExceptionId(), spanEventBo.getAgentStartTime());
                     if (stringMetaData != null) {
                         spanEventBo.setExceptionClass(stringMetaData.getStringValue());
                     }
@@ -335,8 +460,8 @@ public class SpanServiceImpl implements SpanService {
 
     }
 
-    private StringMetaDataBo selectStringMetaData(String agentId, int cacheId, long agentStartTime) {
-        final List<StringMetaDataBo> metaDataList = stringMetaDataDao.getStringMetaData(agentId, agentStartTime, cacheId);
+    private StringMetaDataBo selectStringMetaData(Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap, String agentId, int cacheId, long agentStartTime) {
+        final List<StringMetaDataBo> metaDataList = getMetaData(stringMetaDataMap, new AgentKey(agentId, agentStartTime), cacheId);
         if (metaDataList == null || metaDataList.isEmpty()) {
             logger.warn("StringMetaData not Found agent:{}, cacheId{}, agentStartTime:{}", agentId, cacheId, agentStartTime);
             StringMetaDataBo stringMetaDataBo = new StringMetaDataBo(agentId, agentStartTime, cacheId);
@@ -359,6 +484,10 @@ public class SpanServiceImpl implements SpanService {
         }
     }
 
+    private MetaDataKey createMetaDataKey(AgentKey agentKey, int id) {
+        return new MetaDataKey(agentKey.getAgentId(), agentKey.getAgentStartTime(), id);
+    }
+
     private AgentKey getAgentKey(SpanAlign spanAlign) {
         if (spanAlign.isSpan()) {
             SpanBo spanBo = spanAlign.getSpanBo();
@@ -434,5 +563,25 @@ public class SpanServiceImpl implements SpanService {
     public void setSqlMetaDataDao(SqlMetaDataDao sqlMetaDataDao) {
         this.sqlMetaDataDao = sqlMetaDataDao;
     }
+
+    public void setTraceDao(TraceDao traceDao) {
+        this.traceDao = traceDao;
+    }
+
+    public void setApiMetaDataDao(ApiMetaDataDao apiMetaDataDao) {
+        this.apiMetaDataDao = apiMetaDataDao;
+    }
+
+    public void setStringMetaDataDao(StringMetaDataDao stringMetaDataDao) {
+        this.stringMetaDataDao = stringMetaDataDao;
+    }
+
+    public void setMetaDataCacheMaxSize(int metaDataCacheMaxSize) {
+        this.metaDataCacheMaxSize = metaDataCacheMaxSize;
+    }
+
+    public void setMetaDataCacheNegativeTtl(long metaDataCacheNegativeTtl) {
+        this.metaDataCacheNegativeTtl = metaDataCacheNegativeTtl;
+    }
 }
 
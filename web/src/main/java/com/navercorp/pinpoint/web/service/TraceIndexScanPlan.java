@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.TraceIndexBucket;
+
+/**
+ * Plans a limited scatter scan of ApplicationTraceIndex from the row count of each time slot.
+ *
+ * The scan goes newest first, so only the newest slots whose counts add up to the limit are needed.
+ * That part of the range is split at slot boundaries into partitions of about the same row count, to be scanned in parallel.
+ * Counts of the newest slot lag behind the index by the flush period of the collector :
+ * if the partitions do not fill the limit, the remaining range is scanned afterwards.
+ *
+ * As in the trace index scan, a partition excludes its from time and includes its to time.
+ */
+public class TraceIndexScanPlan {
+
+    private static final Comparator<TraceIndexBucket> NEWEST_FIRST = new Comparator<TraceIndexBucket>() {
+        @Override
+        public int compare(TraceIndexBucket o1, TraceIndexBucket o2) {
+            final long time1 = o1.getBucketTime();
+            final long time2 = o2.getBucketTime();
+            return time1 < time2 ? 1 : (time1 == time2 ? 0 : -1);
+        }
+    };
+
+    private final List<Range> partitionList;
+    private final Range remainingRange;
+    private final long totalCount;
+
+    private TraceIndexScanPlan(List<Range> partitionList, Range remainingRange, long totalCount) {
+        this.partitionList = partitionList;
+        this.remainingRange = remainingRange;
+        this.totalCount = totalCount;
+    }
+
+    public static TraceIndexScanPlan create(Range range, List<TraceIndexBucket> bucketList, int limit, int maxPartitionCount) {
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (bucketList == null) {
+            throw new NullPointerException("bucketList must not be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("negative limit:" + limit);
+        }
+        if (maxPartitionCount < 1) {
+            throw new IllegalArgumentException("maxPartitionCount must be greater than 0");
+        }
+        final List<TraceIndexBucket> sortedBucketList = new ArrayList<TraceIndexBucket>(bucketList);
+        Collections.sort(sortedBucketList, NEWEST_FIRST);
+
+        // the newest buckets which fill the limit
+        final long totalCount = getTotalCount(sortedBucketList);
+        long plannedCount = 0;
+        int plannedBucketCount = 0;
+        long plannedFrom = range.getFrom();
+        for (TraceIndexBucket bucket : sortedBucketList) {
+            plannedCount += bucket.getCount();
+            plannedBucketCount++;
+            if (plannedCount >= limit) {
+                plannedFrom = Math.max(range.getFrom(), bucket.getBucketTime() - 1);
+                break;
+            }
+        }
+
+        final List<Range> partitionList = new ArrayList<Range>(maxPartitionCount);
+        final long partitionCount = (plannedCount + maxPartitionCount - 1) / maxPartitionCount;
+        long partitionTo = range.getTo();
+        long count = 0;
+        // the oldest planned bucket always ends the last partition
+        for (int i = 0; i < plannedBucketCount - 1 && partitionList.size() < maxPartitionCount - 1; i++) {
+            final TraceIndexBucket bucket = sortedBucketList.get(i);
+            count += bucket.getCount();
+            final long partitionFrom = bucket.getBucketTime() - 1;
+            if (count >= partitionCount && partitionFrom > plannedFrom && partitionFrom < partitionTo) {
+                partitionList.add(new Range(partitionFrom, partitionTo));
+                partitionTo = partitionFrom;
+                count = 0;
+            }
+        }
+        if (plannedFrom < partitionTo) {
+            partitionList.add(new Range(plannedFrom, partitionTo));
+        }
+
+        final Range remainingRange = plannedFrom > range.getFrom() ? new Range(range.getFrom(), plannedFrom) : null;
+        return new TraceIndexScanPlan(partitionList, remainingRange, totalCount);
+    }
+
+    private static long getTotalCount(List<TraceIndexBucket> bucketList) {
+        long totalCount = 0;
+        for (TraceIndexBucket bucket : bucketList) {
+            totalCount += bucket.getCount();
+        }
+        return totalCount;
+    }
+
+    /**
+     * @return partitions newest first
+     */
+    public List<Range> getPartitionList() {
+        return partitionList;
+    }
+
+    /**
+     * @return the older part of the range which is not planned, null if the plan covers the whole range.
+     */
+    public Range getRemainingRange() {
+        return remainingRange;
+    }
+
+    /**
+     * @return rows of the whole range. buckets are counted as a whole, so the edges of the range are rounded to time slots.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceIndexScanPlan{" +
+                "partitionList=" + partitionList +
+                ", remainingRange=" + remainingRange +
+                ", totalCount=" + totalCount +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.Collection;
+
+import com.navercorp.pinpoint.web.filter.Filter;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+/**
+ * Narrows down transactions with the TraceSummary table before their spans are read from Traces.
+ */
+public interface TraceSummaryService {
+
+    /**
+     * @return transactions whose summary passes the filter, and transactions without summary.
+     * the spans of the returned transactions still have to be filtered.
+     */
+    Collection<TransactionId> selectFilterCandidates(Collection<TransactionId> transactionIdList, Filter filter);
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.navercorp.pinpoint.web.dao.TraceSummaryDao;
+import com.navercorp.pinpoint.web.filter.Filter;
+import com.navercorp.pinpoint.web.vo.TraceSummary;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+/**
+ * The summary of a span only keeps span events drawn on the server map, which are the only ones the filters accept.
+ * A transaction is kept when its summary is missing or incomplete, since the filter could reject it only for the spans
+ * missing from the summary. e.g. the summary was enabled in the middle of the transaction, or a put of the summary failed.
+ * Only the summaries rejected by the filter are checked against Traces : the others are kept anyway.
+ */
+@Service
+public class TraceSummaryServiceImpl implements TraceSummaryService {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Value("#{pinpointWebProps['web.traceSummary.enable'] ?: false}")
+    private boolean enable;
+
+    @Autowired
+    private TraceSummaryDao traceSummaryDao;
+
+    public void setEnable(boolean enable) {
+        this.enable = enable;
+    }
+
+    public void setTraceSummaryDao(TraceSummaryDao traceSummaryDao) {
+        this.traceSummaryDao = traceSummaryDao;
+    }
+
+    @Override
+    public Collection<TransactionId> selectFilterCandidates(Collection<TransactionId> transactionIdList, Filter filter) {
+        if (transactionIdList == null) {
+            throw new NullPointerException("transactionIdList must not be null");
+        }
+        if (filter == null) {
+            throw new NullPointerException("filter must not be null");
+        }
+        if (!enable || filter == Filter.NONE || transactionIdList.isEmpty()) {
+            return transactionIdList;
+        }
+
+        final List<TraceSummary> summaryList;
+        try {
+            summaryList = traceSummaryDao.selectSummaries(transactionIdList);
+        } catch (Exception e) {
+            logger.warn("selectSummaries fail. read all transactions. Caused:{}", e.getMessage(), e);
+            return transactionIdList;
+        }
+
+        final boolean[] candidate = new boolean[summaryList.size()];
+        final List<TransactionId> rejectedIdList = new ArrayList<TransactionId>();
+        final List<TraceSummary> rejectedSummaryList = new ArrayList<TraceSummary>();
+        int index = 0;
+        for (TransactionId transactionId : transactionIdList) {
+            final TraceSummary summary = summaryList.get(index);
+            if (summary.getSpanList().isEmpty() || filter.include(summary.getSpanList())) {
+                candidate[index] = true;
+            } else {
+                rejectedIdList.add(transactionId);
+                rejectedSummaryList.add(summary);
+            }
+            index++;
+        }
+
+        if (!rejectedIdList.isEmpty()) {
+            try {
+                traceSummaryDao.selectTraceCellCount(rejectedIdList, rejectedSummaryList);
+            } catch (Exception e) {
+                logger.warn("selectTraceCellCount fail. read all transactions. Caused:{}", e.getMessage(), e);
+                return transactionIdList;
+            }
+        }
+
+        final List<TransactionId> candidateList = new ArrayList<TransactionId>();
+        index = 0;
+        for (TransactionId transactionId : transactionIdList) {
+            final TraceSummary summary = summaryList.get(index);
+            if (candidate[index] || !summary.isComplete()) {
+                candidateList.add(transactionId);
+            }
+            index++;
+        }
+        logger.debug("filter candidates {}/{}", candidateList.size(), transactionIdList.size());
+        return candidateList;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.view;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotHandler;
+
+/**
+ * Writes scatter dots in the compact binary format (v=4) as they arrive, instead of building the whole json document.
+ *
+ * Agent ids and (transaction agentId, agentStartTime) pairs are sent once as dictionary records and referenced by index afterwards.
+ * acceptedTime is written as the difference from the previous dot, elapsed time and sequence as varints.
+ * The result range is only known after the last dot, so it is sent in the END record. A response without END was truncated.
+ *
+ * <pre>
+ * header : version(1)
+ * record : tag(1) body
+ *   END               (0) : dotCount(var32) resultFrom(svar64) resultTo(svar64)
+ *   AGENT             (1) : agentId(prefixed string)                        - indexed from 0 in arrival order
+ *   TRANSACTION_AGENT (2) : agentIndex(var32) agentStartTime(var64)         - indexed from 0 in arrival order
+ *   DOT_SUCCESS       (3) : agentIndex(var32) transactionAgentIndex(var32) acceptedTimeDelta(svar64) elapsed(var32) sequence(var64)
+ *   DOT_FAILED        (4) : same as DOT_SUCCESS
+ * </pre>
+ * The first acceptedTimeDelta is relative to the "to" of the requested range.
+ * Prefixed strings are svar32 length followed by UTF-8 bytes, same as {@link com.navercorp.pinpoint.common.buffer.Buffer#putPrefixedString(String)}.
+ */
+public class CompactScatterWriter implements DotHandler {
+
+    public static final String CONTENT_TYPE = "application/octet-stream";
+
+    public static final byte VERSION = 4;
+
+    public static final byte END = 0;
+    public static final byte AGENT = 1;
+    public static final byte TRANSACTION_AGENT = 2;
+    public static final byte DOT_SUCCESS = 3;
+    public static final byte DOT_FAILED = 4;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 8;
+    // tag + 2 var32 + svar64 + var32 + var64
+    private static final int MAX_DOT_RECORD_SIZE = 1 + BytesUtils.VINT_MAX_SIZE * 3 + BytesUtils.VLONG_MAX_SIZE * 2;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private int offset = 0;
+
+    private final Map<String, Integer> agentDictionary = new HashMap<String, Integer>();
+    private final Map<TransactionAgentKey, Integer> transactionAgentDictionary = new HashMap<TransactionAgentKey, Integer>();
+
+    private final long to;
+    private long lastAcceptedTime;
+    private int dotCount = 0;
+
+    public CompactScatterWriter(OutputStream outputStream, Range range) {
+        this(outputStream, range, DEFAULT_BUFFER_SIZE);
+    }
+
+    CompactScatterWriter(OutputStream outputStream, Range range, int bufferSize) {
+        if (outputStream == null) {
+            throw new NullPointerException("outputStream must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (bufferSize < MAX_DOT_RECORD_SIZE) {
+            throw new IllegalArgumentException("bufferSize must be greater than or equal to " + MAX_DOT_RECORD_SIZE);
+        }
+        this.outputStream = outputStream;
+        this.buffer = new byte[bufferSize];
+        this.to = range.getTo();
+        this.lastAcceptedTime = range.getTo();
+        this.buffer[offset++] = VERSION;
+    }
+
+    @Override
+    public void handleDot(Dot dot) throws IOException {
+        if (dot == null) {
+            throw new NullPointerException("dot must not be null");
+        }
+        final int agentIndex = getAgentIndex(dot.getAgentId());
+        final int transactionAgentIndex = getTransactionAgentIndex(dot.getTransactionAgentId(), dot.getTransactionAgentStartTime());
+
+        ensureCapacity(MAX_DOT_RECORD_SIZE);
+        buffer[offset++] = (dot.getSimpleExceptionCode() == Dot.SUCCESS_STATE) ? DOT_SUCCESS : DOT_FAILED;
+        offset = BytesUtils.writeVar32(agentIndex, buffer, offset);
+        offset = BytesUtils.writeVar32(transactionAgentIndex, buffer, offset);
+        offset = BytesUtils.writeVar64(BytesUtils.longToZigZag(dot.getAcceptedTime() - lastAcceptedTime), buffer, offset);
+        offset = BytesUtils.writeVar32(dot.getElapsedTime(), buffer, offset);
+        offset = BytesUtils.writeVar64(dot.getTransactionSequence(), buffer, offset);
+
+        lastAcceptedTime = dot.getAcceptedTime();
+        dotCount++;
+    }
+
+    private int getAgentIndex(String agentId) throws IOException {
+        final Integer index = agentDictionary.get(agentId);
+        if (index != null) {
+            return index;
+        }
+        final byte[] agentIdBytes = BytesUtils.toBytes(agentId);
+        ensureCapacity(1 + BytesUtils.VINT_MAX_SIZE + agentIdBytes.length);
+        buffer[offset++] = AGENT;
+        offset = BytesUtils.writeSVar32(agentIdBytes.length, buffer, offset);
+        offset = BytesUtils.writeBytes(buffer, offset, agentIdBytes);
+
+        final int newIndex = agentDictionary.size();
+        agentDictionary.put(agentId, newIndex);
+        return newIndex;
+    }
+
+    private int getTransactionAgentIndex(String agentId, long agentStartTime) throws IOException {
+        final int agentIndex = getAgentIndex(agentId);
+        final TransactionAgentKey key = new TransactionAgentKey(agentIndex, agentStartTime);
+        final Integer index = transactionAgentDictionary.get(key);
+        if (index != null) {
+            return index;
+        }
+        ensureCapacity(1 + BytesUtils.VINT_MAX_SIZE + BytesUtils.VLONG_MAX_SIZE);
+        buffer[offset++] = TRANSACTION_AGENT;
+        offset = BytesUtils.writeVar32(agentIndex, buffer, offset);
+        offset = BytesUtils.writeVar64(agentStartTime, buffer, offset);
+
+        final int newIndex = transactionAgentDictionary.size();
+        transactionAgentDictionary.put(key, newIndex);
+        return newIndex;
+    }
+
+    /**
+     * writes the END record and flushes the stream.
+     * the result range is the same as the json response : (-1, -1) without dots, (acceptedTime of the last dot, to) otherwise.
+     */
+    public void close() throws IOException {
+        ensureCapacity(1 + BytesUtils.VINT_MAX_SIZE + BytesUtils.VLONG_MAX_SIZE * 2);
+        buffer[offset++] = END;
+        offset = BytesUtils.writeVar32(dotCount, buffer, offset);
+        if (dotCount == 0) {
+            offset = BytesUtils.writeVar64(BytesUtils.longToZigZag(-1), buffer, offset);
+            offset = BytesUtils.writeVar64(BytesUtils.longToZigZag(-1), buffer, offset);
+        } else {
+            offset = BytesUtils.writeVar64(BytesUtils.longToZigZag(lastAcceptedTime), buffer, offset);
+            offset = BytesUtils.writeVar64(BytesUtils.longToZigZag(to), buffer, offset);
+        }
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    public int getDotCount() {
+        return dotCount;
+    }
+
+    private void ensureCapacity(int size) throws IOException {
+        if (offset + size > buffer.length) {
+            flushBuffer();
+        }
+        if (size > buffer.length) {
+            throw new IOException("record too large. size:" + size);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (offset > 0) {
+            outputStream.write(buffer, 0, offset);
+            offset = 0;
+        }
+    }
+
+    private static final class TransactionAgentKey {
+        private final int agentIndex;
+        private final long agentStartTime;
+
+        private TransactionAgentKey(int agentIndex, long agentStartTime) {
+            this.agentIndex = agentIndex;
+            this.agentStartTime = agentStartTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final TransactionAgentKey that = (TransactionAgentKey) o;
+            return agentIndex == that.agentIndex && agentStartTime == that.agentStartTime;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = agentIndex;
+            result = 31 * result + (int) (agentStartTime ^ (agentStartTime >>> 32));
+            return result;
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class FilterMapWrapSerializer extends JsonSerializer<FilterMapWrap> {
         jgen.writeObjectField("applicationMapData", wrap.getApplicationMap());
 
         jgen.writeNumberField("lastFetchedTimestamp", wrap.getLastFetchedTimestamp());
+        jgen.writeBooleanField("truncated", wrap.isTruncated());
 
         final List<ApplicationScatterScanResult> applicationScatterScanResult = wrap.getApplicationScatterScanResult();
 
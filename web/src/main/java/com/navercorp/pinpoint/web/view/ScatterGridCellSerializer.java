@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.view;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.ScatterGridCell;
+
+/**
+ * [x, y, count, type, [sample dot, ...]]
+ */
+public class ScatterGridCellSerializer extends JsonSerializer<ScatterGridCell> {
+    @Override
+    public void serialize(ScatterGridCell cell, JsonGenerator jgen, SerializerProvider provider) throws IOException, JsonProcessingException {
+        jgen.writeStartArray();
+        jgen.writeNumber(cell.getX());
+        jgen.writeNumber(cell.getY());
+        jgen.writeNumber(cell.getCount());
+        jgen.writeNumber(cell.getType());
+        jgen.writeStartArray();
+        for (Dot dot : cell.getSampleList()) {
+            provider.defaultSerializeValue(dot, jgen);
+        }
+        jgen.writeEndArray();
+        jgen.writeEndArray();
+    }
+}
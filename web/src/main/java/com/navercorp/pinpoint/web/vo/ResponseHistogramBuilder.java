@@ -70,6 +70,27 @@ public class ResponseHistogramBuilder {
         responseTime.addResponseTime(agentId, timeHistogram);
     }
 
+    /**
+     * adds the histograms of the given builder. both builders must not be built yet.
+     */
+    public void merge(ResponseHistogramBuilder responseHistogramBuilder) {
+        if (responseHistogramBuilder == null) {
+            throw new NullPointerException("responseHistogramBuilder must not be null");
+        }
+        if (this.responseTimeApplicationMap == null || responseHistogramBuilder.responseTimeApplicationMap == null) {
+            throw new IllegalStateException("already built");
+        }
+        for (Map.Entry<Long, Map<Application, ResponseTime>> timeEntry : responseHistogramBuilder.responseTimeApplicationMap.entrySet()) {
+            final Long timeStamp = timeEntry.getKey();
+            for (Map.Entry<Application, ResponseTime> applicationEntry : timeEntry.getValue().entrySet()) {
+                final ResponseTime responseTime = getResponseTime(applicationEntry.getKey(), timeStamp);
+                for (Map.Entry<String, TimeHistogram> agentEntry : applicationEntry.getValue().getAgentHistogram()) {
+                    responseTime.addResponseTime(agentEntry.getKey(), agentEntry.getValue());
+                }
+            }
+        }
+    }
+
     private ResponseTime getResponseTime(Application application, Long timeStamp) {
         Map<Application, ResponseTime> responseTimeMap = responseTimeApplicationMap.get(timeStamp);
         if (responseTimeMap == null) {
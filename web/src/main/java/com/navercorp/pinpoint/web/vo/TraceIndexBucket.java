@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.vo;
+
+/**
+ * Number of ApplicationTraceIndex rows of an application in one time slot, counted by the collector.
+ */
+public class TraceIndexBucket {
+
+    private final long bucketTime;
+    private final long count;
+
+    public TraceIndexBucket(long bucketTime, long count) {
+        this.bucketTime = bucketTime;
+        this.count = count;
+    }
+
+    public long getBucketTime() {
+        return bucketTime;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceIndexBucket{" +
+                "bucketTime=" + bucketTime +
+                ", count=" + count +
+                '}';
+    }
+}
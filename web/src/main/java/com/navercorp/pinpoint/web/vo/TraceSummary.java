@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.vo;
+
+import java.util.List;
+
+import com.navercorp.pinpoint.common.bo.SpanBo;
+
+/**
+ * Skeleton spans of a transaction read from TraceSummary, with the number of spans and span events written to Traces.
+ * A summary is complete only when it covers every span and span event of Traces. Otherwise some of them were not summarized,
+ * e.g. the summary was enabled in the middle of the transaction, a put failed or a collector does not write summaries.
+ */
+public class TraceSummary {
+
+    private final List<SpanBo> spanList;
+    private final int spanEventCount;
+
+    private int traceSpanCount;
+    private int traceSpanEventCount;
+
+    /**
+     * @param spanEventCount number of span events of the summarized spans and span chunks, including the ones not kept in the summary
+     */
+    public TraceSummary(List<SpanBo> spanList, int spanEventCount) {
+        if (spanList == null) {
+            throw new NullPointerException("spanList must not be null");
+        }
+        this.spanList = spanList;
+        this.spanEventCount = spanEventCount;
+    }
+
+    public List<SpanBo> getSpanList() {
+        return spanList;
+    }
+
+    public int getSpanEventCount() {
+        return spanEventCount;
+    }
+
+    public int getTraceSpanCount() {
+        return traceSpanCount;
+    }
+
+    public void setTraceSpanCount(int traceSpanCount) {
+        this.traceSpanCount = traceSpanCount;
+    }
+
+    public int getTraceSpanEventCount() {
+        return traceSpanEventCount;
+    }
+
+    public void setTraceSpanEventCount(int traceSpanEventCount) {
+        this.traceSpanEventCount = traceSpanEventCount;
+    }
+
+    public boolean isComplete() {
+        return spanList.size() == traceSpanCount && spanEventCount == traceSpanEventCount;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TraceSummary{");
+        sb.append("spanList=").append(spanList.size());
+        sb.append(", spanEventCount=").append(spanEventCount);
+        sb.append(", traceSpanCount=").append(traceSpanCount);
+        sb.append(", traceSpanEventCount=").append(traceSpanEventCount);
+        sb.append('}');
+        return sb.toString();
+    }
+}
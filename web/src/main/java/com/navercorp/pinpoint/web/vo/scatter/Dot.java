@@ -58,6 +58,18 @@ public class Dot {
         return transactionId.getFormatString();
     }
 
+    public String getTransactionAgentId() {
+        return transactionId.getAgentId();
+    }
+
+    public long getTransactionAgentStartTime() {
+        return transactionId.getAgentStartTime();
+    }
+
+    public long getTransactionSequence() {
+        return transactionId.getTransactionSequence();
+    }
+
     public int getExceptionCode() {
         return exceptionCode;
     }
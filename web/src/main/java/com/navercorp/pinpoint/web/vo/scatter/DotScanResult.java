@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import java.util.List;
+
+/**
+ * Dots of a scatter scan, with the number of transactions of the whole range when the collector counted them.
+ */
+public class DotScanResult {
+
+    public static final long UNKNOWN_TOTAL_COUNT = -1;
+
+    private final List<Dot> dotList;
+    private final long totalCount;
+
+    public DotScanResult(List<Dot> dotList, long totalCount) {
+        if (dotList == null) {
+            throw new NullPointerException("dotList must not be null");
+        }
+        this.dotList = dotList;
+        this.totalCount = totalCount;
+    }
+
+    public List<Dot> getDotList() {
+        return dotList;
+    }
+
+    /**
+     * @return rounded to time slots. {@link #UNKNOWN_TOTAL_COUNT} if not counted
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DotScanResult{");
+        sb.append("dotList=").append(dotList.size());
+        sb.append(", totalCount=").append(totalCount);
+        sb.append('}');
+        return sb.toString();
+    }
+}
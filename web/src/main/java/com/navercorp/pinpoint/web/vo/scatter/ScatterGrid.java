@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Scatter dots binned into a grid of acceptedTime x elapsedTime x success/failure.
+ * Only the cell counts and a few sample dots per cell are sent to the browser, instead of every dot.
+ *
+ * Cells are aligned to multiples of the group units, so that the grids of consecutive pages can be merged by the client.
+ */
+public class ScatterGrid {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 3;
+
+    private static final Comparator<ScatterGridCell> CELL_COMPARATOR = new Comparator<ScatterGridCell>() {
+        @Override
+        public int compare(ScatterGridCell o1, ScatterGridCell o2) {
+            if (o1.getX() != o2.getX()) {
+                return o1.getX() < o2.getX() ? -1 : 1;
+            }
+            if (o1.getY() != o2.getY()) {
+                return o1.getY() < o2.getY() ? -1 : 1;
+            }
+            return o1.getType() - o2.getType();
+        }
+    };
+
+    private final long xGroupUnit;
+    private final int yGroupUnit;
+    private final int sampleSize;
+
+    private final Map<CellKey, ScatterGridCell> cellMap = new HashMap<CellKey, ScatterGridCell>();
+    private int dotCount;
+
+    public ScatterGrid(long xGroupUnit, int yGroupUnit) {
+        this(xGroupUnit, yGroupUnit, DEFAULT_SAMPLE_SIZE);
+    }
+
+    public ScatterGrid(long xGroupUnit, int yGroupUnit, int sampleSize) {
+        if (xGroupUnit <= 0) {
+            throw new IllegalArgumentException("xGroupUnit must be greater than 0. xGroupUnit:" + xGroupUnit);
+        }
+        if (yGroupUnit <= 0) {
+            throw new IllegalArgumentException("yGroupUnit must be greater than 0. yGroupUnit:" + yGroupUnit);
+        }
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("negative sampleSize:" + sampleSize);
+        }
+        this.xGroupUnit = xGroupUnit;
+        this.yGroupUnit = yGroupUnit;
+        this.sampleSize = sampleSize;
+    }
+
+    public void addDot(Dot dot) {
+        if (dot == null) {
+            throw new NullPointerException("dot must not be null");
+        }
+        final long x = floor(dot.getAcceptedTime(), xGroupUnit);
+        final int y = (int) floor(dot.getElapsedTime(), yGroupUnit);
+        final int type = dot.getSimpleExceptionCode();
+
+        final CellKey cellKey = new CellKey(x, y, type);
+        ScatterGridCell cell = cellMap.get(cellKey);
+        if (cell == null) {
+            cell = new ScatterGridCell(x, y, type, sampleSize);
+            cellMap.put(cellKey, cell);
+        }
+        cell.addDot(dot);
+        dotCount++;
+    }
+
+    public void addDotList(List<Dot> dotList) {
+        if (dotList == null) {
+            throw new NullPointerException("dotList must not be null");
+        }
+        for (Dot dot : dotList) {
+            addDot(dot);
+        }
+    }
+
+    private static long floor(long value, long unit) {
+        final long remainder = value % unit;
+        if (remainder < 0) {
+            return value - remainder - unit;
+        }
+        return value - remainder;
+    }
+
+    @JsonProperty("xGroupUnit")
+    public long getXGroupUnit() {
+        return xGroupUnit;
+    }
+
+    @JsonProperty("yGroupUnit")
+    public int getYGroupUnit() {
+        return yGroupUnit;
+    }
+
+    @JsonProperty("dotCount")
+    public int getDotCount() {
+        return dotCount;
+    }
+
+    /**
+     * @return cells ordered by x, y and type.
+     */
+    @JsonProperty("cells")
+    public List<ScatterGridCell> getCellList() {
+        final List<ScatterGridCell> cellList = new ArrayList<ScatterGridCell>(cellMap.values());
+        Collections.sort(cellList, CELL_COMPARATOR);
+        return cellList;
+    }
+
+    private static final class CellKey {
+        private final long x;
+        private final int y;
+        private final int type;
+
+        private CellKey(long x, int y, int type) {
+            this.x = x;
+            this.y = y;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CellKey cellKey = (CellKey) o;
+
+            if (x != cellKey.x) return false;
+            if (y != cellKey.y) return false;
+            return type == cellKey.type;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (x ^ (x >>> 32));
+            result = 31 * result + y;
+            result = 31 * result + type;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.navercorp.pinpoint.web.view.ScatterGridCellSerializer;
+
+/**
+ * One cell of a {@link ScatterGrid}. Keeps the number of dots and the first few of them as samples.
+ */
+@JsonSerialize(using = ScatterGridCellSerializer.class)
+public class ScatterGridCell {
+
+    private final long x;
+    private final int y;
+    private final int type;
+    private final int sampleSize;
+
+    private int count;
+    private final List<Dot> sampleList;
+
+    public ScatterGridCell(long x, int y, int type, int sampleSize) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("negative sampleSize:" + sampleSize);
+        }
+        this.x = x;
+        this.y = y;
+        this.type = type;
+        this.sampleSize = sampleSize;
+        this.sampleList = new ArrayList<Dot>(sampleSize);
+    }
+
+    void addDot(Dot dot) {
+        count++;
+        if (sampleList.size() < sampleSize) {
+            sampleList.add(dot);
+        }
+    }
+
+    /**
+     * start of the acceptedTime slot.
+     */
+    public long getX() {
+        return x;
+    }
+
+    /**
+     * start of the elapsedTime slot.
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * {@link Dot#SUCCESS_STATE} or {@link Dot#FAILED_STATE}
+     */
+    public int getType() {
+        return type;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<Dot> getSampleList() {
+        return sampleList;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(64);
+        sb.append("ScatterGridCell{");
+        sb.append("x=").append(x);
+        sb.append(", y=").append(y);
+        sb.append(", type=").append(type);
+        sb.append(", count=").append(count);
+        sb.append('}');
+        return sb.toString();
+    }
+}
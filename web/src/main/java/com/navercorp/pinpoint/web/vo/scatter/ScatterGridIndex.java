@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * positions of the {@link ScatterGridCell} fields in its json array.
+ */
+public class ScatterGridIndex {
+    public static final ScatterGridIndex META_DATA = new ScatterGridIndex();
+//    "scatterIndex" : {
+//          "x":0,
+//          "y":1,
+//          "count":2,
+//          "type":3,
+//          "sample":4
+//     },
+
+    private static final int x = 0;
+    private static final int y = 1;
+    private static final int count = 2;
+    private static final int type = 3;
+    private static final int sample = 4;
+
+    @JsonProperty("x")
+    public int getX() {
+        return x;
+    }
+
+    @JsonProperty("y")
+    public int getY() {
+        return y;
+    }
+
+    @JsonProperty("count")
+    public int getCount() {
+        return count;
+    }
+
+    @JsonProperty("type")
+    public int getType() {
+        return type;
+    }
+
+    @JsonProperty("sample")
+    public int getSample() {
+        return sample;
+    }
+}
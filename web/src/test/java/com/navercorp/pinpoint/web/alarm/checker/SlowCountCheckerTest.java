@@ -21,9 +21,11 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.springframework.scheduling.annotation.AsyncResult;
 
 import com.navercorp.pinpoint.common.trace.ServiceType;
 import com.navercorp.pinpoint.web.alarm.CheckerCategory;
@@ -72,6 +74,11 @@ public class SlowCountCheckerTest {
                 
                 return list;
             }
+
+            @Override
+            public Future<List<ResponseTime>> selectResponseTimeAsync(Application application, Range range) {
+                return new AsyncResult<List<ResponseTime>>(selectResponseTime(application, range));
+            }
         };
     }
 
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.applicationmap;
+
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.dao.MapResponseDao;
+import com.navercorp.pinpoint.web.service.AgentInfoService;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.ResponseTime;
+
+public class ApplicationMapBuilderTest {
+
+    private final Range range = new Range(0, 60000);
+
+    private final Application caller = new Application("caller", ServiceType.STAND_ALONE);
+    private final Application callee = new Application("callee", ServiceType.STAND_ALONE);
+
+    @Test
+    public void responseTimeScansCancelledOnFailure() {
+        final StubFuture callerFuture = new StubFuture(false);
+        final StubFuture calleeFuture = new StubFuture(true);
+        final MapResponseDao mapResponseDao = mock(MapResponseDao.class);
+        when(mapResponseDao.selectResponseTimeAsync(caller, range)).thenReturn(callerFuture);
+        when(mapResponseDao.selectResponseTimeAsync(callee, range)).thenReturn(calleeFuture);
+
+        final ApplicationMapBuilder builder = new ApplicationMapBuilder(range);
+        try {
+            builder.build(createLinkDataDuplexMap(), mock(AgentInfoService.class), mapResponseDao);
+            Assert.fail("the failed scan must fail the build");
+        } catch (RuntimeException expected) {
+        }
+
+        verify(mapResponseDao, times(1)).selectResponseTimeAsync(caller, range);
+        verify(mapResponseDao, times(1)).selectResponseTimeAsync(callee, range);
+        // scans left after the failure are cancelled. cancelling a completed one has no effect
+        Assert.assertTrue(callerFuture.cancelled);
+        Assert.assertTrue(calleeFuture.cancelled);
+    }
+
+    @Test
+    public void responseTimeScannedOncePerNode() {
+        final MapResponseDao mapResponseDao = mock(MapResponseDao.class);
+        when(mapResponseDao.selectResponseTimeAsync(caller, range)).thenReturn(new StubFuture(false));
+        when(mapResponseDao.selectResponseTimeAsync(callee, range)).thenReturn(new StubFuture(false));
+
+        final ApplicationMap map = new ApplicationMapBuilder(range).build(createLinkDataDuplexMap(), mock(AgentInfoService.class), mapResponseDao);
+
+        Assert.assertEquals(2, map.getNodes().size());
+        verify(mapResponseDao, times(1)).selectResponseTimeAsync(caller, range);
+        verify(mapResponseDao, times(1)).selectResponseTimeAsync(callee, range);
+        verify(mapResponseDao, never()).selectResponseTime(any(Application.class), any(Range.class));
+    }
+
+    private LinkDataDuplexMap createLinkDataDuplexMap() {
+        final LinkDataMap linkDataMap = new LinkDataMap();
+        linkDataMap.addLinkData(caller, "callerAgent", callee, "calleeAgent", range.getFrom(), (short) 100, 1);
+        final LinkDataDuplexMap linkDataDuplexMap = new LinkDataDuplexMap();
+        for (LinkData linkData : linkDataMap.getLinkDataList()) {
+            linkDataDuplexMap.addSourceLinkData(linkData);
+        }
+        return linkDataDuplexMap;
+    }
+
+    private static class StubFuture implements Future<List<ResponseTime>> {
+
+        private final boolean fail;
+        private volatile boolean cancelled;
+
+        private StubFuture(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            this.cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public List<ResponseTime> get() throws ExecutionException {
+            if (fail) {
+                throw new ExecutionException(new IllegalStateException("scan failed"));
+            }
+            return new ArrayList<ResponseTime>();
+        }
+
+        @Override
+        public List<ResponseTime> get(long timeout, TimeUnit unit) throws ExecutionException {
+            return get();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.applicationmap.histogram;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.util.TimeWindowSampler;
+import com.navercorp.pinpoint.web.vo.Range;
+
+public class TimeHistogramMatrixTest {
+
+    private static final long MINUTE = 60000;
+
+    private final HistogramSchema schema = ServiceType.STAND_ALONE.getHistogramSchema();
+
+    @Test
+    public void addCallCount() {
+        final TimeHistogramMatrix matrix = new TimeHistogramMatrix(schema);
+        // enough time slots to grow the rows and the index
+        for (int i = 0; i < 1000; i++) {
+            final long timeStamp = (i % 100) * MINUTE;
+            matrix.addCallCount(timeStamp, schema.getFastSlot().getSlotTime(), 1);
+            matrix.addCallCount(timeStamp, schema.getErrorSlot().getSlotTime(), 2);
+        }
+        Assert.assertEquals(100, matrix.size());
+        Assert.assertEquals(3000, matrix.getTotalCount());
+
+        final List<TimeHistogram> timeHistogramList = matrix.getTimeHistogramList();
+        Collections.sort(timeHistogramList, TimeHistogram.TIME_STAMP_ASC_COMPARATOR);
+        Assert.assertEquals(100, timeHistogramList.size());
+        for (int i = 0; i < 100; i++) {
+            final TimeHistogram timeHistogram = timeHistogramList.get(i);
+            Assert.assertEquals(i * MINUTE, timeHistogram.getTimeStamp());
+            Assert.assertEquals(10, timeHistogram.getFastCount());
+            Assert.assertEquals(20, timeHistogram.getErrorCount());
+        }
+
+        final Histogram sum = new Histogram(schema);
+        matrix.sumTo(sum);
+        Assert.assertEquals(1000, sum.getFastCount());
+        Assert.assertEquals(2000, sum.getErrorCount());
+    }
+
+    @Test
+    public void addMatrix() {
+        final TimeHistogramMatrix source = new TimeHistogramMatrix(schema);
+        for (int i = 0; i < 10; i++) {
+            source.addCallCount(i * MINUTE, schema.getSlowSlot().getSlotTime(), 1);
+        }
+
+        final TimeWindow timeWindow = new TimeWindow(new Range(0, 10 * MINUTE), new FixedWindowSampler(5 * MINUTE));
+        final TimeHistogramMatrix refined = new TimeHistogramMatrix(schema);
+        refined.add(source, timeWindow);
+
+        Assert.assertEquals(2, refined.size());
+        for (TimeHistogram timeHistogram : refined.getTimeHistogramList()) {
+            Assert.assertEquals(5, timeHistogram.getSlowCount());
+        }
+    }
+
+    @Test
+    public void addHistogram() {
+        final TimeHistogram timeHistogram = new TimeHistogram(schema, MINUTE);
+        timeHistogram.addCallCount(schema.getNormalSlot().getSlotTime(), 3);
+        timeHistogram.addCallCount(schema.getVerySlowSlot().getSlotTime(), 4);
+
+        final TimeHistogramMatrix matrix = new TimeHistogramMatrix(schema);
+        matrix.add(MINUTE, timeHistogram);
+        matrix.add(MINUTE, timeHistogram);
+
+        final TimeHistogram result = matrix.getTimeHistogramList().get(0);
+        Assert.assertEquals(6, result.getNormalCount());
+        Assert.assertEquals(8, result.getVerySlowCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void schemaMismatch() {
+        final TimeHistogramMatrix matrix = new TimeHistogramMatrix(schema);
+        matrix.add(0, new Histogram(ServiceType.MEMCACHED));
+    }
+
+    private static class FixedWindowSampler implements TimeWindowSampler {
+        private final long windowSize;
+
+        private FixedWindowSampler(long windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        public long getWindowSize(Range range) {
+            return windowSize;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.cluster;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec;
+import com.navercorp.pinpoint.common.util.AgentMembershipCodec.Member;
+
+public class CollectorClusterInfoRepositoryTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void connectedAgents() {
+        final CollectorClusterInfoRepository repository = new CollectorClusterInfoRepository();
+        repository.put("collector1", profilers("app:agent1:100", "app:agent2:200", "other:agent3:300"));
+        repository.put("collector2", profilers("app:agent1:100"));
+
+        final Map<String, Long> connectedAgents = repository.getConnectedAgents("app");
+        Assert.assertEquals(2, connectedAgents.size());
+        Assert.assertEquals(Long.valueOf(100), connectedAgents.get("agent1"));
+        Assert.assertEquals(Long.valueOf(200), connectedAgents.get("agent2"));
+
+        // agent1 is still listed by collector2
+        repository.put("collector1", profilers("app:agent2:200"));
+        Assert.assertEquals(Long.valueOf(100), repository.getConnectedAgents("app").get("agent1"));
+        Assert.assertTrue(repository.getConnectedAgents("other").isEmpty());
+
+        repository.remove("collector2");
+        Assert.assertEquals(Collections.singletonMap("agent2", 200L), repository.getConnectedAgents("app"));
+    }
+
+    @Test
+    public void restartedAgent() {
+        final CollectorClusterInfoRepository repository = new CollectorClusterInfoRepository();
+        repository.put("collector1", profilers("app:agent1:100"));
+        repository.put("collector2", profilers("app:agent1:500"));
+        Assert.assertEquals(Long.valueOf(500), repository.getConnectedAgents("app").get("agent1"));
+
+        // the previous start disconnects
+        repository.remove("collector1");
+        Assert.assertEquals(Long.valueOf(500), repository.getConnectedAgents("app").get("agent1"));
+    }
+
+    @Test
+    public void membershipBuckets() {
+        final CollectorClusterInfoRepository repository = new CollectorClusterInfoRepository();
+        final String bucket0 = AgentMembershipCodec.bucketName("collector1", 0);
+        final String bucket1 = AgentMembershipCodec.bucketName("collector1", 1);
+        repository.putBucket(bucket0, members(new Member("app", "agent1", 100)));
+        repository.putBucket(bucket1, members(new Member("app", "agent2", 200)));
+        repository.put("collector2", profilers("app:agent1:100"));
+
+        Assert.assertEquals(Arrays.asList("collector1", "collector2"), repository.get("app", "agent1", 100));
+        Assert.assertEquals(Collections.singletonList("collector1"), repository.get("app", "agent2", 200));
+        Assert.assertTrue(repository.get("app", "agent2", 300).isEmpty());
+
+        // a bucket update leaves the other buckets of the collector
+        repository.putBucket(bucket0, members());
+        Assert.assertEquals(Collections.singletonList("collector2"), repository.get("app", "agent1", 100));
+        Assert.assertEquals(Collections.singletonList("collector1"), repository.get("app", "agent2", 200));
+
+        repository.remove(bucket1);
+        Assert.assertEquals(Collections.singletonMap("agent1", 100L), repository.getConnectedAgents("app"));
+    }
+
+    private byte[] members(Member... members) {
+        return AgentMembershipCodec.encode(Arrays.asList(members));
+    }
+
+    private byte[] profilers(String... profilerInfo) {
+        final StringBuilder builder = new StringBuilder();
+        for (String profiler : profilerInfo) {
+            builder.append(profiler).append("\r\n");
+        }
+        return builder.toString().getBytes(UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.web.vo.Range;
+
+public class HbaseAgentStatDaoTest {
+
+    private static final long HOUR = 1000 * 60 * 60;
+
+    @Test
+    public void splitRange_short() {
+        HbaseAgentStatDao dao = new HbaseAgentStatDao();
+        Range range = new Range(0, HOUR);
+
+        List<Range> sliceList = dao.splitRange(range);
+        Assert.assertEquals(1, sliceList.size());
+        Assert.assertSame(range, sliceList.get(0));
+    }
+
+    @Test
+    public void splitRange() {
+        HbaseAgentStatDao dao = new HbaseAgentStatDao();
+        Range range = new Range(1000, 1000 + 3 * HOUR + 1);
+
+        List<Range> sliceList = dao.splitRange(range);
+        Assert.assertEquals(3, sliceList.size());
+        // latest first and contiguous
+        Assert.assertEquals(range.getTo(), sliceList.get(0).getTo());
+        for (int i = 1; i < sliceList.size(); i++) {
+            Assert.assertEquals(sliceList.get(i - 1).getFrom(), sliceList.get(i).getTo());
+        }
+        Assert.assertEquals(range.getFrom(), sliceList.get(sliceList.size() - 1).getFrom());
+    }
+
+    @Test
+    public void splitRange_maxSliceCount() {
+        HbaseAgentStatDao dao = new HbaseAgentStatDao();
+        dao.setMaxScanSliceCount(4);
+        Range range = new Range(0, 48 * HOUR);
+
+        List<Range> sliceList = dao.splitRange(range);
+        Assert.assertEquals(4, sliceList.size());
+        Assert.assertEquals(12 * HOUR, sliceList.get(0).getRange());
+    }
+}
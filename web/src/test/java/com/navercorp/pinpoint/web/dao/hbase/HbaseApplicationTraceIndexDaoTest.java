@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.web.dao.hbase.HbaseApplicationTraceIndexDao.PartitionScatterExtractor;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+
+public class HbaseApplicationTraceIndexDaoTest {
+
+    @After
+    public void tearDown() {
+        CancellationTokenHolder.unbind();
+    }
+
+    @Test
+    public void mergePartitions() {
+        PartitionScatterExtractor newer = createPartition(500, 400);
+        PartitionScatterExtractor older = createPartition(300, 200);
+
+        List<Dot> dotList = HbaseApplicationTraceIndexDao.mergePartitions(Arrays.asList(newer, older), 10);
+
+        assertAcceptedTime(dotList, 500, 400, 300, 200);
+    }
+
+    @Test
+    public void mergePartitionsUpToLimit() {
+        PartitionScatterExtractor newer = createPartition(500, 400, 400);
+        PartitionScatterExtractor older = createPartition(300, 200);
+
+        // the whole row of the limit is kept
+        List<Dot> dotList = HbaseApplicationTraceIndexDao.mergePartitions(Arrays.asList(newer, older), 2);
+
+        assertAcceptedTime(dotList, 500, 400, 400);
+    }
+
+    @Test
+    public void olderPartitionsDroppedAfterTruncation() {
+        PartitionScatterExtractor newer = createPartition(500, 450);
+        newer.markTruncated();
+        PartitionScatterExtractor older = createPartition(300, 200);
+
+        List<Dot> dotList = HbaseApplicationTraceIndexDao.mergePartitions(Arrays.asList(newer, older), 10);
+
+        // the last dot is where the truncated partition stopped
+        assertAcceptedTime(dotList, 500, 450);
+    }
+
+    @Test
+    public void truncatedByTermination() throws Exception {
+        final CancellationToken token = new CancellationToken();
+        CancellationTokenHolder.bind(token);
+
+        PartitionScatterExtractor completed = new PartitionScatterExtractor(10);
+        completed.extractData(emptyScanner());
+        Assert.assertFalse(completed.isTruncated());
+
+        token.cancel();
+        PartitionScatterExtractor terminated = new PartitionScatterExtractor(10);
+        terminated.extractData(emptyScanner());
+        Assert.assertTrue(terminated.isTruncated());
+    }
+
+    @Test
+    public void notTruncatedWithoutToken() throws Exception {
+        PartitionScatterExtractor extractor = new PartitionScatterExtractor(10);
+        extractor.extractData(emptyScanner());
+        Assert.assertFalse(extractor.isTruncated());
+    }
+
+    private ResultScanner emptyScanner() {
+        ResultScanner scanner = mock(ResultScanner.class);
+        when(scanner.iterator()).thenReturn(Collections.<Result>emptyList().iterator());
+        return scanner;
+    }
+
+    private PartitionScatterExtractor createPartition(long... acceptedTimes) {
+        PartitionScatterExtractor extractor = new PartitionScatterExtractor(10);
+        for (long acceptedTime : acceptedTimes) {
+            extractor.handleDot(new Dot(new TransactionId("agentId", 0, acceptedTime), acceptedTime, 10, 0, "agentId"));
+        }
+        return extractor;
+    }
+
+    private void assertAcceptedTime(List<Dot> dotList, long... acceptedTimes) {
+        Assert.assertEquals(acceptedTimes.length, dotList.size());
+        for (int i = 0; i < acceptedTimes.length; i++) {
+            Assert.assertEquals(acceptedTimes[i], dotList.get(i).getAcceptedTime());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+
+public class MapStatisticsSlotCacheTest {
+
+    private static final long MINUTE = MapStatisticsSlotCache.SLOT_SIZE;
+    private static final String TABLE = "table";
+
+    private final Application caller = new Application("caller", ServiceType.STAND_ALONE);
+    private final Application callee = new Application("callee", ServiceType.STAND_ALONE);
+
+    private final long baseTime = 1000 * MINUTE;
+    private long currentTime;
+
+    private final List<Range> scanList = new ArrayList<Range>();
+
+    private final MapStatisticsSlotCache.SlotLoader slotLoader = new MapStatisticsSlotCache.SlotLoader() {
+        @Override
+        public Map<Long, LinkDataMap> load(Range slotRange) {
+            scanList.add(slotRange);
+            final Map<Long, LinkDataMap> slotMap = new HashMap<Long, LinkDataMap>();
+            for (long slot = slotRange.getFrom(); slot <= slotRange.getTo(); slot += MINUTE) {
+                // one call per minute
+                final LinkDataMap linkDataMap = new LinkDataMap();
+                linkDataMap.addLinkData(caller, "agent", callee, "callee", slot, (short) 100, 1);
+                slotMap.put(slot, linkDataMap);
+            }
+            return slotMap;
+        }
+    };
+
+    private MapStatisticsSlotCache slotCache;
+
+    @Before
+    public void setUp() {
+        currentTime = baseTime + 30000;
+        slotCache = new MapStatisticsSlotCache();
+        slotCache.setClock(new Clock() {
+            @Override
+            public long getTime() {
+                return currentTime;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        CancellationTokenHolder.unbind();
+    }
+
+    @Test
+    public void refreshScansHotSlotsOnly() {
+        final Range range = new Range(baseTime - 9 * MINUTE, currentTime);
+
+        Assert.assertEquals(10, select(range).getTotalCount());
+        Assert.assertEquals(new Range(baseTime - 9 * MINUTE, baseTime), scanList.get(0));
+        Assert.assertEquals(8, slotCache.size());
+
+        Assert.assertEquals(10, select(range).getTotalCount());
+        Assert.assertEquals(new Range(baseTime - MINUTE, baseTime), scanList.get(1));
+    }
+
+    @Test
+    public void slidingWindow() {
+        select(new Range(baseTime - 9 * MINUTE, currentTime));
+
+        currentTime += MINUTE;
+        final Range slidingRange = new Range(baseTime - 8 * MINUTE, currentTime);
+        Assert.assertEquals(10, select(slidingRange).getTotalCount());
+        // the slot which was hot on the previous refresh is scanned once more
+        Assert.assertEquals(new Range(baseTime - MINUTE, baseTime + MINUTE), scanList.get(1));
+    }
+
+    @Test
+    public void disjointApplication() {
+        final Range range = new Range(baseTime - 9 * MINUTE, currentTime);
+        select(range);
+        slotCache.select(TABLE, callee, range, new TimeWindow(range), slotLoader);
+
+        Assert.assertEquals(new Range(baseTime - 9 * MINUTE, baseTime), scanList.get(1));
+        Assert.assertEquals(16, slotCache.size());
+    }
+
+    @Test
+    public void memoryBound() {
+        final long slotMemorySize = MapStatisticsSlotCache.FRAGMENT_BYTES + MapStatisticsSlotCache.LINK_CALL_DATA_BYTES;
+        slotCache.setMaxMemory(slotMemorySize * 3);
+
+        final Range range = new Range(baseTime - 9 * MINUTE, currentTime);
+        Assert.assertEquals(10, select(range).getTotalCount());
+        Assert.assertEquals(3, slotCache.size());
+        Assert.assertEquals(slotMemorySize * 3, slotCache.getMemorySize());
+
+        // the newest cold slots are kept
+        Assert.assertEquals(10, select(range).getTotalCount());
+        Assert.assertEquals(new Range(baseTime - 9 * MINUTE, baseTime), scanList.get(1));
+    }
+
+    @Test
+    public void truncatedScanNotCached() {
+        final CancellationToken token = new CancellationToken();
+        token.markTruncated();
+        CancellationTokenHolder.bind(token);
+
+        final Range range = new Range(baseTime - 9 * MINUTE, currentTime);
+        Assert.assertEquals(10, select(range).getTotalCount());
+        Assert.assertEquals(0, slotCache.size());
+
+        CancellationTokenHolder.unbind();
+        select(range);
+        Assert.assertEquals(new Range(baseTime - 9 * MINUTE, baseTime), scanList.get(1));
+        Assert.assertEquals(8, slotCache.size());
+    }
+
+    @Test
+    public void failedScanNotCached() {
+        final Range range = new Range(baseTime - 9 * MINUTE, currentTime);
+        try {
+            slotCache.select(TABLE, caller, range, new TimeWindow(range), new MapStatisticsSlotCache.SlotLoader() {
+                @Override
+                public Map<Long, LinkDataMap> load(Range slotRange) {
+                    throw new IllegalStateException("scan failed");
+                }
+            });
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(0, slotCache.size());
+    }
+
+    private LinkDataMap select(Range range) {
+        return slotCache.select(TABLE, caller, range, new TimeWindow(range), slotLoader);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.interceptor;
+
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+import com.navercorp.pinpoint.common.hbase.CancellationTokenHolder;
+import com.navercorp.pinpoint.web.service.QueryCancellationRegistry;
+
+public class QueryCancellationInterceptorTest {
+
+    private final QueryCancellationRegistry registry = new QueryCancellationRegistry();
+    private final QueryCancellationInterceptor interceptor = new QueryCancellationInterceptor();
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(interceptor, "registry", registry);
+    }
+
+    @After
+    public void tearDown() {
+        CancellationTokenHolder.unbind();
+    }
+
+    @Test
+    public void complete() throws Exception {
+        final HttpServletRequest request = mockRequest("query");
+        final CancellationToken token = preHandle(request);
+        Assert.assertSame(token, CancellationTokenHolder.get());
+        Assert.assertEquals(1, registry.size());
+        Assert.assertFalse(token.isTerminated());
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        Assert.assertNull(CancellationTokenHolder.get());
+        Assert.assertEquals(0, registry.size());
+        // requests of the query left on other threads stop too
+        Assert.assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void clientDisconnected() throws Exception {
+        final HttpServletRequest request = mockRequest("query");
+        final CancellationToken token = preHandle(request);
+
+        // the container reports a closed connection as a failed write of the response
+        interceptor.afterCompletion(request, response, null, new IOException("Broken pipe"));
+
+        Assert.assertTrue(token.isCancelled());
+        Assert.assertEquals(0, registry.size());
+        Assert.assertNull(CancellationTokenHolder.get());
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        ReflectionTestUtils.setField(interceptor, "queryTimeout", 1L);
+        final HttpServletRequest request = mockRequest("query");
+        final CancellationToken token = preHandle(request);
+        Thread.sleep(10);
+        Assert.assertTrue(token.isTerminated());
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void noQueryId() throws Exception {
+        final HttpServletRequest request = mockRequest(null);
+        final CancellationToken token = preHandle(request);
+        Assert.assertEquals(0, registry.size());
+        Assert.assertNotEquals(CancellationToken.NO_DEADLINE, token.getDeadline());
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        Assert.assertTrue(token.isCancelled());
+    }
+
+    private HttpServletRequest mockRequest(String queryId) {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getParameter(QueryCancellationInterceptor.QUERY_ID_PARAMETER)).thenReturn(queryId);
+        return request;
+    }
+
+    private CancellationToken preHandle(HttpServletRequest request) throws Exception {
+        Assert.assertTrue(interceptor.preHandle(request, response, null));
+
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(request).setAttribute(anyString(), captor.capture());
+        final CancellationToken token = (CancellationToken) captor.getValue();
+        when(request.getAttribute(anyString())).thenReturn(token);
+        return token;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.bo.AnnotationBo;
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.trace.AnnotationKey;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.web.vo.TraceSummary;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+public class TraceSummaryMapperTest {
+
+    @Test
+    public void mapRow() throws Exception {
+        final TransactionId transactionId = new TransactionId("agent", 100, 1);
+        final byte[] rowKey = Bytes.add(new byte[TransactionId.DISTRIBUTE_HASH_SIZE], transactionId.getBytes());
+
+        // root span whose span events came in a span chunk
+        final byte[] rootSpan = writeSpan("front", "agent", -1, 300, 0, "/main", 2);
+        final Buffer chunk = new AutomaticBuffer();
+        chunk.put((byte) 0);
+        // span event count
+        chunk.putVar(3);
+        // summarized span event count
+        chunk.putVar(1);
+        chunk.put((short) 9050);
+        chunk.putPrefixedString("backend");
+        chunk.putVar(200);
+        chunk.put(true);
+        chunk.putSVar(5);
+        chunk.putPrefixedString("http://backend/api");
+        final byte[] chunkQualifier = BytesUtils.add(10L, (short) 1, -1, (short) -1);
+
+        // callee span without span event
+        final byte[] childSpan = writeSpan("backend", "agent2", 10, 150, 1, "/api", 0);
+
+        final Cell[] cells = new Cell[] {
+                createCell(rowKey, Bytes.toBytes(10L), rootSpan),
+                createCell(rowKey, chunkQualifier, chunk.getBuffer()),
+                createCell(rowKey, Bytes.toBytes(20L), childSpan)
+        };
+
+        final TraceSummary summary = new TraceSummaryMapper().mapRow(Result.create(cells), 0);
+        Assert.assertEquals(5, summary.getSpanEventCount());
+
+        final List<SpanBo> spanList = summary.getSpanList();
+        Assert.assertEquals(2, spanList.size());
+
+        final SpanBo root = spanList.get(0);
+        Assert.assertEquals(10L, root.getSpanId());
+        Assert.assertTrue(root.isRoot());
+        Assert.assertEquals("front", root.getApplicationId());
+        Assert.assertEquals("/main", root.getRpc());
+        Assert.assertEquals(300, root.getElapsed());
+        Assert.assertEquals("agent", root.getTraceAgentId());
+        Assert.assertEquals(1, root.getSpanEventBoList().size());
+
+        final SpanEventBo event = root.getSpanEventBoList().get(0);
+        Assert.assertEquals(9050, event.getServiceType());
+        Assert.assertEquals("backend", event.getDestinationId());
+        Assert.assertEquals(200, event.getEndElapsed());
+        Assert.assertTrue(event.hasException());
+        final AnnotationBo url = event.getAnnotationBoList().get(0);
+        Assert.assertEquals(AnnotationKey.HTTP_URL.getCode(), url.getKey());
+        Assert.assertEquals("http://backend/api", url.getValue());
+
+        final SpanBo child = spanList.get(1);
+        Assert.assertEquals(10L, child.getParentSpanId());
+        Assert.assertEquals(1, child.getErrCode());
+        Assert.assertNull(child.getSpanEventBoList());
+    }
+
+    private byte[] writeSpan(String applicationId, String agentId, long parentSpanId, int elapsed, int errCode, String rpc, int spanEventCount) {
+        final Buffer buffer = new AutomaticBuffer();
+        buffer.put((byte) 0);
+        buffer.putPrefixedString(applicationId);
+        buffer.putPrefixedString(agentId);
+        buffer.put((short) 1010);
+        buffer.putSVar(parentSpanId);
+        buffer.putVar(elapsed);
+        buffer.putSVar(errCode);
+        buffer.putPrefixedString(rpc);
+        buffer.putVar(spanEventCount);
+        // no span event is summarized
+        buffer.putVar(0);
+        return buffer.getBuffer();
+    }
+
+    private Cell createCell(byte[] rowKey, byte[] qualifier, byte[] value) {
+        return CellUtil.createCell(rowKey, HBaseTables.TRACE_SUMMARY_CF_SUMMARY, qualifier, 1000, KeyValue.Type.Put.getCode(), value);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.bo.AgentInfoBo;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+
+public class AgentInfoCacheTest {
+
+    @Test
+    public void agentInfoOfEachStart() {
+        final AgentInfoCache cache = new AgentInfoCache(10);
+        final AgentInfoBo first = createAgentInfo("agent", 100);
+        final AgentInfoBo second = createAgentInfo("agent", 200);
+        cache.putAgentInfo(first);
+        cache.putAgentInfo(second);
+
+        Assert.assertSame(first, cache.getAgentInfo("agent", 100));
+        Assert.assertSame(second, cache.getAgentInfo("agent", 200));
+        Assert.assertNull(cache.getAgentInfo("agent", 300));
+        Assert.assertNull(cache.getAgentInfo("agent2", 100));
+        // the first start is only known from putInitialAgentInfo
+        Assert.assertNull(cache.getInitialAgentInfo("agent"));
+    }
+
+    @Test
+    public void initialAgentInfo() {
+        final AgentInfoCache cache = new AgentInfoCache(10);
+        final AgentInfoBo initial = createAgentInfo("agent", 100);
+        cache.putInitialAgentInfo(initial);
+
+        Assert.assertSame(initial, cache.getInitialAgentInfo("agent"));
+        // also the information of that start
+        Assert.assertSame(initial, cache.getAgentInfo("agent", 100));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        final AgentInfoCache cache = new AgentInfoCache(2);
+        cache.putAgentInfo(createAgentInfo("agent1", 100));
+        cache.putAgentInfo(createAgentInfo("agent2", 100));
+        // agent1 is used after agent2
+        Assert.assertNotNull(cache.getAgentInfo("agent1", 100));
+
+        cache.putAgentInfo(createAgentInfo("agent3", 100));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNotNull(cache.getAgentInfo("agent1", 100));
+        Assert.assertNull(cache.getAgentInfo("agent2", 100));
+        Assert.assertNotNull(cache.getAgentInfo("agent3", 100));
+    }
+
+    @Test
+    public void disabled() {
+        final AgentInfoCache cache = new AgentInfoCache(0);
+        cache.putInitialAgentInfo(createAgentInfo("agent", 100));
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.getInitialAgentInfo("agent"));
+    }
+
+    static AgentInfoBo createAgentInfo(String agentId, long startTime) {
+        final AgentInfoBo.Builder builder = new AgentInfoBo.Builder();
+        builder.setAgentId(agentId);
+        builder.setApplicationName("application");
+        builder.setHostName("host");
+        builder.setServiceTypeCode(ServiceType.STAND_ALONE.getCode());
+        builder.setServiceType(ServiceType.STAND_ALONE);
+        builder.setStartTime(startTime);
+        return builder.build();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import static com.navercorp.pinpoint.web.service.AgentInfoCacheTest.createAgentInfo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.navercorp.pinpoint.common.bo.AgentInfoBo;
+import com.navercorp.pinpoint.common.bo.AgentLifeCycleBo;
+import com.navercorp.pinpoint.common.util.AgentLifeCycleState;
+import com.navercorp.pinpoint.web.dao.AgentInfoDao;
+import com.navercorp.pinpoint.web.dao.AgentLifeCycleDao;
+import com.navercorp.pinpoint.web.dao.ApplicationIndexDao;
+import com.navercorp.pinpoint.web.server.PinpointSocketManager;
+import com.navercorp.pinpoint.web.vo.AgentInfo;
+import com.navercorp.pinpoint.web.vo.ApplicationAgentList;
+
+public class AgentInfoServiceImplTest {
+
+    private static final String APPLICATION_NAME = "application";
+    private static final long TIMESTAMP = 1000;
+
+    private final StubAgentInfoDao agentInfoDao = new StubAgentInfoDao();
+    private AgentInfoServiceImpl agentInfoService;
+
+    @Before
+    public void setUp() {
+        final ApplicationIndexDao applicationIndexDao = mock(ApplicationIndexDao.class);
+        when(applicationIndexDao.selectAgentIds(APPLICATION_NAME)).thenReturn(Arrays.asList("connected", "notWritten", "disconnected"));
+
+        // "notWritten" is connected, but its AgentInfo row is not written yet
+        final Map<String, Long> connectedAgents = new HashMap<String, Long>();
+        connectedAgents.put("connected", 100L);
+        connectedAgents.put("notWritten", 200L);
+        final PinpointSocketManager pinpointSocketManager = mock(PinpointSocketManager.class);
+        when(pinpointSocketManager.getConnectedAgents(APPLICATION_NAME)).thenReturn(connectedAgents);
+
+        agentInfoDao.agentInfoMap.put("connected", createAgentInfo("connected", 100));
+        agentInfoDao.latestAgentInfoMap.put("notWritten", createAgentInfo("notWritten", 150));
+        agentInfoDao.latestAgentInfoMap.put("disconnected", createAgentInfo("disconnected", 50));
+        agentInfoDao.initialAgentInfoMap.put("connected", createAgentInfo("connected", 10));
+        agentInfoDao.initialAgentInfoMap.put("disconnected", createAgentInfo("disconnected", 20));
+
+        final AgentLifeCycleDao agentLifeCycleDao = mock(AgentLifeCycleDao.class);
+        when(agentLifeCycleDao.getAgentLifeCycleList(Arrays.asList("connected", "disconnected", "notWritten"), TIMESTAMP))
+                .thenReturn(Arrays.asList(createAgentLifeCycle("connected", 100), null, createAgentLifeCycle("notWritten", 150)));
+
+        agentInfoService = new AgentInfoServiceImpl();
+        ReflectionTestUtils.setField(agentInfoService, "applicationIndexDao", applicationIndexDao);
+        ReflectionTestUtils.setField(agentInfoService, "agentInfoDao", agentInfoDao);
+        ReflectionTestUtils.setField(agentInfoService, "agentLifeCycleDao", agentLifeCycleDao);
+        ReflectionTestUtils.setField(agentInfoService, "pinpointSocketManager", pinpointSocketManager);
+        agentInfoService.init();
+    }
+
+    @Test
+    public void getApplicationAgentList() {
+        final Map<String, AgentInfo> agentInfoMap = getAgentInfoMap(agentInfoService.getApplicationAgentList(APPLICATION_NAME, TIMESTAMP));
+        Assert.assertEquals(3, agentInfoMap.size());
+
+        final AgentInfo connected = agentInfoMap.get("connected");
+        Assert.assertEquals(100, connected.getStartTimestamp());
+        Assert.assertEquals(10, connected.getInitialStartTimestamp());
+        Assert.assertEquals(AgentLifeCycleState.RUNNING, connected.getStatus().getState());
+
+        final AgentInfo notWritten = agentInfoMap.get("notWritten");
+        Assert.assertEquals(150, notWritten.getStartTimestamp());
+        Assert.assertEquals(AgentLifeCycleState.RUNNING, notWritten.getStatus().getState());
+
+        final AgentInfo disconnected = agentInfoMap.get("disconnected");
+        Assert.assertEquals(50, disconnected.getStartTimestamp());
+        Assert.assertEquals(20, disconnected.getInitialStartTimestamp());
+        Assert.assertEquals(AgentLifeCycleState.UNKNOWN, disconnected.getStatus().getState());
+
+        // agents started at a known time are read together, the others are scanned together
+        Assert.assertEquals(1, agentInfoDao.startedRequestList.size());
+        Assert.assertEquals(connectedAgents(), agentInfoDao.startedRequestList.get(0));
+        Assert.assertEquals(1, agentInfoDao.scanRequestList.size());
+        Assert.assertEquals(Arrays.asList("disconnected", "notWritten"), agentInfoDao.scanRequestList.get(0));
+        Assert.assertEquals(1, agentInfoDao.initialRequestList.size());
+    }
+
+    @Test
+    public void getApplicationAgentListFromCache() {
+        agentInfoService.getApplicationAgentList(APPLICATION_NAME, TIMESTAMP);
+        final Map<String, AgentInfo> agentInfoMap = getAgentInfoMap(agentInfoService.getApplicationAgentList(APPLICATION_NAME, TIMESTAMP));
+        Assert.assertEquals(3, agentInfoMap.size());
+        Assert.assertEquals(10, agentInfoMap.get("connected").getInitialStartTimestamp());
+
+        // only the agent not written yet is read again
+        Assert.assertEquals(2, agentInfoDao.startedRequestList.size());
+        Assert.assertEquals(Collections.singletonMap("notWritten", 200L), agentInfoDao.startedRequestList.get(1));
+        // the first start of notWritten was not found
+        Assert.assertEquals(2, agentInfoDao.initialRequestList.size());
+        Assert.assertEquals(Arrays.asList("notWritten"), agentInfoDao.initialRequestList.get(1));
+    }
+
+    private Map<String, Long> connectedAgents() {
+        final Map<String, Long> connectedAgents = new HashMap<String, Long>();
+        connectedAgents.put("connected", 100L);
+        connectedAgents.put("notWritten", 200L);
+        return connectedAgents;
+    }
+
+    private Map<String, AgentInfo> getAgentInfoMap(ApplicationAgentList applicationAgentList) {
+        final Map<String, AgentInfo> agentInfoMap = new HashMap<String, AgentInfo>();
+        for (List<AgentInfo> agentInfoList : applicationAgentList.getApplicationAgentList().values()) {
+            for (AgentInfo agentInfo : agentInfoList) {
+                agentInfoMap.put(agentInfo.getAgentId(), agentInfo);
+            }
+        }
+        return agentInfoMap;
+    }
+
+    private AgentLifeCycleBo createAgentLifeCycle(String agentId, long startTimestamp) {
+        return new AgentLifeCycleBo(agentId, startTimestamp, startTimestamp, 0, AgentLifeCycleState.RUNNING);
+    }
+
+    /**
+     * records a copy of the arguments of each batched request
+     */
+    private static class StubAgentInfoDao implements AgentInfoDao {
+
+        private final Map<String, AgentInfoBo> agentInfoMap = new HashMap<String, AgentInfoBo>();
+        private final Map<String, AgentInfoBo> latestAgentInfoMap = new HashMap<String, AgentInfoBo>();
+        private final Map<String, AgentInfoBo> initialAgentInfoMap = new HashMap<String, AgentInfoBo>();
+
+        private final List<Map<String, Long>> startedRequestList = new ArrayList<Map<String, Long>>();
+        private final List<List<String>> scanRequestList = new ArrayList<List<String>>();
+        private final List<List<String>> initialRequestList = new ArrayList<List<String>>();
+
+        @Override
+        public AgentInfoBo getAgentInfo(String agentId, long timestamp) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AgentInfoBo getInitialAgentInfo(String agentId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AgentInfoBo> getAgentInfoList(List<String> agentIdList, long timestamp) {
+            scanRequestList.add(new ArrayList<String>(agentIdList));
+            final List<AgentInfoBo> result = new ArrayList<AgentInfoBo>();
+            for (String agentId : agentIdList) {
+                result.add(latestAgentInfoMap.get(agentId));
+            }
+            return result;
+        }
+
+        @Override
+        public List<AgentInfoBo> getAgentInfoList(Map<String, Long> agentStartTimestampMap) {
+            startedRequestList.add(new LinkedHashMap<String, Long>(agentStartTimestampMap));
+            final List<AgentInfoBo> result = new ArrayList<AgentInfoBo>();
+            for (Map.Entry<String, Long> entry : agentStartTimestampMap.entrySet()) {
+                final AgentInfoBo agentInfoBo = agentInfoMap.get(entry.getKey());
+                if (agentInfoBo != null && agentInfoBo.getStartTime() == entry.getValue()) {
+                    result.add(agentInfoBo);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<AgentInfoBo> getInitialAgentInfoList(List<String> agentIdList) {
+            initialRequestList.add(new ArrayList<String>(agentIdList));
+            final List<AgentInfoBo> result = new ArrayList<AgentInfoBo>();
+            for (String agentId : agentIdList) {
+                result.add(initialAgentInfoMap.get(agentId));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.service.DefaultServiceTypeRegistryService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.scatter.ApplicationScatterScanResult;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DotExtractorTest {
+
+    private final Range range = new Range(0, 60000 * 10);
+
+    private final DefaultApplicationFactory applicationFactory = new DefaultApplicationFactory();
+
+    public DotExtractorTest() {
+        ReflectionTestUtils.setField(applicationFactory, "registry", new DefaultServiceTypeRegistryService());
+    }
+
+    @Test
+    public void merge() {
+        final List<SpanBo> spanList = new ArrayList<SpanBo>();
+        for (int i = 0; i < 30; i++) {
+            // APP_C only shows up in the second half
+            final String applicationId = i < 15 ? "APP_" + (char) ('A' + i % 2) : "APP_" + (char) ('A' + i % 3);
+            spanList.add(FilteredMapServiceImplTest.createSpan(i, applicationId, "agent" + i % 4, i, -1, i * 1000L, i * 10, 0));
+        }
+
+        final DotExtractor serial = new DotExtractor(range, applicationFactory);
+        for (SpanBo span : spanList) {
+            serial.addDot(span);
+        }
+
+        final DotExtractor first = new DotExtractor(range, applicationFactory);
+        final DotExtractor second = new DotExtractor(range, applicationFactory);
+        for (int i = 0; i < spanList.size(); i++) {
+            final DotExtractor partition = i < 15 ? first : second;
+            partition.addDot(spanList.get(i));
+        }
+        first.merge(second);
+
+        final Map<Application, List<Dot>> serialDotMap = toDotMap(serial);
+        final Map<Application, List<Dot>> mergedDotMap = toDotMap(first);
+        Assert.assertEquals(3, mergedDotMap.size());
+        Assert.assertEquals(serialDotMap.keySet(), mergedDotMap.keySet());
+        for (Map.Entry<Application, List<Dot>> entry : serialDotMap.entrySet()) {
+            final List<Dot> serialDotList = entry.getValue();
+            final List<Dot> mergedDotList = mergedDotMap.get(entry.getKey());
+            Assert.assertEquals(serialDotList.size(), mergedDotList.size());
+            for (int i = 0; i < serialDotList.size(); i++) {
+                Assert.assertEquals(serialDotList.get(i).toString(), mergedDotList.get(i).toString());
+            }
+        }
+
+        final Application applicationC = new Application("APP_C", ServiceType.STAND_ALONE);
+        Assert.assertEquals(5, mergedDotMap.get(applicationC).size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void mergeNull() {
+        new DotExtractor(range, applicationFactory).merge(null);
+    }
+
+    private Map<Application, List<Dot>> toDotMap(DotExtractor dotExtractor) {
+        final Map<Application, List<Dot>> result = new HashMap<Application, List<Dot>>();
+        for (ApplicationScatterScanResult scanResult : dotExtractor.getApplicationScatterScanResult()) {
+            result.put(scanResult.getApplication(), scanResult.getScatterScanResult().getScatter());
+        }
+        return result;
+    }
+}
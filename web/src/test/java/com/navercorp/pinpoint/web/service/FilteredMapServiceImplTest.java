@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.service.DefaultServiceTypeRegistryService;
+import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkCallData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataDuplexMap;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.util.TimeWindowDownSampler;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.ResponseHistogramBuilder;
+import com.navercorp.pinpoint.web.vo.ResponseTime;
+import com.navercorp.pinpoint.web.vo.scatter.ApplicationScatterScanResult;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FilteredMapServiceImplTest {
+
+    private final Range range = new Range(0, 60000 * 10);
+
+    private final ServiceTypeRegistryService registry = new DefaultServiceTypeRegistryService();
+
+    @Test
+    public void partitionedMapEqualsSerialMap() {
+        final List<List<SpanBo>> transactionList = createTransactionList(100);
+
+        final FilteredMapServiceImpl serialService = createService(1, 10);
+        final FilteredMapServiceImpl partitionedService = createService(4, 10);
+        try {
+            Assert.assertNull(ReflectionTestUtils.getField(serialService, "executor"));
+            Assert.assertNotNull(ReflectionTestUtils.getField(partitionedService, "executor"));
+
+            final FilteredMapServiceImpl.MapPartition serial = buildMapPartition(serialService, transactionList);
+            final FilteredMapServiceImpl.MapPartition partitioned = buildMapPartition(partitionedService, transactionList);
+
+            final LinkDataDuplexMap serialLinkDataMap = serial.getLinkDataDuplexMap();
+            final LinkDataDuplexMap partitionedLinkDataMap = partitioned.getLinkDataDuplexMap();
+            Assert.assertTrue(serialLinkDataMap.getTotalCount() > 0);
+            Assert.assertEquals(serialLinkDataMap.getTotalCount(), partitionedLinkDataMap.getTotalCount());
+            Assert.assertEquals(serialLinkDataMap.size(), partitionedLinkDataMap.size());
+            Assert.assertEquals(toLinkString(serialLinkDataMap.getSourceLinkDataList()), toLinkString(partitionedLinkDataMap.getSourceLinkDataList()));
+            Assert.assertEquals(toLinkString(serialLinkDataMap.getTargetLinkDataList()), toLinkString(partitionedLinkDataMap.getTargetLinkDataList()));
+
+            final Map<Application, List<String>> serialDotMap = toDotMap(serial.getDotExtractor());
+            Assert.assertEquals(3, serialDotMap.size());
+            Assert.assertEquals(serialDotMap, toDotMap(partitioned.getDotExtractor()));
+
+            final ResponseHistogramBuilder serialHistogram = serial.getMapHistogramSummary();
+            final ResponseHistogramBuilder partitionedHistogram = partitioned.getMapHistogramSummary();
+            serialHistogram.build();
+            partitionedHistogram.build();
+            for (Application application : serialDotMap.keySet()) {
+                final List<String> serialResponseTime = toResponseTimeString(serialHistogram.getResponseTimeList(application));
+                Assert.assertFalse(serialResponseTime.isEmpty());
+                Assert.assertEquals(serialResponseTime, toResponseTimeString(partitionedHistogram.getResponseTimeList(application)));
+            }
+        } finally {
+            serialService.stop();
+            partitionedService.stop();
+        }
+    }
+
+    private FilteredMapServiceImpl createService(int parallelism, int partitionSize) {
+        final DefaultApplicationFactory applicationFactory = new DefaultApplicationFactory();
+        ReflectionTestUtils.setField(applicationFactory, "registry", registry);
+
+        final FilteredMapServiceImpl service = new FilteredMapServiceImpl();
+        ReflectionTestUtils.setField(service, "registry", registry);
+        ReflectionTestUtils.setField(service, "applicationFactory", applicationFactory);
+        ReflectionTestUtils.setField(service, "parallelism", parallelism);
+        ReflectionTestUtils.setField(service, "partitionSize", partitionSize);
+        service.start();
+        return service;
+    }
+
+    private FilteredMapServiceImpl.MapPartition buildMapPartition(FilteredMapServiceImpl service, List<List<SpanBo>> transactionList) {
+        final TimeWindow window = new TimeWindow(range, TimeWindowDownSampler.SAMPLER);
+        return service.buildMapPartition(range, range, window, transactionList);
+    }
+
+    private List<List<SpanBo>> createTransactionList(int size) {
+        final List<List<SpanBo>> transactionList = new ArrayList<List<SpanBo>>();
+        for (int i = 0; i < size; i++) {
+            final long acceptTime = i * 5000L;
+            final List<SpanBo> transaction = new ArrayList<SpanBo>();
+
+            final SpanBo root = createSpan(i, "APP_A", "agentA" + (i % 2), 1, -1, acceptTime, i * 37 % 4000, i % 10 == 0 ? 1 : 0);
+            root.addSpanEvent(createSpanEvent(ServiceType.NIMM_CLIENT, "APP_B", "agentB", 2, 10, i * 31 % 3000));
+            root.addSpanEvent(createSpanEvent(ServiceType.UNKNOWN_DB_EXECUTE_QUERY, "DB", "db:3306", -1, 20, i * 7 % 500));
+            transaction.add(root);
+            // the acceptor of every third call is missing, so the call is linked to an unknown node
+            if (i % 3 != 0) {
+                transaction.add(createSpan(i, "APP_B", "agentB", 2, 1, acceptTime + 10, i * 31 % 3000, 0));
+            }
+            if (i % 4 == 0) {
+                transaction.add(createSpan(i, "APP_C", "agentC", 3, 2, acceptTime + 20, i % 100, 0));
+            }
+            transactionList.add(transaction);
+        }
+        return transactionList;
+    }
+
+    static SpanBo createSpan(long sequence, String applicationId, String agentId, long spanId, long parentSpanId, long acceptTime, int elapsed, int errCode) {
+        final SpanBo span = new SpanBo();
+        span.setTraceAgentId("agentA");
+        span.setTraceAgentStartTime(1);
+        span.setTraceTransactionSequence(sequence);
+        span.setApplicationId(applicationId);
+        span.setServiceType(ServiceType.STAND_ALONE.getCode());
+        span.setAgentId(agentId);
+        span.setSpanID(spanId);
+        span.setParentSpanId(parentSpanId);
+        span.setStartTime(acceptTime);
+        span.setCollectorAcceptTime(acceptTime);
+        span.setElapsed(elapsed);
+        span.setErrCode(errCode);
+        return span;
+    }
+
+    private SpanEventBo createSpanEvent(ServiceType serviceType, String destinationId, String endPoint, long nextSpanId, int startElapsed, int elapsed) {
+        final SpanEventBo spanEvent = new SpanEventBo();
+        spanEvent.setServiceType(serviceType.getCode());
+        spanEvent.setDestinationId(destinationId);
+        spanEvent.setEndPoint(endPoint);
+        spanEvent.setNextSpanId(nextSpanId);
+        spanEvent.setStartElapsed(startElapsed);
+        spanEvent.setEndElapsed(elapsed);
+        return spanEvent;
+    }
+
+    private List<String> toLinkString(Collection<LinkData> linkDataList) {
+        final List<String> result = new ArrayList<String>();
+        for (LinkData linkData : linkDataList) {
+            for (LinkCallData linkCallData : linkData.getLinkCallDataMap().getLinkDataList()) {
+                for (TimeHistogram timeHistogram : linkCallData.getTimeHistogram()) {
+                    result.add(linkData.getFromApplication() + "->" + linkData.getToApplication() + " " + linkCallData + " " + timeHistogram);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private Map<Application, List<String>> toDotMap(DotExtractor dotExtractor) {
+        final Map<Application, List<String>> result = new HashMap<Application, List<String>>();
+        for (ApplicationScatterScanResult scanResult : dotExtractor.getApplicationScatterScanResult()) {
+            final List<String> dotList = new ArrayList<String>();
+            for (Dot dot : scanResult.getScatterScanResult().getScatter()) {
+                dotList.add(dot.toString());
+            }
+            result.put(scanResult.getApplication(), dotList);
+        }
+        return result;
+    }
+
+    private List<String> toResponseTimeString(List<ResponseTime> responseTimeList) {
+        final List<String> result = new ArrayList<String>();
+        for (ResponseTime responseTime : responseTimeList) {
+            for (Map.Entry<String, TimeHistogram> entry : responseTime.getAgentHistogram()) {
+                result.add(responseTime.getApplicationName() + " " + responseTime.getTimeStamp() + " " + entry.getKey() + " " + entry.getValue());
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
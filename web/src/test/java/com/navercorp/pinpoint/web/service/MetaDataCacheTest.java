@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
+
+public class MetaDataCacheTest {
+
+    private static final int MISSING_ID = -1;
+
+    private final MetaDataKey key1 = new MetaDataKey("agent", 1, 1);
+    private final MetaDataKey key2 = new MetaDataKey("agent", 1, 2);
+    private final MetaDataKey missingKey = new MetaDataKey("agent", 1, MISSING_ID);
+
+    private long currentTime;
+
+    private final List<List<MetaDataKey>> loadList = new ArrayList<List<MetaDataKey>>();
+
+    private final MetaDataCache.MetaDataLoader<String> loader = new MetaDataCache.MetaDataLoader<String>() {
+        @Override
+        public List<List<String>> load(List<MetaDataKey> keyList) {
+            loadList.add(keyList);
+            final List<List<String>> result = new ArrayList<List<String>>(keyList.size());
+            for (MetaDataKey key : keyList) {
+                if (key.getId() == MISSING_ID) {
+                    result.add(Collections.<String>emptyList());
+                } else {
+                    result.add(Collections.singletonList("metadata" + key.getId()));
+                }
+            }
+            return result;
+        }
+    };
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long getTime() {
+            return currentTime;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        currentTime = 1000;
+    }
+
+    @Test
+    public void loadMissesOnce() {
+        final MetaDataCache<String> cache = new MetaDataCache<String>(100, 60000, clock);
+
+        final Map<MetaDataKey, List<String>> result = cache.getAll(Arrays.asList(key1, key1, missingKey), loader);
+        Assert.assertEquals(Collections.singletonList("metadata1"), result.get(key1));
+        Assert.assertTrue(result.get(missingKey).isEmpty());
+        Assert.assertEquals(Arrays.asList(key1, missingKey), loadList.get(0));
+
+        cache.getAll(Arrays.asList(key1, key2, missingKey), loader);
+        Assert.assertEquals(Arrays.asList(key2), loadList.get(1));
+    }
+
+    @Test
+    public void negativeTtl() {
+        final MetaDataCache<String> cache = new MetaDataCache<String>(100, 60000, clock);
+        final Set<MetaDataKey> keys = new HashSet<MetaDataKey>(Arrays.asList(key1, missingKey));
+        cache.getAll(keys, loader);
+
+        currentTime += 60000;
+        cache.getAll(keys, loader);
+        Assert.assertEquals(Arrays.asList(missingKey), loadList.get(1));
+    }
+
+    @Test
+    public void maxSize() {
+        final MetaDataCache<String> cache = new MetaDataCache<String>(1, 60000, clock);
+        cache.getAll(Arrays.asList(key1, key2), loader);
+        Assert.assertEquals(1, cache.size());
+
+        cache.getAll(Arrays.asList(key1, key2), loader);
+        Assert.assertEquals(Arrays.asList(key1), loadList.get(1));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.hbase.CancellationToken;
+
+public class QueryCancellationRegistryTest {
+
+    @Test
+    public void unregisterOnCompletion() {
+        final QueryCancellationRegistry registry = new QueryCancellationRegistry();
+        final CancellationToken token = new CancellationToken();
+        registry.register("query", token);
+        Assert.assertEquals(1, registry.size());
+
+        registry.unregister("query", token);
+        Assert.assertEquals(0, registry.size());
+        Assert.assertFalse(registry.cancel("query"));
+        Assert.assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void unregisterSupersededQuery() {
+        final QueryCancellationRegistry registry = new QueryCancellationRegistry();
+        final CancellationToken first = new CancellationToken();
+        final CancellationToken second = new CancellationToken();
+        registry.register("query", first);
+        registry.register("query", second);
+        Assert.assertTrue(first.isCancelled());
+
+        // the superseded query completes after the new one was registered
+        registry.unregister("query", first);
+        Assert.assertEquals(1, registry.size());
+
+        Assert.assertTrue(registry.cancel("query"));
+        Assert.assertTrue(second.isCancelled());
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void removeTimedOutQuery() {
+        final QueryCancellationRegistry registry = new QueryCancellationRegistry();
+        final CancellationToken timedOut = new CancellationToken(System.currentTimeMillis() - 1);
+        final CancellationToken running = new CancellationToken();
+        registry.register("timedOut", timedOut);
+        registry.register("running", running);
+
+        Assert.assertEquals(1, registry.size());
+        Assert.assertFalse(registry.cancel("timedOut"));
+        Assert.assertTrue(registry.cancel("running"));
+    }
+}
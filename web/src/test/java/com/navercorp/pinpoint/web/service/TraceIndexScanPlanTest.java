@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.TraceIndexBucket;
+
+public class TraceIndexScanPlanTest {
+
+    private static final long MINUTE = 60000;
+
+    private final long baseTime = 1000 * MINUTE;
+
+    @Test
+    public void newestBucketsOnly() {
+        // 10 minutes of 100 rows
+        final Range range = new Range(baseTime - 10 * MINUTE, baseTime);
+        final TraceIndexScanPlan plan = TraceIndexScanPlan.create(range, createBucketList(10, 100), 250, 1);
+
+        Assert.assertEquals(Arrays.asList(new Range(baseTime - 3 * MINUTE - 1, baseTime)), plan.getPartitionList());
+        Assert.assertEquals(new Range(baseTime - 10 * MINUTE, baseTime - 3 * MINUTE - 1), plan.getRemainingRange());
+        Assert.assertEquals(1000, plan.getTotalCount());
+    }
+
+    @Test
+    public void partitions() {
+        final Range range = new Range(baseTime - 10 * MINUTE, baseTime);
+        final TraceIndexScanPlan plan = TraceIndexScanPlan.create(range, createBucketList(10, 100), 400, 2);
+
+        final List<Range> expected = Arrays.asList(
+                new Range(baseTime - 2 * MINUTE - 1, baseTime),
+                new Range(baseTime - 4 * MINUTE - 1, baseTime - 2 * MINUTE - 1));
+        Assert.assertEquals(expected, plan.getPartitionList());
+    }
+
+    @Test
+    public void limitNotReached() {
+        final Range range = new Range(baseTime - 10 * MINUTE, baseTime);
+        final TraceIndexScanPlan plan = TraceIndexScanPlan.create(range, createBucketList(10, 100), 5000, 1);
+
+        Assert.assertEquals(Arrays.asList(range), plan.getPartitionList());
+        Assert.assertNull(plan.getRemainingRange());
+    }
+
+    /**
+     * buckets of the slots before baseTime, oldest first
+     */
+    private List<TraceIndexBucket> createBucketList(int bucketCount, long count) {
+        final List<TraceIndexBucket> bucketList = new ArrayList<TraceIndexBucket>();
+        for (int i = bucketCount; i > 0; i--) {
+            bucketList.add(new TraceIndexBucket(baseTime - i * MINUTE, count));
+        }
+        return bucketList;
+    }
+}
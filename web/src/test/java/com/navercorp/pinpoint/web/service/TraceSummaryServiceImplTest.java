@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.web.dao.TraceSummaryDao;
+import com.navercorp.pinpoint.web.filter.Filter;
+import com.navercorp.pinpoint.web.vo.TraceSummary;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+public class TraceSummaryServiceImplTest {
+
+    private final List<TransactionId> checkedIdList = new ArrayList<TransactionId>();
+    private boolean failTraceCheck;
+
+    private final Filter slowFilter = new Filter() {
+        @Override
+        public boolean include(List<SpanBo> transaction) {
+            for (SpanBo spanBo : transaction) {
+                if (spanBo.getElapsed() >= 1000) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+
+    @Test
+    public void selectFilterCandidates() {
+        final TransactionId fast = new TransactionId("agent", 1, 1);
+        final TransactionId slow = new TransactionId("agent", 1, 2);
+        final TransactionId noSummary = new TransactionId("agent", 1, 3);
+
+        final TraceSummary emptySummary = new TraceSummary(Collections.<SpanBo>emptyList(), 0);
+        emptySummary.setTraceSpanCount(1);
+        final TraceSummaryServiceImpl service = createService(true, createSummary(10), createSummary(2000), emptySummary);
+
+        final Collection<TransactionId> candidates = service.selectFilterCandidates(Arrays.asList(fast, slow, noSummary), slowFilter);
+        Assert.assertEquals(Arrays.asList(slow, noSummary), candidates);
+    }
+
+    @Test
+    public void keepIncompleteSummary() {
+        final TransactionId missingSpan = new TransactionId("agent", 1, 1);
+        final TransactionId missingSpanEvent = new TransactionId("agent", 1, 2);
+        final TransactionId complete = new TransactionId("agent", 1, 3);
+
+        // the slow span of the transaction was written to Traces only
+        final TraceSummary missingSpanSummary = createSummary(10);
+        missingSpanSummary.setTraceSpanCount(2);
+        // a span chunk was written to Traces only
+        final TraceSummary missingSpanEventSummary = createSummary(10);
+        missingSpanEventSummary.setTraceSpanEventCount(3);
+
+        final TraceSummaryServiceImpl service = createService(true, missingSpanSummary, missingSpanEventSummary, createSummary(10));
+
+        final Collection<TransactionId> candidates = service.selectFilterCandidates(Arrays.asList(missingSpan, missingSpanEvent, complete), slowFilter);
+        Assert.assertEquals(Arrays.asList(missingSpan, missingSpanEvent), candidates);
+    }
+
+    @Test
+    public void checkRejectedSummaryOnly() {
+        final TransactionId fast = new TransactionId("agent", 1, 1);
+        final TransactionId slow = new TransactionId("agent", 1, 2);
+        final TransactionId noSummary = new TransactionId("agent", 1, 3);
+
+        final TraceSummary emptySummary = new TraceSummary(Collections.<SpanBo>emptyList(), 0);
+        final TraceSummaryServiceImpl service = createService(true, createSummary(10), createSummary(2000), emptySummary);
+
+        service.selectFilterCandidates(Arrays.asList(fast, slow, noSummary), slowFilter);
+        Assert.assertEquals(Arrays.asList(fast), checkedIdList);
+    }
+
+    @Test
+    public void skipTraceCheckWithoutRejectedSummary() {
+        final TransactionId slow = new TransactionId("agent", 1, 1);
+        final TraceSummaryServiceImpl service = createService(true, createSummary(2000));
+
+        final Collection<TransactionId> candidates = service.selectFilterCandidates(Arrays.asList(slow), slowFilter);
+        Assert.assertEquals(Arrays.asList(slow), candidates);
+        Assert.assertTrue(checkedIdList.isEmpty());
+    }
+
+    @Test
+    public void traceCheckFail() {
+        final List<TransactionId> transactionIdList = Arrays.asList(new TransactionId("agent", 1, 1));
+        final TraceSummaryServiceImpl service = createService(true, createSummary(10));
+        failTraceCheck = true;
+
+        Assert.assertSame(transactionIdList, service.selectFilterCandidates(transactionIdList, slowFilter));
+    }
+
+    @Test
+    public void disabled() {
+        final List<TransactionId> transactionIdList = Arrays.asList(new TransactionId("agent", 1, 1));
+        final TraceSummaryServiceImpl service = createService(false, createSummary(10));
+
+        Assert.assertSame(transactionIdList, service.selectFilterCandidates(transactionIdList, slowFilter));
+    }
+
+    private TraceSummary createSummary(int elapsed) {
+        final SpanBo spanBo = new SpanBo();
+        spanBo.setElapsed(elapsed);
+        final List<SpanBo> spanList = new ArrayList<SpanBo>();
+        spanList.add(spanBo);
+        final TraceSummary summary = new TraceSummary(spanList, 0);
+        summary.setTraceSpanCount(1);
+        return summary;
+    }
+
+    private TraceSummaryServiceImpl createService(boolean enable, final TraceSummary... summaries) {
+        final TraceSummaryServiceImpl service = new TraceSummaryServiceImpl();
+        service.setEnable(enable);
+        service.setTraceSummaryDao(new TraceSummaryDao() {
+            @Override
+            public List<TraceSummary> selectSummaries(Collection<TransactionId> transactionIdList) {
+                return Arrays.asList(summaries);
+            }
+
+            @Override
+            public void selectTraceCellCount(List<TransactionId> transactionIdList, List<TraceSummary> summaryList) {
+                // the summaries already have the counts of Traces
+                if (failTraceCheck) {
+                    throw new RuntimeException("test");
+                }
+                checkedIdList.addAll(transactionIdList);
+            }
+        });
+        return service;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.view;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+
+public class CompactScatterWriterTest {
+
+    @Test
+    public void writeAndDecode() throws Exception {
+        final Range range = new Range(1000, 5000);
+        final List<Dot> dotList = new ArrayList<Dot>();
+        dotList.add(new Dot(new TransactionId("agent1", 100, 1), 4900, 10, 0, "agent1"));
+        dotList.add(new Dot(new TransactionId("agent1", 100, 2), 4800, 20000, 1, "agent1"));
+        dotList.add(new Dot(new TransactionId("agent2", 200, 7), 4850, 30, 0, "agent2"));
+        dotList.add(new Dot(new TransactionId("agent1", 100, 3), 2000, 40, 0, "agent2"));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // small buffer to flush in the middle of the stream
+        final CompactScatterWriter writer = new CompactScatterWriter(outputStream, range, 64);
+        for (Dot dot : dotList) {
+            writer.handleDot(dot);
+        }
+        writer.close();
+
+        final Decoded decoded = decode(outputStream.toByteArray(), range.getTo());
+        Assert.assertEquals(dotList.size(), decoded.dotCount);
+        Assert.assertEquals(dotList.size(), decoded.dotList.size());
+        for (int i = 0; i < dotList.size(); i++) {
+            final Dot expected = dotList.get(i);
+            final Dot actual = decoded.dotList.get(i);
+            Assert.assertEquals(expected.getTransactionId(), actual.getTransactionId());
+            Assert.assertEquals(expected.getAgentId(), actual.getAgentId());
+            Assert.assertEquals(expected.getAcceptedTime(), actual.getAcceptedTime());
+            Assert.assertEquals(expected.getElapsedTime(), actual.getElapsedTime());
+            Assert.assertEquals(expected.getSimpleExceptionCode(), actual.getSimpleExceptionCode());
+        }
+        // each agent and transaction agent is sent once
+        Assert.assertEquals(2, decoded.agentList.size());
+        Assert.assertEquals(2, decoded.transactionAgentCount);
+        Assert.assertEquals(2000, decoded.resultFrom);
+        Assert.assertEquals(5000, decoded.resultTo);
+    }
+
+    @Test
+    public void empty() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CompactScatterWriter writer = new CompactScatterWriter(outputStream, new Range(1000, 5000));
+        writer.close();
+
+        final Decoded decoded = decode(outputStream.toByteArray(), 5000);
+        Assert.assertEquals(0, decoded.dotCount);
+        Assert.assertEquals(-1, decoded.resultFrom);
+        Assert.assertEquals(-1, decoded.resultTo);
+    }
+
+    @Test
+    public void smallerThanJson() throws Exception {
+        final Range range = new Range(0, 100000);
+        final List<Dot> dotList = new ArrayList<Dot>();
+        for (int i = 0; i < 1000; i++) {
+            final String agentId = "agent-" + (i % 4);
+            dotList.add(new Dot(new TransactionId(agentId, 1395798795017L, 1000000 + i), 100000 - i * 10, i % 300, 0, agentId));
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CompactScatterWriter writer = new CompactScatterWriter(outputStream, range);
+        for (Dot dot : dotList) {
+            writer.handleDot(dot);
+        }
+        writer.close();
+
+        final String json = new ObjectMapper().writeValueAsString(dotList);
+        Assert.assertTrue(outputStream.size() * 4 < json.length());
+    }
+
+    private Decoded decode(byte[] bytes, long to) {
+        final Buffer buffer = new FixedBuffer(bytes);
+        Assert.assertEquals(CompactScatterWriter.VERSION, buffer.readByte());
+
+        final Decoded decoded = new Decoded();
+        final List<TransactionId> transactionAgentList = new ArrayList<TransactionId>();
+        long acceptedTime = to;
+        while (true) {
+            final byte tag = buffer.readByte();
+            switch (tag) {
+                case CompactScatterWriter.AGENT:
+                    decoded.agentList.add(buffer.readPrefixedString());
+                    break;
+                case CompactScatterWriter.TRANSACTION_AGENT:
+                    final String transactionAgentId = decoded.agentList.get(buffer.readVarInt());
+                    transactionAgentList.add(new TransactionId(transactionAgentId, buffer.readVarLong(), 0));
+                    decoded.transactionAgentCount++;
+                    break;
+                case CompactScatterWriter.DOT_SUCCESS:
+                case CompactScatterWriter.DOT_FAILED:
+                    final String agentId = decoded.agentList.get(buffer.readVarInt());
+                    final TransactionId transactionAgent = transactionAgentList.get(buffer.readVarInt());
+                    acceptedTime += buffer.readSVarLong();
+                    final int elapsed = buffer.readVarInt();
+                    final long sequence = buffer.readVarLong();
+                    final TransactionId transactionId = new TransactionId(transactionAgent.getAgentId(), transactionAgent.getAgentStartTime(), sequence);
+                    final int exceptionCode = (tag == CompactScatterWriter.DOT_SUCCESS) ? Dot.EXCEPTION_NONE : 1;
+                    decoded.dotList.add(new Dot(transactionId, acceptedTime, elapsed, exceptionCode, agentId));
+                    break;
+                case CompactScatterWriter.END:
+                    decoded.dotCount = buffer.readVarInt();
+                    decoded.resultFrom = buffer.readSVarLong();
+                    decoded.resultTo = buffer.readSVarLong();
+                    Assert.assertEquals(bytes.length, buffer.getOffset());
+                    return decoded;
+                default:
+                    Assert.fail("unknown tag:" + tag);
+            }
+        }
+    }
+
+    private static class Decoded {
+        private final List<String> agentList = new ArrayList<String>();
+        private int transactionAgentCount;
+        private final List<Dot> dotList = new ArrayList<Dot>();
+        private int dotCount;
+        private long resultFrom;
+        private long resultTo;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.vo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.navercorp.pinpoint.common.bo.SpanBo;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.histogram.Histogram;
+
+public class ResponseHistogramBuilderTest {
+
+    private final Range range = new Range(0, 60000 * 10);
+    private final Application application = new Application("test", ServiceType.STAND_ALONE);
+
+    @Test
+    public void merge() {
+        final List<SpanBo> spanList = new ArrayList<SpanBo>();
+        for (int i = 0; i < 100; i++) {
+            spanList.add(createSpan("agent" + (i % 3), i * 37, i % 10 == 0 ? 1 : 0));
+        }
+
+        final ResponseHistogramBuilder serial = new ResponseHistogramBuilder(range);
+        for (SpanBo span : spanList) {
+            serial.addHistogram(application, span, span.getElapsed() * 1000L);
+        }
+
+        final ResponseHistogramBuilder first = new ResponseHistogramBuilder(range);
+        final ResponseHistogramBuilder second = new ResponseHistogramBuilder(range);
+        for (int i = 0; i < spanList.size(); i++) {
+            final SpanBo span = spanList.get(i);
+            final ResponseHistogramBuilder partition = i < 40 ? first : second;
+            partition.addHistogram(application, span, span.getElapsed() * 1000L);
+        }
+        first.merge(second);
+
+        serial.build();
+        first.build();
+        Assert.assertEquals(sum(serial.getResponseTimeList(application)), sum(first.getResponseTimeList(application)));
+        Assert.assertEquals(serial.getResponseTimeList(application).size(), first.getResponseTimeList(application).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mergeBuilt() {
+        final ResponseHistogramBuilder built = new ResponseHistogramBuilder(range);
+        built.build();
+        new ResponseHistogramBuilder(range).merge(built);
+    }
+
+    private Histogram sum(List<ResponseTime> responseTimeList) {
+        final Histogram histogram = new Histogram(ServiceType.STAND_ALONE);
+        for (ResponseTime responseTime : responseTimeList) {
+            histogram.add(responseTime.getApplicationResponseHistogram());
+        }
+        return histogram;
+    }
+
+    private SpanBo createSpan(String agentId, int elapsed, int errCode) {
+        final SpanBo span = new SpanBo();
+        span.setAgentId(agentId);
+        span.setElapsed(elapsed);
+        span.setErrCode(errCode);
+        return span;
+    }
+}
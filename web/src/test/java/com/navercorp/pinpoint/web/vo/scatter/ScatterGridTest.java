@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.scatter;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navercorp.pinpoint.web.vo.TransactionId;
+
+public class ScatterGridTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void addDot() {
+        ScatterGrid grid = new ScatterGrid(1000, 100, 2);
+        grid.addDot(createDot(1, 10500, 150, 0));
+        grid.addDot(createDot(2, 10999, 199, 0));
+        grid.addDot(createDot(3, 10000, 100, 0));
+        // failure goes to its own cell
+        grid.addDot(createDot(4, 10100, 120, 1));
+        grid.addDot(createDot(5, 11000, 150, 0));
+        grid.addDot(createDot(6, 10000, 200, 0));
+
+        Assert.assertEquals(6, grid.getDotCount());
+
+        List<ScatterGridCell> cellList = grid.getCellList();
+        Assert.assertEquals(4, cellList.size());
+
+        assertCell(cellList.get(0), 10000, 100, Dot.FAILED_STATE, 1);
+        assertCell(cellList.get(1), 10000, 100, Dot.SUCCESS_STATE, 3);
+        Assert.assertEquals(2, cellList.get(1).getSampleList().size());
+        assertCell(cellList.get(2), 10000, 200, Dot.SUCCESS_STATE, 1);
+        assertCell(cellList.get(3), 11000, 100, Dot.SUCCESS_STATE, 1);
+    }
+
+    @Test
+    public void serialize() throws Exception {
+        ScatterGrid grid = new ScatterGrid(1000, 100, 1);
+        grid.addDot(createDot(1, 10500, 150, 0));
+        grid.addDot(createDot(2, 10600, 160, 0));
+
+        String json = mapper.writeValueAsString(grid.getCellList());
+        Assert.assertEquals("[[10000,100,2,1,[[10500,150,\"agent^1^1\",1]]]]", json);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidGroupUnit() {
+        new ScatterGrid(0, 100);
+    }
+
+    private void assertCell(ScatterGridCell cell, long x, int y, int type, int count) {
+        Assert.assertEquals(x, cell.getX());
+        Assert.assertEquals(y, cell.getY());
+        Assert.assertEquals(type, cell.getType());
+        Assert.assertEquals(count, cell.getCount());
+    }
+
+    private Dot createDot(long sequence, long acceptedTime, int elapsedTime, int exceptionCode) {
+        return new Dot(new TransactionId("agent", 1, sequence), acceptedTime, elapsedTime, exceptionCode, "agent");
+    }
+}